@@ -0,0 +1,79 @@
+package me.limeice.gesture;
+
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+
+import me.limeice.gesture.core.FrameSource;
+
+/**
+ * 以{@link Choreographer}为帧信号的{@link FrameSource}
+ * <p>
+ * 每个线程一个实例，同一帧内所有接收者共用一次{@link Choreographer#postFrameCallback}。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class ChoreographerFrameSource implements FrameSource, Choreographer.FrameCallback {
+
+    private static final ThreadLocal<ChoreographerFrameSource> sInstance =
+            new ThreadLocal<ChoreographerFrameSource>() {
+                @Override
+                protected ChoreographerFrameSource initialValue() {
+                    return new ChoreographerFrameSource();
+                }
+            };
+
+    private final Choreographer mChoreographer;
+
+    private ArrayList<FrameCallback> mPending = new ArrayList<>();      // 已请求的接收者
+    private ArrayList<FrameCallback> mDispatching = new ArrayList<>();  // 正在回调的接收者
+    private boolean isPosted;                                           // 是否已投递帧回调
+
+    private ChoreographerFrameSource() {
+        mChoreographer = Choreographer.getInstance();
+    }
+
+    /**
+     * 获取当前线程的帧信号源，线程须已调用{@code Looper.prepare()}
+     *
+     * @return 帧信号源
+     */
+    @NonNull
+    public static ChoreographerFrameSource get() {
+        return sInstance.get();
+    }
+
+    @Override
+    public void requestFrame(@NonNull FrameCallback callback) {
+        if (mPending.contains(callback)) return;
+        mPending.add(callback);
+        if (!isPosted) {
+            isPosted = true;
+            mChoreographer.postFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void cancelFrame(@NonNull FrameCallback callback) {
+        mPending.remove(callback);
+        if (mPending.isEmpty() && isPosted) {
+            isPosted = false;
+            mChoreographer.removeFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        isPosted = false;
+        final ArrayList<FrameCallback> dispatching = mPending;
+        mPending = mDispatching;
+        mDispatching = dispatching;
+        for (int i = 0, size = dispatching.size(); i < size; i++) {
+            dispatching.get(i).onFrame(frameTimeNanos);
+        }
+        dispatching.clear();
+    }
+}
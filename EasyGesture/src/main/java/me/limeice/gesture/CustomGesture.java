@@ -0,0 +1,122 @@
+package me.limeice.gesture;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Objects;
+
+import me.limeice.gesture.core.GestureArena;
+import me.limeice.gesture.core.GestureMachine;
+import me.limeice.gesture.core.TouchSample;
+import me.limeice.gesture.standard.DefaultDetector;
+
+/**
+ * 自定义手势，由{@link GestureMachine.Builder}声明的转移表驱动
+ * <p>
+ * 用于三击、单击后拖动、按住后滑动、双指单击等内置检测器未覆盖的手势，
+ * 同一{@link GestureMachine.Table}可在多个视图间共享。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class CustomGesture implements DefaultDetector {
+
+    /**
+     * 自定义手势监听器
+     */
+    @FunctionalInterface
+    public interface OnCustomGestureListener {
+
+        /**
+         * 手势事件，位移等附加信息可通过{@link #getMachine()}读取
+         *
+         * @param gesture 转移上声明的手势
+         * @param e       触发转移的事件，超时触发时为按下事件
+         * @return {@code true}事件响应 ，{@code false}拒绝响应事件
+         */
+        boolean onGesture(int gesture, @NonNull MotionEvent e);
+    }
+
+    private final OnCustomGestureListener mListener;       // 监听器
+
+    private final GestureMachine mMachine;                  // 状态机
+
+    private final TouchSample mSample = new TouchSample();  // 当前事件采样
+
+    private MotionEvent mEvent;                             // 正在分发的事件
+
+    private final TouchSnapshot mDownSnapshot;              // 按下事件快照
+
+    private int mDownGeneration;                            // 按下采样更新次数
+
+    public CustomGesture(
+            @NonNull Context context,
+            @NonNull GestureMachine.Table table,
+            @NonNull OnCustomGestureListener listener
+    ) {
+        this(context, null, table, listener);
+    }
+
+    public CustomGesture(
+            @NonNull Context context,
+            @Nullable Handler handler,
+            @NonNull GestureMachine.Table table,
+            @NonNull OnCustomGestureListener listener
+    ) {
+        mListener = Objects.requireNonNull(listener, "The OnCustomGestureListener must not be null...");
+        mMachine = new GestureMachine(table, (gesture, e) -> mListener.onGesture(gesture, event(e)),
+                SystemClock::uptimeMillis, LooperScheduler.get(handler));
+        mMachine.setTouchSlop(GestureConfig.get(context).getTouchSlop());
+        mDownSnapshot = new TouchSnapshot(mMachine.getDownSample());
+    }
+
+    @Override
+    public boolean onTouchEvent(@NonNull MotionEvent e) {
+        mEvent = e;
+        final boolean isOnTouch = mMachine.onTouchEvent(MotionEvents.fill(mSample, e));
+        mEvent = null;
+        return isOnTouch;
+    }
+
+    /**
+     * 采样对应的触摸事件
+     *
+     * @param sample 采样
+     * @return 当前事件或按下事件，按下事件只在按下采样变化后重新构建
+     */
+    private MotionEvent event(TouchSample sample) {
+        if (sample == mSample && mEvent != null)
+            return mEvent;
+        if (mDownGeneration != mMachine.getDownGeneration()) {
+            mDownGeneration = mMachine.getDownGeneration();
+            mDownSnapshot.invalidate();
+        }
+        return mDownSnapshot.toMotionEvent();
+    }
+
+    /**
+     * 设置手势竞技场，发出手势前向竞技场宣告
+     *
+     * @param arena 手势竞技场，{@code null}时不参与竞争
+     * @return self
+     */
+    public CustomGesture setArena(@Nullable GestureArena arena) {
+        mMachine.setArena(arena);
+        return this;
+    }
+
+    /**
+     * 状态机，可读取当前状态、重心位移等
+     *
+     * @return 状态机
+     */
+    @NonNull
+    public GestureMachine getMachine() {
+        return mMachine;
+    }
+}
@@ -0,0 +1,186 @@
+package me.limeice.gesture;
+
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.view.ViewConfiguration;
+
+import androidx.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.Objects;
+
+/**
+ * 不可变的手势参数，由检测器共享
+ * <p>
+ * {@link #get(Context)}按屏幕密度缓存由{@link ViewConfiguration}换算的触摸阈值与快速滑动速度，
+ * 同一密度下的所有检测器共用一个实例，不再各自查询与换算；配置变化（如切换显示密度）时缓存失效，
+ * 之后创建的检测器重新读取，已创建的检测器保留原参数。需要单独调整的页面可通过{@link #buildUpon()}派生。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class GestureConfig {
+
+    private static final HashMap<Integer, GestureConfig> sConfigs = new HashMap<>(); // 按 densityDpi 缓存
+    private static boolean isRegistered;                    // 是否已监听配置变化
+
+    private static final ComponentCallbacks sCallbacks = new ComponentCallbacks() {
+        @Override
+        public void onConfigurationChanged(@NonNull Configuration newConfig) {
+            invalidate();
+        }
+
+        @Override
+        public void onLowMemory() {
+
+        }
+    };
+
+    private final int mTouchSlop;                           // 点击区域（像素）
+    private final int mDoubleTapSlop;                       // 双击区域（像素）
+    private final int mMinFlingVelocity;                    // 快速滑动最小速度（像素/秒）
+    private final int mMaxFlingVelocity;                    // 快速滑动最大速度（像素/秒）
+
+    private GestureConfig(Builder builder) {
+        mTouchSlop = builder.mTouchSlop;
+        mDoubleTapSlop = builder.mDoubleTapSlop;
+        mMinFlingVelocity = builder.mMinFlingVelocity;
+        mMaxFlingVelocity = builder.mMaxFlingVelocity;
+    }
+
+    /**
+     * 获取上下文所在屏幕密度下共享的参数
+     *
+     * @param context 上下文
+     * @return 参数
+     */
+    @NonNull
+    public static GestureConfig get(@NonNull Context context) {
+        Objects.requireNonNull(context, "The Context must not be null...");
+        final int density = context.getResources().getConfiguration().densityDpi;
+        synchronized (sConfigs) {
+            GestureConfig config = sConfigs.get(density);
+            if (config == null) {
+                final ViewConfiguration vc = ViewConfiguration.get(context);
+                config = new Builder()
+                        .setTouchSlop(vc.getScaledTouchSlop())
+                        .setDoubleTapSlop(vc.getScaledDoubleTapSlop())
+                        .setFlingVelocity(vc.getScaledMinimumFlingVelocity(), vc.getScaledMaximumFlingVelocity())
+                        .build();
+                sConfigs.put(density, config);
+                register(context);
+            }
+            return config;
+        }
+    }
+
+    /**
+     * 清空缓存，配置变化时自动调用
+     */
+    public static void invalidate() {
+        synchronized (sConfigs) {
+            sConfigs.clear();
+        }
+    }
+
+    private static void register(Context context) {
+        if (isRegistered) return;
+        final Context app = context.getApplicationContext();
+        if (app == null) return;    // 尚未关联应用时不监听，下次获取时再注册
+        app.registerComponentCallbacks(sCallbacks);
+        isRegistered = true;
+    }
+
+    /**
+     * 以当前参数为基础派生新的参数
+     *
+     * @return 构建器
+     */
+    @NonNull
+    public Builder buildUpon() {
+        return new Builder()
+                .setTouchSlop(mTouchSlop)
+                .setDoubleTapSlop(mDoubleTapSlop)
+                .setFlingVelocity(mMinFlingVelocity, mMaxFlingVelocity);
+    }
+
+    public int getTouchSlop() {
+        return mTouchSlop;
+    }
+
+    public int getDoubleTapSlop() {
+        return mDoubleTapSlop;
+    }
+
+    public int getMinFlingVelocity() {
+        return mMinFlingVelocity;
+    }
+
+    public int getMaxFlingVelocity() {
+        return mMaxFlingVelocity;
+    }
+
+    /**
+     * 参数构建器
+     */
+    public static final class Builder {
+
+        private int mTouchSlop;
+        private int mDoubleTapSlop;
+        private int mMinFlingVelocity;
+        private int mMaxFlingVelocity = Integer.MAX_VALUE;
+
+        /**
+         * 设置点击区域
+         *
+         * @param touchSlop 点击区域（像素）
+         * @return self
+         */
+        public Builder setTouchSlop(int touchSlop) {
+            if (touchSlop < 0)
+                throw new IllegalArgumentException("Negative touch slop: " + touchSlop);
+            mTouchSlop = touchSlop;
+            return this;
+        }
+
+        /**
+         * 设置双击区域
+         *
+         * @param doubleTapSlop 双击区域（像素）
+         * @return self
+         */
+        public Builder setDoubleTapSlop(int doubleTapSlop) {
+            if (doubleTapSlop < 0)
+                throw new IllegalArgumentException("Negative double tap slop: " + doubleTapSlop);
+            mDoubleTapSlop = doubleTapSlop;
+            return this;
+        }
+
+        /**
+         * 设置快速滑动速度范围
+         *
+         * @param minFlingVelocity 最小速度（像素/秒）
+         * @param maxFlingVelocity 最大速度（像素/秒），不小于最小速度
+         * @return self
+         */
+        public Builder setFlingVelocity(int minFlingVelocity, int maxFlingVelocity) {
+            if (minFlingVelocity < 0 || maxFlingVelocity < minFlingVelocity)
+                throw new IllegalArgumentException("Invalid fling velocity: "
+                        + minFlingVelocity + ", " + maxFlingVelocity);
+            mMinFlingVelocity = minFlingVelocity;
+            mMaxFlingVelocity = maxFlingVelocity;
+            return this;
+        }
+
+        /**
+         * 构建参数
+         *
+         * @return 参数
+         */
+        @NonNull
+        public GestureConfig build() {
+            return new GestureConfig(this);
+        }
+    }
+}
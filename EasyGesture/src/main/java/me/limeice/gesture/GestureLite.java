@@ -2,16 +2,27 @@ package me.limeice.gesture;
 
 import android.content.Context;
 import android.os.Handler;
-import android.os.Message;
+import android.os.SystemClock;
 import android.view.MotionEvent;
-import android.view.VelocityTracker;
-import android.view.ViewConfiguration;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.util.Objects;
 
+import me.limeice.gesture.core.AdaptiveTimeouts;
+import me.limeice.gesture.core.FlightRecorder;
+import me.limeice.gesture.core.FlingAnimator;
+import me.limeice.gesture.core.FrameSource;
+import me.limeice.gesture.core.GestureArena;
+import me.limeice.gesture.core.GestureLiteEngine;
+import me.limeice.gesture.core.GestureMetrics;
+import me.limeice.gesture.core.GesturePipeline;
+import me.limeice.gesture.core.GestureScheduler;
+import me.limeice.gesture.core.ListenerWatchdog;
+import me.limeice.gesture.core.PointerVelocityEstimator;
+import me.limeice.gesture.core.SampleDetector;
+import me.limeice.gesture.core.TouchSample;
 import me.limeice.gesture.standard.DefaultDetector;
 
 /**
@@ -24,15 +35,12 @@ import me.limeice.gesture.standard.DefaultDetector;
 public final class GestureLite implements DefaultDetector {
 
     /**
-     * 长按事件定义
+     * 手势监听
+     * <p>
+     * 带有{@link MotionEvent}的方法各有一个{@link TouchSnapshot}重载，检测器只回调快照重载，
+     * 其默认实现由快照构建事件后转发。只读取坐标、时间等字段时覆盖快照重载，
+     * 快照模式、按帧合并与流水线模式下即可不再构建{@link MotionEvent}。
      */
-    private static final int LONG_PRESS = 0x01;
-
-    /**
-     * 点击事件定义
-     */
-    private static final int TAP = 0x02;
-
     public interface OnGestureListener {
 
         /**
@@ -44,6 +52,15 @@ public final class GestureLite implements DefaultDetector {
 
         }
 
+        /**
+         * 长按事件，快照版本
+         *
+         * @param e 触摸事件快照
+         */
+        default void onLongPress(@NonNull TouchSnapshot e) {
+            onLongPress(e.toMotionEvent());
+        }
+
         /**
          * 双击事件
          *
@@ -53,6 +70,15 @@ public final class GestureLite implements DefaultDetector {
 
         }
 
+        /**
+         * 双击事件，快照版本
+         *
+         * @param e 触摸事件快照
+         */
+        default void onDoubleTap(@NonNull TouchSnapshot e) {
+            onDoubleTap(e.toMotionEvent());
+        }
+
         /**
          * 单击事件
          *
@@ -62,6 +88,70 @@ public final class GestureLite implements DefaultDetector {
 
         }
 
+        /**
+         * 单击事件，快照版本
+         *
+         * @param e 触摸事件快照
+         */
+        default void onTap(@NonNull TouchSnapshot e) {
+            onTap(e.toMotionEvent());
+        }
+
+        /**
+         * 预判单击抬起，仅在预判单击模式下回调，之后必定回调
+         * {@link #onTapConfirmed(MotionEvent)}或{@link #onTapRevoked(MotionEvent)}之一
+         *
+         * @param e 抬起事件
+         */
+        default void onTapUp(@NonNull MotionEvent e) {
+
+        }
+
+        /**
+         * 预判单击抬起，快照版本
+         *
+         * @param e 触摸事件快照
+         */
+        default void onTapUp(@NonNull TouchSnapshot e) {
+            onTapUp(e.toMotionEvent());
+        }
+
+        /**
+         * 预判单击成立
+         *
+         * @param e 单击的按下事件
+         */
+        default void onTapConfirmed(@NonNull MotionEvent e) {
+
+        }
+
+        /**
+         * 预判单击成立，快照版本
+         *
+         * @param e 触摸事件快照
+         */
+        default void onTapConfirmed(@NonNull TouchSnapshot e) {
+            onTapConfirmed(e.toMotionEvent());
+        }
+
+        /**
+         * 预判单击撤销，通常由双击或取消导致
+         *
+         * @param e 单击的按下事件
+         */
+        default void onTapRevoked(@NonNull MotionEvent e) {
+
+        }
+
+        /**
+         * 预判单击撤销，快照版本
+         *
+         * @param e 触摸事件快照
+         */
+        default void onTapRevoked(@NonNull TouchSnapshot e) {
+            onTapRevoked(e.toMotionEvent());
+        }
+
         /**
          * 按下事件，参见{@link MotionEvent}
          *
@@ -70,6 +160,16 @@ public final class GestureLite implements DefaultDetector {
          */
         boolean onDown(@NonNull MotionEvent e);
 
+        /**
+         * 按下事件，快照版本
+         *
+         * @param e 触摸事件快照
+         * @return {@code true}事件响应 ，{@code false}拒绝响应事件
+         */
+        default boolean onDown(@NonNull TouchSnapshot e) {
+            return onDown(e.toMotionEvent());
+        }
+
         /**
          * 滑动或拖动事件
          *
@@ -88,6 +188,24 @@ public final class GestureLite implements DefaultDetector {
             return false;
         }
 
+        /**
+         * 滑动或拖动事件，快照版本
+         *
+         * @param e1        起始触摸事件快照
+         * @param e2        终止触摸事件快照
+         * @param distanceX 事件产生x轴距离
+         * @param distanceY 事件产生y轴距离
+         * @return {@code true}事件响应 ，{@code false}拒绝响应事件
+         */
+        default boolean onScroll(
+                @NonNull TouchSnapshot e1,
+                @NonNull TouchSnapshot e2,
+                float distanceX,
+                float distanceY
+        ) {
+            return onScroll(e1.toMotionEvent(), e2.toMotionEvent(), distanceX, distanceY);
+        }
+
         /**
          * 缩放事件
          *
@@ -100,6 +218,47 @@ public final class GestureLite implements DefaultDetector {
             return false;
         }
 
+        /**
+         * 缩放事件，同时给出以双指按下时间距为基准的累计缩放系数，默认转发至
+         * {@link #onScale(float, float, float)}
+         * <p>
+         * 长时间缩放时，以按下时保存的{@code Matrix}乘以累计系数代替逐次{@code postScale}，可避免误差累积。
+         * 缩放中增减触点时累计系数保持连续，只在第二个触点按下时重新从 1 开始。
+         *
+         * @param scale      相对上一次回调的缩放系数
+         * @param totalScale 相对双指按下时的缩放系数
+         * @param focusX     缩放中心点横坐标
+         * @param focusY     缩放中心点纵坐标
+         * @return {@code true}事件响应 ，{@code false}拒绝响应事件
+         */
+        default boolean onScale(float scale, float totalScale, float focusX, float focusY) {
+            return onScale(scale, focusX, focusY);
+        }
+
+        /**
+         * 多指变换事件，增量变换依次对应{@code Matrix}的
+         * {@code postTranslate(translateX, translateY)}、{@code postScale(scale, scale, focusX, focusY)}、
+         * {@code postRotate(rotation, focusX, focusY)}
+         *
+         * @param scale      缩放系数
+         * @param rotation   旋转角度（度，顺时针为正）
+         * @param translateX 横向平移
+         * @param translateY 纵向平移
+         * @param focusX     当前重心横坐标
+         * @param focusY     当前重心纵坐标
+         * @return {@code true}事件响应 ，{@code false}拒绝响应事件
+         */
+        default boolean onTransform(
+                float scale,
+                float rotation,
+                float translateX,
+                float translateY,
+                float focusX,
+                float focusY
+        ) {
+            return false;
+        }
+
         /**
          * 快速滑动事件
          *
@@ -117,72 +276,268 @@ public final class GestureLite implements DefaultDetector {
         ) {
             return false;
         }
+
+        /**
+         * 快速滑动事件，快照版本
+         *
+         * @param e1        起始触摸事件快照
+         * @param e2        终止触摸事件快照
+         * @param velocityX 横向加速度
+         * @param velocityY 纵向加速度
+         * @return {@code true}事件响应 ，{@code false}拒绝响应事件
+         */
+        default boolean onFling(
+                @NonNull TouchSnapshot e1,
+                @NonNull TouchSnapshot e2,
+                float velocityX,
+                float velocityY
+        ) {
+            return onFling(e1.toMotionEvent(), e2.toMotionEvent(), velocityX, velocityY);
+        }
     }
 
+
+    private final OnGestureListener mListener;              // 主事件监听
+    private final GestureLiteEngine mEngine;                // 识别引擎
+    private PointerVelocityEstimator mVelocity;             // 速度估算器，首次启用快速滑动时创建
+    private int mVelocityStrategy = PointerVelocityEstimator.STRATEGY_LSQ2; // 速度估算策略
+    private boolean isScaleEnable = false;                  // 是否启用缩放手势，事件线程中的副本
+    private boolean isTransformEnable = false;              // 是否启用多指变换手势，事件线程中的副本
+    private boolean isScrollEnable = false;                 // 是否启用滑动手势，事件线程中的副本
+    private boolean isFlingEnable = false;                  // 是否启用快速滑动，事件线程中的副本
+    private boolean isLongPressEnable = false;              // 是否启用长按手势，事件线程中的副本
+    private boolean isDoubleTapEnable = false;              // 是否启用双击手势，事件线程中的副本
+    private boolean isHistoryEnable = false;                // 是否处理批量历史采样，事件线程中的副本
+    private boolean isSpeculativeTapEnable = false;         // 是否预判单击，事件线程中的副本
+    private int mDoubleTapTimeOut;                          // 双击超时（毫秒），事件线程中的副本
+    private int mLongPressTimeOut;                          // 长按超时（毫秒），事件线程中的副本
+    private int mPredictionTime;                            // 焦点预测时长（毫秒），事件线程中的副本
+    private FlingAnimator mFlingAnimator;                   // 快速滑动动画，事件线程中的副本
+    private FrameSource mFrameSource;                       // 帧信号源，事件线程中的副本
+    private GestureConfig mConfig;                          // 手势参数，与其他检测器共享
+    private final TouchSample mSample = new TouchSample();  // 当前事件采样
+
+    private final TouchSnapshot mSnapshot;                  // 当前事件快照，分发期间关联当前事件
+
+    private final TouchSnapshot mDownSnapshot;              // 按下事件快照
+
+    private final TouchSample mDownSample;                  // 流水线模式下事件线程中的按下采样
+
+    private final TouchSnapshot mFrameSnapshot;             // 按帧合并时的滑动采样快照
+
+    private boolean isSnapshotMode = false;                 // 是否以快照代替按下事件副本
+
+    private MotionEvent mEvent;                             // 正在分发的事件
+    private MotionEvent mCurrentDownEvent;
+    private int mDownGeneration;
+
+    private final GesturePipeline mPipeline;                // 识别流水线，非空时在识别线程中识别
+    private final int mTarget;                              // 在流水线中的目标
+    private final TouchSample mFirstSample;                 // 投递时的第一个采样
+    private final TouchSample mSecondSample;                // 投递时的第二个采样
+    private final TouchSnapshot mFirstSnapshot;             // 投递时第一个采样的快照
+    private final TouchSnapshot mSecondSnapshot;            // 投递时第二个采样的快照
+    private float mDeliveredFocusX, mDeliveredFocusY;       // 投递的预测焦点
+    private final GesturePipeline.Receiver mReceiver = this::deliver; // 投递接收者
+    private final SampleDetector mDetector = this::detect;  // 流水线中的检测器，带耗时统计
+
+    private volatile GestureMetrics mMetrics;               // 耗时统计，为空时不统计
+    private long mListenerTime;                             // 本次识别中监听器的耗时（纳秒）
+    private ListenerWatchdog mWatchdog;                     // 监听器超时看门狗，为空时不检查
+    private long mWatchdogBegin;                            // 监听器开始执行的时间（纳秒），供看门狗计时
+
     /**
-     * 监听分发处理器
+     * 识别结果转发，将采样还原为对应的{@link MotionEvent}
      */
-    private final static class GestureHandler extends Handler {
+    private final GestureLiteEngine.Callback mCallback = new GestureLiteEngine.Callback() {
 
-        private final GestureLite mGesture;
+        @Override
+        public void onLongPress(@NonNull TouchSample down) {
+            final long begin = beginCallback(eventTime(down));
+            mListener.onLongPress(snapshot(down));
+            endCallback(GestureMetrics.LONG_PRESS, begin);
+        }
 
-        GestureHandler(GestureLite gesture) {
-            super();
-            mGesture = gesture;
+        @Override
+        public void onDoubleTap(@NonNull TouchSample e) {
+            final long begin = beginCallback(eventTime(e));
+            mListener.onDoubleTap(snapshot(e));
+            endCallback(GestureMetrics.DOUBLE_TAP, begin);
         }
 
-        GestureHandler(GestureLite gesture, Handler handler) {
-            super(handler.getLooper());
-            mGesture = gesture;
+        @Override
+        public void onTap(@NonNull TouchSample e) {
+            final long begin = beginCallback(eventTime(e));
+            mListener.onTap(snapshot(e));
+            endCallback(GestureMetrics.TAP, begin);
         }
 
         @Override
-        public void handleMessage(Message msg) {
-            switch (msg.what) {
-                case LONG_PRESS:
-                    mGesture.dispatchLongPress();
-                    break;
-                case TAP:
-                    if (mGesture.isDoubleTapEnable && mGesture.mConfirmSingleTap) {
-                        mGesture.mListener.onTap(mGesture.mCurrentDownEvent);
-                    }
-                    break;
-                default:
-                    throw new RuntimeException("Unknown gesture" + msg);
-            }
+        public void onTapUp(@NonNull TouchSample e) {
+            final long begin = beginCallback(eventTime(e));
+            mListener.onTapUp(snapshot(e));
+            endCallback(GestureMetrics.TAP_UP, begin);
         }
-    }
 
-    private boolean isScaleEnable = false;                  // 是否启用缩放手势
-    private boolean isScrollEnable = false;                 // 是否启用滑动手势
-    private boolean isFlingEnable = false;                  // 是否启用快速滑动手势
-    private boolean isLongPressEnable = false;              // 是否启用长按事件
-    private boolean isDoubleTapEnable = false;              // 双击事件
+        @Override
+        public void onTapConfirmed(@NonNull TouchSample down) {
+            final long begin = beginCallback(eventTime(down));
+            mListener.onTapConfirmed(snapshot(down));
+            endCallback(GestureMetrics.TAP_CONFIRMED, begin);
+        }
 
-    private int mDoubleTapTimeOut = 300;                    // 双击按钮超时，default:300ms
-    private int mLongPressTimeOut = 500;                    // 长按超时，default:500ms
+        @Override
+        public void onTapRevoked(@NonNull TouchSample down) {
+            final long begin = beginCallback(eventTime(down));
+            mListener.onTapRevoked(snapshot(down));
+            endCallback(GestureMetrics.TAP_REVOKED, begin);
+        }
 
-    private final GestureHandler mHandler;                  // 时间分发处理器
-    private final OnGestureListener mListener;              // 主事件监听
-    private ScaleGestureDetector mScaleDetector = null;     // 缩放手势监听器
+        @Override
+        public boolean onDown(@NonNull TouchSample e) {
+            final long begin = beginCallback(eventTime(e));
+            final boolean isOnTouch = mListener.onDown(snapshot(e));
+            endCallback(GestureMetrics.DOWN, begin);
+            return isOnTouch;
+        }
 
-    private MotionEvent mCurrentDownEvent;
-    private MotionEvent mPreviousUpEvent;
+        @Override
+        public boolean onScroll(
+                @NonNull TouchSample down,
+                @NonNull TouchSample e,
+                float distanceX,
+                float distanceY
+        ) {
+            final long begin = beginCallback(eventTime(e));
+            final boolean isOnTouch = mListener.onScroll(snapshot(down), snapshot(e), distanceX, distanceY);
+            endCallback(GestureMetrics.SCROLL, begin);
+            return isOnTouch;
+        }
+
+        @Override
+        public boolean onScale(float scale, float totalScale, float focusX, float focusY) {
+            final long begin = beginCallback(eventTime(mSample));
+            final boolean isOnTouch = mListener.onScale(scale, totalScale, focusX, focusY);
+            endCallback(GestureMetrics.SCALE, begin);
+            return isOnTouch;
+        }
+
+        @Override
+        public boolean onTransform(
+                float scale,
+                float rotation,
+                float translateX,
+                float translateY,
+                float focusX,
+                float focusY
+        ) {
+            final long begin = beginCallback(eventTime(mSample));
+            final boolean isOnTouch = mListener.onTransform(
+                    scale, rotation, translateX, translateY, focusX, focusY);
+            endCallback(GestureMetrics.TRANSFORM, begin);
+            return isOnTouch;
+        }
+
+        @Override
+        public boolean onFling(
+                @NonNull TouchSample down,
+                @NonNull TouchSample e,
+                float velocityX,
+                float velocityY
+        ) {
+            final long begin = beginCallback(eventTime(e));
+            final boolean isOnTouch = mListener.onFling(snapshot(down), snapshot(e), velocityX, velocityY);
+            endCallback(GestureMetrics.FLING, begin);
+            return isOnTouch;
+        }
+    };
+
+    /**
+     * 流水线模式下的识别结果转发，在识别线程中复制采样并记录，由投递执行器批量回调监听器，
+     * 结果类型沿用{@link GestureMetrics}的监听器方法编号
+     */
+    private final GestureLiteEngine.Callback mPipelineCallback = new GestureLiteEngine.Callback() {
+
+        @Override
+        public void onLongPress(@NonNull TouchSample down) {
+            post(GestureMetrics.LONG_PRESS, down, null);
+        }
+
+        @Override
+        public void onDoubleTap(@NonNull TouchSample e) {
+            post(GestureMetrics.DOUBLE_TAP, e, null);
+        }
+
+        @Override
+        public void onTap(@NonNull TouchSample e) {
+            post(GestureMetrics.TAP, e, null);
+        }
+
+        @Override
+        public void onTapUp(@NonNull TouchSample e) {
+            post(GestureMetrics.TAP_UP, e, null);
+        }
+
+        @Override
+        public void onTapConfirmed(@NonNull TouchSample down) {
+            post(GestureMetrics.TAP_CONFIRMED, down, null);
+        }
 
-    private boolean mConfirmSingleTap;                      // 单击事件是否成立
-    private boolean mInLongPress;                           // 长按是否生效
-    private boolean mAlwaysInTapRegion;                     // 是否一直点击区域
-    private boolean mAlwaysInDoubleTapRegion;               // 是否一直点击区域
+        @Override
+        public void onTapRevoked(@NonNull TouchSample down) {
+            post(GestureMetrics.TAP_REVOKED, down, null);
+        }
+
+        @Override
+        public boolean onDown(@NonNull TouchSample e) {
+            post(GestureMetrics.DOWN, e, null);
+            return true;    // 不等待监听器，视为响应
+        }
+
+        @Override
+        public boolean onScroll(
+                @NonNull TouchSample down,
+                @NonNull TouchSample e,
+                float distanceX,
+                float distanceY
+        ) {
+            post(GestureMetrics.SCROLL, down, e).setValue(0, distanceX).setValue(1, distanceY);
+            return true;
+        }
+
+        @Override
+        public boolean onScale(float scale, float totalScale, float focusX, float focusY) {
+            post(GestureMetrics.SCALE, null, null)
+                    .setValue(0, scale).setValue(1, totalScale).setValue(2, focusX).setValue(3, focusY);
+            return true;
+        }
 
-    private float mDownFocusX, mDownFocusY, mLastFocusX, mLastFocusY;
-    private float mCurFocusX, mCurFocusY;
-    private long mLastTime;
-    private int mTouchSlopSquare;                           // 点击区域
-    private int mDoubleTouchSlopSquare;                     // 双击点击区域
+        @Override
+        public boolean onTransform(
+                float scale,
+                float rotation,
+                float translateX,
+                float translateY,
+                float focusX,
+                float focusY
+        ) {
+            post(GestureMetrics.TRANSFORM, null, null)
+                    .setValue(0, scale).setValue(1, rotation).setValue(2, translateX)
+                    .setValue(3, translateY).setValue(4, focusX).setValue(5, focusY);
+            return true;
+        }
 
-    private VelocityTracker mVelocityTracker;
-    private int mMinFlingVelocity;
-    private int mMaxFlingVelocity;
+        @Override
+        public boolean onFling(
+                @NonNull TouchSample down,
+                @NonNull TouchSample e,
+                float velocityX,
+                float velocityY
+        ) {
+            post(GestureMetrics.FLING, down, e).setValue(0, velocityX).setValue(1, velocityY);
+            return true;
+        }
+    };
 
     public GestureLite(@NonNull Context context, @NonNull OnGestureListener listener) {
         this(context, null, listener);
@@ -192,11 +547,62 @@ public final class GestureLite implements DefaultDetector {
             @NonNull Context context,
             @Nullable Handler handler,
             @NonNull OnGestureListener listener
+    ) {
+        this(context, listener, LooperScheduler.get(handler), null);
+    }
+
+    /**
+     * 流水线模式，识别在{@link GesturePipeline}的识别线程中进行，结果由其投递执行器批量回调
+     * <p>
+     * 事件线程只复制采样，{@link #onTouchEvent(MotionEvent)}总是返回{@code true}，
+     * {@link OnGestureListener#onDown}的返回值不再影响识别。回调中的事件由采样构建，
+     * 不含原始坐标、压力等信息，覆盖监听器的快照重载可不再构建。配置在识别线程中按提交顺序生效；竞技场、快速滑动动画与帧信号源
+     * 都在识别线程中使用，需只与同一流水线中的检测器共享。
+     *
+     * @param context  上下文
+     * @param listener 监听器
+     * @param pipeline 识别流水线
+     */
+    public GestureLite(
+            @NonNull Context context,
+            @NonNull OnGestureListener listener,
+            @NonNull GesturePipeline pipeline
+    ) {
+        this(context, listener,
+                Objects.requireNonNull(pipeline, "The GesturePipeline must not be null...").getScheduler(),
+                pipeline);
+    }
+
+    private GestureLite(
+            @NonNull Context context,
+            @NonNull OnGestureListener listener,
+            @NonNull GestureScheduler scheduler,
+            @Nullable GesturePipeline pipeline
     ) {
         Objects.requireNonNull(listener, "The OnGestureListener must not be null...");
         mListener = listener;
-        mHandler = handler != null ? new GestureHandler(this, handler) : new GestureHandler(this);
+        mPipeline = pipeline;
+        mEngine = new GestureLiteEngine(pipeline == null ? mCallback : mPipelineCallback,
+                SystemClock::uptimeMillis, scheduler, null);
+        mDoubleTapTimeOut = mEngine.getDoubleTapTimeOut();
+        mLongPressTimeOut = mEngine.getLongPressTimeOut();
+        mSnapshot = new TouchSnapshot(mSample);
+        // 流水线模式下引擎的按下采样在识别线程中写入，事件线程另存一份
+        mDownSample = pipeline != null ? new TouchSample() : mEngine.getDownSample();
+        mDownSnapshot = new TouchSnapshot(mDownSample);
+        mFrameSnapshot = new TouchSnapshot(mEngine.getFrameSample());
         init(context);
+        if (pipeline != null) {
+            mFirstSample = new TouchSample();
+            mSecondSample = new TouchSample();
+            mFirstSnapshot = new TouchSnapshot(mFirstSample);
+            mSecondSnapshot = new TouchSnapshot(mSecondSample);
+            mTarget = pipeline.register(mDetector);    // 之前的配置随注册一并对识别线程可见
+        } else {
+            mFirstSample = mSecondSample = null;
+            mFirstSnapshot = mSecondSnapshot = null;
+            mTarget = -1;
+        }
     }
 
     /**
@@ -205,246 +611,222 @@ public final class GestureLite implements DefaultDetector {
      * @param e 触摸事件
      * @return {@code true}响应事件 {@code false}拒绝响应事件
      */
-    @SuppressWarnings("ConstantConditions")
     @Override
     public boolean onTouchEvent(@NonNull MotionEvent e) {
-        final int action = e.getAction();
-        if (isFlingEnable) {
-            if (mVelocityTracker == null)
-                mVelocityTracker = VelocityTracker.obtain();
-            mVelocityTracker.addMovement(e);
-        }
-        //计算中心点
-        final boolean pointerUp = (action & MotionEvent.ACTION_MASK) == MotionEvent.ACTION_POINTER_UP;
-        final int skipIndex = pointerUp ? e.getActionIndex() : -1;
-        float sumX = 0, sumY = 0;
-        final int count = e.getPointerCount();
-        for (int i = 0; i < count; i++) {
-            if (skipIndex == i) continue;
-            sumX += e.getX(i);
-            sumY += e.getY(i);
-        }
-        final int div = pointerUp ? count - 1 : count;
-        mCurFocusX = sumX / div;
-        mCurFocusY = sumY / div;
-
-        boolean isOnTouch = false;
-        switch (MotionEvent.ACTION_MASK & action) {
-            case MotionEvent.ACTION_DOWN:
-                isOnTouch = mListener.onDown(e);
-                mInLongPress = false;
-                mConfirmSingleTap = true;
-                mAlwaysInTapRegion = true;
-                if (isOnTouch && isLongPressEnable) {
-                    mHandler.removeMessages(LONG_PRESS);
-                    mHandler.sendEmptyMessageDelayed(LONG_PRESS, mLongPressTimeOut);
-                }
-                if (isDoubleTapEnable && mAlwaysInDoubleTapRegion
-                        && mPreviousUpEvent != null
-                        && System.currentTimeMillis() - mLastTime < mDoubleTapTimeOut) {
-                    mListener.onDoubleTap(e);
-                    return false;
-                }
-                mDownFocusX = mLastFocusX = mCurFocusX;
-                mDownFocusY = mLastFocusY = mCurFocusY;
-                mAlwaysInDoubleTapRegion = true;
-                if (mCurrentDownEvent != null) {
-                    mCurrentDownEvent.recycle();
-                }
+        // 速度估算与焦点预测总是使用历史采样
+        MotionEvents.fill(mSample, e, isFlingEnable || mPredictionTime > 0 || isHistoryEnable);
+        final GestureMetrics metrics = mMetrics;
+        if (metrics != null)
+            metrics.recordEvent(mSample);
+        if (mPipeline != null) {
+            if (mSample.getActionMasked() == TouchSample.ACTION_DOWN) {
+                mDownSample.copyFrom(mSample);
+                mDownSnapshot.invalidate();
+            }
+            mPipeline.submit(mTarget, mSample);
+            return true;
+        }
+        mEvent = e;
+        mSnapshot.invalidate();
+        mSnapshot.attach(e);
+        final boolean isOnTouch = detect(mSample);
+        if (mWatchdog != null && isSequenceEnd(mSample))
+            mWatchdog.onSequenceEnd();
+        if (mDownGeneration != mEngine.getDownGeneration()) {
+            mDownGeneration = mEngine.getDownGeneration();
+            mDownSnapshot.invalidate();
+            mDownSnapshot.attach(null);
+            if (mCurrentDownEvent != null) {
+                mCurrentDownEvent.recycle();
+                mCurrentDownEvent = null;
+            }
+            if (!isSnapshotMode) {
                 mCurrentDownEvent = MotionEvent.obtain(e);
-                break;
-
-            case MotionEvent.ACTION_MOVE:
-                if (mInLongPress) break; // 长按已生效
-                if (isScrollEnable) {
-                    final float scrollX = mLastFocusX - mCurFocusX;
-                    final float scrollY = mLastFocusY - mCurFocusY;
-                    if (e.getPointerCount() > 1)
-                        mAlwaysInTapRegion = false;
-                    if (mAlwaysInTapRegion) {
-                        final int dx = (int) (mCurFocusX - mDownFocusX);
-                        final int dy = (int) (mCurFocusY - mDownFocusY);
-                        final int distance = (dx * dx) + (dy * dy);
-                        if (distance > mTouchSlopSquare) {
-                            mLastFocusX = mCurFocusX;
-                            mLastFocusY = mCurFocusY;
-                            isOnTouch |= mListener.onScroll(mCurrentDownEvent, e, scrollX, scrollY);
-                            mConfirmSingleTap = false;
-                            mAlwaysInTapRegion = false;
-                            if (isLongPressEnable) mHandler.removeMessages(LONG_PRESS);
-                        }
-                        if (distance > mDoubleTouchSlopSquare)
-                            mAlwaysInDoubleTapRegion = false;   // 双击不成立
-                    } else if (Math.abs(scrollX) >= 1 || Math.abs(scrollY) >= 1) {
-                        mLastFocusX = mCurFocusX;
-                        mLastFocusY = mCurFocusY;
-                        isOnTouch |= mListener.onScroll(mCurrentDownEvent, e, scrollX, scrollY);
-                        cancelTaps();
-                    }
-                }
-                break;
-
-            case MotionEvent.ACTION_POINTER_DOWN:
-                mDownFocusX = mLastFocusX = mCurFocusX;
-                mDownFocusY = mLastFocusY = mCurFocusY;
-                cancelTaps();
-                break;
-
-            case MotionEvent.ACTION_POINTER_UP:
-                mDownFocusX = mLastFocusX = mCurFocusX;
-                mDownFocusY = mLastFocusY = mCurFocusY;
-                cancelTaps();
-                // 代码来自于官方源码
-                // Check the dot product of current velocities.
-                // If the pointer that left was opposing another velocity vector, clear.
-                if (isFlingEnable) {
-                    mVelocityTracker.computeCurrentVelocity(1000, mMaxFlingVelocity);
-                    final int upIndex = e.getActionIndex();
-                    final int id1 = e.getPointerId(upIndex);
-                    final float x1 = mVelocityTracker.getXVelocity(id1);
-                    final float y1 = mVelocityTracker.getYVelocity(id1);
-                    for (int i = 0; i < count; i++) {
-                        if (i == upIndex) continue;
-                        final int id2 = e.getPointerId(i);
-                        final float x = x1 * mVelocityTracker.getXVelocity(id2);
-                        final float y = y1 * mVelocityTracker.getYVelocity(id2);
-                        final float dot = x + y;
-                        if (dot < 0) {
-                            mVelocityTracker.clear();
-                            break;
-                        }
-                    }
-                }
-                break;
-
-            case MotionEvent.ACTION_UP:
-                MotionEvent currentUpEvent = MotionEvent.obtain(e);
-                if (isDoubleTapEnable)
-                    mLastTime = System.currentTimeMillis();
-                if (mConfirmSingleTap) {
-                    if (isDoubleTapEnable)
-                        mHandler.sendEmptyMessageDelayed(TAP, mDoubleTapTimeOut);
-                    else
-                        mListener.onTap(e);
-                } else if (isFlingEnable) {
-                    final int pointerId = e.getPointerId(0);
-                    mVelocityTracker.computeCurrentVelocity(1000, mMaxFlingVelocity);
-                    final float velocityY = mVelocityTracker.getYVelocity(pointerId);
-                    final float velocityX = mVelocityTracker.getXVelocity(pointerId);
-                    if ((Math.abs(velocityY) > mMinFlingVelocity)
-                            || (Math.abs(velocityX) > mMinFlingVelocity)) {
-                        isOnTouch |= mListener.onFling(mCurrentDownEvent, e, velocityX, velocityY);
-                    }
-                }
-                if (isLongPressEnable)
-                    mHandler.removeMessages(LONG_PRESS);
-                if (mPreviousUpEvent != null) {
-                    mPreviousUpEvent.recycle();
-                }
-                mPreviousUpEvent = currentUpEvent;
-                if (mVelocityTracker != null) {
-                    mVelocityTracker.recycle();
-                    mVelocityTracker = null;
-                }
-                break;
-
-            case MotionEvent.ACTION_CANCEL:
-                cancel();
-                return false;
+                mDownSnapshot.attach(mCurrentDownEvent);
+            }
         }
-        if (isScaleEnable)
-            isOnTouch |= mScaleDetector.onTouchEvent(e);
+        mSnapshot.attach(null);
+        mEvent = null;
         return isOnTouch;
     }
 
     /**
-     * 执行长按事件
+     * 采样对应的触摸事件快照
+     *
+     * @param sample 采样
+     * @return 当前事件、帧内最后一个滑动采样或按下事件的快照
      */
-    private void dispatchLongPress() {
-        mHandler.removeMessages(TAP);
-        mConfirmSingleTap = false;
-        mInLongPress = true;
-        mListener.onLongPress(mCurrentDownEvent);
+    private TouchSnapshot snapshot(TouchSample sample) {
+        if (sample == mSample)
+            return mSnapshot;
+        if (sample == mEngine.getFrameSample()) {
+            mFrameSnapshot.invalidate();    // 每帧内容都不同
+            return mFrameSnapshot;
+        }
+        return mDownSnapshot;
     }
 
-    private void cancel() {
-        mConfirmSingleTap = false;
-        mAlwaysInTapRegion = false;
-        mAlwaysInDoubleTapRegion = false;
-        mLastTime = 0;  // 取消双击
-        mHandler.removeMessages(LONG_PRESS);
-        mHandler.removeMessages(TAP);
+    /**
+     * 识别一个采样，并统计识别耗时（不含其间的监听器）
+     *
+     * @param e 触摸采样
+     * @return {@code true}响应事件 {@code false}拒绝响应事件
+     */
+    private boolean detect(@NonNull TouchSample e) {
+        final GestureMetrics metrics = mMetrics;
+        if (metrics == null)
+            return mEngine.onTouchEvent(e);
+        mListenerTime = 0;
+        final long begin = metrics.now();
+        final boolean isOnTouch = mEngine.onTouchEvent(e);
+        metrics.recordDetect(begin, mListenerTime);
+        return isOnTouch;
+    }
+
+    private static boolean isSequenceEnd(TouchSample e) {
+        final int action = e.getActionMasked();
+        return action == TouchSample.ACTION_UP || action == TouchSample.ACTION_CANCEL;
     }
 
     /**
-     * 取消各种点击事件
+     * 触发回调的事件时间
+     *
+     * @param sample 采样
+     * @return 当前事件或帧内滑动采样的时间，由超时或帧信号触发时为 -1
      */
-    private void cancelTaps() {
-        mConfirmSingleTap = false;
-        mLastTime = 0;  // 取消双击
-        if (isLongPressEnable)
-            mHandler.removeMessages(LONG_PRESS);
+    private long eventTime(TouchSample sample) {
+        if ((sample == mSample && mEvent != null) || sample == mEngine.getFrameSample())
+            return sample.getEventTime();
+        return -1;
     }
 
-    private void init(Context context) {
-        ViewConfiguration config = ViewConfiguration.get(context);
-        int touchSlop = config.getScaledTouchSlop();
-        mTouchSlopSquare = touchSlop * touchSlop;
-        touchSlop = config.getScaledDoubleTapSlop();
-        mDoubleTouchSlopSquare = touchSlop * touchSlop;
-        mMinFlingVelocity = config.getScaledMinimumFlingVelocity();
-        mMaxFlingVelocity = config.getScaledMaximumFlingVelocity();
+    private long beginCallback(long eventTime) {
+        if (mWatchdog != null)
+            mWatchdogBegin = mWatchdog.now();
+        final GestureMetrics metrics = mMetrics;
+        return metrics != null ? metrics.beginCallback(eventTime) : 0;
+    }
+
+    private void endCallback(int callback, long begin) {
+        final GestureMetrics metrics = mMetrics;
+        if (metrics != null)
+            mListenerTime += metrics.endCallback(callback, begin);
+        if (mWatchdog != null)
+            mWatchdog.end(callback, mListener, mWatchdogBegin);
     }
 
     /**
-     * 缩放手势监听器
+     * 记录一个识别结果，仅在识别线程中调用
+     *
+     * @param what   结果类型
+     * @param first  第一个采样
+     * @param second 第二个采样
+     * @return 识别结果
      */
-    public class ScaleGestureDetector implements DefaultDetector {
+    private GesturePipeline.Delivery post(int what, @Nullable TouchSample first, @Nullable TouchSample second) {
+        final GesturePipeline.Delivery delivery = mPipeline.obtain(mReceiver, what);
+        if (first != null) delivery.getFirst().copyFrom(first);
+        if (second != null) delivery.getSecond().copyFrom(second);
+        delivery.setValue(6, mEngine.getPredictedFocusX()).setValue(7, mEngine.getPredictedFocusY());
+        return delivery;
+    }
 
-        private float mScale;
+    /**
+     * 在投递执行器中回调监听器
+     *
+     * @param d 识别结果
+     */
+    private void deliver(@NonNull GesturePipeline.Delivery d) {
+        mDeliveredFocusX = d.getValue(6);
+        mDeliveredFocusY = d.getValue(7);
+        final long begin = beginCallback(d.getEventTime());
+        switch (d.getWhat()) {
+            case GestureMetrics.LONG_PRESS:
+                mListener.onLongPress(first(d));
+                break;
+            case GestureMetrics.DOUBLE_TAP:
+                mListener.onDoubleTap(first(d));
+                break;
+            case GestureMetrics.TAP:
+                mListener.onTap(first(d));
+                break;
+            case GestureMetrics.TAP_UP:
+                mListener.onTapUp(first(d));
+                break;
+            case GestureMetrics.TAP_CONFIRMED:
+                mListener.onTapConfirmed(first(d));
+                break;
+            case GestureMetrics.TAP_REVOKED:
+                mListener.onTapRevoked(first(d));
+                break;
+            case GestureMetrics.DOWN:
+                mListener.onDown(first(d));
+                break;
+            case GestureMetrics.SCROLL:
+                mListener.onScroll(first(d), second(d), d.getValue(0), d.getValue(1));
+                break;
+            case GestureMetrics.SCALE:
+                mListener.onScale(d.getValue(0), d.getValue(1), d.getValue(2), d.getValue(3));
+                break;
+            case GestureMetrics.TRANSFORM:
+                mListener.onTransform(d.getValue(0), d.getValue(1), d.getValue(2),
+                        d.getValue(3), d.getValue(4), d.getValue(5));
+                break;
+            case GestureMetrics.FLING:
+                mListener.onFling(first(d), second(d), d.getValue(0), d.getValue(1));
+                break;
+            default:
+                throw new RuntimeException("Unknown delivery" + d.getWhat());
+        }
+        endCallback(d.getWhat(), begin);
+    }
 
-        private float mLastLength;
+    private TouchSnapshot first(GesturePipeline.Delivery d) {
+        mFirstSample.copyFrom(d.getFirst());
+        mFirstSnapshot.invalidate();
+        return mFirstSnapshot;
+    }
 
-        ScaleGestureDetector() {
-            mScale = 1.0f;
-        }
+    private TouchSnapshot second(GesturePipeline.Delivery d) {
+        mSecondSample.copyFrom(d.getSecond());
+        mSecondSnapshot.invalidate();
+        return mSecondSnapshot;
+    }
 
-        private float calcLength(MotionEvent e) {
-            return (float) Math.sqrt(
-                    Math.pow(e.getX(0) - e.getX(1), 2)
-                            + Math.pow(e.getY(0) - e.getY(1), 2));
-        }
+    /**
+     * 修改识别引擎配置，流水线模式下在识别线程中按提交顺序执行
+     *
+     * @param command 配置
+     */
+    private void apply(Runnable command) {
+        if (mPipeline != null)
+            mPipeline.execute(command);
+        else
+            command.run();
+    }
 
-        /**
-         * 事件响应接口
-         *
-         * @param e 触摸事件
-         * @return {@code true} 响应事件, {@code false} 拒绝响应事件
-         */
-        @Override
-        public boolean onTouchEvent(@NonNull MotionEvent e) {
-            if (e.getPointerCount() < 2)
-                return false;
-            boolean is = false;
-            switch (MotionEvent.ACTION_MASK & e.getAction()) {
-
-                case MotionEvent.ACTION_POINTER_DOWN:
-                case MotionEvent.ACTION_POINTER_UP:
-                    mLastLength = calcLength(e);
-                    is = true;
-                    break;
-
-                case MotionEvent.ACTION_MOVE:
-                    float cur = calcLength(e);
-                    mScale = cur / mLastLength;
-                    if (Math.abs(mScale - 1.0f) > 0.01f) {
-                        mLastLength = cur;
-                        is = mListener.onScale(mScale, mCurFocusX, mCurFocusY);
-                    }
-                    break;
-            }
-            return is;
-        }
+    private void init(Context context) {
+        setConfig(GestureConfig.get(context));
+    }
+
+    /**
+     * 设置手势参数，代替按屏幕密度共享的默认参数，用于单独调整某个页面的触摸阈值与快速滑动速度
+     *
+     * @param config 手势参数，可由{@link GestureConfig#buildUpon()}派生
+     * @return self
+     */
+    public GestureLite setConfig(@NonNull GestureConfig config) {
+        mConfig = Objects.requireNonNull(config, "The GestureConfig must not be null...");
+        apply(() -> {
+            mEngine.setSlop(config.getTouchSlop(), config.getDoubleTapSlop());
+            mEngine.setFlingVelocity(config.getMinFlingVelocity(), config.getMaxFlingVelocity());
+        });
+        return this;
+    }
+
+    @NonNull
+    public GestureConfig getConfig() {
+        return mConfig;
     }
 
     /**
@@ -455,8 +837,41 @@ public final class GestureLite implements DefaultDetector {
      */
     public GestureLite setScaleEnable(boolean scaleEnable) {
         isScaleEnable = scaleEnable;
-        if (isScaleEnable && mScaleDetector == null)
-            mScaleDetector = new ScaleGestureDetector();
+        apply(() -> mEngine.setScaleEnable(scaleEnable));
+        return this;
+    }
+
+    /**
+     * 设置缩放阈值，双指间距相对上一次回调的变化比例超过阈值时回调
+     *
+     * @param threshold 比例阈值，默认 0.01
+     * @return self
+     */
+    public GestureLite setScaleThreshold(float threshold) {
+        apply(() -> mEngine.setScaleThreshold(threshold));
+        return this;
+    }
+
+    /**
+     * 设置以像素计的缩放阈值，设置后代替比例阈值，大间距时缩放更平滑
+     *
+     * @param spanSlop 间距阈值（像素），不大于 0 时使用比例阈值
+     * @return self
+     */
+    public GestureLite setScaleSpanSlop(float spanSlop) {
+        apply(() -> mEngine.setScaleSpanSlop(spanSlop));
+        return this;
+    }
+
+    /**
+     * 启用、禁用多指变换手势，一次回调同时给出缩放、旋转与平移，支持任意数量的触点
+     *
+     * @param transformEnable {@code true}开启，{@code false}禁用
+     * @return self
+     */
+    public GestureLite setTransformEnable(boolean transformEnable) {
+        isTransformEnable = transformEnable;
+        apply(() -> mEngine.setTransformEnable(transformEnable));
         return this;
     }
 
@@ -468,6 +883,7 @@ public final class GestureLite implements DefaultDetector {
      */
     public GestureLite setScrollEnable(boolean scrollEnable) {
         isScrollEnable = scrollEnable;
+        apply(() -> mEngine.setScrollEnable(scrollEnable));
         return this;
     }
 
@@ -479,6 +895,31 @@ public final class GestureLite implements DefaultDetector {
      */
     public GestureLite setFlingEnable(boolean flingEnable) {
         isFlingEnable = flingEnable;
+        final int strategy = mVelocityStrategy;
+        apply(() -> {
+            if (flingEnable && mVelocity == null) {
+                mVelocity = new PointerVelocityEstimator(strategy);
+                mEngine.setVelocityEstimator(mVelocity);
+            }
+            mEngine.setFlingEnable(flingEnable);
+        });
+        return this;
+    }
+
+    /**
+     * 设置快速滑动速度估算策略
+     *
+     * @param strategy {@link PointerVelocityEstimator#STRATEGY_LSQ1}、
+     *                 {@link PointerVelocityEstimator#STRATEGY_LSQ2}（默认）或
+     *                 {@link PointerVelocityEstimator#STRATEGY_IMPULSE}
+     * @return self
+     */
+    public GestureLite setVelocityStrategy(int strategy) {
+        mVelocityStrategy = PointerVelocityEstimator.checkStrategy(strategy);
+        apply(() -> {
+            if (mVelocity != null)
+                mVelocity.setStrategy(strategy);
+        });
         return this;
     }
 
@@ -490,6 +931,7 @@ public final class GestureLite implements DefaultDetector {
      */
     public GestureLite setLongPressEnable(boolean longPressEnable) {
         isLongPressEnable = longPressEnable;
+        apply(() -> mEngine.setLongPressEnable(longPressEnable));
         return this;
     }
 
@@ -501,31 +943,286 @@ public final class GestureLite implements DefaultDetector {
      */
     public GestureLite setDoubleTapEnable(boolean doubleTapEnable) {
         isDoubleTapEnable = doubleTapEnable;
+        apply(() -> mEngine.setDoubleTapEnable(doubleTapEnable));
+        return this;
+    }
+
+    /**
+     * 启用、禁用批量历史采样处理
+     * <p>
+     * 高采样率屏幕会将多个采样合并为一个 MOVE，启用后这些历史采样参与触摸阈值与缩放阈值判断，
+     * 每个 MOVE 仍最多回调一次{@link OnGestureListener#onScroll}与{@link OnGestureListener#onScale}；
+     * 速度计算不受此开关影响，启用快速滑动时总是使用历史采样
+     *
+     * @param historyEnable {@code true}开启，{@code false}禁用
+     * @return self
+     */
+    public GestureLite setHistoryEnable(boolean historyEnable) {
+        isHistoryEnable = historyEnable;
+        apply(() -> mEngine.setHistoryEnable(historyEnable));
+        return this;
+    }
+
+    /**
+     * 启用、禁用预判单击，仅在启用双击时生效
+     * <p>
+     * 启用后单击抬起时立即回调{@link OnGestureListener#onTapUp}，无需等待双击超时即可开始反馈；
+     * 超时后回调{@link OnGestureListener#onTapConfirmed}，被双击或取消时回调
+     * {@link OnGestureListener#onTapRevoked}，不再回调{@link OnGestureListener#onTap}
+     *
+     * @param speculativeTapEnable {@code true}开启，{@code false}禁用
+     * @return self
+     */
+    public GestureLite setSpeculativeTapEnable(boolean speculativeTapEnable) {
+        isSpeculativeTapEnable = speculativeTapEnable;
+        apply(() -> mEngine.setSpeculativeTapEnable(speculativeTapEnable));
         return this;
     }
 
     /**
      * 设置双击超时时间
      *
-     * @param mDoubleTapTimeOut 时间（毫秒）
+     * @param doubleTapTimeOut 时间（毫秒）
+     * @return self
+     */
+    public GestureLite setDoubleTapTimeOut(int doubleTapTimeOut) {
+        mDoubleTapTimeOut = doubleTapTimeOut;
+        apply(() -> mEngine.setDoubleTapTimeOut(doubleTapTimeOut));
+        return this;
+    }
+
+    /**
+     * 设置手势竞技场
+     * <p>
+     * 外层与内层检测器（如嵌套的滑动与点击）共享同一实例时，
+     * 先成立的手势独占本轮事件，其余检测器立即停止处理
+     *
+     * @param arena 手势竞技场，{@code null}时不参与竞争
+     * @return self
+     */
+    public GestureLite setArena(@Nullable GestureArena arena) {
+        apply(() -> mEngine.setArena(arena));
+        return this;
+    }
+
+    /**
+     * 设置飞行记录器，保留最近的原始采样与识别状态变化，供误触发排查
+     * <p>
+     * 流水线模式下记录在识别线程中进行，应通过{@link GesturePipeline#execute(Runnable)}导出
+     *
+     * @param recorder 飞行记录器，{@code null}时不记录
+     * @return self
+     */
+    public GestureLite setFlightRecorder(@Nullable FlightRecorder recorder) {
+        apply(() -> mEngine.setFlightRecorder(recorder));
+        return this;
+    }
+
+    /**
+     * 设置耗时统计，记录事件到回调的延迟、识别耗时、各监听器方法的耗时与事件数
+     * <p>
+     * 同一{@link GestureMetrics}可在多个检测器间共享；流水线模式下识别耗时在识别线程中记录，
+     * 延迟包含排队与投递的时间
+     *
+     * @param metrics 耗时统计，{@code null}时不统计
+     * @return self
+     */
+    public GestureLite setMetrics(@Nullable GestureMetrics metrics) {
+        mMetrics = metrics;
+        return this;
+    }
+
+    @Nullable
+    public GestureMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * 设置监听器超时看门狗，汇总报告耗时超出预算的监听器方法
+     * <p>
+     * 看门狗在回调监听器的线程中使用；流水线模式下不在事件线程中回调，无法得知一轮手势何时结束，
+     * 只按报告间隔报告
+     *
+     * @param watchdog 看门狗，{@code null}时不检查
+     * @return self
+     */
+    public GestureLite setWatchdog(@Nullable ListenerWatchdog watchdog) {
+        mWatchdog = watchdog;
+        return this;
+    }
+
+    @Nullable
+    public ListenerWatchdog getWatchdog() {
+        return mWatchdog;
+    }
+
+    /**
+     * 设置自适应超时策略
+     * <p>
+     * 根据用户实际的双击间隔与单击按压时长缩短超时，不超过已设置的超时时间；
+     * 同一{@link AdaptiveTimeouts}可在多个检测器间共享
+     *
+     * @param adaptive 自适应超时策略，{@code null}时使用固定超时
      * @return self
      */
-    public GestureLite setDoubleTapTimeOut(int mDoubleTapTimeOut) {
-        this.mDoubleTapTimeOut = mDoubleTapTimeOut;
+    public GestureLite setAdaptiveTimeouts(@Nullable AdaptiveTimeouts adaptive) {
+        apply(() -> mEngine.setAdaptiveTimeouts(adaptive));
+        return this;
+    }
+
+    /**
+     * 设置延时任务调度器，默认使用当前线程共享的{@link LooperScheduler}，流水线模式下不可设置
+     *
+     * @param scheduler 调度器
+     * @return self
+     */
+    public GestureLite setScheduler(@NonNull GestureScheduler scheduler) {
+        if (mPipeline != null)
+            throw new IllegalStateException("The scheduler is owned by the pipeline");
+        mEngine.setScheduler(scheduler);
         return this;
     }
 
     /**
      * 设置长按超时时间
      *
-     * @param mLongPressTimeOut 时间（毫秒）
+     * @param longPressTimeOut 时间（毫秒）
+     * @return self
+     */
+    public GestureLite setLongPressTimeOut(int longPressTimeOut) {
+        mLongPressTimeOut = longPressTimeOut;
+        apply(() -> mEngine.setLongPressTimeOut(longPressTimeOut));
+        return this;
+    }
+
+    /**
+     * 设置快速滑动动画，快速滑动成立时以抬起时间、原点与手指速度启动，
+     * {@link OnGestureListener#onFling}中即可读取停止位置以便预取，之后每帧以
+     * {@code SystemClock.uptimeMillis()}调用{@link FlingAnimator#computeOffset(long)}
+     *
+     * @param flingAnimator 动画，{@code null}时不启动
+     * @return self
+     */
+    public GestureLite setFlingAnimator(@Nullable FlingAnimator flingAnimator) {
+        mFlingAnimator = flingAnimator;
+        apply(() -> mEngine.setFlingAnimator(flingAnimator));
+        return this;
+    }
+
+    @Nullable
+    public FlingAnimator getFlingAnimator() {
+        return mFlingAnimator;
+    }
+
+    /**
+     * 设置焦点预测时长，用于让拖动、滑动的内容绘制在扫描输出时手指所在的位置
+     *
+     * @param predictionTime 预测时长（毫秒），通常为一至两帧，0 为禁用
+     * @return self
+     */
+    public GestureLite setPredictionTime(int predictionTime) {
+        mPredictionTime = Math.max(0, predictionTime);
+        apply(() -> mEngine.setPredictionTime(predictionTime));
+        return this;
+    }
+
+    public int getPredictionTime() {
+        return mPredictionTime;
+    }
+
+    /**
+     * 预测的焦点横坐标，可在回调中读取，未启用预测时为当前焦点
+     *
+     * @return 横坐标
+     */
+    public float getPredictedFocusX() {
+        return mPipeline != null ? mDeliveredFocusX : mEngine.getPredictedFocusX();
+    }
+
+    /**
+     * 预测的焦点纵坐标，可在回调中读取，未启用预测时为当前焦点
+     *
+     * @return 纵坐标
+     */
+    public float getPredictedFocusY() {
+        return mPipeline != null ? mDeliveredFocusY : mEngine.getPredictedFocusY();
+    }
+
+    /**
+     * 启用、禁用按帧合并
+     * <p>
+     * 启用后{@link OnGestureListener#onScroll}、{@link OnGestureListener#onScale}与
+     * {@link OnGestureListener#onTransform}在每个{@code Choreographer}帧最多回调一次，
+     * 滑动距离、平移与旋转累加，缩放系数相乘。此时{@code onScroll}的当前事件由采样构建，
+     * 不含原始坐标、压力等信息，覆盖其快照重载可省去每帧构建事件。流水线模式下识别线程没有{@code Choreographer}，不支持按帧合并。
+     *
+     * @param frameAlignedEnable {@code true}开启，{@code false}禁用
      * @return self
      */
-    public GestureLite setLongPressTimeOut(int mLongPressTimeOut) {
-        this.mLongPressTimeOut = mLongPressTimeOut;
+    public GestureLite setFrameAlignedEnable(boolean frameAlignedEnable) {
+        if (frameAlignedEnable && mPipeline != null)
+            throw new IllegalStateException("Frame aligned mode is not supported in pipeline mode");
+        final FrameSource frameSource = frameAlignedEnable ? ChoreographerFrameSource.get() : null;
+        mFrameSource = frameSource;
+        apply(() -> mEngine.setFrameSource(frameSource));
         return this;
     }
 
+    /**
+     * 设置帧信号源，用于自定义帧节奏或在测试中手动驱动，参见{@link #setFrameAlignedEnable(boolean)}
+     *
+     * @param frameSource 帧信号源，{@code null}时逐事件同步回调
+     * @return self
+     */
+    public GestureLite setFrameSource(@Nullable FrameSource frameSource) {
+        mFrameSource = frameSource;
+        apply(() -> mEngine.setFrameSource(frameSource));
+        return this;
+    }
+
+    /**
+     * 是否按帧合并
+     *
+     * @return {@code true}开启，{@code false}禁用
+     */
+    public boolean isFrameAlignedEnable() {
+        return mFrameSource != null;
+    }
+
+    /**
+     * 启用、禁用快照模式
+     * <p>
+     * 快照模式下按下时不再复制{@link MotionEvent}，只保留识别所需字段，
+     * 回调需要按下事件时才由快照构建，参见{@link TouchSnapshot}；
+     * 监听器覆盖快照重载时按下事件不会被构建
+     *
+     * @param snapshotMode {@code true}开启，{@code false}禁用
+     * @return self
+     */
+    public GestureLite setSnapshotMode(boolean snapshotMode) {
+        isSnapshotMode = snapshotMode;
+        return this;
+    }
+
+    /**
+     * 是否启用快照模式
+     *
+     * @return {@code true}开启，{@code false}禁用
+     */
+    public boolean isSnapshotMode() {
+        return isSnapshotMode;
+    }
+
+    /**
+     * 最近一次按下事件的只读快照，流水线模式下为事件线程中最近一次{@code ACTION_DOWN}的快照
+     *
+     * @return 按下事件快照
+     */
+    @NonNull
+    public TouchSnapshot getDownSnapshot() {
+        return mDownSnapshot;
+    }
+
     /**
      * 是否启用缩放手势
      *
@@ -535,6 +1232,15 @@ public final class GestureLite implements DefaultDetector {
         return isScaleEnable;
     }
 
+    /**
+     * 是否启用多指变换手势
+     *
+     * @return {@code true}开启，{@code false}禁用
+     */
+    public boolean isTransformEnable() {
+        return isTransformEnable;
+    }
+
     /**
      * 是否启用滑动手势
      *
@@ -553,6 +1259,15 @@ public final class GestureLite implements DefaultDetector {
         return isFlingEnable;
     }
 
+    /**
+     * 返回快速滑动速度估算策略
+     *
+     * @return 估算策略
+     */
+    public int getVelocityStrategy() {
+        return mVelocityStrategy;
+    }
+
     /**
      * 是否启用长按手势
      *
@@ -571,6 +1286,24 @@ public final class GestureLite implements DefaultDetector {
         return isDoubleTapEnable;
     }
 
+    /**
+     * 是否处理批量历史采样
+     *
+     * @return {@code true}开启，{@code false}禁用
+     */
+    public boolean isHistoryEnable() {
+        return isHistoryEnable;
+    }
+
+    /**
+     * 是否启用预判单击
+     *
+     * @return {@code true}开启，{@code false}禁用
+     */
+    public boolean isSpeculativeTapEnable() {
+        return isSpeculativeTapEnable;
+    }
+
     /**
      * 返回双击最大间隔时间
      *
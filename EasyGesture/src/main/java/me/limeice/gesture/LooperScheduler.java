@@ -0,0 +1,113 @@
+package me.limeice.gesture;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+import me.limeice.gesture.core.GestureScheduler;
+import me.limeice.gesture.core.TimerWheelScheduler;
+
+/**
+ * 以{@link Looper}为单位共享的延时任务调度器
+ * <p>
+ * 同一线程上的所有检测器共用一个{@link TimerWheelScheduler}，消息队列中始终最多只有一条唤醒消息，
+ * 调度与取消不再经过{@link android.os.MessageQueue}。任务在该线程中触发；
+ * 调度与取消可在任意线程（如以其他线程的{@link Handler}创建的检测器的事件线程）中同步进行，
+ * 与{@link Handler#removeMessages(int)}一样，取消返回后任务不会再触发。
+ * 时间轮由锁保护，任务回调期间持有该锁，其他线程的调度与取消会等待正在执行的回调结束，
+ * 回调中不应等待其他调用本调度器的线程。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class LooperScheduler implements GestureScheduler, TimerWheelScheduler.Driver, Runnable {
+
+    private static final int TICK = 10;         // 时间轮刻度（毫秒）
+    private static final int SLOTS = 64;        // 时间轮槽位数
+
+    private static final WeakHashMap<Looper, WeakReference<LooperScheduler>> sSchedulers =
+            new WeakHashMap<>();
+
+    private final Handler mHandler;
+    private final TimerWheelScheduler mWheel;   // 时间轮，以自身为锁
+    private long mWakeUpAt = Long.MAX_VALUE;    // 已投递的唤醒时间
+
+    private LooperScheduler(Looper looper) {
+        mHandler = new Handler(looper);
+        mWheel = new TimerWheelScheduler(SystemClock::uptimeMillis, TICK, SLOTS, this);
+    }
+
+    /**
+     * 获取指定线程共享的调度器
+     *
+     * @param looper 线程
+     * @return 调度器
+     */
+    @NonNull
+    public static LooperScheduler get(@NonNull Looper looper) {
+        Objects.requireNonNull(looper, "The Looper must not be null...");
+        synchronized (sSchedulers) {
+            final WeakReference<LooperScheduler> ref = sSchedulers.get(looper);
+            LooperScheduler scheduler = ref != null ? ref.get() : null;
+            if (scheduler == null) {
+                scheduler = new LooperScheduler(looper);
+                sSchedulers.put(looper, new WeakReference<>(scheduler));
+            }
+            return scheduler;
+        }
+    }
+
+    /**
+     * 获取调度器
+     *
+     * @param handler 指定线程，为{@code null}时使用当前线程
+     * @return 调度器
+     */
+    @NonNull
+    static LooperScheduler get(@Nullable Handler handler) {
+        final Looper looper = handler != null ? handler.getLooper() : Looper.myLooper();
+        if (looper == null)
+            throw new RuntimeException("Can't create gesture scheduler inside thread that has not called Looper.prepare()");
+        return get(looper);
+    }
+
+    @Override
+    public void schedule(@NonNull Target target, int what, long delayMillis) {
+        synchronized (mWheel) {
+            mWheel.schedule(target, what, delayMillis);
+        }
+    }
+
+    @Override
+    public void cancel(@NonNull Target target, int what) {
+        synchronized (mWheel) {
+            mWheel.cancel(target, what);
+        }
+    }
+
+    /**
+     * 由时间轮在持有锁时调用
+     */
+    @Override
+    public void wakeUpAt(long deadline) {
+        if (deadline == mWakeUpAt) return;
+        mHandler.removeCallbacks(this);
+        mHandler.postAtTime(this, deadline);
+        mWakeUpAt = deadline;
+    }
+
+    @Override
+    public void run() {
+        synchronized (mWheel) {
+            mWakeUpAt = Long.MAX_VALUE;
+            mWheel.advance();
+        }
+    }
+}
@@ -1,14 +1,24 @@
 package me.limeice.gesture;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
 import android.os.Handler;
-import android.os.Message;
+import android.os.SystemClock;
 import android.view.MotionEvent;
-import android.view.ViewConfiguration;
 
 import androidx.annotation.NonNull;
-
+import androidx.annotation.Nullable;
+
+import java.util.Objects;
+
+import me.limeice.gesture.core.AdaptiveTimeouts;
+import me.limeice.gesture.core.FlightRecorder;
+import me.limeice.gesture.core.GestureArena;
+import me.limeice.gesture.core.GestureMetrics;
+import me.limeice.gesture.core.GestureScheduler;
+import me.limeice.gesture.core.ListenerWatchdog;
+import me.limeice.gesture.core.MiniGestureEngine;
+import me.limeice.gesture.core.StrokeRecognizer;
+import me.limeice.gesture.core.TouchSample;
 import me.limeice.gesture.standard.DefaultDetector;
 import me.limeice.gesture.standard.OnDrag;
 import me.limeice.gesture.standard.OnLongPress;
@@ -23,8 +33,6 @@ import me.limeice.gesture.standard.OnTap;
 
 public final class MiniGesture implements DefaultDetector {
 
-    private static final int LONG_PRESS = 0x01;
-
     /**
      * 当使用此接口时，OnDrag, OnLongPress, OnTap单独接口全部忽略
      */
@@ -32,140 +40,163 @@ public final class MiniGesture implements DefaultDetector {
 
     }
 
-    /**
-     * 监听线程，不存在
-     */
-    @SuppressLint("HandlerLeak")
-    private final class GestureHandler extends Handler {
+    private final MiniGestureEngine mEngine;                // 识别引擎
 
-        GestureHandler() {
-            super();
-        }
+    private final TouchSample mSample = new TouchSample();  // 当前事件采样
 
-        GestureHandler(Handler handler) {
-            super(handler.getLooper());
-        }
+    private MotionEvent mEvent;                             // 正在分发的事件
 
-        @Override
-        public void handleMessage(Message msg) {
-            //noinspection SwitchStatementWithTooFewBranches
-            switch (msg.what) {
-                case LONG_PRESS:
-                    dispatchLongPress();
-                    break;
-                default:
-                    throw new RuntimeException("Unknown gesture" + msg);
-            }
-        }
-    }
+    private final TouchSnapshot mDownSnapshot;              // 按下事件快照
+
+    private boolean isSnapshotMode = false;                 // 是否以快照代替按下事件副本
+
+    private MotionEvent mCurEvent;                          // 当前事件
+
+    private int mDownGeneration;                            // 按下采样更新次数
+
+    private StrokeRecognizer mStroke;                       // 笔画识别
 
-    private final GestureHandler mHandler;  // 长按处理事件驱动
+    private GestureConfig mConfig;                          // 手势参数，与其他检测器共享
 
-    private MotionEvent mCurEvent;          // 当前事件
+    private volatile GestureMetrics mMetrics;               // 耗时统计，为空时不统计
 
-    private OnGestureListener mListener;    // 总监听事件
+    private long mListenerTime;                             // 本次识别中监听器的耗时（纳秒）
 
-    private OnDrag mDrag;                   // 拖拽事件
+    private ListenerWatchdog mWatchdog;                     // 监听器超时看门狗，为空时不检查
 
-    private OnLongPress mLongPress;         // 长按事件
+    private long mWatchdogBegin;                            // 监听器开始执行的时间（纳秒），供看门狗计时
 
-    private OnTap mTap;                     // 单击事件
+    private OnGestureListener mListener;                    // 总监听事件
 
-    private int mLongPressTimeOut = 500;    // 长按超时
+    private OnDrag mDrag;                                   // 拖拽事件
 
-    private int mTouchSlopSquare;           // 触摸超出范围区域
+    private OnLongPress mLongPress;                         // 长按事件
 
-    private float mLastFocusX, mLastFocusY; // 上一次焦点 x,y 轴值
+    private OnTap mTap;                                     // 单击事件
 
-    private boolean mAlwaysInTapRegion;     // 判定点击
+    /**
+     * 识别结果转发，将采样还原为对应的{@link MotionEvent}
+     */
+    private final MiniGestureEngine.Callback mCallback = new MiniGestureEngine.Callback() {
+
+        @Override
+        public void onDrag(@NonNull TouchSample e, float dx, float dy) {
+            final long begin = beginCallback(eventTime(e));
+            if (mListener != null)
+                mListener.onDrag(event(e), dx, dy);
+            else
+                mDrag.onDrag(event(e), dx, dy);
+            endCallback(GestureMetrics.DRAG, mListener != null ? mListener : mDrag, begin);
+        }
 
-    private boolean mInLongPress;           // 长按是否响应
+        @Override
+        public void onLongPress(@NonNull TouchSample down) {
+            final long begin = beginCallback(eventTime(down));
+            if (mListener != null)
+                mListener.onLongPress(event(down));
+            else
+                mLongPress.onLongPress(event(down));
+            endCallback(GestureMetrics.LONG_PRESS, mListener != null ? mListener : mLongPress, begin);
+        }
 
+        @Override
+        public void onTap(@NonNull TouchSample e) {
+            final long begin = beginCallback(eventTime(e));
+            if (mListener != null)
+                mListener.onTap(event(e));
+            else
+                mTap.onTap(event(e));
+            endCallback(GestureMetrics.TAP, mListener != null ? mListener : mTap, begin);
+        }
+    };
 
     public MiniGesture(Context context) {
         this(context, null);
     }
 
     public MiniGesture(Context context, Handler handler) {
-        if (handler == null)
-            mHandler = new GestureHandler();
-        else
-            mHandler = new GestureHandler(handler);
+        mEngine = new MiniGestureEngine(
+                mCallback, SystemClock::uptimeMillis, LooperScheduler.get(handler));
+        mDownSnapshot = new TouchSnapshot(mEngine.getDownSample());
         init(context);
     }
 
-    /**
-     * 执行长按事件
-     */
-    private void dispatchLongPress() {
-        mInLongPress = true;
-        if (mListener != null)
-            mListener.onLongPress(mCurEvent);
-        else
-            mLongPress.onLongPress(mCurEvent);
-    }
-
     @Override
     public boolean onTouchEvent(@NonNull MotionEvent e) {
-        switch (e.getAction()) {
-            case MotionEvent.ACTION_DOWN:
-                mHandler.sendEmptyMessageDelayed(LONG_PRESS, mLongPressTimeOut);
-                mAlwaysInTapRegion = true;
-                mLastFocusX = e.getX();
-                mLastFocusY = e.getY();
-                mInLongPress = false;
-                if (mCurEvent != null)
-                    mCurEvent.recycle();
+        mEvent = e;
+        // 笔画识别与位置预测使用批量历史采样
+        MotionEvents.fill(mSample, e, mStroke != null || mEngine.getPredictionTime() > 0);
+        final GestureMetrics metrics = mMetrics;
+        final boolean isOnTouch;
+        if (metrics != null) {
+            metrics.recordEvent(mSample);
+            mListenerTime = 0;
+            final long begin = metrics.now();
+            isOnTouch = mEngine.onTouchEvent(mSample);
+            metrics.recordDetect(begin, mListenerTime);
+        } else {
+            isOnTouch = mEngine.onTouchEvent(mSample);
+        }
+        if (mStroke != null)
+            mStroke.onTouchEvent(mSample);
+        if (mWatchdog != null) {
+            final int action = mSample.getActionMasked();
+            if (action == TouchSample.ACTION_UP || action == TouchSample.ACTION_CANCEL)
+                mWatchdog.onSequenceEnd();
+        }
+        if (mDownGeneration != mEngine.getDownGeneration()) {
+            mDownGeneration = mEngine.getDownGeneration();
+            mDownSnapshot.invalidate();
+            if (mCurEvent != null) {
+                mCurEvent.recycle();
+                mCurEvent = null;
+            }
+            if (!isSnapshotMode)
                 mCurEvent = MotionEvent.obtain(e);
-                return true;
-
-            case MotionEvent.ACTION_MOVE:
-                if (mInLongPress)
-                    return false;
-                final float dx = e.getX() - mLastFocusX;
-                final float dy = e.getY() - mLastFocusY;
-                if (mAlwaysInTapRegion) {
-                    if ((dx * dx) + (dy * dy) > mTouchSlopSquare) {
-                        mAlwaysInTapRegion = false;
-                        mLastFocusX = e.getX();
-                        mLastFocusY = e.getY();
-                        mHandler.removeMessages(LONG_PRESS);
-                        if (mListener != null)
-                            mListener.onDrag(e, dx, dy);
-                        else
-                            mDrag.onDrag(e, dx, dy);
-                    }
-                } else {
-                    if (Math.abs(dx) > 1 || Math.abs(dy) > 1) {
-                        if (mListener != null)
-                            mListener.onDrag(e, dx, dy);
-                        else
-                            mDrag.onDrag(e, dx, dy);
-                        mLastFocusX = e.getX();
-                        mLastFocusY = e.getY();
-                    }
-                }
-                break;
-
-            case MotionEvent.ACTION_UP:
-                if (mInLongPress)
-                    return false;
-                mHandler.removeMessages(LONG_PRESS);
-                if (mAlwaysInTapRegion) {
-                    if (mListener != null)
-                        mListener.onTap(e);
-                    else
-                        mTap.onTap(e);
-                }
-                return true;
         }
-        return false;
+        mEvent = null;
+        return isOnTouch;
+    }
+
+    /**
+     * 采样对应的触摸事件
+     *
+     * @param sample 采样
+     * @return 当前事件或按下事件
+     */
+    private MotionEvent event(TouchSample sample) {
+        if (sample == mSample)
+            return mEvent;
+        return mCurEvent != null ? mCurEvent : mDownSnapshot.toMotionEvent();
+    }
+
+    /**
+     * 触发回调的事件时间
+     *
+     * @param sample 采样
+     * @return 当前事件的时间，由超时触发时为 -1
+     */
+    private long eventTime(TouchSample sample) {
+        return sample == mSample && mEvent != null ? sample.getEventTime() : -1;
+    }
+
+    private long beginCallback(long eventTime) {
+        if (mWatchdog != null)
+            mWatchdogBegin = mWatchdog.now();
+        final GestureMetrics metrics = mMetrics;
+        return metrics != null ? metrics.beginCallback(eventTime) : 0;
+    }
+
+    private void endCallback(int callback, Object listener, long begin) {
+        final GestureMetrics metrics = mMetrics;
+        if (metrics != null)
+            mListenerTime += metrics.endCallback(callback, begin);
+        if (mWatchdog != null)
+            mWatchdog.end(callback, listener, mWatchdogBegin);
     }
 
     private void init(Context context) {
-        ViewConfiguration config = ViewConfiguration.get(context);
-        int touchSlop = config.getScaledTouchSlop();
-        mTouchSlopSquare = touchSlop * touchSlop;
+        setConfig(GestureConfig.get(context));
         mDrag = (e, x, y) -> {
         };
         mLongPress = e -> {
@@ -230,6 +261,17 @@ public final class MiniGesture implements DefaultDetector {
         return this;
     }
 
+    /**
+     * 设置延时任务调度器，默认使用当前线程共享的{@link LooperScheduler}
+     *
+     * @param scheduler 调度器
+     * @return self
+     */
+    public MiniGesture setScheduler(@NonNull GestureScheduler scheduler) {
+        mEngine.setScheduler(scheduler);
+        return this;
+    }
+
     /**
      * 设置长按超时时间
      *
@@ -237,7 +279,169 @@ public final class MiniGesture implements DefaultDetector {
      * @return self
      */
     public MiniGesture setLongPressTimeOut(int longPressTimeOut) {
-        this.mLongPressTimeOut = longPressTimeOut;
+        mEngine.setLongPressTimeOut(longPressTimeOut);
+        return this;
+    }
+
+    /**
+     * 设置位置预测时长，用于让拖拽的内容绘制在扫描输出时手指所在的位置
+     *
+     * @param predictionTime 预测时长（毫秒），通常为一至两帧，0 为禁用
+     * @return self
+     */
+    public MiniGesture setPredictionTime(int predictionTime) {
+        mEngine.setPredictionTime(predictionTime);
+        return this;
+    }
+
+    /**
+     * 预测的触点横坐标，可在{@link OnDrag#onDrag}中读取
+     *
+     * @return 横坐标
+     */
+    public float getPredictedX() {
+        return mEngine.getPredictedX();
+    }
+
+    /**
+     * 预测的触点纵坐标，可在{@link OnDrag#onDrag}中读取
+     *
+     * @return 纵坐标
+     */
+    public float getPredictedY() {
+        return mEngine.getPredictedY();
+    }
+
+    /**
+     * 设置手势竞技场
+     * <p>
+     * 外层与内层检测器（如嵌套的滑动与点击）共享同一实例时，
+     * 先成立的手势独占本轮事件，其余检测器立即停止处理
+     *
+     * @param arena 手势竞技场，{@code null}时不参与竞争
+     * @return self
+     */
+    public MiniGesture setArena(@Nullable GestureArena arena) {
+        mEngine.setArena(arena);
+        return this;
+    }
+
+    /**
+     * 设置手势参数，代替按屏幕密度共享的默认参数，用于单独调整某个页面的触摸阈值
+     *
+     * @param config 手势参数，可由{@link GestureConfig#buildUpon()}派生
+     * @return self
+     */
+    public MiniGesture setConfig(@NonNull GestureConfig config) {
+        mConfig = Objects.requireNonNull(config, "The GestureConfig must not be null...");
+        mEngine.setTouchSlop(config.getTouchSlop());
+        return this;
+    }
+
+    @NonNull
+    public GestureConfig getConfig() {
+        return mConfig;
+    }
+
+    /**
+     * 设置飞行记录器，保留最近的原始采样与识别状态变化，供误触发排查
+     *
+     * @param recorder 飞行记录器，{@code null}时不记录
+     * @return self
+     */
+    public MiniGesture setFlightRecorder(@Nullable FlightRecorder recorder) {
+        mEngine.setFlightRecorder(recorder);
+        return this;
+    }
+
+    /**
+     * 设置笔画识别，与拖拽共享同一事件流，抬起后以整段笔迹匹配模板
+     *
+     * @param recognizer 笔画识别，{@code null}时禁用
+     * @return self
+     */
+    public MiniGesture setStrokeRecognizer(@Nullable StrokeRecognizer recognizer) {
+        mStroke = recognizer;
+        return this;
+    }
+
+    /**
+     * 设置耗时统计，记录事件到回调的延迟、识别耗时、各监听器方法的耗时与事件数，
+     * 同一{@link GestureMetrics}可在多个检测器间共享
+     *
+     * @param metrics 耗时统计，{@code null}时不统计
+     * @return self
+     */
+    public MiniGesture setMetrics(@Nullable GestureMetrics metrics) {
+        mMetrics = metrics;
         return this;
     }
+
+    @Nullable
+    public GestureMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * 设置监听器超时看门狗，汇总报告耗时超出预算的监听器方法
+     *
+     * @param watchdog 看门狗，{@code null}时不检查
+     * @return self
+     */
+    public MiniGesture setWatchdog(@Nullable ListenerWatchdog watchdog) {
+        mWatchdog = watchdog;
+        return this;
+    }
+
+    @Nullable
+    public ListenerWatchdog getWatchdog() {
+        return mWatchdog;
+    }
+
+    /**
+     * 设置自适应超时策略
+     * <p>
+     * 根据用户实际的单击按压时长缩短超时，不超过已设置的超时时间；
+     * 同一{@link AdaptiveTimeouts}可在多个检测器间共享
+     *
+     * @param adaptive 自适应超时策略，{@code null}时使用固定超时
+     * @return self
+     */
+    public MiniGesture setAdaptiveTimeouts(@Nullable AdaptiveTimeouts adaptive) {
+        mEngine.setAdaptiveTimeouts(adaptive);
+        return this;
+    }
+
+    /**
+     * 启用、禁用快照模式
+     * <p>
+     * 快照模式下按下时不再复制{@link MotionEvent}，只保留识别所需字段，
+     * 回调需要按下事件时才由快照构建，参见{@link TouchSnapshot}
+     *
+     * @param snapshotMode {@code true}开启，{@code false}禁用
+     * @return self
+     */
+    public MiniGesture setSnapshotMode(boolean snapshotMode) {
+        isSnapshotMode = snapshotMode;
+        return this;
+    }
+
+    /**
+     * 是否启用快照模式
+     *
+     * @return {@code true}开启，{@code false}禁用
+     */
+    public boolean isSnapshotMode() {
+        return isSnapshotMode;
+    }
+
+    /**
+     * 最近一次按下事件的只读快照
+     *
+     * @return 按下事件快照
+     */
+    @NonNull
+    public TouchSnapshot getDownSnapshot() {
+        return mDownSnapshot;
+    }
 }
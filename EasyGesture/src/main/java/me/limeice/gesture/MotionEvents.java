@@ -0,0 +1,55 @@
+package me.limeice.gesture;
+
+import android.view.MotionEvent;
+
+import androidx.annotation.NonNull;
+
+import me.limeice.gesture.core.TouchSample;
+
+/**
+ * {@link MotionEvent}与{@link TouchSample}之间的转换
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+final class MotionEvents {
+
+    private MotionEvents() {
+    }
+
+    /**
+     * 将触摸事件填充至采样
+     *
+     * @param sample 采样
+     * @param e      触摸事件
+     * @return 采样
+     */
+    static TouchSample fill(@NonNull TouchSample sample, @NonNull MotionEvent e) {
+        return fill(sample, e, false);
+    }
+
+    /**
+     * 将触摸事件填充至采样
+     *
+     * @param sample  采样
+     * @param e       触摸事件
+     * @param history 是否同时复制批量历史采样
+     * @return 采样
+     */
+    static TouchSample fill(@NonNull TouchSample sample, @NonNull MotionEvent e, boolean history) {
+        final int count = e.getPointerCount();
+        sample.set(e.getAction(), e.getDownTime(), e.getEventTime(), count);
+        for (int i = 0; i < count; i++) {
+            sample.setPointer(i, e.getPointerId(i), e.getX(i), e.getY(i));
+        }
+        if (!history) return sample;
+        final int size = e.getHistorySize();
+        for (int h = 0; h < size; h++) {
+            final int pos = sample.addHistory(e.getHistoricalEventTime(h));
+            for (int i = 0; i < count; i++) {
+                sample.setHistoricalPointer(pos, i, e.getHistoricalX(i, h), e.getHistoricalY(i, h));
+            }
+        }
+        return sample;
+    }
+}
@@ -0,0 +1,37 @@
+package me.limeice.gesture;
+
+import android.view.MotionEvent;
+
+import androidx.annotation.NonNull;
+
+import java.util.Objects;
+
+import me.limeice.gesture.core.TouchSample;
+import me.limeice.gesture.core.TraceRecorder;
+import me.limeice.gesture.standard.DefaultDetector;
+
+/**
+ * 记录经过的每个触摸事件（含批量历史采样），再交给被包装的检测器
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class RecordingDetector implements DefaultDetector {
+
+    private final DefaultDetector mDetector;                // 被包装的检测器
+
+    private final TraceRecorder mRecorder;                  // 轨迹记录器
+
+    private final TouchSample mSample = new TouchSample();  // 编码用采样
+
+    public RecordingDetector(@NonNull DefaultDetector detector, @NonNull TraceRecorder recorder) {
+        mDetector = Objects.requireNonNull(detector, "The DefaultDetector must not be null...");
+        mRecorder = Objects.requireNonNull(recorder, "The TraceRecorder must not be null...");
+    }
+
+    @Override
+    public boolean onTouchEvent(@NonNull MotionEvent e) {
+        mRecorder.record(MotionEvents.fill(mSample, e, true));
+        return mDetector.onTouchEvent(e);
+    }
+}
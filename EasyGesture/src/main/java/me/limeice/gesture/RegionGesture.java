@@ -0,0 +1,230 @@
+package me.limeice.gesture;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.ViewConfiguration;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Objects;
+
+import me.limeice.gesture.core.RegionDispatcher;
+import me.limeice.gesture.core.TouchSample;
+import me.limeice.gesture.standard.DefaultDetector;
+
+/**
+ * 窗口级多区域手势分发
+ * <p>
+ * 在根视图中接收事件，代替为每个可点击区域各建一个{@code MiniGesture}。区域坐标与事件坐标同一坐标系，
+ * 通常为根视图坐标。所有区域共用一个识别引擎、调度器与{@link GestureConfig}。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class RegionGesture implements DefaultDetector {
+
+    /**
+     * 单元格边长（dp）
+     */
+    private static final int CELL_SIZE_DP = 64;
+
+    /**
+     * 区域手势监听器，{@code region}为{@link #add}返回的区域
+     */
+    public interface OnRegionGestureListener {
+
+        /**
+         * 按下事件
+         *
+         * @param region 区域
+         * @param e      触摸事件
+         * @return {@code true}接受手势 ，{@code false}交给下层区域
+         */
+        default boolean onDown(int region, @NonNull MotionEvent e) {
+            return true;
+        }
+
+        /**
+         * 单击事件
+         *
+         * @param region 区域
+         * @param e      触摸事件
+         */
+        default void onTap(int region, @NonNull MotionEvent e) {
+
+        }
+
+        /**
+         * 长按事件
+         *
+         * @param region 区域
+         * @param e      按下事件
+         */
+        default void onLongPress(int region, @NonNull MotionEvent e) {
+
+        }
+
+        /**
+         * 拖拽事件
+         *
+         * @param region 区域
+         * @param e      触摸事件
+         * @param dx     水平位移
+         * @param dy     垂直位移
+         */
+        default void onDrag(int region, @NonNull MotionEvent e, float dx, float dy) {
+
+        }
+    }
+
+    private final OnRegionGestureListener mListener;       // 监听器
+
+    private final RegionDispatcher mDispatcher;             // 分发核心
+
+    private final TouchSample mSample = new TouchSample();  // 当前事件采样
+
+    private MotionEvent mEvent;                             // 正在分发的事件
+
+    private final TouchSnapshot mDownSnapshot;              // 按下事件快照
+
+    private int mDownGeneration;                            // 按下采样更新次数
+
+    /**
+     * 识别结果转发，将采样还原为对应的{@link MotionEvent}
+     */
+    private final RegionDispatcher.Callback mCallback = new RegionDispatcher.Callback() {
+
+        @Override
+        public boolean onDown(int region, @NonNull TouchSample e) {
+            return mListener.onDown(region, event(e));
+        }
+
+        @Override
+        public void onTap(int region, @NonNull TouchSample e) {
+            mListener.onTap(region, event(e));
+        }
+
+        @Override
+        public void onLongPress(int region, @NonNull TouchSample down) {
+            mListener.onLongPress(region, event(down));
+        }
+
+        @Override
+        public void onDrag(int region, @NonNull TouchSample e, float dx, float dy) {
+            mListener.onDrag(region, event(e), dx, dy);
+        }
+    };
+
+    /**
+     * @param context  上下文
+     * @param width    根视图宽度（像素），超出部分仍可命中，只是不再细分
+     * @param height   根视图高度（像素）
+     * @param listener 监听器
+     */
+    public RegionGesture(
+            @NonNull Context context,
+            int width,
+            int height,
+            @NonNull OnRegionGestureListener listener
+    ) {
+        this(context, null, width, height, listener);
+    }
+
+    public RegionGesture(
+            @NonNull Context context,
+            @Nullable Handler handler,
+            int width,
+            int height,
+            @NonNull OnRegionGestureListener listener
+    ) {
+        mListener = Objects.requireNonNull(listener, "The OnRegionGestureListener must not be null...");
+        final int cellSize = Math.max(1,
+                (int) (CELL_SIZE_DP * context.getResources().getDisplayMetrics().density));
+        mDispatcher = new RegionDispatcher(mCallback, SystemClock::uptimeMillis,
+                LooperScheduler.get(handler), Math.max(1, width), Math.max(1, height), cellSize);
+        mDispatcher.getEngine()
+                .setTouchSlop(GestureConfig.get(context).getTouchSlop())
+                .setLongPressTimeOut(ViewConfiguration.getLongPressTimeout());
+        mDownSnapshot = new TouchSnapshot(mDispatcher.getEngine().getDownSample());
+    }
+
+    /**
+     * 事件响应接口
+     *
+     * @param e 触摸事件
+     * @return {@code true}事件落在某个区域内并被接受
+     */
+    @Override
+    public boolean onTouchEvent(@NonNull MotionEvent e) {
+        mEvent = e;
+        final boolean isOnTouch = mDispatcher.onTouchEvent(MotionEvents.fill(mSample, e));
+        mEvent = null;
+        return isOnTouch;
+    }
+
+    /**
+     * 采样对应的触摸事件
+     *
+     * @param sample 采样
+     * @return 当前事件或按下事件，按下事件只在按下采样变化后重新构建
+     */
+    private MotionEvent event(TouchSample sample) {
+        if (sample == mSample && mEvent != null)
+            return mEvent;
+        if (mDownGeneration != mDispatcher.getEngine().getDownGeneration()) {
+            mDownGeneration = mDispatcher.getEngine().getDownGeneration();
+            mDownSnapshot.invalidate();
+        }
+        return mDownSnapshot.toMotionEvent();
+    }
+
+    /**
+     * 添加区域，位于已有区域之上
+     *
+     * @return 区域
+     */
+    public int add(float left, float top, float right, float bottom) {
+        return mDispatcher.add(left, top, right, bottom);
+    }
+
+    /**
+     * 移动区域或改变区域大小
+     *
+     * @param region 区域
+     */
+    public void update(int region, float left, float top, float right, float bottom) {
+        mDispatcher.update(region, left, top, right, bottom);
+    }
+
+    /**
+     * 移除区域
+     *
+     * @param region 区域
+     */
+    public void remove(int region) {
+        mDispatcher.remove(region);
+    }
+
+    /**
+     * 根视图大小变化时调用
+     *
+     * @param width  宽度（像素）
+     * @param height 高度（像素）
+     */
+    public void resize(int width, int height) {
+        mDispatcher.resize(Math.max(1, width), Math.max(1, height));
+    }
+
+    /**
+     * 分发核心，提供层级、启用状态等完整的区域操作
+     *
+     * @return 分发核心
+     */
+    @NonNull
+    public RegionDispatcher getDispatcher() {
+        return mDispatcher;
+    }
+}
@@ -0,0 +1,149 @@
+package me.limeice.gesture;
+
+import android.view.InputDevice;
+import android.view.MotionEvent;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import me.limeice.gesture.core.TouchSample;
+
+/**
+ * 触摸事件快照，{@link TouchSample}的只读视图
+ * <p>
+ * 快照只保存手势识别所需的字段，不持有{@link MotionEvent}。需要完整事件时通过{@link #toMotionEvent()}
+ * 按需构建，构建结果会被缓存至快照内容变化为止。构建的事件不含原始坐标、压力、设备等信息；
+ * 快照对应的原始事件仍然有效时（如正在分发的事件），直接返回原始事件。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class TouchSnapshot {
+
+    private final TouchSample mSample;
+
+    private int mGeneration;                                // 快照内容版本
+    private int mEventGeneration = -1;                      // 已构建事件对应的版本
+    private MotionEvent mEvent;                             // 已构建事件
+    private MotionEvent mSource;                            // 对应的原始事件，不由快照回收
+
+    private MotionEvent.PointerProperties[] mProperties = new MotionEvent.PointerProperties[0];
+    private MotionEvent.PointerCoords[] mCoords = new MotionEvent.PointerCoords[0];
+
+    TouchSnapshot(@NonNull TouchSample sample) {
+        mSample = sample;
+    }
+
+    /**
+     * 快照内容已变化，之前构建的事件失效
+     */
+    void invalidate() {
+        mGeneration++;
+    }
+
+    /**
+     * 关联原始事件，关联期间{@link #toMotionEvent()}直接返回原始事件
+     *
+     * @param source 原始事件，{@code null}时取消关联
+     */
+    void attach(@Nullable MotionEvent source) {
+        mSource = source;
+    }
+
+    /**
+     * 释放已构建的事件
+     */
+    void recycle() {
+        if (mEvent != null) {
+            mEvent.recycle();
+            mEvent = null;
+        }
+        mEventGeneration = -1;
+    }
+
+    /**
+     * 构建与快照对应的完整触摸事件
+     * <p>
+     * 返回的事件由快照持有，不要回收，也不要在快照内容变化后继续使用。
+     *
+     * @return 触摸事件
+     */
+    @NonNull
+    public MotionEvent toMotionEvent() {
+        if (mSource != null)
+            return mSource;
+        if (mEvent != null && mEventGeneration == mGeneration)
+            return mEvent;
+        recycle();
+        final int count = mSample.getPointerCount();
+        if (mProperties.length < count) {
+            mProperties = new MotionEvent.PointerProperties[count];
+            mCoords = new MotionEvent.PointerCoords[count];
+            for (int i = 0; i < count; i++) {
+                mProperties[i] = new MotionEvent.PointerProperties();
+                mCoords[i] = new MotionEvent.PointerCoords();
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            mProperties[i].clear();
+            mProperties[i].id = mSample.getPointerId(i);
+            mCoords[i].clear();
+            mCoords[i].x = mSample.getX(i);
+            mCoords[i].y = mSample.getY(i);
+            mCoords[i].pressure = 1f;
+            mCoords[i].size = 1f;
+        }
+        mEvent = MotionEvent.obtain(mSample.getDownTime(), mSample.getEventTime(), mSample.getAction(),
+                count, mProperties, mCoords, 0, 0, 1f, 1f, 0, 0, InputDevice.SOURCE_TOUCHSCREEN, 0);
+        mEventGeneration = mGeneration;
+        return mEvent;
+    }
+
+    public int getAction() {
+        return mSample.getAction();
+    }
+
+    public int getActionMasked() {
+        return mSample.getActionMasked();
+    }
+
+    public int getActionIndex() {
+        return mSample.getActionIndex();
+    }
+
+    public long getDownTime() {
+        return mSample.getDownTime();
+    }
+
+    public long getEventTime() {
+        return mSample.getEventTime();
+    }
+
+    public int getPointerCount() {
+        return mSample.getPointerCount();
+    }
+
+    public int getPointerId(int index) {
+        return mSample.getPointerId(index);
+    }
+
+    public int findPointerIndex(int id) {
+        return mSample.findPointerIndex(id);
+    }
+
+    public float getX() {
+        return mSample.getX();
+    }
+
+    public float getY() {
+        return mSample.getY();
+    }
+
+    public float getX(int index) {
+        return mSample.getX(index);
+    }
+
+    public float getY(int index) {
+        return mSample.getY(index);
+    }
+}
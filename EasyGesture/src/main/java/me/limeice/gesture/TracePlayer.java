@@ -0,0 +1,153 @@
+package me.limeice.gesture;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.InputDevice;
+import android.view.MotionEvent;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import me.limeice.gesture.core.TouchSample;
+import me.limeice.gesture.core.TraceReader;
+import me.limeice.gesture.standard.DefaultDetector;
+
+/**
+ * 在设备上按原始节奏回放手势轨迹
+ * <p>
+ * 事件时间整体平移至开始回放的时刻，按录制时的间隔在指定线程上重建{@link MotionEvent}并交给检测器，
+ * 超时类手势（长按、单击确认）与真实输入一致。只需验证识别结果时，
+ * 可在 JVM 上以{@link TraceReader#replay}快速回放。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class TracePlayer implements Runnable {
+
+    private final TraceReader mReader;                      // 轨迹读取器
+
+    private final DefaultDetector mDetector;                // 检测器
+
+    private final Handler mHandler;                         // 回放线程
+
+    private final TouchSample mSample = new TouchSample();  // 待分发采样
+
+    private long mOffset;                                   // 事件时间平移量
+
+    private boolean isPlaying;                              // 是否正在回放
+
+    private MotionEvent.PointerProperties[] mProperties = new MotionEvent.PointerProperties[0];
+    private MotionEvent.PointerCoords[] mCoords = new MotionEvent.PointerCoords[0];
+
+    /**
+     * @param reader   轨迹读取器
+     * @param detector 检测器
+     * @param handler  回放线程，为{@code null}时使用当前线程
+     */
+    public TracePlayer(
+            @NonNull TraceReader reader,
+            @NonNull DefaultDetector detector,
+            @Nullable Handler handler
+    ) {
+        mReader = Objects.requireNonNull(reader, "The TraceReader must not be null...");
+        mDetector = Objects.requireNonNull(detector, "The DefaultDetector must not be null...");
+        if (handler == null) {
+            final Looper looper = Looper.myLooper();
+            if (looper == null)
+                throw new RuntimeException("Can't create TracePlayer inside thread that has not called Looper.prepare()");
+            handler = new Handler(looper);
+        }
+        mHandler = handler;
+    }
+
+    /**
+     * 从第一条记录开始回放
+     *
+     * @throws IOException 读取失败
+     */
+    public void start() throws IOException {
+        stop();
+        mReader.rewind();
+        if (!mReader.next(mSample)) return;
+        mOffset = SystemClock.uptimeMillis() - mSample.getEventTime();
+        isPlaying = true;
+        mHandler.post(this);
+    }
+
+    /**
+     * 停止回放
+     */
+    public void stop() {
+        isPlaying = false;
+        mHandler.removeCallbacks(this);
+    }
+
+    public boolean isPlaying() {
+        return isPlaying;
+    }
+
+    @Override
+    public void run() {
+        if (!isPlaying) return;
+        final MotionEvent e = obtain(mSample);
+        mDetector.onTouchEvent(e);
+        e.recycle();
+        try {
+            isPlaying = mReader.next(mSample);
+        } catch (IOException ex) {
+            isPlaying = false;
+            throw new RuntimeException("Failed to read gesture trace", ex);
+        }
+        if (isPlaying)
+            mHandler.postAtTime(this, mSample.getEventTime() + mOffset);
+    }
+
+    /**
+     * 由采样构建平移后的触摸事件，历史采样以批量形式加入
+     */
+    private MotionEvent obtain(TouchSample sample) {
+        final int count = sample.getPointerCount();
+        if (mProperties.length < count) {
+            mProperties = new MotionEvent.PointerProperties[count];
+            mCoords = new MotionEvent.PointerCoords[count];
+            for (int i = 0; i < count; i++) {
+                mProperties[i] = new MotionEvent.PointerProperties();
+                mCoords[i] = new MotionEvent.PointerCoords();
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            mProperties[i].clear();
+            mProperties[i].id = sample.getPointerId(i);
+            mCoords[i].clear();
+            mCoords[i].pressure = 1f;
+            mCoords[i].size = 1f;
+        }
+        final int history = sample.getHistorySize();
+        final long firstTime = history > 0 ? sample.getHistoricalEventTime(0) : sample.getEventTime();
+        coords(sample, 0);
+        final MotionEvent e = MotionEvent.obtain(sample.getDownTime() + mOffset, firstTime + mOffset,
+                sample.getAction(), count, mProperties, mCoords, 0, 0, 1f, 1f, 0, 0,
+                InputDevice.SOURCE_TOUCHSCREEN, 0);
+        for (int h = 1; h <= history; h++) {
+            coords(sample, h);
+            final long time = h < history ? sample.getHistoricalEventTime(h) : sample.getEventTime();
+            e.addBatch(time + mOffset, mCoords, 0);
+        }
+        return e;
+    }
+
+    /**
+     * 填充坐标，{@code pos}等于历史采样数时为当前采样
+     */
+    private void coords(TouchSample sample, int pos) {
+        final boolean current = pos >= sample.getHistorySize();
+        for (int i = 0; i < sample.getPointerCount(); i++) {
+            mCoords[i].x = current ? sample.getX(i) : sample.getHistoricalX(i, pos);
+            mCoords[i].y = current ? sample.getY(i) : sample.getHistoricalY(i, pos);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package me.limeice.gesture.core;
+
+/**
+ * 自适应超时策略
+ * <p>
+ * 以定长直方图记录用户实际的双击间隔与未移动的按压时长，将双击、长按超时收缩至对应百分位（乘以余量），
+ * 且不低于下限、不高于检测器配置值。样本不足时使用配置值。
+ * 可单个检测器独享，也可在多个检测器之间共享为同一用户画像；非线程安全，应在事件线程中使用。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class AdaptiveTimeouts {
+
+    /**
+     * 直方图桶宽（毫秒）
+     */
+    private static final int BUCKET_WIDTH = 10;
+
+    /**
+     * 直方图桶数，覆盖 0 ~ 1270ms，超出的样本计入最后一个桶
+     */
+    private static final int BUCKETS = 128;
+
+    private final Histogram mTapIntervals = new Histogram();    // 双击间隔
+    private final Histogram mPressDurations = new Histogram();  // 单击按压时长
+
+    private float mPercentile = 0.95f;
+    private float mMargin = 1.25f;
+    private int mMinSamples = 16;
+    private int mMinDoubleTapTimeOut = 150;
+    private int mMinLongPressTimeOut = 300;
+
+    /**
+     * 记录一次双击间隔（上一次抬起至本次按下）
+     *
+     * @param millis 间隔（毫秒）
+     */
+    public void recordTapInterval(long millis) {
+        mTapIntervals.add(millis);
+    }
+
+    /**
+     * 记录一次未移动的按压时长（按下至抬起），包括触发了长按但在配置的长按超时之前抬起的按压，
+     * 否则长按超时收缩后，较慢的单击被识别为长按而不再计入，超时无法回升
+     *
+     * @param millis 时长（毫秒）
+     */
+    public void recordPressDuration(long millis) {
+        mPressDurations.add(millis);
+    }
+
+    /**
+     * 计算双击超时
+     *
+     * @param configured 检测器配置的超时
+     * @return 实际使用的超时
+     */
+    public int doubleTapTimeOut(int configured) {
+        return adapt(mTapIntervals, configured, mMinDoubleTapTimeOut);
+    }
+
+    /**
+     * 计算长按超时
+     *
+     * @param configured 检测器配置的超时
+     * @return 实际使用的超时
+     */
+    public int longPressTimeOut(int configured) {
+        return adapt(mPressDurations, configured, mMinLongPressTimeOut);
+    }
+
+    private int adapt(Histogram histogram, int configured, int min) {
+        if (histogram.total < mMinSamples)
+            return configured;
+        final int adapted = (int) (histogram.percentile(mPercentile) * mMargin);
+        return Math.min(configured, Math.max(min, adapted));
+    }
+
+    /**
+     * 设置采用的百分位
+     *
+     * @param percentile 百分位，(0, 1]
+     * @return self
+     */
+    public AdaptiveTimeouts setPercentile(float percentile) {
+        if (percentile <= 0 || percentile > 1)
+            throw new IllegalArgumentException("Percentile must be in (0, 1]: " + percentile);
+        mPercentile = percentile;
+        return this;
+    }
+
+    /**
+     * 设置百分位之上的余量系数
+     *
+     * @param margin 余量系数，不小于 1
+     * @return self
+     */
+    public AdaptiveTimeouts setMargin(float margin) {
+        if (margin < 1)
+            throw new IllegalArgumentException("Margin must not be less than 1: " + margin);
+        mMargin = margin;
+        return this;
+    }
+
+    /**
+     * 设置开始自适应所需的最少样本数
+     *
+     * @param minSamples 样本数
+     * @return self
+     */
+    public AdaptiveTimeouts setMinSamples(int minSamples) {
+        mMinSamples = minSamples;
+        return this;
+    }
+
+    /**
+     * 设置超时下限
+     *
+     * @param doubleTap 双击超时下限（毫秒）
+     * @param longPress 长按超时下限（毫秒）
+     * @return self
+     */
+    public AdaptiveTimeouts setLowerBounds(int doubleTap, int longPress) {
+        mMinDoubleTapTimeOut = doubleTap;
+        mMinLongPressTimeOut = longPress;
+        return this;
+    }
+
+    /**
+     * 清空已记录的样本
+     */
+    public void reset() {
+        mTapIntervals.clear();
+        mPressDurations.clear();
+    }
+
+    /**
+     * 定长直方图，样本总数达到上限时整体减半，使旧样本逐渐淡出
+     */
+    private static final class Histogram {
+
+        private static final int MAX_TOTAL = 512;
+
+        private final int[] buckets = new int[BUCKETS];
+
+        private int total;
+
+        void add(long millis) {
+            if (millis < 0) return;
+            final int index = (int) Math.min(BUCKETS - 1, millis / BUCKET_WIDTH);
+            buckets[index]++;
+            if (++total < MAX_TOTAL) return;
+            total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] >>= 1;
+                total += buckets[i];
+            }
+        }
+
+        /**
+         * 百分位对应的桶上沿（毫秒）
+         */
+        int percentile(float percentile) {
+            final int target = (int) Math.ceil(total * percentile);
+            int sum = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                sum += buckets[i];
+                if (sum >= target) return (i + 1) * BUCKET_WIDTH;
+            }
+            return BUCKETS * BUCKET_WIDTH;
+        }
+
+        void clear() {
+            for (int i = 0; i < BUCKETS; i++) buckets[i] = 0;
+            total = 0;
+        }
+    }
+}
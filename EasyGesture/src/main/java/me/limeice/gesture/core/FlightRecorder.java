@@ -0,0 +1,438 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+
+/**
+ * 触摸输入的飞行记录器，保留最近一段时间的原始采样与识别状态变化，供现场误触发排查
+ * <p>
+ * 检测器每收到一个采样、每发生一次状态变化（单击确认、长按触发、{@code POINTER_UP}时清空速度等）
+ * 即按定长头编码为{@code int}写入构造时分配的环形数组，空间不足时覆盖最旧的记录，记录过程不产生对象。
+ * 可随时{@link #dump()}为紧凑的二进制数据，只包含最近{@link #getWindow()}毫秒内的记录；
+ * 检测到输入异常（丢失抬起、事件时间倒退、未按下即移动）时通知{@link OnAnomalyListener}。
+ * <p>
+ * 非线程安全，记录与导出都应在检测器所在的线程中进行，流水线模式下通过{@link GesturePipeline#execute(Runnable)}导出。
+ * 导出格式为小端序，头部为魔数、版本号、记录时长（毫秒）与记录数各 4 字节，其后为连续的记录：
+ * <pre>
+ * 采样  int 记录长度（int 数，含本字段）, int 0, int action, long downTime, long eventTime,
+ *       int 触点数 n, int 历史采样数 h, n × { int id, float x, float y },
+ *       h × { long eventTime, n × { float x, float y } }
+ * 事件  int 7, int 1, long time, int 事件, float a, float b
+ * </pre>
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class FlightRecorder {
+
+    /**
+     * 默认记录时长（毫秒）
+     */
+    public static final int DEFAULT_WINDOW = 5000;
+
+    /**
+     * 默认容量（int 数），约 256KB
+     */
+    public static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    public static final int EVENT_TAP = 0;
+    public static final int EVENT_DOUBLE_TAP = 1;
+    public static final int EVENT_LONG_PRESS = 2;
+    public static final int EVENT_TAP_UP = 3;
+    public static final int EVENT_TAP_CONFIRMED = 4;
+    public static final int EVENT_TAP_REVOKED = 5;
+    public static final int EVENT_SCROLL_START = 6;     // a, b 为首次滑动距离
+    public static final int EVENT_DRAG_START = 7;       // a, b 为首次拖拽位移
+    public static final int EVENT_FLING = 8;            // a, b 为速度
+    public static final int EVENT_FLING_REJECTED = 9;   // a, b 为未达到阈值的速度
+    public static final int EVENT_VELOCITY_CLEARED = 10; // a 为抬起的触点 id，b 为速度点积
+    public static final int EVENT_ARENA_REJECTED = 11;
+    public static final int EVENT_ANOMALY = 12;         // a 为异常类型
+
+    /**
+     * 按下时仍有触点未抬起，抬起或取消事件丢失
+     */
+    public static final int ANOMALY_LOST_UP = 0;
+
+    /**
+     * 事件时间早于上一个事件
+     */
+    public static final int ANOMALY_TIME_REVERSED = 1;
+
+    /**
+     * 未按下即收到后续事件
+     */
+    public static final int ANOMALY_NO_DOWN = 2;
+
+    /**
+     * 由应用报告的异常
+     */
+    public static final int ANOMALY_USER = 3;
+
+    private static final String[] EVENT_NAMES = {
+            "tap", "doubleTap", "longPress", "tapUp", "tapConfirmed", "tapRevoked", "scrollStart",
+            "dragStart", "fling", "flingRejected", "velocityCleared", "arenaRejected", "anomaly"
+    };
+
+    static final int MAGIC = 0x31464745;        // "EGF1"
+    static final int VERSION = 1;
+
+    private static final int KIND_SAMPLE = 0;
+    private static final int KIND_EVENT = 1;
+    private static final int SAMPLE_HEADER = 9;
+    private static final int EVENT_SIZE = 7;
+
+    /**
+     * 输入异常监听
+     */
+    @FunctionalInterface
+    public interface OnAnomalyListener {
+
+        /**
+         * 检测到输入异常，在记录线程中回调，可在此{@link #dump()}
+         *
+         * @param recorder 记录器
+         * @param anomaly  异常类型，如{@link #ANOMALY_LOST_UP}
+         */
+        void onAnomaly(@NonNull FlightRecorder recorder, int anomaly);
+    }
+
+    /**
+     * 导出数据的读取回调
+     */
+    public interface Visitor {
+
+        /**
+         * 采样
+         *
+         * @param e 触摸采样，回调返回后复用
+         */
+        default void onSample(@NonNull TouchSample e) {
+        }
+
+        /**
+         * 状态变化
+         *
+         * @param time  时间（毫秒）
+         * @param event 事件，如{@link #EVENT_LONG_PRESS}
+         * @param a     参数
+         * @param b     参数
+         */
+        default void onEvent(long time, int event, float a, float b) {
+        }
+    }
+
+    private final int[] mRing;                      // 环形数组
+    private final int mMask;
+    private long mWritePos;                         // 已写入的总长度
+    private long mTailPos;                          // 最旧记录的位置
+    private int mWindow = DEFAULT_WINDOW;           // 记录时长（毫秒）
+
+    private OnAnomalyListener mAnomalyListener;     // 异常监听
+    private long mLastAnomaly = Long.MIN_VALUE;     // 上次通知异常的时间
+    private boolean isDown;                         // 是否有触点按下
+    private long mLastEventTime = Long.MIN_VALUE;   // 上一个采样的事件时间
+
+    public FlightRecorder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity 容量（int 数），向上取整为 2 的幂，不小于{@link SampleRing#MIN_CAPACITY}
+     */
+    public FlightRecorder(int capacity) {
+        if (capacity < SampleRing.MIN_CAPACITY)
+            throw new IllegalArgumentException("capacity must be at least " + SampleRing.MIN_CAPACITY);
+        int size = 1;
+        while (size < capacity) size <<= 1;
+        mRing = new int[size];
+        mMask = size - 1;
+    }
+
+    /**
+     * 设置记录时长，导出时只包含最新记录之前该时长内的记录，实际保留的长度同时受容量限制
+     *
+     * @param window 时长（毫秒），大于 0
+     * @return self
+     */
+    public FlightRecorder setWindow(int window) {
+        if (window <= 0)
+            throw new IllegalArgumentException("window must be positive");
+        mWindow = window;
+        return this;
+    }
+
+    public int getWindow() {
+        return mWindow;
+    }
+
+    /**
+     * 设置输入异常监听，两次通知的间隔不小于记录时长
+     *
+     * @param listener 监听，{@code null}时只记录不通知
+     * @return self
+     */
+    public FlightRecorder setOnAnomalyListener(@Nullable OnAnomalyListener listener) {
+        mAnomalyListener = listener;
+        return this;
+    }
+
+    /**
+     * 记录一个采样，并检查输入异常
+     *
+     * @param e 触摸采样
+     */
+    public void record(@NonNull TouchSample e) {
+        final int count = e.getPointerCount();
+        int history = e.getHistorySize();
+        if (sampleSize(count, history) > mRing.length)
+            history = 0;    // 单条记录超过容量时只保留当前采样
+        final int size = sampleSize(count, history);
+        final long time = e.getEventTime();
+        long p = reserve(size);
+        put(p, size);
+        put(p + 1, KIND_SAMPLE);
+        put(p + 2, e.getAction());
+        putLong(p + 3, e.getDownTime());
+        putLong(p + 5, time);
+        put(p + 7, count);
+        put(p + 8, history);
+        p += SAMPLE_HEADER;
+        for (int i = 0; i < count; i++, p += 3) {
+            put(p, e.getPointerId(i));
+            put(p + 1, Float.floatToRawIntBits(e.getX(i)));
+            put(p + 2, Float.floatToRawIntBits(e.getY(i)));
+        }
+        for (int h = 0; h < history; h++) {
+            putLong(p, e.getHistoricalEventTime(h));
+            p += 2;
+            for (int i = 0; i < count; i++, p += 2) {
+                put(p, Float.floatToRawIntBits(e.getHistoricalX(i, h)));
+                put(p + 1, Float.floatToRawIntBits(e.getHistoricalY(i, h)));
+            }
+        }
+        mWritePos = p;
+
+        final int action = e.getActionMasked();
+        final long last = mLastEventTime;
+        mLastEventTime = time;
+        if (last == Long.MIN_VALUE) {
+            // 首个采样，之前的状态未知
+            isDown = action != TouchSample.ACTION_UP && action != TouchSample.ACTION_CANCEL;
+            return;
+        }
+        if (time < last)
+            anomaly(ANOMALY_TIME_REVERSED, time);
+        switch (action) {
+            case TouchSample.ACTION_DOWN:
+                if (isDown) anomaly(ANOMALY_LOST_UP, time);
+                isDown = true;
+                break;
+            case TouchSample.ACTION_UP:
+                if (!isDown) anomaly(ANOMALY_NO_DOWN, time);
+                isDown = false;
+                break;
+            case TouchSample.ACTION_CANCEL:
+                isDown = false;
+                break;
+            default:
+                if (!isDown) {
+                    anomaly(ANOMALY_NO_DOWN, time);
+                    isDown = true;  // 同一轮事件只报告一次
+                }
+                break;
+        }
+    }
+
+    /**
+     * 记录一次状态变化
+     *
+     * @param time  时间（毫秒），与事件时间同一时基
+     * @param event 事件，如{@link #EVENT_LONG_PRESS}
+     * @param a     参数
+     * @param b     参数
+     */
+    public void event(long time, int event, float a, float b) {
+        final long p = reserve(EVENT_SIZE);
+        put(p, EVENT_SIZE);
+        put(p + 1, KIND_EVENT);
+        putLong(p + 2, time);
+        put(p + 4, event);
+        put(p + 5, Float.floatToRawIntBits(a));
+        put(p + 6, Float.floatToRawIntBits(b));
+        mWritePos = p + EVENT_SIZE;
+    }
+
+    /**
+     * 记录一次输入异常，距上次通知超过记录时长时通知{@link OnAnomalyListener}
+     *
+     * @param anomaly 异常类型，如{@link #ANOMALY_USER}
+     * @param time    时间（毫秒），与事件时间同一时基
+     */
+    public void anomaly(int anomaly, long time) {
+        event(time, EVENT_ANOMALY, anomaly, 0);
+        if (mAnomalyListener == null) return;
+        if (mLastAnomaly != Long.MIN_VALUE && time - mLastAnomaly < mWindow) return;
+        mLastAnomaly = time;
+        mAnomalyListener.onAnomaly(this, anomaly);
+    }
+
+    /**
+     * 导出最近记录时长内的记录
+     *
+     * @return 二进制数据
+     */
+    @NonNull
+    public byte[] dump() {
+        final long start = windowStart();
+        int count = 0;
+        long length = 0;
+        for (long p = start; p < mWritePos; p += get(p)) {
+            count++;
+            length += get(p);
+        }
+        final ByteBuffer b = ByteBuffer.allocate((int) (16 + length * 4)).order(ByteOrder.LITTLE_ENDIAN);
+        b.putInt(MAGIC).putInt(VERSION).putInt(mWindow).putInt(count);
+        for (long p = start; p < mWritePos; p++) b.putInt(get(p));
+        return b.array();
+    }
+
+    /**
+     * 导出最近记录时长内的记录至通道，通道不会被关闭
+     *
+     * @param channel 输出
+     * @throws IOException 写入失败
+     */
+    public void dump(@NonNull WritableByteChannel channel) throws IOException {
+        Objects.requireNonNull(channel, "The WritableByteChannel must not be null...");
+        final ByteBuffer b = ByteBuffer.wrap(dump());
+        while (b.hasRemaining()) channel.write(b);
+    }
+
+    /**
+     * 清空记录
+     */
+    public void clear() {
+        mTailPos = mWritePos;
+        isDown = false;
+        mLastEventTime = Long.MIN_VALUE;
+    }
+
+    /**
+     * 读取导出的数据
+     *
+     * @param data    {@link #dump()}导出的数据
+     * @param visitor 读取回调，按记录顺序回调
+     * @throws IOException 不是飞行记录或数据损坏
+     */
+    public static void read(@NonNull ByteBuffer data, @NonNull Visitor visitor) throws IOException {
+        final ByteBuffer b = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (b.remaining() < 16 || b.getInt() != MAGIC)
+            throw new IOException("Not a gesture flight record");
+        if (b.getInt() != VERSION)
+            throw new IOException("Unsupported gesture flight record version");
+        b.getInt();     // 记录时长
+        final int count = b.getInt();
+        final TouchSample sample = new TouchSample();
+        for (int r = 0; r < count; r++) {
+            final int start = b.position();
+            if (b.remaining() < 8)
+                throw new IOException("Corrupt gesture flight record at " + start);
+            final int size = b.getInt();
+            final int kind = b.getInt();
+            if (size < 2 || (long) size * 4 > b.remaining() + 8)
+                throw new IOException("Corrupt gesture flight record at " + start);
+            if (kind == KIND_EVENT) {
+                visitor.onEvent(b.getLong(), b.getInt(), b.getFloat(), b.getFloat());
+            } else if (kind == KIND_SAMPLE) {
+                final int action = b.getInt();
+                final long downTime = b.getLong();
+                final long eventTime = b.getLong();
+                final int n = b.getInt();
+                final int h = b.getInt();
+                if (n < 0 || h < 0 || sampleSize(n, h) != size)
+                    throw new IOException("Corrupt gesture flight record at " + start);
+                sample.set(action, downTime, eventTime, n);
+                for (int i = 0; i < n; i++) sample.setPointer(i, b.getInt(), b.getFloat(), b.getFloat());
+                for (int j = 0; j < h; j++) {
+                    final int pos = sample.addHistory(b.getLong());
+                    for (int i = 0; i < n; i++) sample.setHistoricalPointer(pos, i, b.getFloat(), b.getFloat());
+                }
+                visitor.onSample(sample);
+            }
+            b.position(start + size * 4);
+        }
+    }
+
+    /**
+     * 事件名
+     *
+     * @param event 事件，如{@link #EVENT_TAP}
+     * @return 事件名
+     */
+    @NonNull
+    public static String nameOf(int event) {
+        return event >= 0 && event < EVENT_NAMES.length ? EVENT_NAMES[event] : "event" + event;
+    }
+
+    /**
+     * 在环形数组中预留空间，覆盖最旧的记录
+     *
+     * @param size 记录长度（int 数）
+     * @return 写入位置
+     */
+    private long reserve(int size) {
+        final long write = mWritePos;
+        while (write + size - mTailPos > mRing.length) mTailPos += get(mTailPos);
+        return write;
+    }
+
+    /**
+     * 记录时长内最早的记录位置
+     */
+    private long windowStart() {
+        // 最新的时间
+        long newest = Long.MIN_VALUE;
+        for (long p = mTailPos; p < mWritePos; p += get(p)) {
+            final long time = time(p);
+            if (time > newest) newest = time;
+        }
+        long p = mTailPos;
+        while (p < mWritePos && time(p) < newest - mWindow) p += get(p);
+        return p;
+    }
+
+    private long time(long p) {
+        return get(p + 1) == KIND_SAMPLE ? getLong(p + 5) : getLong(p + 2);
+    }
+
+    private static int sampleSize(int count, int history) {
+        return SAMPLE_HEADER + count * 3 + history * (2 + count * 2);
+    }
+
+    private int get(long pos) {
+        return mRing[(int) (pos & mMask)];
+    }
+
+    private long getLong(long pos) {
+        return (get(pos) & 0xFFFFFFFFL) | ((long) get(pos + 1) << 32);
+    }
+
+    private void put(long pos, int value) {
+        mRing[(int) (pos & mMask)] = value;
+    }
+
+    /**
+     * 低位在前，导出为小端序字节后即为小端序的 long
+     */
+    private void putLong(long pos, long value) {
+        put(pos, (int) value);
+        put(pos + 1, (int) (value >>> 32));
+    }
+}
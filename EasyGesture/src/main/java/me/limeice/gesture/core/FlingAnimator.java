@@ -0,0 +1,301 @@
+package me.limeice.gesture.core;
+
+/**
+ * 快速滑动动画，不产生对象
+ * <p>
+ * 开始时即计算出停止位置与时长，之后每帧调用{@link #computeOffset(long)}更新当前位置与速度。
+ * 二维滑动沿初速度方向按合速度计算，与{@code android.widget.Scroller}一致。
+ * 支持两种减速模型：
+ * <ul>
+ * <li>{@link #MODE_SPLINE}：与 Android 滚动一致的样条减速，由摩擦系数与屏幕密度决定</li>
+ * <li>{@link #MODE_EXPONENTIAL}：指数衰减，由时间常数决定，剩余距离不足半像素时停止</li>
+ * </ul>
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class FlingAnimator {
+
+    /**
+     * 样条减速
+     */
+    public static final int MODE_SPLINE = 1;
+
+    /**
+     * 指数衰减
+     */
+    public static final int MODE_EXPONENTIAL = 2;
+
+    // 样条曲线参数，来自于官方源码 OverScroller
+    private static final float DECELERATION_RATE = (float) (Math.log(0.78) / Math.log(0.9));
+    private static final float INFLEXION = 0.35f;
+    private static final float START_TENSION = 0.5f;
+    private static final float END_TENSION = 1.0f;
+    private static final float P1 = START_TENSION * INFLEXION;
+    private static final float P2 = 1.0f - END_TENSION * (1.0f - INFLEXION);
+    private static final int SAMPLES = 100;
+    private static final float[] SPLINE_POSITION = new float[SAMPLES + 1];
+
+    static {
+        float min = 0.0f;
+        for (int i = 0; i < SAMPLES; i++) {
+            final float alpha = (float) i / SAMPLES;
+            float max = 1.0f;
+            float x, coef;
+            for (; ; ) {
+                x = min + (max - min) / 2.0f;
+                coef = 3.0f * x * (1.0f - x);
+                final float tx = coef * ((1.0f - x) * P1 + x * P2) + x * x * x;
+                if (Math.abs(tx - alpha) < 1E-5) break;
+                if (tx > alpha) max = x;
+                else min = x;
+            }
+            SPLINE_POSITION[i] = coef * ((1.0f - x) * START_TENSION + x) + x * x * x;
+        }
+        SPLINE_POSITION[SAMPLES] = 1.0f;
+    }
+
+    /**
+     * 指数衰减停止时的剩余距离（像素）
+     */
+    private static final float STOP_DISTANCE = 0.5f;
+
+    private final float mPhysicalCoeff;         // 样条减速物理系数
+
+    private int mMode = MODE_SPLINE;            // 减速模型
+    private float mFriction = 0.015f;           // 样条摩擦系数
+    private int mTimeConstant = 325;            // 指数衰减时间常数（毫秒）
+
+    private float mStartX, mStartY;             // 起点
+    private float mFinalX, mFinalY;             // 停止位置
+    private float mCurrX, mCurrY;               // 当前位置
+    private float mCurrVelocityX, mCurrVelocityY; // 当前速度（像素/秒）
+    private float mDirectionX, mDirectionY;     // 初速度方向
+    private float mDistance;                    // 滑动总距离
+    private float mVelocity;                    // 初速度大小（像素/秒）
+    private long mStartTime;                    // 开始时间（毫秒）
+    private int mDuration;                      // 时长（毫秒）
+    private boolean isFinished = true;
+
+    /**
+     * @param density 屏幕密度，即{@code DisplayMetrics.density}
+     */
+    public FlingAnimator(float density) {
+        final float ppi = density * 160.0f;
+        // g (m/s²) × 英寸/米 × ppi × 经验系数
+        mPhysicalCoeff = 9.80665f * 39.37f * ppi * 0.84f;
+    }
+
+    /**
+     * 开始快速滑动，停止位置与时长在返回前已确定
+     *
+     * @param startX    起点横坐标
+     * @param startY    起点纵坐标
+     * @param velocityX 横向初速度（像素/秒）
+     * @param velocityY 纵向初速度（像素/秒）
+     * @param startTime 开始时间（毫秒），与之后传入{@link #computeOffset(long)}的时间同一时基
+     */
+    public void start(float startX, float startY, float velocityX, float velocityY, long startTime) {
+        mStartX = mCurrX = startX;
+        mStartY = mCurrY = startY;
+        mStartTime = startTime;
+        final float velocity = (float) Math.hypot(velocityX, velocityY);
+        mVelocity = velocity;
+        mDirectionX = velocity == 0 ? 0 : velocityX / velocity;
+        mDirectionY = velocity == 0 ? 0 : velocityY / velocity;
+        if (velocity == 0) {
+            mDistance = 0;
+            mDuration = 0;
+        } else if (mMode == MODE_EXPONENTIAL) {
+            final float amplitude = velocity / 1000f * mTimeConstant;
+            mDistance = amplitude;
+            mDuration = amplitude > STOP_DISTANCE
+                    ? (int) (mTimeConstant * Math.log(amplitude / STOP_DISTANCE))
+                    : 0;
+        } else {
+            final double l = Math.log(INFLEXION * velocity / (mFriction * mPhysicalCoeff));
+            mDuration = (int) (1000.0 * Math.exp(l / (DECELERATION_RATE - 1.0)));
+            mDistance = (float) (mFriction * mPhysicalCoeff
+                    * Math.exp(DECELERATION_RATE / (DECELERATION_RATE - 1.0) * l));
+        }
+        mFinalX = startX + Math.round(mDistance * mDirectionX);
+        mFinalY = startY + Math.round(mDistance * mDirectionY);
+        mCurrVelocityX = velocityX;
+        mCurrVelocityY = velocityY;
+        isFinished = mDuration <= 0;
+        if (isFinished) {
+            mCurrX = mFinalX;
+            mCurrY = mFinalY;
+            mCurrVelocityX = mCurrVelocityY = 0;
+        }
+    }
+
+    /**
+     * 计算指定时间的位置与速度
+     *
+     * @param time 时间（毫秒）
+     * @return {@code true}动画仍在进行 {@code false}动画已结束
+     */
+    public boolean computeOffset(long time) {
+        if (isFinished) return false;
+        final long elapsed = time - mStartTime;
+        if (elapsed >= mDuration) {
+            mCurrX = mFinalX;
+            mCurrY = mFinalY;
+            mCurrVelocityX = mCurrVelocityY = 0;
+            isFinished = true;
+            return false;
+        }
+        final float t = Math.max(0, elapsed) / (float) mDuration;
+        final float fraction, velocity;
+        if (mMode == MODE_EXPONENTIAL) {
+            final float decay = (float) Math.exp(-Math.max(0, elapsed) / (double) mTimeConstant);
+            fraction = 1f - decay;
+            velocity = mVelocity * decay;
+        } else {
+            final int index = (int) (SAMPLES * t);
+            final float tInf = (float) index / SAMPLES;
+            final float tSup = (float) (index + 1) / SAMPLES;
+            final float dInf = SPLINE_POSITION[index];
+            final float dSup = SPLINE_POSITION[index + 1];
+            final float coef = (dSup - dInf) / (tSup - tInf);
+            fraction = dInf + (t - tInf) * coef;
+            velocity = coef * mDistance / mDuration * 1000.0f;
+        }
+        mCurrX = mStartX + fraction * mDistance * mDirectionX;
+        mCurrY = mStartY + fraction * mDistance * mDirectionY;
+        mCurrVelocityX = velocity * mDirectionX;
+        mCurrVelocityY = velocity * mDirectionY;
+        return true;
+    }
+
+    /**
+     * 立即停在当前位置
+     */
+    public void abort() {
+        mFinalX = mCurrX;
+        mFinalY = mCurrY;
+        mCurrVelocityX = mCurrVelocityY = 0;
+        isFinished = true;
+    }
+
+    /**
+     * 设置减速模型，下一次{@link #start}时生效
+     *
+     * @param mode {@link #MODE_SPLINE}或{@link #MODE_EXPONENTIAL}
+     * @return self
+     */
+    public FlingAnimator setMode(int mode) {
+        if (mode != MODE_SPLINE && mode != MODE_EXPONENTIAL)
+            throw new IllegalArgumentException("Unknown fling mode: " + mode);
+        mMode = mode;
+        return this;
+    }
+
+    /**
+     * 设置样条摩擦系数，默认同{@code ViewConfiguration.getScrollFriction()}
+     *
+     * @param friction 摩擦系数
+     * @return self
+     */
+    public FlingAnimator setFriction(float friction) {
+        if (friction <= 0)
+            throw new IllegalArgumentException("Friction must be positive: " + friction);
+        mFriction = friction;
+        return this;
+    }
+
+    /**
+     * 设置指数衰减时间常数，速度每经过该时长衰减为 1/e
+     *
+     * @param timeConstant 时间常数（毫秒）
+     * @return self
+     */
+    public FlingAnimator setTimeConstant(int timeConstant) {
+        if (timeConstant <= 0)
+            throw new IllegalArgumentException("Time constant must be positive: " + timeConstant);
+        mTimeConstant = timeConstant;
+        return this;
+    }
+
+    public int getMode() {
+        return mMode;
+    }
+
+    public float getFriction() {
+        return mFriction;
+    }
+
+    public int getTimeConstant() {
+        return mTimeConstant;
+    }
+
+    public boolean isFinished() {
+        return isFinished;
+    }
+
+    public float getStartX() {
+        return mStartX;
+    }
+
+    public float getStartY() {
+        return mStartY;
+    }
+
+    /**
+     * 停止位置横坐标，开始时即已确定
+     *
+     * @return 横坐标
+     */
+    public float getFinalX() {
+        return mFinalX;
+    }
+
+    /**
+     * 停止位置纵坐标，开始时即已确定
+     *
+     * @return 纵坐标
+     */
+    public float getFinalY() {
+        return mFinalY;
+    }
+
+    public float getCurrX() {
+        return mCurrX;
+    }
+
+    public float getCurrY() {
+        return mCurrY;
+    }
+
+    /**
+     * 当前横向速度
+     *
+     * @return 速度（像素/秒）
+     */
+    public float getCurrVelocityX() {
+        return mCurrVelocityX;
+    }
+
+    /**
+     * 当前纵向速度
+     *
+     * @return 速度（像素/秒）
+     */
+    public float getCurrVelocityY() {
+        return mCurrVelocityY;
+    }
+
+    public long getStartTime() {
+        return mStartTime;
+    }
+
+    /**
+     * 滑动时长，开始时即已确定
+     *
+     * @return 时长（毫秒）
+     */
+    public int getDuration() {
+        return mDuration;
+    }
+}
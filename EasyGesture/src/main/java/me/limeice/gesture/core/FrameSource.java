@@ -0,0 +1,42 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 帧信号源，按显示帧合并连续手势回调
+ * <p>
+ * 同一接收者在一帧内多次请求只回调一次，回调后需重新请求。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public interface FrameSource {
+
+    /**
+     * 帧信号接收者
+     */
+    @FunctionalInterface
+    interface FrameCallback {
+
+        /**
+         * 新的一帧开始
+         *
+         * @param frameTimeNanos 帧时间（纳秒）
+         */
+        void onFrame(long frameTimeNanos);
+    }
+
+    /**
+     * 请求在下一帧回调
+     *
+     * @param callback 接收者
+     */
+    void requestFrame(@NonNull FrameCallback callback);
+
+    /**
+     * 取消尚未回调的请求
+     *
+     * @param callback 接收者
+     */
+    void cancelFrame(@NonNull FrameCallback callback);
+}
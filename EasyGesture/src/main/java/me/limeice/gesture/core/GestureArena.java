@@ -0,0 +1,277 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Objects;
+
+/**
+ * 手势竞技场，在共享同一事件流的多个识别器之间仲裁
+ * <p>
+ * 每次按下开始一轮竞争，以按下时间区分。成员在处理每个事件前调用{@link #enter(Member, TouchSample)}，
+ * 按下事件时加入本轮，之后仅在仍有资格时继续处理。成员一旦确定自己能否成立即调用
+ * {@link #accept(Member)}或{@link #reject(Member)}：首个接受者获胜，其余成员立即收到
+ * {@link Member#onArenaRejected()}并停止处理；获胜者独占此后的事件。
+ * <p>
+ * 需要多次按下才能成立的成员（如双击、三击）调用{@link #hold(Member)}占住本轮：
+ * 有成员占住时，下一次按下不开始新的一轮，其他成员的接受改为等待，不立即获胜；
+ * 占住的成员接受时照常获胜，等待者出局；所有占住的成员都已退出或{@link #release(Member)}后，
+ * 等待者获胜并收到{@link Member#onArenaAccepted()}，应在其中补发此前等待的手势。
+ * 同一轮只有第一个等待者有效，之后的接受者立即出局。
+ * <p>
+ * 竞技场不持有事件分发，成员可以处在不同的视图或检测器中，只需共享同一实例。
+ * 非线程安全，应在事件线程中使用。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class GestureArena {
+
+    /**
+     * 竞技场成员
+     */
+    public interface Member {
+
+        /**
+         * 赢得本轮竞争，此后独占事件；等待中的接受者获胜时应在此补发等待的手势
+         */
+        void onArenaAccepted();
+
+        /**
+         * 被其他成员击败，应立即停止处理并取消挂起的任务；成员主动拒绝时不回调
+         */
+        void onArenaRejected();
+    }
+
+    private Member[] mMembers = new Member[4];  // 本轮仍有资格的成员，按加入顺序
+    private boolean[] mHeld = new boolean[4];   // 成员是否占住本轮
+    private int mSize;                          // 成员数
+    private int mHoldCount;                     // 占住本轮的成员数
+    private Member mWinner;                     // 获胜者
+    private Member mPending;                    // 等待占住者裁决的接受者
+    private long mDownTime = Long.MIN_VALUE;    // 本轮按下时间
+    private boolean isOpen;                     // 是否存在进行中的一轮
+
+    /**
+     * 成员处理事件前调用，按下事件时加入新的一轮，本轮被占住时加入当前一轮
+     *
+     * @param member 成员
+     * @param e      触摸采样
+     * @return {@code true}继续处理 {@code false}已出局或正在等待，应忽略该事件
+     */
+    public boolean enter(@NonNull Member member, @NonNull TouchSample e) {
+        Objects.requireNonNull(member, "The Member must not be null...");
+        if (e.getActionMasked() == TouchSample.ACTION_DOWN) {
+            if (!isOpen || (e.getDownTime() != mDownTime && !isHeld()))
+                open(e.getDownTime());
+            mDownTime = e.getDownTime();
+            if (mWinner != null)
+                return mWinner == member;
+            if (member == mPending)
+                return false;
+            if (indexOf(member) < 0)
+                add(member);
+            return true;
+        }
+        if (!isOpen)
+            return false;
+        if (mWinner != null)
+            return mWinner == member;
+        return member != mPending && indexOf(member) >= 0;
+    }
+
+    /**
+     * 成员占住本轮，直到其接受、拒绝或{@link #release(Member)}，已有获胜者时无效
+     *
+     * @param member 成员
+     */
+    public void hold(@NonNull Member member) {
+        if (mWinner != null)
+            return;
+        final int index = indexOf(member);
+        if (index < 0 || mHeld[index])
+            return;
+        mHeld[index] = true;
+        mHoldCount++;
+    }
+
+    /**
+     * 成员不再占住本轮但仍参与竞争，没有其他占住者时等待者获胜
+     *
+     * @param member 成员
+     */
+    public void release(@NonNull Member member) {
+        final int index = indexOf(member);
+        if (index < 0 || !mHeld[index])
+            return;
+        mHeld[index] = false;
+        mHoldCount--;
+        resolve();
+    }
+
+    /**
+     * 成员的接受是否正在等待占住者裁决
+     *
+     * @param member 成员
+     * @return {@code true}正在等待
+     */
+    public boolean isPending(@NonNull Member member) {
+        return mPending == member;
+    }
+
+    /**
+     * 成员宣告手势成立，已有其他获胜者时失败；本轮被其他成员占住时改为等待，
+     * 可由{@link #isPending(Member)}区分等待与出局
+     *
+     * @param member 成员
+     * @return {@code true}获胜（或已是获胜者） {@code false}已出局或正在等待
+     */
+    public boolean accept(@NonNull Member member) {
+        if (mWinner != null)
+            return mWinner == member;
+        final int index = indexOf(member);
+        if (index < 0)
+            return false;
+        if (mHoldCount > 0 && !mHeld[index]) {
+            if (mPending == null)
+                mPending = member;
+            else if (mPending != member)
+                eliminate(index);   // 已有更早的等待者
+            return false;
+        }
+        win(member);
+        return true;
+    }
+
+    private void win(Member member) {
+        mWinner = member;
+        mPending = null;
+        mHoldCount = 0;
+        // 先移出再回调，回调中调用 enter/accept 时看到的已是最终结果
+        final int size = mSize;
+        for (int i = 0; i < size; i++) {
+            final Member loser = mMembers[i];
+            mMembers[i] = null;
+            mHeld[i] = false;
+            if (loser != member)
+                loser.onArenaRejected();
+        }
+        mMembers[0] = member;
+        mSize = 1;
+        member.onArenaAccepted();
+    }
+
+    /**
+     * 成员宣告手势不成立，退出本轮
+     *
+     * @param member 成员
+     */
+    public void reject(@NonNull Member member) {
+        if (mWinner == member) {
+            mWinner = null;
+            mSize = 0;
+            mMembers[0] = null;
+            return;
+        }
+        final int index = indexOf(member);
+        if (index < 0)
+            return;
+        if (mPending == member)
+            mPending = null;
+        remove(index);
+        resolve();
+    }
+
+    /**
+     * 结束当前一轮，所有成员出局（不回调），下一次按下开始新的一轮
+     */
+    public void close() {
+        for (int i = 0; i < mSize; i++) {
+            mMembers[i] = null;
+            mHeld[i] = false;
+        }
+        mSize = 0;
+        mHoldCount = 0;
+        mWinner = null;
+        mPending = null;
+        isOpen = false;
+    }
+
+    /**
+     * 本轮获胜者
+     *
+     * @return 获胜者，尚未决出时为{@code null}
+     */
+    @Nullable
+    public Member getWinner() {
+        return mWinner;
+    }
+
+    /**
+     * 本轮仍有资格的成员数
+     *
+     * @return 成员数
+     */
+    public int size() {
+        return mSize;
+    }
+
+    private void open(long downTime) {
+        close();
+        mDownTime = downTime;
+        isOpen = true;
+    }
+
+    /**
+     * 本轮是否被占住，占住时下一次按下不开始新的一轮
+     */
+    private boolean isHeld() {
+        return mWinner == null && mHoldCount > 0;
+    }
+
+    /**
+     * 没有占住者时由等待者获胜
+     */
+    private void resolve() {
+        if (mWinner == null && mHoldCount == 0 && mPending != null)
+            win(mPending);
+    }
+
+    /**
+     * 移出成员并通知其落败
+     */
+    private void eliminate(int index) {
+        final Member loser = mMembers[index];
+        remove(index);
+        loser.onArenaRejected();
+    }
+
+    private void remove(int index) {
+        if (mHeld[index])
+            mHoldCount--;
+        final int moved = mSize - index - 1;
+        System.arraycopy(mMembers, index + 1, mMembers, index, moved);
+        System.arraycopy(mHeld, index + 1, mHeld, index, moved);
+        mMembers[--mSize] = null;
+        mHeld[mSize] = false;
+    }
+
+    private void add(Member member) {
+        if (mSize == mMembers.length) {
+            final Member[] grown = new Member[mSize << 1];
+            System.arraycopy(mMembers, 0, grown, 0, mSize);
+            mMembers = grown;
+            final boolean[] held = new boolean[mSize << 1];
+            System.arraycopy(mHeld, 0, held, 0, mSize);
+            mHeld = held;
+        }
+        mMembers[mSize++] = member;
+    }
+
+    private int indexOf(Member member) {
+        for (int i = 0; i < mSize; i++) {
+            if (mMembers[i] == member) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,23 @@
+package me.limeice.gesture.core;
+
+/**
+ * 手势时钟，为识别引擎提供当前时间
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface GestureClock {
+
+    /**
+     * JVM 单调时钟，不受系统时间调整影响
+     */
+    GestureClock MONOTONIC = () -> System.nanoTime() / 1_000_000L;
+
+    /**
+     * 当前时间
+     *
+     * @return 时间（毫秒）
+     */
+    long now();
+}
@@ -0,0 +1,1221 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Objects;
+
+/**
+ * {@code GestureLite}的识别引擎，与平台无关
+ * <p>
+ * 输入为{@link TouchSample}，时间与延时任务分别由{@link GestureClock}、{@link GestureScheduler}提供，
+ * 可直接在 JVM 上运行。所有时间判定以事件自身的{@link TouchSample#getEventTime()}为准，
+ * 时钟只用于扣除事件到达前已经过去的时间，时钟须与事件时间同一时基。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class GestureLiteEngine implements SampleDetector, GestureScheduler.Target,
+        FrameSource.FrameCallback, GestureArena.Member {
+
+    /**
+     * 长按事件定义
+     */
+    public static final int LONG_PRESS = 0x01;
+
+    /**
+     * 点击事件定义
+     */
+    public static final int TAP = 0x02;
+
+    /**
+     * 双击最小间隔（毫秒），更短的间隔视为抖动
+     */
+    public static final int DOUBLE_TAP_MIN_TIME = 40;
+
+    /**
+     * 识别结果回调，参数含义同{@code GestureLite.OnGestureListener}
+     */
+    public interface Callback {
+
+        /**
+         * 长按事件
+         *
+         * @param down 按下采样
+         */
+        default void onLongPress(@NonNull TouchSample down) {
+
+        }
+
+        /**
+         * 双击事件
+         *
+         * @param e 触摸采样
+         */
+        default void onDoubleTap(@NonNull TouchSample e) {
+
+        }
+
+        /**
+         * 单击事件
+         *
+         * @param e 触摸采样
+         */
+        default void onTap(@NonNull TouchSample e) {
+
+        }
+
+        /**
+         * 预判单击抬起，仅在预判单击模式下回调，之后必定回调
+         * {@link #onTapConfirmed(TouchSample)}或{@link #onTapRevoked(TouchSample)}之一
+         *
+         * @param e 抬起采样
+         */
+        default void onTapUp(@NonNull TouchSample e) {
+
+        }
+
+        /**
+         * 预判单击成立
+         *
+         * @param down 单击的按下采样
+         */
+        default void onTapConfirmed(@NonNull TouchSample down) {
+
+        }
+
+        /**
+         * 预判单击撤销，通常由双击或取消导致
+         *
+         * @param down 单击的按下采样
+         */
+        default void onTapRevoked(@NonNull TouchSample down) {
+
+        }
+
+        /**
+         * 按下事件
+         *
+         * @param e 触摸采样
+         * @return {@code true}事件响应 ，{@code false}拒绝响应事件
+         */
+        boolean onDown(@NonNull TouchSample e);
+
+        /**
+         * 滑动或拖动事件
+         *
+         * @param down      按下采样
+         * @param e         当前采样
+         * @param distanceX 事件产生x轴距离
+         * @param distanceY 事件产生y轴距离
+         * @return {@code true}事件响应 ，{@code false}拒绝响应事件
+         */
+        default boolean onScroll(
+                @NonNull TouchSample down,
+                @NonNull TouchSample e,
+                float distanceX,
+                float distanceY
+        ) {
+            return false;
+        }
+
+        /**
+         * 缩放事件
+         *
+         * @param scale  缩放系数
+         * @param focusX 缩放中心点横坐标
+         * @param focusY 缩放中心点纵坐标
+         * @return {@code true}事件响应 ，{@code false}拒绝响应事件
+         */
+        default boolean onScale(float scale, float focusX, float focusY) {
+            return false;
+        }
+
+        /**
+         * 缩放事件，同时给出以双指按下时间距为基准的累计缩放系数，默认转发至
+         * {@link #onScale(float, float, float)}
+         * <p>
+         * 累计系数直接由当前间距与基准间距计算，不随回调次数累积误差，
+         * 调用方可在按下时保存变换，之后每帧以累计系数重新计算。
+         * 缩放中其他触点按下或抬起时基准随之折算，累计系数保持连续，只在第二个触点按下时重新从 1 开始。
+         *
+         * @param scale      相对上一次回调的缩放系数
+         * @param totalScale 相对双指按下时的缩放系数
+         * @param focusX     缩放中心点横坐标
+         * @param focusY     缩放中心点纵坐标
+         * @return {@code true}事件响应 ，{@code false}拒绝响应事件
+         */
+        default boolean onScale(float scale, float totalScale, float focusX, float focusY) {
+            return onScale(scale, focusX, focusY);
+        }
+
+        /**
+         * 多指变换事件，参数含义同{@link TransformDetector.Callback#onTransform}
+         *
+         * @param scale      缩放系数
+         * @param rotation   旋转角度（度，顺时针为正）
+         * @param translateX 横向平移
+         * @param translateY 纵向平移
+         * @param focusX     当前重心横坐标
+         * @param focusY     当前重心纵坐标
+         * @return {@code true}事件响应 ，{@code false}拒绝响应事件
+         */
+        default boolean onTransform(
+                float scale,
+                float rotation,
+                float translateX,
+                float translateY,
+                float focusX,
+                float focusY
+        ) {
+            return false;
+        }
+
+        /**
+         * 快速滑动事件
+         *
+         * @param down      按下采样
+         * @param e         当前采样
+         * @param velocityX 横向速度
+         * @param velocityY 纵向速度
+         * @return {@code true}事件响应 ，{@code false}拒绝响应事件
+         */
+        default boolean onFling(
+                @NonNull TouchSample down,
+                @NonNull TouchSample e,
+                float velocityX,
+                float velocityY
+        ) {
+            return false;
+        }
+    }
+
+    private boolean isScaleEnable = false;                  // 是否启用缩放手势
+    private boolean isTransformEnable = false;              // 是否启用多指变换手势
+    private boolean isScrollEnable = false;                 // 是否启用滑动手势
+    private boolean isFlingEnable = false;                  // 是否启用快速滑动手势
+    private boolean isLongPressEnable = false;              // 是否启用长按事件
+    private boolean isDoubleTapEnable = false;              // 双击事件
+    private boolean isHistoryEnable = false;                // 是否处理批量历史采样
+    private boolean isSpeculativeTapEnable = false;         // 是否预判单击
+
+    private int mDoubleTapTimeOut = 300;                    // 双击按钮超时，default:300ms
+    private int mLongPressTimeOut = 500;                    // 长按超时，default:500ms
+
+    private final Callback mCallback;                       // 识别结果回调
+    private final GestureClock mClock;                      // 时钟
+    private GestureScheduler mScheduler;                    // 延时任务调度器
+    private VelocityEstimator mVelocity;                    // 速度估算器，为空时不识别快速滑动
+    private AdaptiveTimeouts mAdaptive;                     // 自适应超时策略
+    private GestureArena mArena;                            // 手势竞技场，非空时与其他识别器竞争
+    private FlightRecorder mRecorder;                       // 飞行记录器，非空时记录采样与状态变化
+
+    private final TouchSample mDownSample = new TouchSample();
+    private int mDownGeneration;                            // 按下采样更新次数
+    private boolean mHasPreviousUp;                         // 是否存在上一次抬起
+
+    private boolean mConfirmSingleTap;                      // 单击事件是否成立
+    private boolean mInLongPress;                           // 长按是否生效
+    private boolean mTapPending;                            // 预判单击等待确认
+    private boolean isTapDeferred;                          // 单击是否在等待竞技场裁决
+    private boolean mAlwaysInTapRegion;                     // 是否一直点击区域
+    private boolean mAlwaysInDoubleTapRegion;               // 是否一直点击区域
+
+    private float mDownFocusX, mDownFocusY, mLastFocusX, mLastFocusY;
+    private float mCurFocusX, mCurFocusY;
+    private long mLastTime;
+    private int mTouchSlopSquare;                           // 点击区域
+    private int mDoubleTouchSlopSquare;                     // 双击点击区域
+
+    private int mMinFlingVelocity;
+    private int mMaxFlingVelocity;
+
+    private float mScale = 1.0f;                            // 缩放系数
+    private float mLastLength;                              // 上一次回调时的双指间距
+    private float mAnchorLength;                            // 双指按下时的间距
+    private float mScaleThreshold = 0.01f;                  // 缩放比例阈值
+    private float mScaleSpanSlop = 0;                       // 缩放间距阈值（像素），大于 0 时代替比例阈值
+
+    private final TransformDetector mTransform;             // 多指变换识别
+
+    private final TouchPredictor mPredictor = new TouchPredictor(); // 焦点预测
+    private FlingAnimator mFlingAnimator;                   // 快速滑动动画，非空时随快速滑动启动
+    private int mPredictionTime;                            // 焦点预测时长（毫秒），0 为禁用
+
+    private FrameSource mFrameSource;                       // 帧信号源，非空时按帧合并连续手势回调
+    private final TouchSample mFrameSample = new TouchSample(); // 帧内最后一个滑动采样
+    private boolean mPendingScroll;                         // 帧内存在滑动
+    private float mPendingScrollX, mPendingScrollY;         // 帧内累计滑动距离
+    private boolean mPendingScale;                          // 帧内存在缩放
+    private float mPendingScaleFactor = 1f;                 // 帧内累计缩放系数
+    private float mPendingTotalScale;                       // 帧内最后的累计缩放系数
+    private float mPendingScaleFocusX, mPendingScaleFocusY; // 帧内最后的缩放中心
+    private boolean mPendingTransform;                      // 帧内存在多指变换
+    private float mPendingTransformScale = 1f;              // 帧内累计变换缩放系数
+    private float mPendingRotation;                         // 帧内累计旋转角度
+    private float mPendingTranslateX, mPendingTranslateY;   // 帧内累计平移
+    private float mPendingTransformFocusX, mPendingTransformFocusY; // 帧内最后的变换重心
+
+    public GestureLiteEngine(
+            @NonNull Callback callback,
+            @NonNull GestureClock clock,
+            @NonNull GestureScheduler scheduler,
+            @Nullable VelocityEstimator velocity
+    ) {
+        mCallback = Objects.requireNonNull(callback, "The Callback must not be null...");
+        mClock = Objects.requireNonNull(clock, "The GestureClock must not be null...");
+        mScheduler = Objects.requireNonNull(scheduler, "The GestureScheduler must not be null...");
+        mVelocity = velocity;
+        mTransform = new TransformDetector(this::dispatchTransform);
+    }
+
+    /**
+     * 事件响应接口
+     *
+     * @param e 触摸采样
+     * @return {@code true}响应事件 {@code false}拒绝响应事件
+     */
+    @Override
+    public boolean onTouchEvent(@NonNull TouchSample e) {
+        if (mRecorder != null)
+            mRecorder.record(e);
+        if (mArena != null && !mArena.enter(this, e))
+            return false;   // 已出局
+        final int action = e.getAction();
+        final boolean isTracking = isFlingEnable && mVelocity != null;
+        if (isTracking)
+            mVelocity.addMovement(e);
+        //计算中心点
+        final boolean pointerUp = (action & TouchSample.ACTION_MASK) == TouchSample.ACTION_POINTER_UP;
+        final int skipIndex = pointerUp ? e.getActionIndex() : -1;
+        float sumX = 0, sumY = 0;
+        final int count = e.getPointerCount();
+        for (int i = 0; i < count; i++) {
+            if (skipIndex == i) continue;
+            sumX += e.getX(i);
+            sumY += e.getY(i);
+        }
+        final int div = pointerUp ? count - 1 : count;
+        mCurFocusX = sumX / div;
+        mCurFocusY = sumY / div;
+        if (mPredictionTime > 0)
+            predictFocus(e);
+
+        // 离散事件之前先送出本帧累计的连续手势，保持回调顺序
+        if (mFrameSource != null && (TouchSample.ACTION_MASK & action) != TouchSample.ACTION_MOVE) {
+            mFrameSource.cancelFrame(this);
+            flushFrame();
+        }
+
+        boolean isOnTouch = false;
+        switch (TouchSample.ACTION_MASK & action) {
+            case TouchSample.ACTION_DOWN:
+                if (mArena != null && isDoubleTapEnable)
+                    mArena.hold(this);  // 双击跨越两次按下，识别完成前占住本轮
+                final long interval = e.getEventTime() - mLastTime;
+                final boolean inDoubleTap = isDoubleTapEnable && mAlwaysInDoubleTapRegion
+                        && mHasPreviousUp
+                        && interval >= DOUBLE_TAP_MIN_TIME;
+                if (mAdaptive != null && inDoubleTap && interval < mDoubleTapTimeOut)
+                    mAdaptive.recordTapInterval(interval);
+                final boolean isDoubleTap = inDoubleTap && interval < doubleTapTimeOut() && claim();
+                if (mTapPending)
+                    resolveTap(!isDoubleTap);   // 新的按下决定上一次预判单击是否成立
+                if (mFlingAnimator != null)
+                    mFlingAnimator.abort();     // 按下时停止惯性滑动
+                isOnTouch = mCallback.onDown(e);
+                mInLongPress = false;
+                mConfirmSingleTap = true;
+                mAlwaysInTapRegion = true;
+                if (isOnTouch && isLongPressEnable) {
+                    mScheduler.schedule(this, LONG_PRESS, delayFrom(e, longPressTimeOut()));
+                }
+                if (isDoubleTap) {
+                    mConfirmSingleTap = false;  // 双击的第二次抬起不再视为单击
+                    mScheduler.cancel(this, TAP);
+                    trace(FlightRecorder.EVENT_DOUBLE_TAP, 0, 0);
+                    mCallback.onDoubleTap(e);
+                    return false;
+                }
+                mDownFocusX = mLastFocusX = mCurFocusX;
+                mDownFocusY = mLastFocusY = mCurFocusY;
+                mAlwaysInDoubleTapRegion = true;
+                mDownSample.copyFrom(e);
+                mDownGeneration++;
+                break;
+
+            case TouchSample.ACTION_MOVE:
+                if (mInLongPress) break; // 长按已生效
+                if (isScrollEnable) {
+                    final float scrollX = mLastFocusX - mCurFocusX;
+                    final float scrollY = mLastFocusY - mCurFocusY;
+                    if (e.getPointerCount() > 1)
+                        mAlwaysInTapRegion = false;
+                    if (mAlwaysInTapRegion) {
+                        final int distance = isHistoryEnable
+                                ? maxDownDistance(e)
+                                : downDistance(mCurFocusX, mCurFocusY);
+                        if (distance > mTouchSlopSquare) {
+                            trace(FlightRecorder.EVENT_SCROLL_START, scrollX, scrollY);
+                            mLastFocusX = mCurFocusX;
+                            mLastFocusY = mCurFocusY;
+                            isOnTouch |= dispatchScroll(e, scrollX, scrollY);
+                            mConfirmSingleTap = false;
+                            mAlwaysInTapRegion = false;
+                            if (isLongPressEnable) mScheduler.cancel(this, LONG_PRESS);
+                        }
+                        if (distance > mDoubleTouchSlopSquare)
+                            mAlwaysInDoubleTapRegion = false;   // 双击不成立
+                    } else if (Math.abs(scrollX) >= 1 || Math.abs(scrollY) >= 1) {
+                        mLastFocusX = mCurFocusX;
+                        mLastFocusY = mCurFocusY;
+                        isOnTouch |= dispatchScroll(e, scrollX, scrollY);
+                        cancelTaps();
+                    }
+                }
+                break;
+
+            case TouchSample.ACTION_POINTER_DOWN:
+                mDownFocusX = mLastFocusX = mCurFocusX;
+                mDownFocusY = mLastFocusY = mCurFocusY;
+                cancelTaps();
+                if (mArena != null && !isScrollEnable && !isScaleEnable && !isTransformEnable)
+                    mArena.reject(this);    // 多指后点击与长按均不成立
+                break;
+
+            case TouchSample.ACTION_POINTER_UP:
+                mDownFocusX = mLastFocusX = mCurFocusX;
+                mDownFocusY = mLastFocusY = mCurFocusY;
+                cancelTaps();
+                // 代码来自于官方源码
+                // Check the dot product of current velocities.
+                // If the pointer that left was opposing another velocity vector, clear.
+                if (isTracking) {
+                    mVelocity.computeCurrentVelocity(1000, mMaxFlingVelocity);
+                    final int upIndex = e.getActionIndex();
+                    final int id1 = e.getPointerId(upIndex);
+                    final float x1 = mVelocity.getXVelocity(id1);
+                    final float y1 = mVelocity.getYVelocity(id1);
+                    for (int i = 0; i < count; i++) {
+                        if (i == upIndex) continue;
+                        final int id2 = e.getPointerId(i);
+                        final float x = x1 * mVelocity.getXVelocity(id2);
+                        final float y = y1 * mVelocity.getYVelocity(id2);
+                        final float dot = x + y;
+                        if (dot < 0) {
+                            trace(FlightRecorder.EVENT_VELOCITY_CLEARED, id1, dot);
+                            mVelocity.clear();
+                            break;
+                        }
+                    }
+                }
+                break;
+
+            case TouchSample.ACTION_UP:
+                mLastTime = e.getEventTime();
+                if (mAdaptive != null)
+                    recordPress(e);
+                if (mConfirmSingleTap) {
+                    if (!claim()) {
+                        if (mArena != null && mArena.isPending(this)) {
+                            isTapDeferred = true;   // 获胜时补发
+                            if (isLongPressEnable)
+                                mScheduler.cancel(this, LONG_PRESS);
+                        }
+                        return false;
+                    }
+                    if (isDoubleTapEnable) {
+                        if (isSpeculativeTapEnable) {
+                            mTapPending = true;
+                            trace(FlightRecorder.EVENT_TAP_UP, 0, 0);
+                            mCallback.onTapUp(e);
+                        }
+                        mScheduler.schedule(this, TAP, delayFrom(e, doubleTapTimeOut()));
+                    } else {
+                        trace(FlightRecorder.EVENT_TAP, 0, 0);
+                        mCallback.onTap(e);
+                    }
+                } else if (isTracking) {
+                    final int pointerId = e.getPointerId(0);
+                    mVelocity.computeCurrentVelocity(1000, mMaxFlingVelocity);
+                    final float velocityY = mVelocity.getYVelocity(pointerId);
+                    final float velocityX = mVelocity.getXVelocity(pointerId);
+                    if (((Math.abs(velocityY) > mMinFlingVelocity)
+                            || (Math.abs(velocityX) > mMinFlingVelocity)) && claim()) {
+                        trace(FlightRecorder.EVENT_FLING, velocityX, velocityY);
+                        if (mFlingAnimator != null)
+                            mFlingAnimator.start(0, 0, velocityX, velocityY, e.getEventTime());
+                        isOnTouch |= mCallback.onFling(mDownSample, e, velocityX, velocityY);
+                    } else {
+                        trace(FlightRecorder.EVENT_FLING_REJECTED, velocityX, velocityY);
+                    }
+                }
+                if (isLongPressEnable)
+                    mScheduler.cancel(this, LONG_PRESS);
+                mHasPreviousUp = true;
+                if (mVelocity != null)
+                    mVelocity.recycle();
+                if (mArena != null && mArena.getWinner() != this)
+                    mArena.reject(this);
+                break;
+
+            case TouchSample.ACTION_CANCEL:
+                cancel();
+                if (mArena != null)
+                    mArena.reject(this);
+                return false;
+        }
+        if (isScaleEnable)
+            isOnTouch |= onScaleEvent(e);
+        if (isTransformEnable)
+            isOnTouch |= mTransform.onTouchEvent(e);
+        return isOnTouch;
+    }
+
+    /**
+     * 延时任务响应
+     *
+     * @param what 任务类型
+     */
+    @Override
+    public void onTimeout(int what) {
+        switch (what) {
+            case LONG_PRESS:
+                dispatchLongPress();
+                break;
+            case TAP:
+                if (mTapPending) {
+                    resolveTap(true);
+                } else if (isDoubleTapEnable && mConfirmSingleTap) {
+                    trace(FlightRecorder.EVENT_TAP, 0, 0);
+                    mCallback.onTap(mDownSample);
+                }
+                break;
+            default:
+                throw new RuntimeException("Unknown gesture" + what);
+        }
+    }
+
+    /**
+     * 竞技场中获胜，补发等待裁决的单击，此时的采样为按下采样
+     */
+    @Override
+    public void onArenaAccepted() {
+        if (!isTapDeferred)
+            return;
+        isTapDeferred = false;
+        trace(FlightRecorder.EVENT_TAP, 0, 0);
+        mCallback.onTap(mDownSample);
+    }
+
+    /**
+     * 竞技场中落败，停止本轮识别
+     */
+    @Override
+    public void onArenaRejected() {
+        trace(FlightRecorder.EVENT_ARENA_REJECTED, 0, 0);
+        cancel();
+        mInLongPress = false;
+        if (mVelocity != null)
+            mVelocity.clear();
+    }
+
+    /**
+     * 宣告手势成立
+     *
+     * @return {@code true}未使用竞技场或已获胜，{@code false}已出局
+     */
+    private boolean claim() {
+        return mArena == null || mArena.accept(this);
+    }
+
+    /**
+     * 帧信号响应，送出本帧累计的连续手势
+     *
+     * @param frameTimeNanos 帧时间（纳秒）
+     */
+    @Override
+    public void onFrame(long frameTimeNanos) {
+        flushFrame();
+    }
+
+    private boolean dispatchScroll(TouchSample e, float distanceX, float distanceY) {
+        if (!claim())
+            return false;
+        if (mFrameSource == null)
+            return mCallback.onScroll(mDownSample, e, distanceX, distanceY);
+        mPendingScroll = true;
+        mPendingScrollX += distanceX;
+        mPendingScrollY += distanceY;
+        mFrameSample.copyFrom(e);
+        mFrameSource.requestFrame(this);
+        return true;
+    }
+
+    private boolean dispatchScale(float scale, float totalScale, float focusX, float focusY) {
+        if (!claim())
+            return false;
+        if (mFrameSource == null)
+            return mCallback.onScale(scale, totalScale, focusX, focusY);
+        mPendingScale = true;
+        mPendingScaleFactor *= scale;
+        mPendingTotalScale = totalScale;
+        mPendingScaleFocusX = focusX;
+        mPendingScaleFocusY = focusY;
+        mFrameSource.requestFrame(this);
+        return true;
+    }
+
+    /**
+     * 相邻增量变换的重心首尾相接，合并后缩放相乘、旋转与平移相加，重心取最后一次
+     */
+    private boolean dispatchTransform(
+            float scale,
+            float rotation,
+            float translateX,
+            float translateY,
+            float focusX,
+            float focusY
+    ) {
+        if (!claim())
+            return false;
+        if (mFrameSource == null)
+            return mCallback.onTransform(scale, rotation, translateX, translateY, focusX, focusY);
+        mPendingTransform = true;
+        mPendingTransformScale *= scale;
+        mPendingRotation += rotation;
+        mPendingTranslateX += translateX;
+        mPendingTranslateY += translateY;
+        mPendingTransformFocusX = focusX;
+        mPendingTransformFocusY = focusY;
+        mFrameSource.requestFrame(this);
+        return true;
+    }
+
+    /**
+     * 送出累计的连续手势，先清空累计值，回调中产生的新手势计入下一帧
+     */
+    private void flushFrame() {
+        if (mPendingScroll) {
+            final float distanceX = mPendingScrollX, distanceY = mPendingScrollY;
+            mPendingScroll = false;
+            mPendingScrollX = mPendingScrollY = 0;
+            mCallback.onScroll(mDownSample, mFrameSample, distanceX, distanceY);
+        }
+        if (mPendingScale) {
+            final float scale = mPendingScaleFactor;
+            mPendingScale = false;
+            mPendingScaleFactor = 1f;
+            mCallback.onScale(scale, mPendingTotalScale, mPendingScaleFocusX, mPendingScaleFocusY);
+        }
+        if (mPendingTransform) {
+            final float scale = mPendingTransformScale, rotation = mPendingRotation;
+            final float translateX = mPendingTranslateX, translateY = mPendingTranslateY;
+            mPendingTransform = false;
+            mPendingTransformScale = 1f;
+            mPendingRotation = mPendingTranslateX = mPendingTranslateY = 0;
+            mCallback.onTransform(scale, rotation, translateX, translateY,
+                    mPendingTransformFocusX, mPendingTransformFocusY);
+        }
+    }
+
+    /**
+     * 缩放手势识别
+     *
+     * @param e 触摸采样
+     * @return {@code true} 响应事件, {@code false} 拒绝响应事件
+     */
+    private boolean onScaleEvent(TouchSample e) {
+        if (e.getPointerCount() < 2)
+            return false;
+        boolean is = false;
+        switch (TouchSample.ACTION_MASK & e.getAction()) {
+
+            case TouchSample.ACTION_POINTER_DOWN:
+                if (e.getPointerCount() == 2) {
+                    // 第二个触点按下，缩放开始
+                    mAnchorLength = mLastLength = calcLength(e, -1);
+                } else {
+                    reanchorScale(calcLength(e, -1));
+                }
+                is = true;
+                break;
+
+            case TouchSample.ACTION_POINTER_UP:
+                // 剩余触点重新作为基准，只剩一个触点时缩放结束
+                reanchorScale(calcLength(e, e.getActionIndex()));
+                is = true;
+                break;
+
+            case TouchSample.ACTION_MOVE:
+                if (mLastLength <= 0 || mAnchorLength <= 0)
+                    break;
+                final float cur = calcLength(e, -1);
+                if (exceedsScale(cur) || (isHistoryEnable && historyExceedsScale(e))) {
+                    mScale = cur / mLastLength;
+                    mLastLength = cur;
+                    is = dispatchScale(mScale, cur / mAnchorLength, mCurFocusX, mCurFocusY);
+                }
+                break;
+        }
+        return is;
+    }
+
+    /**
+     * 触点增减后以新的间距为基准，基准间距按当前累计系数折算，累计系数保持连续
+     *
+     * @param length 新的间距，为 0 时缩放结束
+     */
+    private void reanchorScale(float length) {
+        final float totalScale = mLastLength > 0 && mAnchorLength > 0 ? mLastLength / mAnchorLength : 1f;
+        mLastLength = length;
+        mAnchorLength = length / totalScale;
+    }
+
+    /**
+     * 前两个有效触点的间距
+     *
+     * @param skipIndex 排除的触点索引，{@code -1}表示不排除
+     * @return 间距，有效触点不足两个时返回 0
+     */
+    private static float calcLength(TouchSample e, int skipIndex) {
+        final int count = e.getPointerCount();
+        final int first = skipIndex == 0 ? 1 : 0;
+        int second = first + 1;
+        if (second == skipIndex) second++;
+        if (second >= count) return 0;
+        final float dx = e.getX(first) - e.getX(second);
+        final float dy = e.getY(first) - e.getY(second);
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * 间距相对上一次回调的变化是否超过阈值
+     */
+    private boolean exceedsScale(float length) {
+        if (mScaleSpanSlop > 0)
+            return Math.abs(length - mLastLength) > mScaleSpanSlop;
+        return Math.abs(length / mLastLength - 1.0f) > mScaleThreshold;
+    }
+
+    /**
+     * 批量历史采样中是否有超过缩放阈值的采样，用于捕获被合并后又回落的缩放
+     */
+    private boolean historyExceedsScale(TouchSample e) {
+        final int size = e.getHistorySize();
+        for (int h = 0; h < size; h++) {
+            final float dx = e.getHistoricalX(0, h) - e.getHistoricalX(1, h);
+            final float dy = e.getHistoricalY(0, h) - e.getHistoricalY(1, h);
+            if (exceedsScale((float) Math.sqrt(dx * dx + dy * dy))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 更新焦点预测，触点增减导致焦点跳变时重新开始
+     */
+    private void predictFocus(TouchSample e) {
+        switch (e.getActionMasked()) {
+            case TouchSample.ACTION_MOVE:
+                final int count = e.getPointerCount();
+                final int size = e.getHistorySize();
+                for (int h = 0; h < size; h++) {
+                    float sumX = 0, sumY = 0;
+                    for (int i = 0; i < count; i++) {
+                        sumX += e.getHistoricalX(i, h);
+                        sumY += e.getHistoricalY(i, h);
+                    }
+                    mPredictor.add(e.getHistoricalEventTime(h), sumX / count, sumY / count);
+                }
+                break;
+            case TouchSample.ACTION_DOWN:
+            case TouchSample.ACTION_POINTER_DOWN:
+            case TouchSample.ACTION_POINTER_UP:
+                mPredictor.reset();
+                break;
+            default:
+                mPredictor.reset();
+                return;
+        }
+        mPredictor.add(e.getEventTime(), mCurFocusX, mCurFocusY);
+        mPredictor.predict(mPredictionTime);
+    }
+
+    /**
+     * 焦点与按下焦点距离的平方
+     */
+    private int downDistance(float focusX, float focusY) {
+        final int dx = (int) (focusX - mDownFocusX);
+        final int dy = (int) (focusY - mDownFocusY);
+        return (dx * dx) + (dy * dy);
+    }
+
+    /**
+     * 当前采样及其批量历史采样中，焦点与按下焦点距离平方的最大值
+     */
+    private int maxDownDistance(TouchSample e) {
+        int max = downDistance(mCurFocusX, mCurFocusY);
+        final int count = e.getPointerCount();
+        final int size = e.getHistorySize();
+        for (int h = 0; h < size; h++) {
+            float sumX = 0, sumY = 0;
+            for (int i = 0; i < count; i++) {
+                sumX += e.getHistoricalX(i, h);
+                sumY += e.getHistoricalY(i, h);
+            }
+            final int distance = downDistance(sumX / count, sumY / count);
+            if (distance > max) max = distance;
+        }
+        return max;
+    }
+
+    /**
+     * 以事件时间为起点的延时，扣除事件到达前已经过去的时间
+     */
+    private long delayFrom(TouchSample e, int timeOut) {
+        return Math.max(0, timeOut - (mClock.now() - e.getEventTime()));
+    }
+
+    /**
+     * 记录未移动的按压时长，包括触发了长按但在配置的长按超时之前抬起的按压，
+     * 使被收缩的长按超时误触发后能够恢复
+     */
+    private void recordPress(TouchSample e) {
+        final long duration = e.getEventTime() - mDownSample.getEventTime();
+        if (mConfirmSingleTap || (mInLongPress && duration < mLongPressTimeOut))
+            mAdaptive.recordPressDuration(duration);
+    }
+
+    /**
+     * 实际使用的双击超时
+     */
+    private int doubleTapTimeOut() {
+        return mAdaptive == null ? mDoubleTapTimeOut : mAdaptive.doubleTapTimeOut(mDoubleTapTimeOut);
+    }
+
+    /**
+     * 实际使用的长按超时
+     */
+    private int longPressTimeOut() {
+        return mAdaptive == null ? mLongPressTimeOut : mAdaptive.longPressTimeOut(mLongPressTimeOut);
+    }
+
+    /**
+     * 结束等待中的预判单击
+     *
+     * @param confirmed {@code true}确认，{@code false}撤销
+     */
+    private void resolveTap(boolean confirmed) {
+        mTapPending = false;
+        mScheduler.cancel(this, TAP);
+        trace(confirmed ? FlightRecorder.EVENT_TAP_CONFIRMED : FlightRecorder.EVENT_TAP_REVOKED, 0, 0);
+        if (confirmed)
+            mCallback.onTapConfirmed(mDownSample);
+        else
+            mCallback.onTapRevoked(mDownSample);
+    }
+
+    /**
+     * 执行长按事件
+     */
+    private void dispatchLongPress() {
+        if (!claim())
+            return;
+        mScheduler.cancel(this, TAP);
+        mConfirmSingleTap = false;
+        mInLongPress = true;
+        trace(FlightRecorder.EVENT_LONG_PRESS, 0, 0);
+        mCallback.onLongPress(mDownSample);
+    }
+
+    /**
+     * 向飞行记录器记录一次状态变化
+     */
+    private void trace(int event, float a, float b) {
+        if (mRecorder != null)
+            mRecorder.event(mClock.now(), event, a, b);
+    }
+
+    private void cancel() {
+        isTapDeferred = false;
+        mConfirmSingleTap = false;
+        mAlwaysInTapRegion = false;
+        mAlwaysInDoubleTapRegion = false;
+        mHasPreviousUp = false;  // 取消双击
+        mScheduler.cancel(this, LONG_PRESS);
+        mScheduler.cancel(this, TAP);
+        if (mTapPending)
+            resolveTap(false);
+        mTransform.reset();
+    }
+
+    /**
+     * 取消各种点击事件
+     */
+    private void cancelTaps() {
+        mConfirmSingleTap = false;
+        mHasPreviousUp = false;  // 取消双击
+        if (isLongPressEnable)
+            mScheduler.cancel(this, LONG_PRESS);
+        if (mArena != null)
+            mArena.release(this);   // 点击与双击都不再成立，不再占住本轮
+    }
+
+    /**
+     * 替换延时任务调度器，旧调度器中挂起的任务会被取消
+     *
+     * @param scheduler 调度器
+     * @return self
+     */
+    public GestureLiteEngine setScheduler(@NonNull GestureScheduler scheduler) {
+        Objects.requireNonNull(scheduler, "The GestureScheduler must not be null...");
+        mScheduler.cancel(this, LONG_PRESS);
+        mScheduler.cancel(this, TAP);
+        mScheduler = scheduler;
+        return this;
+    }
+
+    /**
+     * 设置触摸阈值
+     *
+     * @param touchSlop     点击区域（像素）
+     * @param doubleTapSlop 双击点击区域（像素）
+     * @return self
+     */
+    public GestureLiteEngine setSlop(int touchSlop, int doubleTapSlop) {
+        mTouchSlopSquare = touchSlop * touchSlop;
+        mDoubleTouchSlopSquare = doubleTapSlop * doubleTapSlop;
+        return this;
+    }
+
+    /**
+     * 设置快速滑动速度范围
+     *
+     * @param minFlingVelocity 最小速度（像素/秒）
+     * @param maxFlingVelocity 最大速度（像素/秒）
+     * @return self
+     */
+    public GestureLiteEngine setFlingVelocity(int minFlingVelocity, int maxFlingVelocity) {
+        mMinFlingVelocity = minFlingVelocity;
+        mMaxFlingVelocity = maxFlingVelocity;
+        return this;
+    }
+
+    public GestureLiteEngine setScaleEnable(boolean scaleEnable) {
+        isScaleEnable = scaleEnable;
+        return this;
+    }
+
+    /**
+     * 设置帧信号源，设置后滑动、缩放与多指变换按帧合并，每帧每种手势最多回调一次；
+     * 按下、抬起等离散事件之前会先送出已累计的部分。合并期间对应事件的返回值视为响应。
+     *
+     * @param frameSource 帧信号源，{@code null}时逐事件同步回调
+     * @return self
+     */
+    public GestureLiteEngine setFrameSource(@Nullable FrameSource frameSource) {
+        if (mFrameSource != null) {
+            mFrameSource.cancelFrame(this);
+            flushFrame();
+        }
+        mFrameSource = frameSource;
+        return this;
+    }
+
+    @Nullable
+    public FrameSource getFrameSource() {
+        return mFrameSource;
+    }
+
+    /**
+     * 帧内最后一个滑动采样，按帧合并时作为{@link Callback#onScroll}的当前采样
+     *
+     * @return 滑动采样
+     */
+    @NonNull
+    public TouchSample getFrameSample() {
+        return mFrameSample;
+    }
+
+    /**
+     * 设置快速滑动动画，快速滑动成立时以抬起时间、原点与手指速度启动，
+     * 在{@link Callback#onFling}中即可读取停止位置与时长；按下时停止
+     *
+     * @param flingAnimator 动画，{@code null}时不启动
+     * @return self
+     */
+    public GestureLiteEngine setFlingAnimator(@Nullable FlingAnimator flingAnimator) {
+        mFlingAnimator = flingAnimator;
+        return this;
+    }
+
+    @Nullable
+    public FlingAnimator getFlingAnimator() {
+        return mFlingAnimator;
+    }
+
+    /**
+     * 设置速度估算器，可在启用快速滑动时才创建
+     *
+     * @param velocity 速度估算器，{@code null}时不识别快速滑动
+     * @return self
+     */
+    public GestureLiteEngine setVelocityEstimator(@Nullable VelocityEstimator velocity) {
+        if (mVelocity != null)
+            mVelocity.clear();
+        mVelocity = velocity;
+        return this;
+    }
+
+    @Nullable
+    public VelocityEstimator getVelocityEstimator() {
+        return mVelocity;
+    }
+
+    /**
+     * 设置焦点预测时长，启用后可通过{@link #getPredictedFocusX()}、{@link #getPredictedFocusY()}
+     * 获取焦点在最新事件之后该时长的预测位置，通常取输入到显示的延迟（一至两帧）
+     *
+     * @param predictionTime 预测时长（毫秒），0 为禁用
+     * @return self
+     */
+    public GestureLiteEngine setPredictionTime(int predictionTime) {
+        mPredictionTime = Math.max(0, predictionTime);
+        mPredictor.reset();
+        return this;
+    }
+
+    public int getPredictionTime() {
+        return mPredictionTime;
+    }
+
+    /**
+     * 预测的焦点横坐标，未启用预测时为当前焦点
+     *
+     * @return 横坐标
+     */
+    public float getPredictedFocusX() {
+        return mPredictionTime > 0 ? mPredictor.getPredictedX() : mCurFocusX;
+    }
+
+    /**
+     * 预测的焦点纵坐标，未启用预测时为当前焦点
+     *
+     * @return 纵坐标
+     */
+    public float getPredictedFocusY() {
+        return mPredictionTime > 0 ? mPredictor.getPredictedY() : mCurFocusY;
+    }
+
+    /**
+     * 设置缩放阈值，间距相对上一次回调的变化比例超过阈值时回调
+     *
+     * @param threshold 比例阈值，默认 0.01
+     * @return self
+     */
+    public GestureLiteEngine setScaleThreshold(float threshold) {
+        if (threshold < 0)
+            throw new IllegalArgumentException("Scale threshold must not be negative: " + threshold);
+        mScaleThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * 设置以像素计的缩放阈值，间距相对上一次回调的变化超过阈值时回调，设置后代替比例阈值
+     *
+     * @param spanSlop 间距阈值（像素），不大于 0 时使用比例阈值
+     * @return self
+     */
+    public GestureLiteEngine setScaleSpanSlop(float spanSlop) {
+        mScaleSpanSlop = spanSlop;
+        return this;
+    }
+
+    public float getScaleThreshold() {
+        return mScaleThreshold;
+    }
+
+    public float getScaleSpanSlop() {
+        return mScaleSpanSlop;
+    }
+
+    /**
+     * 启用、禁用多指变换手势，可与缩放、滑动手势同时使用
+     *
+     * @param transformEnable {@code true}开启，{@code false}禁用
+     * @return self
+     */
+    public GestureLiteEngine setTransformEnable(boolean transformEnable) {
+        isTransformEnable = transformEnable;
+        return this;
+    }
+
+    public GestureLiteEngine setScrollEnable(boolean scrollEnable) {
+        isScrollEnable = scrollEnable;
+        return this;
+    }
+
+    public GestureLiteEngine setFlingEnable(boolean flingEnable) {
+        isFlingEnable = flingEnable;
+        return this;
+    }
+
+    public GestureLiteEngine setLongPressEnable(boolean longPressEnable) {
+        isLongPressEnable = longPressEnable;
+        return this;
+    }
+
+    public GestureLiteEngine setDoubleTapEnable(boolean doubleTapEnable) {
+        isDoubleTapEnable = doubleTapEnable;
+        return this;
+    }
+
+    /**
+     * 启用、禁用批量历史采样处理
+     * <p>
+     * 启用后 MOVE 中被合并的历史采样参与触摸阈值、双击区域与缩放阈值判定，
+     * 每个 MOVE 仍最多回调一次{@link Callback#onScroll}与{@link Callback#onScale}
+     *
+     * @param historyEnable {@code true}开启，{@code false}禁用
+     * @return self
+     */
+    public GestureLiteEngine setHistoryEnable(boolean historyEnable) {
+        isHistoryEnable = historyEnable;
+        return this;
+    }
+
+    /**
+     * 启用、禁用预判单击，仅在启用双击时生效
+     * <p>
+     * 启用后单击抬起时立即回调{@link Callback#onTapUp}，双击超时后回调{@link Callback#onTapConfirmed}，
+     * 被双击或取消时回调{@link Callback#onTapRevoked}，不再回调{@link Callback#onTap}
+     *
+     * @param speculativeTapEnable {@code true}开启，{@code false}禁用
+     * @return self
+     */
+    public GestureLiteEngine setSpeculativeTapEnable(boolean speculativeTapEnable) {
+        isSpeculativeTapEnable = speculativeTapEnable;
+        return this;
+    }
+
+    /**
+     * 设置自适应超时策略，双击、长按超时以配置值为上限按用户习惯收缩
+     *
+     * @param adaptive 自适应超时策略，{@code null}时使用固定超时
+     * @return self
+     */
+    public GestureLiteEngine setAdaptiveTimeouts(@Nullable AdaptiveTimeouts adaptive) {
+        mAdaptive = adaptive;
+        return this;
+    }
+
+    /**
+     * 设置手势竞技场，点击、双击、长按、滑动、缩放与多指变换成立时向竞技场宣告，
+     * 落败后忽略本轮剩余事件。启用双击时在识别过程中占住竞技场；
+     * 单击需等待其他成员裁决时，获胜后以按下采样补发
+     *
+     * @param arena 手势竞技场，{@code null}时不参与竞争
+     * @return self
+     */
+    public GestureLiteEngine setArena(@Nullable GestureArena arena) {
+        if (mArena != null && mArena != arena)
+            mArena.reject(this);
+        mArena = arena;
+        return this;
+    }
+
+    @Nullable
+    public GestureArena getArena() {
+        return mArena;
+    }
+
+    /**
+     * 设置飞行记录器，记录收到的采样与识别状态变化，只在识别所在的线程中访问
+     *
+     * @param recorder 飞行记录器，{@code null}时不记录
+     * @return self
+     */
+    public GestureLiteEngine setFlightRecorder(@Nullable FlightRecorder recorder) {
+        mRecorder = recorder;
+        return this;
+    }
+
+    @Nullable
+    public FlightRecorder getFlightRecorder() {
+        return mRecorder;
+    }
+
+    public GestureLiteEngine setDoubleTapTimeOut(int doubleTapTimeOut) {
+        mDoubleTapTimeOut = doubleTapTimeOut;
+        return this;
+    }
+
+    public GestureLiteEngine setLongPressTimeOut(int longPressTimeOut) {
+        mLongPressTimeOut = longPressTimeOut;
+        return this;
+    }
+
+    public boolean isScaleEnable() {
+        return isScaleEnable;
+    }
+
+    public boolean isTransformEnable() {
+        return isTransformEnable;
+    }
+
+    public boolean isScrollEnable() {
+        return isScrollEnable;
+    }
+
+    public boolean isFlingEnable() {
+        return isFlingEnable;
+    }
+
+    public boolean isLongPressEnable() {
+        return isLongPressEnable;
+    }
+
+    public boolean isDoubleTapEnable() {
+        return isDoubleTapEnable;
+    }
+
+    public boolean isHistoryEnable() {
+        return isHistoryEnable;
+    }
+
+    public boolean isSpeculativeTapEnable() {
+        return isSpeculativeTapEnable;
+    }
+
+    @Nullable
+    public AdaptiveTimeouts getAdaptiveTimeouts() {
+        return mAdaptive;
+    }
+
+    public int getDoubleTapTimeOut() {
+        return mDoubleTapTimeOut;
+    }
+
+    public int getLongPressTimeOut() {
+        return mLongPressTimeOut;
+    }
+
+    /**
+     * 最近一次按下的采样
+     *
+     * @return 按下采样
+     */
+    @NonNull
+    public TouchSample getDownSample() {
+        return mDownSample;
+    }
+
+    /**
+     * 按下采样的更新次数，每次按下采样被替换时递增，用于适配层判断是否需要同步
+     *
+     * @return 更新次数
+     */
+    public int getDownGeneration() {
+        return mDownGeneration;
+    }
+}
@@ -0,0 +1,613 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Objects;
+
+/**
+ * 表驱动的自定义手势状态机
+ * <p>
+ * 手势以{@link Builder}声明为若干状态及其在各输入下的转移，编译为紧凑的转移表{@link Table}，
+ * 由单一的解释循环执行：每个事件先归类为一个输入，再查表得到目标状态与要发出的手势，
+ * 单个事件的开销与定义的状态数、手势数无关。例如三击：
+ * <pre>
+ * GestureMachine.Table table = new GestureMachine.Builder()
+ *         .state("idle").on(GestureMachine.DOWN, "down1")
+ *         .state("down1").timeout(300).on(GestureMachine.UP, "up1")
+ *         .state("up1").timeout(300).on(GestureMachine.DOWN, "down2")
+ *         .state("down2").timeout(300).on(GestureMachine.UP, "up2")
+ *         .state("up2").timeout(300).on(GestureMachine.DOWN, "down3")
+ *         .state("down3").timeout(300).on(GestureMachine.UP, "idle", TRIPLE_TAP)
+ *         .build();
+ * </pre>
+ * 未定义的{@link #MOVE}保持当前状态，其余未定义的输入视为识别失败：回到起始状态，
+ * 并在起始状态下重新处理该输入，使失败时的按下可以开始新一轮识别。
+ * <p>
+ * 使用竞技场时，跨越多次按下的手势（参见{@link Table#isMultiSequence()}）在识别过程中占住竞技场，
+ * 使先于它成立的单击等手势等待，直到本状态机成立或失败。
+ * <p>
+ * 时间判定以事件自身的{@link TouchSample#getEventTime()}为准，时钟须与事件时间同一时基。
+ * 非线程安全，应在事件线程中使用；同一{@link Table}可由多个状态机共享。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class GestureMachine implements SampleDetector, GestureScheduler.Target,
+        GestureArena.Member {
+
+    /**
+     * 输入：首个触点按下
+     */
+    public static final int DOWN = 0;
+
+    /**
+     * 输入：最后一个触点抬起
+     */
+    public static final int UP = 1;
+
+    /**
+     * 输入：移动，未超出触摸阈值或已超出过阈值
+     */
+    public static final int MOVE = 2;
+
+    /**
+     * 输入：取消
+     */
+    public static final int CANCEL = 3;
+
+    /**
+     * 输入：其余触点按下
+     */
+    public static final int POINTER_DOWN = 4;
+
+    /**
+     * 输入：其余触点抬起
+     */
+    public static final int POINTER_UP = 5;
+
+    /**
+     * 输入：重心自按下（或触点数变化）以来首次超出触摸阈值的移动
+     */
+    public static final int SLOP = 6;
+
+    /**
+     * 输入：当前状态停留超时
+     */
+    public static final int TIMEOUT = 7;
+
+    /**
+     * 输入种类数
+     */
+    private static final int INPUTS = 8;
+
+    /**
+     * 超时任务
+     */
+    private static final int TIMEOUT_TASK = 0x01;
+
+    /**
+     * 识别结果回调
+     */
+    public interface Callback {
+
+        /**
+         * 手势事件，发出时状态机已进入目标状态
+         *
+         * @param gesture 转移上声明的手势
+         * @param e       触发转移的采样，超时触发时为按下采样
+         * @return {@code true}事件响应 ，{@code false}拒绝响应事件
+         */
+        boolean onGesture(int gesture, @NonNull TouchSample e);
+    }
+
+    /**
+     * 编译后的转移表，不可变
+     * <p>
+     * 每个（状态，输入）占一个{@code int}：高 16 位为目标状态 + 1，低 16 位为手势 + 1，0 表示未定义。
+     */
+    public static final class Table {
+
+        private final int[] mTransitions;   // 转移表，按状态为行
+        private final int[] mTimeouts;      // 各状态超时（毫秒），0 为不超时
+        private final String[] mNames;      // 状态名
+        private final boolean isMultiSequence; // 起始状态之外是否还接受按下，即手势跨越多次按下
+
+        private Table(int[] transitions, int[] timeouts, String[] names) {
+            mTransitions = transitions;
+            mTimeouts = timeouts;
+            mNames = names;
+            boolean multiSequence = false;
+            for (int state = 1; state < names.length; state++) {
+                if (transitions[state * INPUTS + DOWN] != 0) multiSequence = true;
+            }
+            isMultiSequence = multiSequence;
+        }
+
+        /**
+         * 手势是否跨越多次按下（如三击），此时状态机在识别过程中占住竞技场
+         *
+         * @return {@code true}起始状态之外还接受{@link #DOWN}
+         */
+        public boolean isMultiSequence() {
+            return isMultiSequence;
+        }
+
+        /**
+         * 状态数
+         *
+         * @return 状态数
+         */
+        public int getStateCount() {
+            return mNames.length;
+        }
+
+        /**
+         * 状态名
+         *
+         * @param state 状态
+         * @return 状态名
+         */
+        @NonNull
+        public String getStateName(int state) {
+            return mNames[state];
+        }
+
+        /**
+         * 按名称查找状态
+         *
+         * @param name 状态名
+         * @return 状态，不存在时为 -1
+         */
+        public int indexOf(@NonNull String name) {
+            for (int i = 0; i < mNames.length; i++) {
+                if (mNames[i].equals(name)) return i;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * 状态机定义，首个声明的状态为起始状态
+     */
+    public static final class Builder {
+
+        private final HashMap<String, Integer> mIndex = new HashMap<>();
+        private final ArrayList<String> mNames = new ArrayList<>();
+        private final ArrayList<int[]> mRows = new ArrayList<>();       // 每行：目标状态名下标 + 1，手势 + 1
+        private final ArrayList<Integer> mTimeouts = new ArrayList<>();
+        private final ArrayList<String> mTargets = new ArrayList<>();   // 引用过的目标状态名
+        private int mCurrent = -1;
+
+        /**
+         * 开始声明状态，同名状态再次声明时继续追加转移
+         *
+         * @param name 状态名
+         * @return self
+         */
+        public Builder state(@NonNull String name) {
+            Objects.requireNonNull(name, "The state name must not be null...");
+            Integer index = mIndex.get(name);
+            if (index == null) {
+                index = mNames.size();
+                mIndex.put(name, index);
+                mNames.add(name);
+                mRows.add(new int[INPUTS * 2]);
+                mTimeouts.add(0);
+            }
+            mCurrent = index;
+            return this;
+        }
+
+        /**
+         * 当前状态的停留超时，超时后产生{@link #TIMEOUT}输入
+         *
+         * @param millis 超时（毫秒），0 为不超时
+         * @return self
+         */
+        public Builder timeout(int millis) {
+            if (millis < 0)
+                throw new IllegalArgumentException("Negative timeout: " + millis);
+            mTimeouts.set(current(), millis);
+            return this;
+        }
+
+        /**
+         * 声明当前状态在输入下的转移
+         *
+         * @param input  输入
+         * @param target 目标状态名，可以在之后声明
+         * @return self
+         */
+        public Builder on(int input, @NonNull String target) {
+            return put(input, target, 0);
+        }
+
+        /**
+         * 声明当前状态在输入下的转移，转移时发出手势
+         *
+         * @param input   输入
+         * @param target  目标状态名，可以在之后声明
+         * @param gesture 手势，[0, 65534]
+         * @return self
+         */
+        public Builder on(int input, @NonNull String target, int gesture) {
+            if (gesture < 0 || gesture >= 0xffff)
+                throw new IllegalArgumentException("Gesture out of range: " + gesture);
+            return put(input, target, gesture + 1);
+        }
+
+        private Builder put(int input, String target, int gesture) {
+            Objects.requireNonNull(target, "The target state must not be null...");
+            if (input < 0 || input >= INPUTS)
+                throw new IllegalArgumentException("Unknown input: " + input);
+            int ref = mTargets.indexOf(target);
+            if (ref < 0) {
+                ref = mTargets.size();
+                mTargets.add(target);
+            }
+            final int[] row = mRows.get(current());
+            row[input * 2] = ref + 1;
+            row[input * 2 + 1] = gesture;
+            return this;
+        }
+
+        private int current() {
+            if (mCurrent < 0)
+                throw new IllegalStateException("Call state(String) before declaring transitions");
+            return mCurrent;
+        }
+
+        /**
+         * 编译为转移表
+         *
+         * @return 转移表
+         */
+        @NonNull
+        public Table build() {
+            final int count = mNames.size();
+            if (count == 0)
+                throw new IllegalStateException("No state declared");
+            if (count > 0xfffe)
+                throw new IllegalStateException("Too many states: " + count);
+            final int[] transitions = new int[count * INPUTS];
+            final int[] timeouts = new int[count];
+            for (int s = 0; s < count; s++) {
+                final int[] row = mRows.get(s);
+                for (int input = 0; input < INPUTS; input++) {
+                    final int ref = row[input * 2];
+                    if (ref == 0) continue;
+                    final String target = mTargets.get(ref - 1);
+                    final Integer index = mIndex.get(target);
+                    if (index == null)
+                        throw new IllegalStateException("Undeclared state: " + target);
+                    transitions[s * INPUTS + input] = (index + 1) << 16 | row[input * 2 + 1];
+                }
+                timeouts[s] = mTimeouts.get(s);
+            }
+            return new Table(transitions, timeouts, mNames.toArray(new String[0]));
+        }
+    }
+
+    private final Table mTable;                 // 转移表
+    private final Callback mCallback;           // 识别结果回调
+    private final GestureClock mClock;          // 时钟，与事件时间同一时基
+    private GestureScheduler mScheduler;        // 超时任务调度器
+    private GestureArena mArena;                // 手势竞技场，非空时与其他识别器竞争
+
+    private final TouchSample mDownSample = new TouchSample(); // 按下采样
+    private int mDownGeneration;                // 按下采样更新次数
+
+    private int mState;                         // 当前状态
+    private int mDeferred;                      // 等待竞技场裁决的转移，0 为没有
+    private int mTouchSlopSquare;               // 触摸阈值平方
+    private boolean mSlopExceeded;              // 自锚点以来是否超出过阈值
+    private float mAnchorX, mAnchorY;           // 阈值判定锚点
+    private float mFocusX, mFocusY;             // 当前重心
+    private float mDeltaX, mDeltaY;             // 重心相对上一事件的位移
+
+    public GestureMachine(
+            @NonNull Table table,
+            @NonNull Callback callback,
+            @NonNull GestureClock clock,
+            @NonNull GestureScheduler scheduler
+    ) {
+        mTable = Objects.requireNonNull(table, "The Table must not be null...");
+        mCallback = Objects.requireNonNull(callback, "The Callback must not be null...");
+        mClock = Objects.requireNonNull(clock, "The GestureClock must not be null...");
+        mScheduler = Objects.requireNonNull(scheduler, "The GestureScheduler must not be null...");
+    }
+
+    /**
+     * 事件响应接口
+     *
+     * @param e 触摸采样
+     * @return {@code true}状态机不在起始状态或发出了手势
+     */
+    @Override
+    public boolean onTouchEvent(@NonNull TouchSample e) {
+        if (mArena != null && !mArena.enter(this, e))
+            return false;   // 已出局
+        final boolean isOnTouch = step(classify(e), e, e.getEventTime());
+        if (mArena != null && mState != 0 && mTable.isMultiSequence)
+            mArena.hold(this);  // 识别未结束，下一次按下仍属于本轮
+        return isOnTouch;
+    }
+
+    /**
+     * 延时任务响应
+     *
+     * @param what 任务类型
+     */
+    @Override
+    public void onTimeout(int what) {
+        //noinspection SwitchStatementWithTooFewBranches
+        switch (what) {
+            case TIMEOUT_TASK:
+                step(TIMEOUT, mDownSample, mClock.now());
+                break;
+            default:
+                throw new RuntimeException("Unknown gesture" + what);
+        }
+    }
+
+    /**
+     * 解释循环：查表转移，未定义的输入回到起始状态后重试一次
+     *
+     * @param input 输入
+     * @param e     采样
+     * @param time  输入发生的时间
+     */
+    private boolean step(int input, TouchSample e, long time) {
+        final int[] transitions = mTable.mTransitions;
+        int entry = transitions[mState * INPUTS + input];
+        if (entry == 0) {
+            if (input == MOVE || mState == 0)
+                return mState != 0;
+            moveTo(0, time);
+            entry = transitions[input];
+            if (entry == 0) {
+                release();
+                return false;
+            }
+        }
+        final int gesture = (entry & 0xffff) - 1;
+        if (gesture >= 0 && !claim()) {
+            if (mArena != null && mArena.isPending(this)) {
+                mDeferred = entry;  // 获胜时再转移并发出手势
+                mScheduler.cancel(this, TIMEOUT_TASK);
+            }
+            return false;
+        }
+        moveTo((entry >>> 16) - 1, time);
+        if (gesture >= 0)
+            return mCallback.onGesture(gesture, e) | (mState != 0);
+        if (mState == 0)
+            release();
+        return mState != 0;
+    }
+
+    /**
+     * 输入归类，同时维护重心与触摸阈值
+     */
+    private int classify(TouchSample e) {
+        final int action = e.getActionMasked();
+        final int skipIndex = action == TouchSample.ACTION_POINTER_UP ? e.getActionIndex() : -1;
+        final int count = e.getPointerCount();
+        float sumX = 0, sumY = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == skipIndex) continue;
+            sumX += e.getX(i);
+            sumY += e.getY(i);
+        }
+        final int div = skipIndex >= 0 ? count - 1 : count;
+        final float focusX = sumX / div, focusY = sumY / div;
+        mDeltaX = focusX - mFocusX;
+        mDeltaY = focusY - mFocusY;
+        mFocusX = focusX;
+        mFocusY = focusY;
+        switch (action) {
+            case TouchSample.ACTION_DOWN:
+                mDeltaX = mDeltaY = 0;
+                mDownSample.copyFrom(e);
+                mDownGeneration++;
+                anchor();
+                return DOWN;
+            case TouchSample.ACTION_POINTER_DOWN:
+                mDeltaX = mDeltaY = 0;  // 重心因触点数变化跳变，不计为位移
+                anchor();
+                return POINTER_DOWN;
+            case TouchSample.ACTION_POINTER_UP:
+                mDeltaX = mDeltaY = 0;
+                anchor();
+                return POINTER_UP;
+            case TouchSample.ACTION_UP:
+                return UP;
+            case TouchSample.ACTION_MOVE:
+                if (mSlopExceeded)
+                    return MOVE;
+                final float dx = focusX - mAnchorX, dy = focusY - mAnchorY;
+                if (dx * dx + dy * dy <= mTouchSlopSquare)
+                    return MOVE;
+                mSlopExceeded = true;
+                return SLOP;
+            default:
+                return CANCEL;
+        }
+    }
+
+    private void anchor() {
+        mAnchorX = mFocusX;
+        mAnchorY = mFocusY;
+        mSlopExceeded = false;
+    }
+
+    /**
+     * 进入状态，状态变化时重新安排超时
+     */
+    private void moveTo(int state, long time) {
+        if (state == mState)
+            return;
+        mScheduler.cancel(this, TIMEOUT_TASK);
+        mState = state;
+        final int timeout = mTable.mTimeouts[state];
+        if (timeout > 0)
+            mScheduler.schedule(this, TIMEOUT_TASK, Math.max(0, timeout - (mClock.now() - time)));
+    }
+
+    /**
+     * 未发出手势而回到起始状态，退出本轮竞争
+     */
+    private void release() {
+        if (mArena != null && mArena.getWinner() != this)
+            mArena.reject(this);
+    }
+
+    /**
+     * 宣告手势成立
+     *
+     * @return {@code true}未使用竞技场或已获胜，{@code false}已出局
+     */
+    private boolean claim() {
+        return mArena == null || mArena.accept(this);
+    }
+
+    /**
+     * 竞技场中获胜，补发等待裁决的手势，此时的采样为按下采样
+     */
+    @Override
+    public void onArenaAccepted() {
+        final int entry = mDeferred;
+        if (entry == 0)
+            return;
+        mDeferred = 0;
+        moveTo((entry >>> 16) - 1, mClock.now());
+        mCallback.onGesture((entry & 0xffff) - 1, mDownSample);
+    }
+
+    /**
+     * 竞技场中落败，回到起始状态
+     */
+    @Override
+    public void onArenaRejected() {
+        mScheduler.cancel(this, TIMEOUT_TASK);
+        mState = 0;
+        mDeferred = 0;
+    }
+
+    /**
+     * 回到起始状态并取消挂起的超时
+     */
+    public void reset() {
+        mScheduler.cancel(this, TIMEOUT_TASK);
+        mState = 0;
+        mDeferred = 0;
+        mSlopExceeded = false;
+    }
+
+    /**
+     * 设置触摸阈值
+     *
+     * @param touchSlop 阈值（像素）
+     * @return self
+     */
+    public GestureMachine setTouchSlop(int touchSlop) {
+        mTouchSlopSquare = touchSlop * touchSlop;
+        return this;
+    }
+
+    /**
+     * 替换延时任务调度器，旧调度器中挂起的任务会被取消
+     *
+     * @param scheduler 调度器
+     * @return self
+     */
+    public GestureMachine setScheduler(@NonNull GestureScheduler scheduler) {
+        Objects.requireNonNull(scheduler, "The GestureScheduler must not be null...");
+        mScheduler.cancel(this, TIMEOUT_TASK);
+        mScheduler = scheduler;
+        mState = 0;
+        mDeferred = 0;
+        return this;
+    }
+
+    /**
+     * 设置手势竞技场，发出手势前向竞技场宣告，识别失败时退出本轮；
+     * 宣告需等待其他成员裁决时，获胜后才转移并以按下采样发出手势
+     *
+     * @param arena 手势竞技场，{@code null}时不参与竞争
+     * @return self
+     */
+    public GestureMachine setArena(@Nullable GestureArena arena) {
+        if (mArena != null && mArena != arena)
+            mArena.reject(this);
+        mArena = arena;
+        return this;
+    }
+
+    @Nullable
+    public GestureArena getArena() {
+        return mArena;
+    }
+
+    @NonNull
+    public Table getTable() {
+        return mTable;
+    }
+
+    /**
+     * 当前状态，可在回调中读取
+     *
+     * @return 状态，0 为起始状态
+     */
+    public int getState() {
+        return mState;
+    }
+
+    /**
+     * 重心相对上一事件的横向位移，可在拖动类手势回调中读取
+     *
+     * @return 位移
+     */
+    public float getDeltaX() {
+        return mDeltaX;
+    }
+
+    /**
+     * 重心相对上一事件的纵向位移
+     *
+     * @return 位移
+     */
+    public float getDeltaY() {
+        return mDeltaY;
+    }
+
+    public float getFocusX() {
+        return mFocusX;
+    }
+
+    public float getFocusY() {
+        return mFocusY;
+    }
+
+    /**
+     * 最近一次按下的采样
+     *
+     * @return 按下采样
+     */
+    @NonNull
+    public TouchSample getDownSample() {
+        return mDownSample;
+    }
+
+    /**
+     * 按下采样的更新次数，每次按下采样被替换时递增
+     *
+     * @return 更新次数
+     */
+    public int getDownGeneration() {
+        return mDownGeneration;
+    }
+}
@@ -0,0 +1,318 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 手势分发耗时统计，用于区分卡顿来自识别还是监听器
+ * <p>
+ * 记录四类数据：事件发生到监听器开始执行的延迟、每个事件在检测器中的识别耗时（不含监听器）、
+ * 各监听器方法的执行耗时（其计数即为各手势的识别次数），以及事件数、按下数与取消数。
+ * 耗时以纳秒记入{@link LatencyHistogram}，记录过程无锁、不产生对象，可由多个检测器及线程共享。
+ * <p>
+ * 事件时间（毫秒）与{@link Ticker}（纳秒）须为同一时基，Android 上{@code SystemClock.uptimeMillis()}
+ * 与{@link System#nanoTime()}均为{@code CLOCK_MONOTONIC}。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class GestureMetrics {
+
+    public static final int DOWN = 0;
+    public static final int TAP = 1;
+    public static final int DOUBLE_TAP = 2;
+    public static final int LONG_PRESS = 3;
+    public static final int TAP_UP = 4;
+    public static final int TAP_CONFIRMED = 5;
+    public static final int TAP_REVOKED = 6;
+    public static final int SCROLL = 7;
+    public static final int SCALE = 8;
+    public static final int TRANSFORM = 9;
+    public static final int FLING = 10;
+    public static final int DRAG = 11;
+
+    /**
+     * 监听器方法数
+     */
+    public static final int CALLBACK_COUNT = 12;
+
+    private static final String[] NAMES = {
+            "onDown", "onTap", "onDoubleTap", "onLongPress", "onTapUp", "onTapConfirmed",
+            "onTapRevoked", "onScroll", "onScale", "onTransform", "onFling", "onDrag"
+    };
+
+    /**
+     * 纳秒时钟
+     */
+    @FunctionalInterface
+    public interface Ticker {
+
+        /**
+         * 当前时间
+         *
+         * @return 时间（纳秒）
+         */
+        long nanoTime();
+    }
+
+    /**
+     * 只读快照
+     */
+    public static final class Snapshot {
+
+        private final LatencyHistogram.Snapshot mLatency;
+        private final LatencyHistogram.Snapshot mDetect;
+        private final LatencyHistogram.Snapshot[] mCallbacks;
+        private final long mEventCount;
+        private final long mDownCount;
+        private final long mCancelCount;
+        private final long mDuration;
+
+        Snapshot(GestureMetrics metrics) {
+            mLatency = metrics.mLatency.snapshot();
+            mDetect = metrics.mDetect.snapshot();
+            mCallbacks = new LatencyHistogram.Snapshot[CALLBACK_COUNT];
+            for (int i = 0; i < CALLBACK_COUNT; i++) mCallbacks[i] = metrics.mCallbacks[i].snapshot();
+            mEventCount = metrics.mEventCount.get();
+            mDownCount = metrics.mDownCount.get();
+            mCancelCount = metrics.mCancelCount.get();
+            final long start = metrics.mSequenceStart.get();
+            final long open = start == Long.MIN_VALUE ? 0 : metrics.mLastEventTime.get() - start;
+            mDuration = metrics.mActiveDuration.get() + Math.max(open, 0);
+        }
+
+        /**
+         * 事件发生到监听器开始执行的延迟，超时触发的回调不计入
+         *
+         * @return 延迟（纳秒）
+         */
+        @NonNull
+        public LatencyHistogram.Snapshot getLatency() {
+            return mLatency;
+        }
+
+        /**
+         * 每个事件的识别耗时，不含监听器
+         *
+         * @return 耗时（纳秒）
+         */
+        @NonNull
+        public LatencyHistogram.Snapshot getDetect() {
+            return mDetect;
+        }
+
+        /**
+         * 监听器方法的执行耗时
+         *
+         * @param callback 监听器方法，如{@link GestureMetrics#SCROLL}
+         * @return 耗时（纳秒）
+         */
+        @NonNull
+        public LatencyHistogram.Snapshot getCallback(int callback) {
+            return mCallbacks[callback];
+        }
+
+        /**
+         * 手势识别次数，即监听器方法的调用次数
+         *
+         * @param callback 监听器方法，如{@link GestureMetrics#TAP}
+         * @return 次数
+         */
+        public long getRecognizedCount(int callback) {
+            return mCallbacks[callback].getCount();
+        }
+
+        public long getEventCount() {
+            return mEventCount;
+        }
+
+        /**
+         * 按下数，即开始的手势序列数
+         *
+         * @return 按下数
+         */
+        public long getDownCount() {
+            return mDownCount;
+        }
+
+        /**
+         * 被取消的手势序列数
+         *
+         * @return 取消数
+         */
+        public long getCancelCount() {
+            return mCancelCount;
+        }
+
+        /**
+         * 手势序列的累计时长，即各次按下到抬起或取消之间的时长之和，进行中的序列计至最后一个事件
+         *
+         * @return 时长（毫秒）
+         */
+        public long getActiveDuration() {
+            return mDuration;
+        }
+
+        /**
+         * 手势进行期间的平均事件频率，序列之间的空闲时间不计入
+         *
+         * @return 每秒事件数，累计时长为 0 时为 0
+         */
+        public double getEventsPerSecond() {
+            return mDuration <= 0 ? 0 : mEventCount * 1000.0 / mDuration;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder()
+                    .append("events=").append(mEventCount)
+                    .append(" rate=").append((long) getEventsPerSecond()).append("/s")
+                    .append(" downs=").append(mDownCount)
+                    .append(" cancels=").append(mCancelCount)
+                    .append("\nlatency ").append(mLatency)
+                    .append("\ndetect ").append(mDetect);
+            for (int i = 0; i < CALLBACK_COUNT; i++) {
+                if (mCallbacks[i].getCount() > 0)
+                    builder.append('\n').append(nameOf(i)).append(' ').append(mCallbacks[i]);
+            }
+            return builder.toString();
+        }
+    }
+
+    private final Ticker mTicker;                           // 纳秒时钟
+    private final LatencyHistogram mLatency = new LatencyHistogram();   // 事件到回调的延迟
+    private final LatencyHistogram mDetect = new LatencyHistogram();    // 识别耗时
+    private final LatencyHistogram[] mCallbacks = new LatencyHistogram[CALLBACK_COUNT]; // 监听器耗时
+    private final AtomicLong mEventCount = new AtomicLong();            // 事件数
+    private final AtomicLong mDownCount = new AtomicLong();             // 按下数
+    private final AtomicLong mCancelCount = new AtomicLong();           // 取消数
+    private final AtomicLong mSequenceStart = new AtomicLong(Long.MIN_VALUE); // 进行中序列的按下时间（毫秒）
+    private final AtomicLong mActiveDuration = new AtomicLong();        // 已结束序列的累计时长（毫秒）
+    private final AtomicLong mLastEventTime = new AtomicLong();         // 最后一个事件时间（毫秒）
+
+    public GestureMetrics() {
+        this(System::nanoTime);
+    }
+
+    public GestureMetrics(@NonNull Ticker ticker) {
+        mTicker = Objects.requireNonNull(ticker, "The Ticker must not be null...");
+        for (int i = 0; i < CALLBACK_COUNT; i++) mCallbacks[i] = new LatencyHistogram();
+    }
+
+    /**
+     * 监听器方法名
+     *
+     * @param callback 监听器方法，如{@link #SCROLL}
+     * @return 方法名，如 onScroll
+     */
+    @NonNull
+    public static String nameOf(int callback) {
+        return NAMES[callback];
+    }
+
+    /**
+     * 当前时间
+     *
+     * @return 时间（纳秒）
+     */
+    public long now() {
+        return mTicker.nanoTime();
+    }
+
+    /**
+     * 记录检测器收到的事件
+     * <p>
+     * 按下到抬起或取消之间的时长计入累计时长；未结束的序列被新的按下替代时不计入，
+     * 多个检测器共享时重叠的序列自较晚的按下开始计。
+     *
+     * @param e 触摸采样
+     */
+    public void recordEvent(@NonNull TouchSample e) {
+        mEventCount.incrementAndGet();
+        final long time = e.getEventTime();
+        mLastEventTime.set(time);
+        switch (e.getActionMasked()) {
+            case TouchSample.ACTION_DOWN:
+                mDownCount.incrementAndGet();
+                mSequenceStart.set(time);
+                break;
+            case TouchSample.ACTION_CANCEL:
+                mCancelCount.incrementAndGet();
+                endSequence(time);
+                break;
+            case TouchSample.ACTION_UP:
+                endSequence(time);
+                break;
+        }
+    }
+
+    private void endSequence(long time) {
+        final long start = mSequenceStart.getAndSet(Long.MIN_VALUE);
+        if (start != Long.MIN_VALUE && time > start)
+            mActiveDuration.addAndGet(time - start);
+    }
+
+    /**
+     * 记录一次识别耗时
+     *
+     * @param begin    开始时间（纳秒），来自{@link #now()}
+     * @param listener 其间监听器耗时（纳秒），不计入识别耗时
+     */
+    public void recordDetect(long begin, long listener) {
+        mDetect.record(mTicker.nanoTime() - begin - listener);
+    }
+
+    /**
+     * 监听器方法开始执行，记录事件到回调的延迟
+     *
+     * @param eventTime 触发回调的事件时间（毫秒），超时触发时为负数，不记录延迟
+     * @return 开始时间（纳秒），用于{@link #endCallback(int, long)}
+     */
+    public long beginCallback(long eventTime) {
+        final long now = mTicker.nanoTime();
+        if (eventTime >= 0)
+            mLatency.record(now - eventTime * 1000000L);
+        return now;
+    }
+
+    /**
+     * 监听器方法执行完毕
+     *
+     * @param callback 监听器方法，如{@link #SCROLL}
+     * @param begin    开始时间（纳秒），来自{@link #beginCallback(long)}
+     * @return 执行耗时（纳秒）
+     */
+    public long endCallback(int callback, long begin) {
+        final long duration = mTicker.nanoTime() - begin;
+        mCallbacks[callback].record(duration);
+        return duration;
+    }
+
+    /**
+     * 读取快照
+     *
+     * @return 快照
+     */
+    @NonNull
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * 清空所有记录
+     */
+    public void reset() {
+        mLatency.reset();
+        mDetect.reset();
+        for (LatencyHistogram histogram : mCallbacks) histogram.reset();
+        mEventCount.set(0);
+        mDownCount.set(0);
+        mCancelCount.set(0);
+        mSequenceStart.set(Long.MIN_VALUE);
+        mActiveDuration.set(0);
+        mLastEventTime.set(0);
+    }
+}
@@ -0,0 +1,373 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 手势识别流水线，将识别从事件线程移至专用的识别线程
+ * <p>
+ * 事件线程通过{@link #submit(int, TouchSample)}把采样复制进无锁的单生产者单消费者环形队列后立即返回；
+ * 识别线程依次取出采样交给注册的检测器，检测器的超时任务由本线程的时间轮调度，
+ * 队列取空后才触发到期任务，积压时超时不会先于已发生的抬起。检测器通过{@link #obtain(Receiver, int)}
+ * 记录识别结果，每取空一次队列合并为一批，整批交给投递执行器，批次与其中的结果对象循环复用。
+ * <p>
+ * 注册与提交只能在同一事件线程中调用；检测器、其调度与回调都在识别线程中执行，
+ * 配置变更应通过{@link #execute(Runnable)}在识别线程中进行，它与之前提交的采样保持顺序。
+ * 检测器以弱引用持有，随其所有者回收。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class GesturePipeline implements Executor {
+
+    /**
+     * 默认队列容量（int 数）
+     */
+    public static final int DEFAULT_CAPACITY = 16 * 1024;
+
+    /**
+     * 每个识别结果可携带的数值个数
+     */
+    public static final int VALUES = 8;
+
+    private static final int TICK = 10;         // 时间轮刻度（毫秒）
+    private static final int SLOTS = 64;        // 时间轮槽位数
+
+    /**
+     * 识别结果接收者
+     */
+    @FunctionalInterface
+    public interface Receiver {
+
+        /**
+         * 在投递执行器中回调，结果对象在回调返回后复用，不要持有
+         *
+         * @param delivery 识别结果
+         */
+        void onDeliver(@NonNull Delivery delivery);
+    }
+
+    /**
+     * 识别结果，由识别线程填充，在投递执行器中读取
+     */
+    public static final class Delivery {
+
+        private Receiver mReceiver;                                 // 接收者
+        private int mWhat;                                          // 结果类型
+        private long mEventTime;                                    // 触发该结果的事件时间
+        private final TouchSample mFirst = new TouchSample();       // 第一个采样
+        private final TouchSample mSecond = new TouchSample();      // 第二个采样
+        private final float[] mValues = new float[VALUES];          // 数值
+
+        public int getWhat() {
+            return mWhat;
+        }
+
+        /**
+         * 触发该结果的事件时间
+         *
+         * @return 时间（毫秒），由超时触发时为 -1
+         */
+        public long getEventTime() {
+            return mEventTime;
+        }
+
+        @NonNull
+        public TouchSample getFirst() {
+            return mFirst;
+        }
+
+        @NonNull
+        public TouchSample getSecond() {
+            return mSecond;
+        }
+
+        public float getValue(int index) {
+            return mValues[index];
+        }
+
+        /**
+         * 设置数值
+         *
+         * @param index 位置，[0, {@link GesturePipeline#VALUES})
+         * @param value 数值
+         * @return self
+         */
+        public Delivery setValue(int index, float value) {
+            mValues[index] = value;
+            return this;
+        }
+    }
+
+    /**
+     * 待执行的命令，记录提交时的队列位置
+     */
+    private static final class Command {
+        final long position;
+        final Runnable runnable;
+
+        Command(long position, Runnable runnable) {
+            this.position = position;
+            this.runnable = runnable;
+        }
+    }
+
+    /**
+     * 一批识别结果，投递完成后交还识别线程复用
+     */
+    private static final class Batch implements Runnable {
+
+        private Delivery[] mItems = new Delivery[16];
+        private int mSize;
+        private volatile boolean isBusy;                    // 已交给投递执行器，尚未投递完成
+
+        Delivery next() {
+            if (mSize == mItems.length) {
+                final Delivery[] grown = new Delivery[mSize << 1];
+                System.arraycopy(mItems, 0, grown, 0, mSize);
+                mItems = grown;
+            }
+            Delivery delivery = mItems[mSize];
+            if (delivery == null) {
+                delivery = new Delivery();
+                mItems[mSize] = delivery;
+            }
+            mSize++;
+            return delivery;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < mSize; i++) {
+                    mItems[i].mReceiver.onDeliver(mItems[i]);
+                }
+            } finally {
+                for (int i = 0; i < mSize; i++) mItems[i].mReceiver = null;
+                mSize = 0;
+                isBusy = false;
+            }
+        }
+    }
+
+    private final GestureClock mClock;                      // 时钟
+    private final Executor mDelivery;                       // 投递执行器
+    private final SampleRing mRing;                         // 采样队列
+    private final ConcurrentLinkedQueue<Command> mCommands = new ConcurrentLinkedQueue<>(); // 待执行的命令
+    private final Thread mThread;                           // 识别线程
+    private int mTargetCount;                               // 已注册的目标数，仅事件线程访问
+
+    private final TimerWheelScheduler mWheel;               // 超时调度，仅识别线程访问
+    private long mDeadline = Long.MAX_VALUE;                // 最近的到期时间，仅识别线程访问
+    private final TouchSample mSample = new TouchSample();  // 取出的采样，仅识别线程访问
+    private long mEventTime = -1;                           // 正在分发的事件时间，仅识别线程访问
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private WeakReference<SampleDetector>[] mTargets = new WeakReference[4]; // 目标，仅识别线程访问
+    private Batch[] mBatches = new Batch[2];                // 批次池，仅识别线程访问
+    private Batch mBatch;                                   // 正在填充的批次
+
+    private volatile boolean isWaiting;                     // 识别线程是否即将休眠
+    private volatile boolean isQuit;
+
+    public GesturePipeline(@NonNull GestureClock clock, @NonNull Executor delivery) {
+        this(clock, delivery, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param clock    时钟
+     * @param delivery 投递执行器，应串行执行，通常投递至主线程
+     * @param capacity 队列容量（int 数），向上取整为 2 的幂
+     */
+    public GesturePipeline(@NonNull GestureClock clock, @NonNull Executor delivery, int capacity) {
+        mClock = Objects.requireNonNull(clock, "The GestureClock must not be null...");
+        mDelivery = Objects.requireNonNull(delivery, "The Executor must not be null...");
+        mRing = new SampleRing(capacity);
+        mWheel = new TimerWheelScheduler(clock, TICK, SLOTS, deadline -> mDeadline = deadline);
+        mThread = new Thread(this::loop, "EasyGesture-Pipeline");
+        mThread.setDaemon(true);
+        mThread.setPriority(Thread.MAX_PRIORITY);
+        mThread.start();
+    }
+
+    /**
+     * 注册检测器，仅事件线程调用
+     *
+     * @param detector 检测器，之后只在识别线程中调用
+     * @return 目标，用于{@link #submit(int, TouchSample)}
+     */
+    public int register(@NonNull SampleDetector detector) {
+        final WeakReference<SampleDetector> ref = new WeakReference<>(
+                Objects.requireNonNull(detector, "The SampleDetector must not be null..."));
+        final int target = mTargetCount++;
+        execute(() -> {
+            if (target >= mTargets.length) {
+                @SuppressWarnings({"unchecked", "rawtypes"}) final WeakReference<SampleDetector>[] grown =
+                        new WeakReference[Math.max(target + 1, mTargets.length << 1)];
+                System.arraycopy(mTargets, 0, grown, 0, mTargets.length);
+                mTargets = grown;
+            }
+            mTargets[target] = ref;
+        });
+        return target;
+    }
+
+    /**
+     * 提交采样，仅事件线程调用，不等待识别
+     *
+     * @param target 目标
+     * @param e      触摸采样，返回后即可复用
+     * @return {@code true}已入队 {@code false}队列已满而丢弃
+     */
+    public boolean submit(int target, @NonNull TouchSample e) {
+        final boolean isOffered = mRing.offer(target, e);
+        if (isWaiting) LockSupport.unpark(mThread);
+        return isOffered;
+    }
+
+    /**
+     * 在识别线程中执行命令，在之前提交的采样之后、之后提交的采样之前执行，可在任意线程调用
+     *
+     * @param command 命令
+     */
+    @Override
+    public void execute(@NonNull Runnable command) {
+        Objects.requireNonNull(command, "The command must not be null...");
+        mCommands.add(new Command(mRing.getWritePosition(), command));
+        if (isWaiting) LockSupport.unpark(mThread);
+    }
+
+    /**
+     * 识别线程的超时调度器，只能在识别线程中使用
+     *
+     * @return 调度器
+     */
+    @NonNull
+    public GestureScheduler getScheduler() {
+        return mWheel;
+    }
+
+    /**
+     * 取得一个识别结果用于填充，在本批投递时回调接收者，只能在识别线程中调用
+     *
+     * @param receiver 接收者
+     * @param what     结果类型
+     * @return 识别结果
+     */
+    @NonNull
+    public Delivery obtain(@NonNull Receiver receiver, int what) {
+        if (mBatch == null) mBatch = freeBatch();
+        final Delivery delivery = mBatch.next();
+        delivery.mReceiver = Objects.requireNonNull(receiver, "The Receiver must not be null...");
+        delivery.mWhat = what;
+        delivery.mEventTime = mEventTime;
+        return delivery;
+    }
+
+    /**
+     * 当前线程是否为识别线程
+     *
+     * @return {@code true}是
+     */
+    public boolean isPipelineThread() {
+        return Thread.currentThread() == mThread;
+    }
+
+    /**
+     * 因队列已满而丢弃的采样数，仅事件线程调用
+     *
+     * @return 采样数
+     */
+    public long getDroppedCount() {
+        return mRing.getDroppedCount();
+    }
+
+    /**
+     * 停止识别线程，之后提交的采样不再处理
+     */
+    public void quit() {
+        isQuit = true;
+        LockSupport.unpark(mThread);
+    }
+
+    private void loop() {
+        while (!isQuit) {
+            for (; ; ) {
+                runCommands(mRing.getReadPosition());   // 先于下一个采样提交的命令
+                final int target = mRing.poll(mSample);
+                if (target < 0) break;
+                dispatch(target);
+            }
+            // 取空队列后再触发到期任务，积压的抬起等事件先于超时
+            if (mDeadline != Long.MAX_VALUE && mClock.now() >= mDeadline) {
+                mDeadline = Long.MAX_VALUE;
+                mWheel.advance();
+            }
+            flush();
+
+            isWaiting = true;
+            if (mRing.isEmpty() && mCommands.isEmpty() && !isQuit) {
+                final long deadline = mDeadline;
+                if (deadline == Long.MAX_VALUE) {
+                    LockSupport.park(this);
+                } else {
+                    final long wait = deadline - mClock.now();
+                    if (wait > 0) LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(wait));
+                }
+            }
+            isWaiting = false;
+        }
+    }
+
+    private void runCommands(long position) {
+        Command command;
+        while ((command = mCommands.peek()) != null && command.position <= position) {
+            mCommands.poll();
+            command.runnable.run();
+        }
+    }
+
+    private void dispatch(int target) {
+        final WeakReference<SampleDetector> ref = target < mTargets.length ? mTargets[target] : null;
+        final SampleDetector detector = ref != null ? ref.get() : null;
+        if (detector != null) {
+            mEventTime = mSample.getEventTime();
+            detector.onTouchEvent(mSample);
+            mEventTime = -1;
+        }
+        else if (ref != null)
+            mTargets[target] = null;
+    }
+
+    private void flush() {
+        final Batch batch = mBatch;
+        if (batch == null) return;
+        mBatch = null;
+        batch.isBusy = true;
+        mDelivery.execute(batch);
+    }
+
+    private Batch freeBatch() {
+        for (int i = 0; i < mBatches.length; i++) {
+            Batch batch = mBatches[i];
+            if (batch == null) {
+                batch = new Batch();
+                mBatches[i] = batch;
+                return batch;
+            }
+            if (!batch.isBusy) return batch;
+        }
+        // 投递跟不上时扩充批次池
+        final Batch[] grown = new Batch[mBatches.length << 1];
+        System.arraycopy(mBatches, 0, grown, 0, mBatches.length);
+        final Batch batch = new Batch();
+        grown[mBatches.length] = batch;
+        mBatches = grown;
+        return batch;
+    }
+}
@@ -0,0 +1,93 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+import java.util.Objects;
+
+/**
+ * 事件流回放器
+ * <p>
+ * 按事件时间推进{@link VirtualTimeScheduler}，再将采样交给检测器，期间到期的超时任务在对应的事件之前依次触发。
+ * 回放不依赖真实时间，速度只受 CPU 限制，相同输入每次得到相同结果。
+ * 检测器须以同一个{@link VirtualTimeScheduler}作为时钟与调度器构造；事件时间应单调不减，
+ * 衔接多段录制时需先将其平移至同一时间轴。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class GestureReplay {
+
+    private final VirtualTimeScheduler mScheduler;
+
+    private long mEvents;       // 已回放的事件数
+
+    public GestureReplay(@NonNull VirtualTimeScheduler scheduler) {
+        mScheduler = Objects.requireNonNull(scheduler, "The VirtualTimeScheduler must not be null...");
+    }
+
+    /**
+     * 回放单个采样
+     *
+     * @param detector 检测器
+     * @param e        触摸采样
+     * @return 检测器返回值
+     */
+    public boolean replay(@NonNull SampleDetector detector, @NonNull TouchSample e) {
+        mScheduler.advanceTo(e.getEventTime());
+        mEvents++;
+        return detector.onTouchEvent(e);
+    }
+
+    /**
+     * 依次回放采样
+     *
+     * @param detector 检测器
+     * @param samples  触摸采样
+     * @return 检测器响应的事件数
+     */
+    public int replay(@NonNull SampleDetector detector, @NonNull TouchSample... samples) {
+        int handled = 0;
+        for (TouchSample e : samples) {
+            if (replay(detector, e)) handled++;
+        }
+        return handled;
+    }
+
+    /**
+     * 依次回放采样
+     *
+     * @param detector 检测器
+     * @param samples  触摸采样
+     * @return 检测器响应的事件数
+     */
+    public int replay(@NonNull SampleDetector detector, @NonNull Iterable<TouchSample> samples) {
+        int handled = 0;
+        for (TouchSample e : samples) {
+            if (replay(detector, e)) handled++;
+        }
+        return handled;
+    }
+
+    /**
+     * 回放结束后时间继续前进，触发最后一个事件之后的超时（单击确认、长按等）
+     *
+     * @param trailingMillis 前进时长（毫秒）
+     */
+    public void finish(long trailingMillis) {
+        mScheduler.advanceBy(trailingMillis);
+    }
+
+    @NonNull
+    public VirtualTimeScheduler getScheduler() {
+        return mScheduler;
+    }
+
+    /**
+     * 已回放的事件数
+     *
+     * @return 事件数
+     */
+    public long getEventCount() {
+        return mEvents;
+    }
+}
@@ -0,0 +1,45 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 手势延时任务调度器，负责长按、单击确认等超时事件
+ * <p>
+ * 同一目标的同一类型任务只保留最后一次调度。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public interface GestureScheduler {
+
+    /**
+     * 超时事件接收者
+     */
+    @FunctionalInterface
+    interface Target {
+
+        /**
+         * 超时事件
+         *
+         * @param what 任务类型
+         */
+        void onTimeout(int what);
+    }
+
+    /**
+     * 调度延时任务，已存在的同类型任务会被替换
+     *
+     * @param target      接收者
+     * @param what        任务类型
+     * @param delayMillis 延时（毫秒）
+     */
+    void schedule(@NonNull Target target, int what, long delayMillis);
+
+    /**
+     * 取消延时任务
+     *
+     * @param target 接收者
+     * @param what   任务类型
+     */
+    void cancel(@NonNull Target target, int what);
+}
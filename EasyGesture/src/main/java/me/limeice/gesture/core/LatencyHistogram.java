@@ -0,0 +1,180 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 对数刻度的耗时直方图
+ * <p>
+ * 桶的边界固定：小于 8 的值各占一个桶，之后每个 2 的幂区间等分为 8 个桶，相对误差不超过 12.5%，
+ * 覆盖至 2<sup>37</sup> 纳秒（约 137 秒），更大的值计入最后一个桶。记录只做原子自增与比较交换，不加锁、不产生对象，
+ * 可在任意线程并发调用。快照与重置不与记录互斥，并发时可能计入或漏掉正在记录的个别值。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 36;
+
+    /**
+     * 桶数
+     */
+    public static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_COUNT;
+
+    private final AtomicLongArray mCounts = new AtomicLongArray(BUCKETS);   // 各桶计数
+    private final AtomicLong mSum = new AtomicLong();                       // 总和
+    private final AtomicLong mMax = new AtomicLong();                       // 最大值
+
+    /**
+     * 只读快照
+     */
+    public static final class Snapshot {
+
+        private final long[] mCounts;
+        private final long mCount;
+        private final long mSum;
+        private final long mMax;
+
+        Snapshot(long[] counts, long sum, long max) {
+            long count = 0;
+            for (long c : counts) count += c;
+            mCounts = counts;
+            mCount = count;
+            mSum = sum;
+            mMax = max;
+        }
+
+        /**
+         * 记录数
+         *
+         * @return 记录数
+         */
+        public long getCount() {
+            return mCount;
+        }
+
+        /**
+         * 平均值
+         *
+         * @return 平均值，无记录时为 0
+         */
+        public double getMean() {
+            return mCount == 0 ? 0 : (double) mSum / mCount;
+        }
+
+        /**
+         * 最大值
+         *
+         * @return 最大值
+         */
+        public long getMax() {
+            return mMax;
+        }
+
+        /**
+         * 分位数，取所在桶的上界，不超过最大值
+         *
+         * @param percentile 百分位，[0, 100]
+         * @return 分位数，无记录时为 0
+         */
+        public long getPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100)
+                throw new IllegalArgumentException("percentile must be in [0, 100]");
+            if (mCount == 0) return 0;
+            final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * mCount));
+            long seen = 0;
+            for (int i = 0; i < mCounts.length; i++) {
+                seen += mCounts[i];
+                if (seen >= rank) return Math.min(upperBound(i), mMax);
+            }
+            return mMax;
+        }
+
+        /**
+         * 桶的计数
+         *
+         * @param bucket 桶，[0, {@link LatencyHistogram#BUCKETS})
+         * @return 计数
+         */
+        public long getBucketCount(int bucket) {
+            return mCounts[bucket];
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "count=" + mCount + " mean=" + (long) getMean()
+                    + " p50=" + getPercentile(50) + " p90=" + getPercentile(90)
+                    + " p99=" + getPercentile(99) + " max=" + mMax;
+        }
+    }
+
+    /**
+     * 记录一个值
+     *
+     * @param value 值，负数按 0 记录
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        mCounts.incrementAndGet(bucketOf(value));
+        mSum.addAndGet(value);
+        long max;
+        while (value > (max = mMax.get()) && !mMax.compareAndSet(max, value)) {
+            // 其他线程写入了更大的值时重试
+        }
+    }
+
+    /**
+     * 读取快照
+     *
+     * @return 快照
+     */
+    @NonNull
+    public Snapshot snapshot() {
+        final long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) counts[i] = mCounts.get(i);
+        return new Snapshot(counts, mSum.get(), mMax.get());
+    }
+
+    /**
+     * 清空所有记录
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) mCounts.set(i, 0);
+        mSum.set(0);
+        mMax.set(0);
+    }
+
+    /**
+     * 值所在的桶
+     *
+     * @param value 非负值
+     * @return 桶
+     */
+    public static int bucketOf(long value) {
+        if (value < SUB_COUNT) return (int) value;
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        final int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    /**
+     * 桶的上界（含）
+     *
+     * @param bucket 桶
+     * @return 上界
+     */
+    public static long upperBound(int bucket) {
+        if (bucket < SUB_COUNT) return bucket;
+        if (bucket == BUCKETS - 1) return Long.MAX_VALUE;
+        final int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+        final long sub = bucket % SUB_COUNT;
+        return ((SUB_COUNT + sub + 1) << (exponent - SUB_BITS)) - 1;
+    }
+}
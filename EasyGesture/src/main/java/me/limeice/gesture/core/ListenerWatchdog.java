@@ -0,0 +1,333 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 监听器超时看门狗，找出超出帧预算的监听器
+ * <p>
+ * 检测器在每次回调监听器前后调用{@link #now()}与{@link #end(int, Object, long)}，
+ * 耗时超过预算的回调按手势类型（监听器方法，编号同{@link GestureMetrics}）与监听器类汇总，
+ * 在一轮手势结束或距上次报告超过报告间隔时，通过{@link OnOverBudgetListener}报告一次汇总，
+ * 而不是逐次记录。未超时的回调只计数，不产生对象。
+ * <p>
+ * 非线程安全，只能在回调监听器的线程中使用，可由该线程中的多个检测器共享。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class ListenerWatchdog {
+
+    /**
+     * 默认预算（纳秒），120Hz 下的一帧
+     */
+    public static final long DEFAULT_BUDGET = TimeUnit.MILLISECONDS.toNanos(8);
+
+    /**
+     * 默认报告间隔（纳秒）
+     */
+    public static final long DEFAULT_REPORT_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * 超时报告
+     */
+    @FunctionalInterface
+    public interface OnOverBudgetListener {
+
+        /**
+         * 有监听器超出预算，报告对象在回调返回后复用，不要持有
+         *
+         * @param report 汇总
+         */
+        void onOverBudget(@NonNull Report report);
+    }
+
+    /**
+     * 一个报告周期内的超时汇总，按超出预算的总耗时从大到小排列
+     */
+    public static final class Report {
+
+        private int mSize;                                          // 条目数
+        private int[] mCallbacks = new int[4];                      // 监听器方法
+        private Class<?>[] mListeners = new Class<?>[4];            // 监听器类
+        private int[] mOverruns = new int[4];                       // 超时次数
+        private long[] mMax = new long[4];                          // 最长耗时
+        private long[] mTotal = new long[4];                        // 超时回调的总耗时
+        private final int[] mCalls = new int[GestureMetrics.CALLBACK_COUNT]; // 各方法的回调次数
+        private long mBudget;                                       // 预算
+        private long mDuration;                                     // 周期时长
+
+        /**
+         * 条目数，每个条目为一种监听器方法与监听器类的组合
+         *
+         * @return 条目数
+         */
+        public int size() {
+            return mSize;
+        }
+
+        /**
+         * 监听器方法
+         *
+         * @param index 条目
+         * @return 监听器方法，如{@link GestureMetrics#DRAG}
+         */
+        public int getCallback(int index) {
+            return mCallbacks[index];
+        }
+
+        /**
+         * 监听器类
+         *
+         * @param index 条目
+         * @return 监听器类
+         */
+        @NonNull
+        public Class<?> getListenerClass(int index) {
+            return mListeners[index];
+        }
+
+        /**
+         * 超时次数
+         *
+         * @param index 条目
+         * @return 次数
+         */
+        public int getOverrunCount(int index) {
+            return mOverruns[index];
+        }
+
+        /**
+         * 本周期内该监听器方法的回调次数，含未超时的
+         *
+         * @param index 条目
+         * @return 次数
+         */
+        public int getCallCount(int index) {
+            return mCalls[mCallbacks[index]];
+        }
+
+        /**
+         * 最长耗时
+         *
+         * @param index 条目
+         * @return 耗时（纳秒）
+         */
+        public long getMaxDuration(int index) {
+            return mMax[index];
+        }
+
+        /**
+         * 超时回调的总耗时
+         *
+         * @param index 条目
+         * @return 耗时（纳秒）
+         */
+        public long getTotalDuration(int index) {
+            return mTotal[index];
+        }
+
+        /**
+         * 预算
+         *
+         * @return 预算（纳秒）
+         */
+        public long getBudget() {
+            return mBudget;
+        }
+
+        /**
+         * 报告周期时长
+         *
+         * @return 时长（纳秒）
+         */
+        public long getDuration() {
+            return mDuration;
+        }
+
+        int indexOf(int callback, Class<?> listener) {
+            for (int i = 0; i < mSize; i++) {
+                if (mCallbacks[i] == callback && mListeners[i] == listener) return i;
+            }
+            if (mSize == mCallbacks.length) {
+                final int length = mSize << 1;
+                final int[] callbacks = new int[length];
+                final Class<?>[] listeners = new Class<?>[length];
+                final int[] overruns = new int[length];
+                final long[] max = new long[length];
+                final long[] total = new long[length];
+                System.arraycopy(mCallbacks, 0, callbacks, 0, mSize);
+                System.arraycopy(mListeners, 0, listeners, 0, mSize);
+                System.arraycopy(mOverruns, 0, overruns, 0, mSize);
+                System.arraycopy(mMax, 0, max, 0, mSize);
+                System.arraycopy(mTotal, 0, total, 0, mSize);
+                mCallbacks = callbacks;
+                mListeners = listeners;
+                mOverruns = overruns;
+                mMax = max;
+                mTotal = total;
+            }
+            mCallbacks[mSize] = callback;
+            mListeners[mSize] = listener;
+            return mSize++;
+        }
+
+        void sort() {
+            for (int i = 1; i < mSize; i++) {
+                for (int j = i; j > 0 && mTotal[j] > mTotal[j - 1]; j--) swap(j, j - 1);
+            }
+        }
+
+        void clear() {
+            for (int i = 0; i < mSize; i++) {
+                mListeners[i] = null;
+                mOverruns[i] = 0;
+                mMax[i] = 0;
+                mTotal[i] = 0;
+            }
+            for (int i = 0; i < mCalls.length; i++) mCalls[i] = 0;
+            mSize = 0;
+        }
+
+        private void swap(int a, int b) {
+            final int callback = mCallbacks[a];
+            mCallbacks[a] = mCallbacks[b];
+            mCallbacks[b] = callback;
+            final Class<?> listener = mListeners[a];
+            mListeners[a] = mListeners[b];
+            mListeners[b] = listener;
+            final int overruns = mOverruns[a];
+            mOverruns[a] = mOverruns[b];
+            mOverruns[b] = overruns;
+            final long max = mMax[a];
+            mMax[a] = mMax[b];
+            mMax[b] = max;
+            final long total = mTotal[a];
+            mTotal[a] = mTotal[b];
+            mTotal[b] = total;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder("over budget ")
+                    .append(TimeUnit.NANOSECONDS.toMicros(mBudget)).append("us in ")
+                    .append(TimeUnit.NANOSECONDS.toMillis(mDuration)).append("ms");
+            for (int i = 0; i < mSize; i++) {
+                builder.append('\n').append(GestureMetrics.nameOf(mCallbacks[i]))
+                        .append(' ').append(mListeners[i].getName())
+                        .append(' ').append(mOverruns[i]).append('/').append(getCallCount(i))
+                        .append(" max=").append(TimeUnit.NANOSECONDS.toMicros(mMax[i])).append("us")
+                        .append(" total=").append(TimeUnit.NANOSECONDS.toMicros(mTotal[i])).append("us");
+            }
+            return builder.toString();
+        }
+    }
+
+    private final GestureMetrics.Ticker mTicker;            // 纳秒时钟
+    private final OnOverBudgetListener mListener;           // 超时报告
+    private final Report mReport = new Report();            // 本周期的汇总
+    private long mBudget = DEFAULT_BUDGET;                  // 预算（纳秒）
+    private long mReportInterval = DEFAULT_REPORT_INTERVAL; // 报告间隔（纳秒）
+    private long mPeriodStart = Long.MIN_VALUE;             // 本周期开始时间，尚无回调时为 Long.MIN_VALUE
+
+    public ListenerWatchdog(@NonNull OnOverBudgetListener listener) {
+        this(listener, System::nanoTime);
+    }
+
+    public ListenerWatchdog(@NonNull OnOverBudgetListener listener, @NonNull GestureMetrics.Ticker ticker) {
+        mListener = Objects.requireNonNull(listener, "The OnOverBudgetListener must not be null...");
+        mTicker = Objects.requireNonNull(ticker, "The Ticker must not be null...");
+    }
+
+    /**
+     * 设置预算
+     *
+     * @param budget 预算（纳秒），大于 0
+     * @return self
+     */
+    public ListenerWatchdog setBudget(long budget) {
+        if (budget <= 0)
+            throw new IllegalArgumentException("budget must be positive");
+        mBudget = budget;
+        return this;
+    }
+
+    public long getBudget() {
+        return mBudget;
+    }
+
+    /**
+     * 设置报告间隔，一轮手势持续较久或无法得知手势结束时（如流水线模式）按此间隔报告
+     *
+     * @param interval 报告间隔（纳秒），大于 0
+     * @return self
+     */
+    public ListenerWatchdog setReportInterval(long interval) {
+        if (interval <= 0)
+            throw new IllegalArgumentException("interval must be positive");
+        mReportInterval = interval;
+        return this;
+    }
+
+    public long getReportInterval() {
+        return mReportInterval;
+    }
+
+    /**
+     * 当前时间，作为监听器开始执行的时间
+     *
+     * @return 时间（纳秒）
+     */
+    public long now() {
+        return mTicker.nanoTime();
+    }
+
+    /**
+     * 监听器执行完毕
+     *
+     * @param callback 监听器方法，如{@link GestureMetrics#DRAG}
+     * @param listener 被回调的监听器
+     * @param begin    开始时间（纳秒），来自{@link #now()}
+     * @return 执行耗时（纳秒）
+     */
+    public long end(int callback, @NonNull Object listener, long begin) {
+        final long now = mTicker.nanoTime();
+        final long duration = now - begin;
+        if (mPeriodStart == Long.MIN_VALUE) mPeriodStart = begin;
+        final Report report = mReport;
+        report.mCalls[callback]++;
+        if (duration > mBudget) {
+            final int index = report.indexOf(callback, listener.getClass());
+            report.mOverruns[index]++;
+            report.mTotal[index] += duration;
+            if (duration > report.mMax[index]) report.mMax[index] = duration;
+        }
+        if (now - mPeriodStart >= mReportInterval) report(now);
+        return duration;
+    }
+
+    /**
+     * 一轮手势结束，报告期间超出预算的监听器并开始新的周期，也可手动调用以立即报告
+     */
+    public void onSequenceEnd() {
+        report(mTicker.nanoTime());
+    }
+
+    private void report(long now) {
+        final Report report = mReport;
+        try {
+            if (report.mSize > 0) {
+                report.mBudget = mBudget;
+                report.mDuration = now - mPeriodStart;
+                report.sort();
+                mListener.onOverBudget(report);
+            }
+        } finally {
+            report.clear();
+            mPeriodStart = Long.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+
+/**
+ * 手动驱动的帧信号源，调用{@link #frame(long)}时回调所有已请求的接收者，用于在 JVM 上测试按帧合并
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class ManualFrameSource implements FrameSource {
+
+    private ArrayList<FrameCallback> mPending = new ArrayList<>();      // 已请求的接收者
+    private ArrayList<FrameCallback> mDispatching = new ArrayList<>();  // 正在回调的接收者
+
+    @Override
+    public void requestFrame(@NonNull FrameCallback callback) {
+        if (!mPending.contains(callback)) mPending.add(callback);
+    }
+
+    @Override
+    public void cancelFrame(@NonNull FrameCallback callback) {
+        mPending.remove(callback);
+    }
+
+    /**
+     * 产生一帧，回调中发起的请求留待下一帧
+     *
+     * @param frameTimeNanos 帧时间（纳秒）
+     */
+    public void frame(long frameTimeNanos) {
+        final ArrayList<FrameCallback> dispatching = mPending;
+        mPending = mDispatching;
+        mDispatching = dispatching;
+        for (int i = 0, size = dispatching.size(); i < size; i++) {
+            dispatching.get(i).onFrame(frameTimeNanos);
+        }
+        dispatching.clear();
+    }
+
+    /**
+     * 是否有接收者在等待下一帧
+     *
+     * @return {@code true}存在请求
+     */
+    public boolean hasPendingFrame() {
+        return !mPending.isEmpty();
+    }
+}
@@ -0,0 +1,412 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Objects;
+
+/**
+ * {@code MiniGesture}的识别引擎，与平台无关
+ * <p>
+ * 时间判定以事件自身的{@link TouchSample#getEventTime()}为准，时钟须与事件时间同一时基。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class MiniGestureEngine implements SampleDetector, GestureScheduler.Target,
+        GestureArena.Member {
+
+    /**
+     * 长按事件定义
+     */
+    public static final int LONG_PRESS = 0x01;
+
+    /**
+     * 识别结果回调
+     */
+    public interface Callback {
+
+        /**
+         * 拖拽事件
+         *
+         * @param e  触摸采样
+         * @param dx 水平位移
+         * @param dy 垂直位移
+         */
+        void onDrag(@NonNull TouchSample e, float dx, float dy);
+
+        /**
+         * 长按事件
+         *
+         * @param down 按下采样
+         */
+        void onLongPress(@NonNull TouchSample down);
+
+        /**
+         * 单击事件
+         *
+         * @param e 触摸采样
+         */
+        void onTap(@NonNull TouchSample e);
+    }
+
+    private final Callback mCallback;          // 识别结果回调
+
+    private final GestureClock mClock;         // 时钟，与事件时间同一时基
+
+    private GestureScheduler mScheduler;       // 长按处理事件驱动
+
+    private final TouchSample mDownSample = new TouchSample(); // 按下采样
+
+    private int mDownGeneration;               // 按下采样更新次数
+
+    private int mLongPressTimeOut = 500;       // 长按超时
+
+    private AdaptiveTimeouts mAdaptive;        // 自适应超时策略
+
+    private GestureArena mArena;               // 手势竞技场，非空时与其他识别器竞争
+
+    private FlightRecorder mRecorder;          // 飞行记录器，非空时记录采样与状态变化
+
+    private int mTouchSlopSquare;              // 触摸超出范围区域
+
+    private float mLastFocusX, mLastFocusY;    // 上一次焦点 x,y 轴值
+
+    private boolean mAlwaysInTapRegion;        // 判定点击
+
+    private boolean mInLongPress;              // 长按是否响应
+
+    private boolean isTapDeferred;             // 单击是否在等待竞技场裁决
+
+    private final TouchPredictor mPredictor = new TouchPredictor(); // 位置预测
+
+    private int mPredictionTime;               // 位置预测时长（毫秒），0 为禁用
+
+    public MiniGestureEngine(
+            @NonNull Callback callback,
+            @NonNull GestureClock clock,
+            @NonNull GestureScheduler scheduler
+    ) {
+        mCallback = Objects.requireNonNull(callback, "The Callback must not be null...");
+        mClock = Objects.requireNonNull(clock, "The GestureClock must not be null...");
+        mScheduler = Objects.requireNonNull(scheduler, "The GestureScheduler must not be null...");
+    }
+
+    /**
+     * 事件响应接口
+     *
+     * @param e 触摸采样
+     * @return {@code true}响应事件 {@code false}拒绝响应事件
+     */
+    @Override
+    public boolean onTouchEvent(@NonNull TouchSample e) {
+        if (mRecorder != null)
+            mRecorder.record(e);
+        if (mArena != null && !mArena.enter(this, e))
+            return false;   // 已出局
+        if (mPredictionTime > 0)
+            predict(e);
+        switch (e.getAction()) {
+            case TouchSample.ACTION_DOWN:
+                final int timeOut = mAdaptive == null
+                        ? mLongPressTimeOut
+                        : mAdaptive.longPressTimeOut(mLongPressTimeOut);
+                // 长按以按下事件时间为起点，扣除事件到达前已经过去的时间
+                mScheduler.schedule(this, LONG_PRESS,
+                        Math.max(0, timeOut - (mClock.now() - e.getEventTime())));
+                mAlwaysInTapRegion = true;
+                mLastFocusX = e.getX();
+                mLastFocusY = e.getY();
+                mInLongPress = false;
+                mDownSample.copyFrom(e);
+                mDownGeneration++;
+                return true;
+
+            case TouchSample.ACTION_MOVE:
+                if (mInLongPress)
+                    return false;
+                final float dx = e.getX() - mLastFocusX;
+                final float dy = e.getY() - mLastFocusY;
+                if (mAlwaysInTapRegion) {
+                    if ((dx * dx) + (dy * dy) > mTouchSlopSquare) {
+                        if (!claim())
+                            return false;
+                        mAlwaysInTapRegion = false;
+                        mLastFocusX = e.getX();
+                        mLastFocusY = e.getY();
+                        mScheduler.cancel(this, LONG_PRESS);
+                        trace(FlightRecorder.EVENT_DRAG_START, dx, dy);
+                        mCallback.onDrag(e, dx, dy);
+                    }
+                } else {
+                    if (Math.abs(dx) > 1 || Math.abs(dy) > 1) {
+                        mCallback.onDrag(e, dx, dy);
+                        mLastFocusX = e.getX();
+                        mLastFocusY = e.getY();
+                    }
+                }
+                break;
+
+            case TouchSample.ACTION_UP:
+                if (mAdaptive != null)
+                    recordPress(e);
+                if (mInLongPress)
+                    return false;
+                mScheduler.cancel(this, LONG_PRESS);
+                if (mAlwaysInTapRegion && claim()) {
+                    trace(FlightRecorder.EVENT_TAP, 0, 0);
+                    mCallback.onTap(e);
+                } else if (mAlwaysInTapRegion && mArena.isPending(this)) {
+                    isTapDeferred = true;   // 获胜时补发
+                } else if (mArena != null && mArena.getWinner() != this) {
+                    mArena.reject(this);
+                }
+                return true;
+
+            case TouchSample.ACTION_CANCEL:
+                mScheduler.cancel(this, LONG_PRESS);
+                if (mArena != null)
+                    mArena.reject(this);
+                break;
+        }
+        return false;
+    }
+
+    /**
+     * 记录未移动的按压时长，包括触发了长按但在配置的长按超时之前抬起的按压，
+     * 使被收缩的长按超时误触发后能够恢复
+     */
+    private void recordPress(TouchSample e) {
+        final long duration = e.getEventTime() - mDownSample.getEventTime();
+        if (mInLongPress ? duration < mLongPressTimeOut : mAlwaysInTapRegion)
+            mAdaptive.recordPressDuration(duration);
+    }
+
+    /**
+     * 更新位置预测
+     */
+    private void predict(TouchSample e) {
+        switch (e.getActionMasked()) {
+            case TouchSample.ACTION_DOWN:
+                mPredictor.reset();
+                break;
+            case TouchSample.ACTION_MOVE:
+                final int size = e.getHistorySize();
+                for (int h = 0; h < size; h++) {
+                    mPredictor.add(e.getHistoricalEventTime(h), e.getHistoricalX(0, h), e.getHistoricalY(0, h));
+                }
+                break;
+            default:
+                mPredictor.reset();
+                return;
+        }
+        mPredictor.add(e.getEventTime(), e.getX(), e.getY());
+        mPredictor.predict(mPredictionTime);
+    }
+
+    /**
+     * 延时任务响应
+     *
+     * @param what 任务类型
+     */
+    @Override
+    public void onTimeout(int what) {
+        //noinspection SwitchStatementWithTooFewBranches
+        switch (what) {
+            case LONG_PRESS:
+                if (!claim())
+                    break;
+                mInLongPress = true;
+                trace(FlightRecorder.EVENT_LONG_PRESS, 0, 0);
+                mCallback.onLongPress(mDownSample);
+                break;
+            default:
+                throw new RuntimeException("Unknown gesture" + what);
+        }
+    }
+
+    /**
+     * 竞技场中获胜，补发等待裁决的单击，此时的采样为按下采样
+     */
+    @Override
+    public void onArenaAccepted() {
+        if (!isTapDeferred)
+            return;
+        isTapDeferred = false;
+        trace(FlightRecorder.EVENT_TAP, 0, 0);
+        mCallback.onTap(mDownSample);
+    }
+
+    /**
+     * 竞技场中落败，停止本轮识别
+     */
+    @Override
+    public void onArenaRejected() {
+        trace(FlightRecorder.EVENT_ARENA_REJECTED, 0, 0);
+        mScheduler.cancel(this, LONG_PRESS);
+        mAlwaysInTapRegion = false;
+        mInLongPress = false;
+        isTapDeferred = false;
+    }
+
+    /**
+     * 宣告手势成立
+     *
+     * @return {@code true}未使用竞技场或已获胜，{@code false}已出局
+     */
+    private boolean claim() {
+        return mArena == null || mArena.accept(this);
+    }
+
+    /**
+     * 向飞行记录器记录一次状态变化
+     */
+    private void trace(int event, float a, float b) {
+        if (mRecorder != null)
+            mRecorder.event(mClock.now(), event, a, b);
+    }
+
+    /**
+     * 替换延时任务调度器，旧调度器中挂起的任务会被取消
+     *
+     * @param scheduler 调度器
+     * @return self
+     */
+    public MiniGestureEngine setScheduler(@NonNull GestureScheduler scheduler) {
+        Objects.requireNonNull(scheduler, "The GestureScheduler must not be null...");
+        mScheduler.cancel(this, LONG_PRESS);
+        mScheduler = scheduler;
+        return this;
+    }
+
+    /**
+     * 设置触摸阈值
+     *
+     * @param touchSlop 点击区域（像素）
+     * @return self
+     */
+    public MiniGestureEngine setTouchSlop(int touchSlop) {
+        mTouchSlopSquare = touchSlop * touchSlop;
+        return this;
+    }
+
+    /**
+     * 设置长按超时时间
+     *
+     * @param longPressTimeOut 时间
+     * @return self
+     */
+    public MiniGestureEngine setLongPressTimeOut(int longPressTimeOut) {
+        mLongPressTimeOut = longPressTimeOut;
+        return this;
+    }
+
+    /**
+     * 设置位置预测时长，启用后可通过{@link #getPredictedX()}、{@link #getPredictedY()}
+     * 获取触点在最新事件之后该时长的预测位置
+     *
+     * @param predictionTime 预测时长（毫秒），0 为禁用
+     * @return self
+     */
+    public MiniGestureEngine setPredictionTime(int predictionTime) {
+        mPredictionTime = Math.max(0, predictionTime);
+        mPredictor.reset();
+        return this;
+    }
+
+    public int getPredictionTime() {
+        return mPredictionTime;
+    }
+
+    /**
+     * 预测的触点横坐标，未启用预测时为最近一次拖拽位置
+     *
+     * @return 横坐标
+     */
+    public float getPredictedX() {
+        return mPredictionTime > 0 ? mPredictor.getPredictedX() : mLastFocusX;
+    }
+
+    /**
+     * 预测的触点纵坐标，未启用预测时为最近一次拖拽位置
+     *
+     * @return 纵坐标
+     */
+    public float getPredictedY() {
+        return mPredictionTime > 0 ? mPredictor.getPredictedY() : mLastFocusY;
+    }
+
+    /**
+     * 设置手势竞技场，单击、长按、拖拽成立时向竞技场宣告，落败后忽略本轮剩余事件；
+     * 单击需等待其他成员（如三击）裁决时，获胜后以按下采样补发
+     *
+     * @param arena 手势竞技场，{@code null}时不参与竞争
+     * @return self
+     */
+    public MiniGestureEngine setArena(@Nullable GestureArena arena) {
+        if (mArena != null && mArena != arena)
+            mArena.reject(this);
+        mArena = arena;
+        return this;
+    }
+
+    @Nullable
+    public GestureArena getArena() {
+        return mArena;
+    }
+
+    /**
+     * 设置飞行记录器，记录收到的采样与识别状态变化
+     *
+     * @param recorder 飞行记录器，{@code null}时不记录
+     * @return self
+     */
+    public MiniGestureEngine setFlightRecorder(@Nullable FlightRecorder recorder) {
+        mRecorder = recorder;
+        return this;
+    }
+
+    @Nullable
+    public FlightRecorder getFlightRecorder() {
+        return mRecorder;
+    }
+
+    /**
+     * 设置自适应超时策略，长按超时以配置值为上限按用户习惯收缩
+     *
+     * @param adaptive 自适应超时策略，{@code null}时使用固定超时
+     * @return self
+     */
+    public MiniGestureEngine setAdaptiveTimeouts(@Nullable AdaptiveTimeouts adaptive) {
+        mAdaptive = adaptive;
+        return this;
+    }
+
+    @Nullable
+    public AdaptiveTimeouts getAdaptiveTimeouts() {
+        return mAdaptive;
+    }
+
+    public int getLongPressTimeOut() {
+        return mLongPressTimeOut;
+    }
+
+    /**
+     * 最近一次按下的采样
+     *
+     * @return 按下采样
+     */
+    @NonNull
+    public TouchSample getDownSample() {
+        return mDownSample;
+    }
+
+    /**
+     * 按下采样的更新次数，每次按下采样被替换时递增
+     *
+     * @return 更新次数
+     */
+    public int getDownGeneration() {
+        return mDownGeneration;
+    }
+}
@@ -0,0 +1,310 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 纯 Java 速度估算器
+ * <p>
+ * 每个触点 id 对应一段定长环形缓冲区，所有存储在构造时一次分配，手势之间复用，计算过程不产生对象。
+ * 只保留最近{@link #HORIZON}毫秒内的采样，触点停顿超过{@link #ASSUME_STOPPED_TIME}毫秒时丢弃旧采样。
+ * 批量历史采样按时间顺序计入。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class PointerVelocityEstimator implements VelocityEstimator {
+
+    /**
+     * 一阶最小二乘拟合
+     */
+    public static final int STRATEGY_LSQ1 = 1;
+
+    /**
+     * 二阶最小二乘拟合，默认策略
+     */
+    public static final int STRATEGY_LSQ2 = 2;
+
+    /**
+     * 冲量策略，按相邻采样间的动能变化累计速度
+     */
+    public static final int STRATEGY_IMPULSE = 3;
+
+    /**
+     * 支持的最大触点 id（不含）
+     */
+    public static final int MAX_POINTER_ID = 32;
+
+    /**
+     * 每个触点保留的采样数
+     */
+    private static final int HISTORY = 20;
+
+    /**
+     * 参与计算的时间窗口（毫秒）
+     */
+    public static final int HORIZON = 100;
+
+    /**
+     * 触点停顿判定时间（毫秒）
+     */
+    public static final int ASSUME_STOPPED_TIME = 40;
+
+    private int mStrategy;
+
+    private final long[] mTimes = new long[MAX_POINTER_ID * HISTORY];
+    private final float[] mXs = new float[MAX_POINTER_ID * HISTORY];
+    private final float[] mYs = new float[MAX_POINTER_ID * HISTORY];
+    private final int[] mHead = new int[MAX_POINTER_ID];       // 最新采样位置
+    private final int[] mCount = new int[MAX_POINTER_ID];      // 有效采样数
+
+    private final float[] mVelocityX = new float[MAX_POINTER_ID];
+    private final float[] mVelocityY = new float[MAX_POINTER_ID];
+
+    // 计算用临时数据，按时间由新到旧
+    private final double[] mAge = new double[HISTORY];
+    private final double[] mPos = new double[HISTORY];
+
+    public PointerVelocityEstimator() {
+        this(STRATEGY_LSQ2);
+    }
+
+    public PointerVelocityEstimator(int strategy) {
+        setStrategy(strategy);
+    }
+
+    /**
+     * 设置估算策略
+     *
+     * @param strategy {@link #STRATEGY_LSQ1}、{@link #STRATEGY_LSQ2}或{@link #STRATEGY_IMPULSE}
+     * @return self
+     */
+    public PointerVelocityEstimator setStrategy(int strategy) {
+        mStrategy = checkStrategy(strategy);
+        return this;
+    }
+
+    /**
+     * 检查估算策略，用于在创建估算器之前校验配置
+     *
+     * @param strategy 估算策略
+     * @return 估算策略
+     * @throws IllegalArgumentException 未知的估算策略
+     */
+    public static int checkStrategy(int strategy) {
+        if (strategy != STRATEGY_LSQ1 && strategy != STRATEGY_LSQ2 && strategy != STRATEGY_IMPULSE)
+            throw new IllegalArgumentException("Unknown velocity strategy: " + strategy);
+        return strategy;
+    }
+
+    public int getStrategy() {
+        return mStrategy;
+    }
+
+    @Override
+    public void addMovement(@NonNull TouchSample e) {
+        final int count = e.getPointerCount();
+        switch (e.getActionMasked()) {
+            case TouchSample.ACTION_DOWN:
+                clear();
+                break;
+            case TouchSample.ACTION_POINTER_DOWN:
+                final int id = e.getPointerId(e.getActionIndex());
+                if (id >= 0 && id < MAX_POINTER_ID) mCount[id] = 0;
+                break;
+            case TouchSample.ACTION_MOVE:
+                break;
+            case TouchSample.ACTION_UP:
+            case TouchSample.ACTION_POINTER_UP:
+                // 抬起位置通常与最后一次 MOVE 重合，计入会使速度偏小；
+                // 但停住一段时间后才抬起时，之前的滑动不再代表抬起时的速度
+                final int upId = e.getPointerId(e.getActionIndex());
+                if (upId >= 0 && upId < MAX_POINTER_ID && mCount[upId] > 0
+                        && e.getEventTime() - mTimes[upId * HISTORY + mHead[upId]] > ASSUME_STOPPED_TIME)
+                    mCount[upId] = 0;
+                return;
+            default:
+                return;
+        }
+        final int size = e.getHistorySize();
+        for (int h = 0; h < size; h++) {
+            final long time = e.getHistoricalEventTime(h);
+            for (int i = 0; i < count; i++) {
+                push(e.getPointerId(i), time, e.getHistoricalX(i, h), e.getHistoricalY(i, h));
+            }
+        }
+        final long time = e.getEventTime();
+        for (int i = 0; i < count; i++) {
+            push(e.getPointerId(i), time, e.getX(i), e.getY(i));
+        }
+    }
+
+    private void push(int id, long time, float x, float y) {
+        if (id < 0 || id >= MAX_POINTER_ID) return;
+        int head = mHead[id];
+        if (mCount[id] > 0 && time - mTimes[id * HISTORY + head] > ASSUME_STOPPED_TIME) {
+            mCount[id] = 0;
+        }
+        head = mCount[id] == 0 ? 0 : (head + 1) % HISTORY;
+        final int offset = id * HISTORY + head;
+        mTimes[offset] = time;
+        mXs[offset] = x;
+        mYs[offset] = y;
+        mHead[id] = head;
+        if (mCount[id] < HISTORY) mCount[id]++;
+    }
+
+    @Override
+    public void computeCurrentVelocity(int units, float maxVelocity) {
+        for (int id = 0; id < MAX_POINTER_ID; id++) {
+            if (mCount[id] == 0) {
+                mVelocityX[id] = 0;
+                mVelocityY[id] = 0;
+                continue;
+            }
+            final int n = collect(id, mXs);
+            mVelocityX[id] = clamp((float) (estimate(n) * units), maxVelocity);
+            collect(id, mYs);
+            mVelocityY[id] = clamp((float) (estimate(n) * units), maxVelocity);
+        }
+    }
+
+    /**
+     * 将触点在时间窗口内的采样按由新到旧复制到临时数组
+     *
+     * @return 采样数
+     */
+    private int collect(int id, float[] positions) {
+        final int base = id * HISTORY;
+        final int count = mCount[id];
+        final long newest = mTimes[base + mHead[id]];
+        int index = mHead[id];
+        int n = 0;
+        for (; n < count; n++) {
+            final long age = mTimes[base + index] - newest;
+            if (-age > HORIZON) break;
+            mAge[n] = age;
+            mPos[n] = positions[base + index];
+            index = index == 0 ? HISTORY - 1 : index - 1;
+        }
+        return n;
+    }
+
+    /**
+     * 估算速度（像素/毫秒）
+     */
+    private double estimate(int n) {
+        if (n < 2) return 0;
+        switch (mStrategy) {
+            case STRATEGY_IMPULSE:
+                return impulse(n);
+            case STRATEGY_LSQ2:
+                if (n >= 3) {
+                    final double v = quadratic(n);
+                    if (!Double.isNaN(v)) return v;
+                }
+                return linear(n);
+            default:
+                return linear(n);
+        }
+    }
+
+    /**
+     * 一阶最小二乘斜率
+     */
+    private double linear(int n) {
+        double sumT = 0, sumX = 0;
+        for (int i = 0; i < n; i++) {
+            sumT += mAge[i];
+            sumX += mPos[i];
+        }
+        final double meanT = sumT / n, meanX = sumX / n;
+        double stt = 0, stx = 0;
+        for (int i = 0; i < n; i++) {
+            final double dt = mAge[i] - meanT;
+            stt += dt * dt;
+            stx += dt * (mPos[i] - meanX);
+        }
+        return stt == 0 ? 0 : stx / stt;
+    }
+
+    /**
+     * 二阶最小二乘拟合 x = a + bt + ct²，返回 t = 0 处导数 b，矩阵奇异时返回 NaN
+     */
+    private double quadratic(int n) {
+        double s1 = 0, s2 = 0, s3 = 0, s4 = 0, sx = 0, stx = 0, sttx = 0;
+        for (int i = 0; i < n; i++) {
+            final double t = mAge[i], t2 = t * t, x = mPos[i];
+            s1 += t;
+            s2 += t2;
+            s3 += t2 * t;
+            s4 += t2 * t2;
+            sx += x;
+            stx += t * x;
+            sttx += t2 * x;
+        }
+        // | n  s1 s2 | |a|   | sx   |
+        // | s1 s2 s3 | |b| = | stx  |
+        // | s2 s3 s4 | |c|   | sttx |
+        final double det = n * (s2 * s4 - s3 * s3) - s1 * (s1 * s4 - s3 * s2) + s2 * (s1 * s3 - s2 * s2);
+        if (Math.abs(det) < 1e-9) return Double.NaN;
+        final double detB = n * (stx * s4 - s3 * sttx) - sx * (s1 * s4 - s3 * s2) + s2 * (s1 * sttx - stx * s2);
+        return detB / det;
+    }
+
+    /**
+     * 冲量策略，由旧到新累计动能
+     */
+    private double impulse(int n) {
+        if (n == 2) {
+            final double dt = mAge[0] - mAge[1];
+            return dt == 0 ? 0 : (mPos[0] - mPos[1]) / dt;
+        }
+        double work = 0;
+        for (int i = n - 2; i >= 0; i--) {
+            final double dt = mAge[i] - mAge[i + 1];
+            if (dt == 0) continue;
+            final double prev = energyToVelocity(work);
+            final double cur = (mPos[i] - mPos[i + 1]) / dt;
+            work += (cur - prev) * Math.abs(cur);
+            if (i == n - 2) work *= 0.5;
+        }
+        return energyToVelocity(work);
+    }
+
+    private static double energyToVelocity(double work) {
+        return (work < 0 ? -1.0 : 1.0) * Math.sqrt(2.0 * Math.abs(work));
+    }
+
+    private static float clamp(float velocity, float maxVelocity) {
+        if (velocity > maxVelocity) return maxVelocity;
+        if (velocity < -maxVelocity) return -maxVelocity;
+        return velocity;
+    }
+
+    @Override
+    public float getXVelocity(int id) {
+        return id >= 0 && id < MAX_POINTER_ID ? mVelocityX[id] : 0;
+    }
+
+    @Override
+    public float getYVelocity(int id) {
+        return id >= 0 && id < MAX_POINTER_ID ? mVelocityY[id] : 0;
+    }
+
+    @Override
+    public void clear() {
+        for (int id = 0; id < MAX_POINTER_ID; id++) {
+            mCount[id] = 0;
+            mVelocityX[id] = 0;
+            mVelocityY[id] = 0;
+        }
+    }
+
+    /**
+     * 缓冲区在手势之间复用，这里只清空采样
+     */
+    @Override
+    public void recycle() {
+        clear();
+    }
+}
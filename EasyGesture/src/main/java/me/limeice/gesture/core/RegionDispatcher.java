@@ -0,0 +1,376 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+import java.util.Objects;
+
+/**
+ * 多区域手势分发
+ * <p>
+ * 在根部接收全部事件，以均匀网格索引登记的矩形区域。按下时找出包含按下点的区域，自上而下询问
+ * {@link Callback#onDown}，第一个接受的区域获得整个手势；所有区域共用一个{@link MiniGestureEngine}，
+ * 每个区域只占用矩形与层级等少量基本类型数据，适合数以千计的可点击区域。
+ * 后添加的区域位于上层。非线程安全，应在事件线程中使用。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class RegionDispatcher implements SampleDetector {
+
+    /**
+     * 无区域
+     */
+    public static final int NO_REGION = -1;
+
+    /**
+     * 识别结果回调，{@code region}为{@link #add}返回的区域
+     */
+    public interface Callback {
+
+        /**
+         * 按下事件
+         *
+         * @param region 区域
+         * @param e      触摸采样
+         * @return {@code true}接受手势 ，{@code false}交给下层区域
+         */
+        default boolean onDown(int region, @NonNull TouchSample e) {
+            return true;
+        }
+
+        /**
+         * 单击事件
+         *
+         * @param region 区域
+         * @param e      触摸采样
+         */
+        default void onTap(int region, @NonNull TouchSample e) {
+
+        }
+
+        /**
+         * 长按事件
+         *
+         * @param region 区域
+         * @param down   按下采样
+         */
+        default void onLongPress(int region, @NonNull TouchSample down) {
+
+        }
+
+        /**
+         * 拖拽事件
+         *
+         * @param region 区域
+         * @param e      触摸采样
+         * @param dx     水平位移
+         * @param dy     垂直位移
+         */
+        default void onDrag(int region, @NonNull TouchSample e, float dx, float dy) {
+
+        }
+    }
+
+    private final Callback mCallback;                   // 识别结果回调
+    private final MiniGestureEngine mEngine;            // 共用识别引擎
+    private final GestureClock mClock;                  // 时钟，与事件时间同一时基
+    private final TouchSample mCancel = new TouchSample(); // 移除区域时结束手势的取消采样
+    private final int mCellSize;                        // 网格单元格边长
+    private RegionGrid mGrid;                           // 空间索引
+
+    private float[] mBounds = new float[64];            // 区域矩形，按 [区域 * 4] 排列 left、top、right、bottom
+    private long[] mOrder = new long[16];               // 区域层级，越大越靠上
+    private boolean[] mEnabled = new boolean[16];       // 区域是否接收事件
+    private boolean[] mAlive = new boolean[16];         // 区域是否存在
+    private int mCount;                                 // 已使用的区域编号数
+    private int[] mFree = new int[16];                  // 可复用的区域编号
+    private int mFreeCount;
+    private long mNextOrder;
+
+    private int mActive = NO_REGION;                    // 当前手势所属区域
+    private int[] mHits = new int[8];                   // 命中区域，由上至下
+
+    private final MiniGestureEngine.Callback mForward = new MiniGestureEngine.Callback() {
+
+        @Override
+        public void onDrag(@NonNull TouchSample e, float dx, float dy) {
+            if (mActive != NO_REGION) mCallback.onDrag(mActive, e, dx, dy);
+        }
+
+        @Override
+        public void onLongPress(@NonNull TouchSample down) {
+            if (mActive != NO_REGION) mCallback.onLongPress(mActive, down);
+        }
+
+        @Override
+        public void onTap(@NonNull TouchSample e) {
+            if (mActive != NO_REGION) mCallback.onTap(mActive, e);
+        }
+    };
+
+    /**
+     * @param callback  识别结果回调
+     * @param clock     时钟，与事件时间同一时基
+     * @param scheduler 延时任务调度器
+     * @param width     索引范围宽度（像素），超出部分归入边缘单元格
+     * @param height    索引范围高度（像素）
+     * @param cellSize  单元格边长（像素），宜与典型区域尺寸相当
+     */
+    public RegionDispatcher(
+            @NonNull Callback callback,
+            @NonNull GestureClock clock,
+            @NonNull GestureScheduler scheduler,
+            int width,
+            int height,
+            int cellSize
+    ) {
+        mCallback = Objects.requireNonNull(callback, "The Callback must not be null...");
+        mEngine = new MiniGestureEngine(mForward, clock, scheduler);
+        mClock = clock;
+        mCellSize = cellSize;
+        mGrid = new RegionGrid(width, height, cellSize);
+    }
+
+    @Override
+    public boolean onTouchEvent(@NonNull TouchSample e) {
+        final int action = e.getActionMasked();
+        if (action == TouchSample.ACTION_DOWN) {
+            mActive = NO_REGION;
+            final int hits = hitTest(e.getX(), e.getY());
+            for (int i = 0; i < hits; i++) {
+                if (mCallback.onDown(mHits[i], e)) {
+                    mActive = mHits[i];
+                    break;
+                }
+            }
+        }
+        if (mActive == NO_REGION)
+            return false;
+        mEngine.onTouchEvent(e);
+        if (action == TouchSample.ACTION_UP || action == TouchSample.ACTION_CANCEL)
+            mActive = NO_REGION;
+        return true;
+    }
+
+    /**
+     * 添加区域，位于已有区域之上
+     *
+     * @return 区域
+     */
+    public int add(float left, float top, float right, float bottom) {
+        final int region;
+        if (mFreeCount > 0) {
+            region = mFree[--mFreeCount];
+        } else {
+            region = mCount++;
+            ensureCapacity(mCount);
+        }
+        mAlive[region] = true;
+        mEnabled[region] = true;
+        mOrder[region] = mNextOrder++;
+        setBounds(region, left, top, right, bottom);
+        mGrid.insert(region, left, top, right, bottom);
+        return region;
+    }
+
+    /**
+     * 移动区域或改变区域大小
+     *
+     * @param region 区域
+     */
+    public void update(int region, float left, float top, float right, float bottom) {
+        checkRegion(region);
+        final int o = region << 2;
+        mGrid.remove(region, mBounds[o], mBounds[o + 1], mBounds[o + 2], mBounds[o + 3]);
+        setBounds(region, left, top, right, bottom);
+        mGrid.insert(region, left, top, right, bottom);
+    }
+
+    /**
+     * 移除区域，正在进行的手势随之取消（识别引擎收到一个取消事件，待触发的长按不再触发），
+     * 区域编号之后可能被复用
+     *
+     * @param region 区域
+     */
+    public void remove(int region) {
+        checkRegion(region);
+        final int o = region << 2;
+        mGrid.remove(region, mBounds[o], mBounds[o + 1], mBounds[o + 2], mBounds[o + 3]);
+        mAlive[region] = false;
+        if (mFreeCount == mFree.length) {
+            final int[] grown = new int[mFreeCount << 1];
+            System.arraycopy(mFree, 0, grown, 0, mFreeCount);
+            mFree = grown;
+        }
+        mFree[mFreeCount++] = region;
+        if (mActive == region) cancelActive();
+    }
+
+    /**
+     * 移除全部区域，正在进行的手势随之取消
+     */
+    public void clear() {
+        mGrid.clear();
+        for (int i = 0; i < mCount; i++) mAlive[i] = false;
+        mCount = 0;
+        mFreeCount = 0;
+        cancelActive();
+    }
+
+    /**
+     * 将区域移至最上层
+     *
+     * @param region 区域
+     */
+    public void bringToFront(int region) {
+        checkRegion(region);
+        mOrder[region] = mNextOrder++;
+    }
+
+    /**
+     * 启用、禁用区域，禁用的区域不参与命中
+     *
+     * @param region  区域
+     * @param enabled {@code true}启用，{@code false}禁用
+     */
+    public void setEnabled(int region, boolean enabled) {
+        checkRegion(region);
+        mEnabled[region] = enabled;
+    }
+
+    /**
+     * 改变索引范围，例如窗口大小变化时，已有区域重新登记
+     *
+     * @param width  宽度（像素）
+     * @param height 高度（像素）
+     */
+    public void resize(int width, int height) {
+        mGrid = new RegionGrid(width, height, mCellSize);
+        for (int i = 0; i < mCount; i++) {
+            if (!mAlive[i]) continue;
+            final int o = i << 2;
+            mGrid.insert(i, mBounds[o], mBounds[o + 1], mBounds[o + 2], mBounds[o + 3]);
+        }
+    }
+
+    /**
+     * 包含指定点的最上层区域
+     *
+     * @param x 横坐标
+     * @param y 纵坐标
+     * @return 区域，不存在时返回{@link #NO_REGION}
+     */
+    public int findRegion(float x, float y) {
+        return hitTest(x, y) > 0 ? mHits[0] : NO_REGION;
+    }
+
+    /**
+     * 当前手势所属区域
+     *
+     * @return 区域，没有进行中的手势时返回{@link #NO_REGION}
+     */
+    public int getActiveRegion() {
+        return mActive;
+    }
+
+    public float getLeft(int region) {
+        return mBounds[region << 2];
+    }
+
+    public float getTop(int region) {
+        return mBounds[(region << 2) + 1];
+    }
+
+    public float getRight(int region) {
+        return mBounds[(region << 2) + 2];
+    }
+
+    public float getBottom(int region) {
+        return mBounds[(region << 2) + 3];
+    }
+
+    /**
+     * 共用的识别引擎，用于设置触摸阈值、长按超时等
+     *
+     * @return 识别引擎
+     */
+    @NonNull
+    public MiniGestureEngine getEngine() {
+        return mEngine;
+    }
+
+    /**
+     * 找出包含指定点的可用区域，由上至下存入{@link #mHits}
+     *
+     * @return 区域数
+     */
+    private int hitTest(float x, float y) {
+        final int cell = mGrid.cell(x, y);
+        final int[] items = mGrid.items(cell);
+        final int count = mGrid.count(cell);
+        int hits = 0;
+        for (int i = 0; i < count; i++) {
+            final int region = items[i];
+            if (!mEnabled[region]) continue;
+            final int o = region << 2;
+            if (x < mBounds[o] || y < mBounds[o + 1] || x >= mBounds[o + 2] || y >= mBounds[o + 3])
+                continue;
+            if (hits == mHits.length) {
+                final int[] grown = new int[hits << 1];
+                System.arraycopy(mHits, 0, grown, 0, hits);
+                mHits = grown;
+            }
+            // 按层级插入排序，命中数通常很少
+            int j = hits++;
+            final long order = mOrder[region];
+            while (j > 0 && mOrder[mHits[j - 1]] < order) {
+                mHits[j] = mHits[j - 1];
+                j--;
+            }
+            mHits[j] = region;
+        }
+        return hits;
+    }
+
+    /**
+     * 以按下位置构造取消事件交给识别引擎，结束进行中的手势；本轮手势的后续事件不再分发
+     */
+    private void cancelActive() {
+        if (mActive == NO_REGION) return;
+        mActive = NO_REGION;
+        final TouchSample down = mEngine.getDownSample();
+        mCancel.set(TouchSample.ACTION_CANCEL, down.getDownTime(), mClock.now(), 1)
+                .setPointer(0, down.getPointerId(0), down.getX(0), down.getY(0));
+        mEngine.onTouchEvent(mCancel);
+    }
+
+    private void setBounds(int region, float left, float top, float right, float bottom) {
+        final int o = region << 2;
+        mBounds[o] = left;
+        mBounds[o + 1] = top;
+        mBounds[o + 2] = right;
+        mBounds[o + 3] = bottom;
+    }
+
+    private void checkRegion(int region) {
+        if (region < 0 || region >= mCount || !mAlive[region])
+            throw new IllegalArgumentException("Unknown region: " + region);
+    }
+
+    private void ensureCapacity(int count) {
+        if (count <= mAlive.length) return;
+        final int capacity = Math.max(count, mAlive.length << 1);
+        final float[] bounds = new float[capacity << 2];
+        System.arraycopy(mBounds, 0, bounds, 0, mBounds.length);
+        mBounds = bounds;
+        final long[] order = new long[capacity];
+        System.arraycopy(mOrder, 0, order, 0, mOrder.length);
+        mOrder = order;
+        final boolean[] enabled = new boolean[capacity];
+        System.arraycopy(mEnabled, 0, enabled, 0, mEnabled.length);
+        mEnabled = enabled;
+        final boolean[] alive = new boolean[capacity];
+        System.arraycopy(mAlive, 0, alive, 0, mAlive.length);
+        mAlive = alive;
+    }
+}
@@ -0,0 +1,94 @@
+package me.limeice.gesture.core;
+
+/**
+ * 均匀网格空间索引，记录每个单元格覆盖到的区域
+ * <p>
+ * 区域按外接矩形登记到所覆盖的全部单元格，超出范围的部分归入边缘单元格。查询不产生对象。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+final class RegionGrid {
+
+    private final int mCellSize;    // 单元格边长（像素）
+    private final int mColumns;
+    private final int mRows;
+    private final int[][] mCells;   // 单元格内的区域
+    private final int[] mCounts;    // 单元格内的区域数
+
+    RegionGrid(int width, int height, int cellSize) {
+        if (width <= 0 || height <= 0 || cellSize <= 0)
+            throw new IllegalArgumentException("width, height and cellSize must be positive");
+        mCellSize = cellSize;
+        mColumns = (width + cellSize - 1) / cellSize;
+        mRows = (height + cellSize - 1) / cellSize;
+        mCells = new int[mColumns * mRows][];
+        mCounts = new int[mColumns * mRows];
+    }
+
+    void insert(int region, float left, float top, float right, float bottom) {
+        final int c0 = column(left), c1 = column(right);
+        final int r0 = row(top), r1 = row(bottom);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                final int cell = r * mColumns + c;
+                int[] items = mCells[cell];
+                final int count = mCounts[cell];
+                if (items == null) {
+                    items = mCells[cell] = new int[4];
+                } else if (count == items.length) {
+                    final int[] grown = new int[count << 1];
+                    System.arraycopy(items, 0, grown, 0, count);
+                    items = mCells[cell] = grown;
+                }
+                items[count] = region;
+                mCounts[cell] = count + 1;
+            }
+        }
+    }
+
+    void remove(int region, float left, float top, float right, float bottom) {
+        final int c0 = column(left), c1 = column(right);
+        final int r0 = row(top), r1 = row(bottom);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                final int cell = r * mColumns + c;
+                final int[] items = mCells[cell];
+                final int count = mCounts[cell];
+                for (int i = 0; i < count; i++) {
+                    if (items[i] != region) continue;
+                    items[i] = items[count - 1];
+                    mCounts[cell] = count - 1;
+                    break;
+                }
+            }
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < mCounts.length; i++) mCounts[i] = 0;
+    }
+
+    /**
+     * 坐标所在单元格，超出范围时取边缘单元格
+     */
+    int cell(float x, float y) {
+        return row(y) * mColumns + column(x);
+    }
+
+    int[] items(int cell) {
+        return mCells[cell];
+    }
+
+    int count(int cell) {
+        return mCounts[cell];
+    }
+
+    private int column(float x) {
+        return Math.max(0, Math.min(mColumns - 1, (int) Math.floor(x / mCellSize)));
+    }
+
+    private int row(float y) {
+        return Math.max(0, Math.min(mRows - 1, (int) Math.floor(y / mCellSize)));
+    }
+}
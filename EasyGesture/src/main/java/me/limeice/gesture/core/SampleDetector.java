@@ -0,0 +1,20 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 以{@link TouchSample}为输入的手势检测器
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public interface SampleDetector {
+
+    /**
+     * 事件响应接口
+     *
+     * @param e 触摸采样
+     * @return {@code true}响应事件 {@code false}拒绝响应事件
+     */
+    boolean onTouchEvent(@NonNull TouchSample e);
+}
@@ -0,0 +1,217 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 单生产者单消费者的采样环形队列
+ * <p>
+ * 采样按定长头加触点、历史采样的布局编码为{@code int}写入环形数组，浮点数按位存放，出入队均不产生对象。
+ * 读写位置各由一方独占写入，以 volatile 发布，不加锁。队列已满时丢弃采样并计数，不等待；
+ * 丢弃后该目标的事件流不再完整，之后在有空间时补发一个取消事件，并丢弃采样直到下一次按下。
+ * <pre>
+ * int   记录长度（含本字段）
+ * int   目标
+ * int   action
+ * long  downTime
+ * long  eventTime
+ * int   触点数 n
+ * int   历史采样数 h
+ * n × { int id, float x, float y }
+ * h × { long eventTime, n × { float x, float y } }
+ * </pre>
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+final class SampleRing {
+
+    private static final int HEADER_SIZE = 9;
+
+    /**
+     * 最小容量，保证任意触点数的当前采样都能入队
+     */
+    static final int MIN_CAPACITY = 1024;
+
+    private static final int STREAM_OK = 0;         // 事件流完整
+    private static final int STREAM_CANCEL = 1;     // 有丢弃，待补发取消事件
+    private static final int STREAM_WAIT_DOWN = 2;  // 已取消，等待下一次按下
+
+    private final int[] mRing;                      // 环形数组
+    private final int mMask;
+
+    private volatile long mWritePos;                // 已写入的总长度，仅生产者写
+    private volatile long mReadPos;                 // 已读出的总长度，仅消费者写
+    private long mDropped;                          // 丢弃的采样数，仅生产者访问
+    private byte[] mStreams = new byte[4];          // 各目标的事件流状态，仅生产者访问
+
+    /**
+     * @param capacity 容量（int 数），向上取整为 2 的幂，不小于{@link #MIN_CAPACITY}
+     */
+    SampleRing(int capacity) {
+        if (capacity < MIN_CAPACITY)
+            throw new IllegalArgumentException("capacity must be at least " + MIN_CAPACITY);
+        int size = 1;
+        while (size < capacity) size <<= 1;
+        mRing = new int[size];
+        mMask = size - 1;
+    }
+
+    /**
+     * 入队，仅生产者线程调用
+     *
+     * @param target 目标
+     * @param e      触摸采样
+     * @return {@code true}已入队 {@code false}已丢弃
+     */
+    boolean offer(int target, @NonNull TouchSample e) {
+        if (target >= mStreams.length) {
+            final byte[] streams = new byte[Math.max(target + 1, mStreams.length << 1)];
+            System.arraycopy(mStreams, 0, streams, 0, mStreams.length);
+            mStreams = streams;
+        }
+        final int count = e.getPointerCount();
+        int history = e.getHistorySize();
+        if (recordSize(count, history) > mRing.length)
+            history = 0;    // 单条记录超过容量时只保留当前采样
+        final long free = mRing.length - (mWritePos - mReadPos);
+        final int size = recordSize(count, history);
+        switch (mStreams[target]) {
+            case STREAM_CANCEL:
+                final int cancel = recordSize(count, 0);
+                if (cancel > free) break;
+                write(target, TouchSample.ACTION_CANCEL, e, count, 0);
+                mStreams[target] = STREAM_WAIT_DOWN;
+                return offer(target, e);
+
+            case STREAM_WAIT_DOWN:
+                if (e.getActionMasked() != TouchSample.ACTION_DOWN) break;
+                if (size > free) break;
+                mStreams[target] = STREAM_OK;
+                write(target, e.getAction(), e, count, history);
+                return true;
+
+            default:
+                if (size > free) {
+                    mStreams[target] = STREAM_CANCEL;
+                    break;
+                }
+                write(target, e.getAction(), e, count, history);
+                return true;
+        }
+        mDropped++;
+        return false;
+    }
+
+    /**
+     * 出队，仅消费者线程调用
+     *
+     * @param out 输出采样
+     * @return 目标，队列为空时为 -1
+     */
+    int poll(@NonNull TouchSample out) {
+        final long read = mReadPos;
+        if (read == mWritePos) return -1;
+        long p = read;
+        final int size = get(p);
+        final int target = get(p + 1);
+        final int count = get(p + 7);
+        final int history = get(p + 8);
+        out.set(get(p + 2), getLong(p + 3), getLong(p + 5), count);
+        p += HEADER_SIZE;
+        for (int i = 0; i < count; i++, p += 3) {
+            out.setPointer(i, get(p), Float.intBitsToFloat(get(p + 1)), Float.intBitsToFloat(get(p + 2)));
+        }
+        for (int h = 0; h < history; h++) {
+            final int pos = out.addHistory(getLong(p));
+            p += 2;
+            for (int i = 0; i < count; i++, p += 2) {
+                out.setHistoricalPointer(pos, i, Float.intBitsToFloat(get(p)), Float.intBitsToFloat(get(p + 1)));
+            }
+        }
+        mReadPos = read + size;    // 释放
+        return target;
+    }
+
+    /**
+     * 队列是否为空
+     *
+     * @return {@code true}为空
+     */
+    boolean isEmpty() {
+        return mReadPos == mWritePos;
+    }
+
+    /**
+     * 已写入的总长度
+     *
+     * @return 写位置
+     */
+    long getWritePosition() {
+        return mWritePos;
+    }
+
+    /**
+     * 已读出的总长度
+     *
+     * @return 读位置
+     */
+    long getReadPosition() {
+        return mReadPos;
+    }
+
+    /**
+     * 因队列已满或事件流中断而丢弃的采样数，仅生产者线程调用
+     *
+     * @return 采样数
+     */
+    long getDroppedCount() {
+        return mDropped;
+    }
+
+    private void write(int target, int action, TouchSample e, int count, int history) {
+        long p = mWritePos;
+        put(p, recordSize(count, history));
+        put(p + 1, target);
+        put(p + 2, action);
+        putLong(p + 3, e.getDownTime());
+        putLong(p + 5, e.getEventTime());
+        put(p + 7, count);
+        put(p + 8, history);
+        p += HEADER_SIZE;
+        for (int i = 0; i < count; i++, p += 3) {
+            put(p, e.getPointerId(i));
+            put(p + 1, Float.floatToRawIntBits(e.getX(i)));
+            put(p + 2, Float.floatToRawIntBits(e.getY(i)));
+        }
+        for (int h = 0; h < history; h++) {
+            putLong(p, e.getHistoricalEventTime(h));
+            p += 2;
+            for (int i = 0; i < count; i++, p += 2) {
+                put(p, Float.floatToRawIntBits(e.getHistoricalX(i, h)));
+                put(p + 1, Float.floatToRawIntBits(e.getHistoricalY(i, h)));
+            }
+        }
+        mWritePos = p;  // 发布
+    }
+
+    private static int recordSize(int count, int history) {
+        return HEADER_SIZE + count * 3 + history * (2 + count * 2);
+    }
+
+    private int get(long pos) {
+        return mRing[(int) (pos & mMask)];
+    }
+
+    private long getLong(long pos) {
+        return ((long) get(pos) << 32) | (get(pos + 1) & 0xFFFFFFFFL);
+    }
+
+    private void put(long pos, int value) {
+        mRing[(int) (pos & mMask)] = value;
+    }
+
+    private void putLong(long pos, long value) {
+        put(pos, (int) (value >>> 32));
+        put(pos + 1, (int) value);
+    }
+}
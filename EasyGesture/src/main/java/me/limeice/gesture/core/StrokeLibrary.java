@@ -0,0 +1,273 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.Objects;
+
+/**
+ * 笔画模板库
+ * <p>
+ * 模板在加入时一次性归一化为{@link #POINTS}个点的点云（重采样、等比缩放至单位尺寸、重心移至原点），
+ * 所有点云连续存放在同一个{@code float}数组中，识别时不再做任何预处理。
+ * 点云与笔画顺序、方向无关，单笔与多笔模板使用同一表示。同时为每个模板预先计算一张
+ * {@link #GRID}×{@link #GRID}的最近点查找表，识别时用于以常数代价估计距离下界。
+ * 模板也可由{@link TemplateStore}从预先生成的文件整块载入，跳过归一化与建表。
+ * 加载完成后只读，可在多个识别器及线程之间共享。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class StrokeLibrary {
+
+    /**
+     * 每个点云的点数
+     */
+    public static final int POINTS = 32;
+
+    /**
+     * 每个点云占用的{@code float}数
+     */
+    static final int CLOUD_SIZE = POINTS * 2;
+
+    /**
+     * 查找表边长，覆盖归一化坐标[-1, 1]
+     */
+    public static final int GRID = 64;
+
+    /**
+     * 每张查找表的格数
+     */
+    static final int LUT_SIZE = GRID * GRID;
+
+    private float[] mClouds = new float[16 * CLOUD_SIZE];   // 归一化点云，x、y 交替
+    private byte[] mLuts = new byte[16 * LUT_SIZE];         // 每格最近的模板点下标
+    private short[] mCells = new short[16 * POINTS];        // 每个模板点所在的格
+    private String[] mNames = new String[16];               // 模板名
+    private int mSize;                                      // 模板数
+
+    /**
+     * 加入模板，同名模板可加入多个以覆盖不同写法
+     *
+     * @param name    模板名
+     * @param strokes 笔画，每笔为 x、y 交替的坐标
+     * @return 模板下标
+     */
+    public int add(@NonNull String name, @NonNull float[]... strokes) {
+        Objects.requireNonNull(name, "The template name must not be null...");
+        int total = 0;
+        for (float[] stroke : strokes) total += stroke.length;
+        final float[] xy = new float[total];
+        final int[] ends = new int[strokes.length];
+        int offset = 0;
+        for (int s = 0; s < strokes.length; s++) {
+            System.arraycopy(strokes[s], 0, xy, offset, strokes[s].length);
+            offset += strokes[s].length;
+            ends[s] = offset >> 1;
+        }
+        if (offset < 2)
+            throw new IllegalArgumentException("Empty template: " + name);
+        ensureCapacity(mSize + 1);
+        normalize(xy, ends, strokes.length, mClouds, mSize * CLOUD_SIZE);
+        index(mClouds, mSize * CLOUD_SIZE, mLuts, mSize * LUT_SIZE, mCells, mSize * POINTS);
+        mNames[mSize] = name;
+        return mSize++;
+    }
+
+    /**
+     * 模板数
+     *
+     * @return 模板数
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * 模板名
+     *
+     * @param index 模板下标
+     * @return 模板名
+     */
+    @NonNull
+    public String getName(int index) {
+        if (index < 0 || index >= mSize)
+            throw new IndexOutOfBoundsException("Template index: " + index);
+        return mNames[index];
+    }
+
+    /**
+     * 批量加入已归一化的模板，数据由缓冲区整块复制，参见{@link TemplateStore}
+     *
+     * @param names  模板名
+     * @param clouds 点云，自当前位置起连续{@code names.length}个
+     * @param luts   查找表
+     * @param cells  点所在的格
+     */
+    void addNormalized(String[] names, FloatBuffer clouds, ByteBuffer luts, ShortBuffer cells) {
+        final int count = names.length;
+        ensureCapacity(mSize + count);
+        clouds.get(mClouds, mSize * CLOUD_SIZE, count * CLOUD_SIZE);
+        luts.get(mLuts, mSize * LUT_SIZE, count * LUT_SIZE);
+        cells.get(mCells, mSize * POINTS, count * POINTS);
+        System.arraycopy(names, 0, mNames, mSize, count);
+        mSize += count;
+    }
+
+    float[] clouds() {
+        return mClouds;
+    }
+
+    byte[] luts() {
+        return mLuts;
+    }
+
+    short[] cells() {
+        return mCells;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= mNames.length) return;
+        final int length = Math.max(capacity, mNames.length << 1);
+        final String[] names = new String[length];
+        System.arraycopy(mNames, 0, names, 0, mSize);
+        mNames = names;
+        final float[] clouds = new float[length * CLOUD_SIZE];
+        System.arraycopy(mClouds, 0, clouds, 0, mSize * CLOUD_SIZE);
+        mClouds = clouds;
+        final byte[] luts = new byte[length * LUT_SIZE];
+        System.arraycopy(mLuts, 0, luts, 0, mSize * LUT_SIZE);
+        mLuts = luts;
+        final short[] cells = new short[length * POINTS];
+        System.arraycopy(mCells, 0, cells, 0, mSize * POINTS);
+        mCells = cells;
+    }
+
+    /**
+     * 将笔画归一化为点云：沿笔迹等距重采样（笔画之间不计距离），以宽高中较大者等比缩放，重心移至原点
+     *
+     * @param xy      x、y 交替的坐标
+     * @param ends    每笔结束位置（点数，不含）
+     * @param strokes 笔画数
+     * @param out     输出
+     * @param offset  输出起始位置
+     */
+    static void normalize(float[] xy, int[] ends, int strokes, float[] out, int offset) {
+        float length = 0;
+        int start = 0;
+        for (int s = 0; s < strokes; s++) {
+            for (int i = start + 1; i < ends[s]; i++) {
+                length += distance(xy, i - 1, i);
+            }
+            start = ends[s];
+        }
+        final float interval = length / (POINTS - 1);
+        int k = 0;
+        float accumulated = 0;
+        start = 0;
+        for (int s = 0; s < strokes && k < POINTS; s++) {
+            if (ends[s] <= start) continue;
+            float px = xy[start << 1], py = xy[(start << 1) + 1];
+            if (k == 0) {
+                out[offset] = px;
+                out[offset + 1] = py;
+                k = 1;
+            }
+            for (int i = start + 1; i < ends[s] && k < POINTS; i++) {
+                final float x = xy[i << 1], y = xy[(i << 1) + 1];
+                float d = length(x - px, y - py);
+                // 一段线段上可能落下多个采样点
+                while (d > 0 && accumulated + d >= interval && k < POINTS) {
+                    final float t = (interval - accumulated) / d;
+                    px += t * (x - px);
+                    py += t * (y - py);
+                    out[offset + (k << 1)] = px;
+                    out[offset + (k << 1) + 1] = py;
+                    k++;
+                    d = length(x - px, y - py);
+                    accumulated = 0;
+                }
+                accumulated += d;
+                px = x;
+                py = y;
+            }
+            start = ends[s];
+        }
+        // 浮点误差可能少落下最后一个点，以末点补齐
+        final int last = ends[strokes - 1] - 1;
+        for (; k < POINTS; k++) {
+            out[offset + (k << 1)] = xy[last << 1];
+            out[offset + (k << 1) + 1] = xy[(last << 1) + 1];
+        }
+
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        float sumX = 0, sumY = 0;
+        for (int i = offset, end = offset + CLOUD_SIZE; i < end; i += 2) {
+            final float x = out[i], y = out[i + 1];
+            if (x < minX) minX = x;
+            if (x > maxX) maxX = x;
+            if (y < minY) minY = y;
+            if (y > maxY) maxY = y;
+            sumX += x;
+            sumY += y;
+        }
+        final float size = Math.max(maxX - minX, maxY - minY);
+        final float scale = size > 0 ? 1f / size : 1f;
+        final float cx = sumX / POINTS, cy = sumY / POINTS;
+        for (int i = offset, end = offset + CLOUD_SIZE; i < end; i += 2) {
+            out[i] = (out[i] - cx) * scale;
+            out[i + 1] = (out[i + 1] - cy) * scale;
+        }
+    }
+
+    /**
+     * 坐标所在的格，超出范围的坐标归入边缘格
+     */
+    static int cell(float x, float y) {
+        final int gx = Math.min(GRID - 1, Math.max(0, (int) ((x + 1f) * (GRID / 2))));
+        final int gy = Math.min(GRID - 1, Math.max(0, (int) ((y + 1f) * (GRID / 2))));
+        return gy * GRID + gx;
+    }
+
+    /**
+     * 为点云建立查找表：每格记录离格中心最近的点，并记录每个点所在的格
+     */
+    static void index(float[] cloud, int offset, byte[] lut, int lutOffset, short[] cells, int cellOffset) {
+        for (int cell = 0; cell < LUT_SIZE; cell++) {
+            lut[lutOffset + cell] = (byte) nearest(cloud, offset, cell);
+        }
+        for (int i = 0; i < POINTS; i++) {
+            cells[cellOffset + i] = (short) cell(cloud[offset + (i << 1)], cloud[offset + (i << 1) + 1]);
+        }
+    }
+
+    /**
+     * 离格中心最近的点
+     */
+    static int nearest(float[] cloud, int offset, int cell) {
+        final float cx = (cell % GRID) * (2f / GRID) - 1f + 1f / GRID;
+        final float cy = (cell / GRID) * (2f / GRID) - 1f + 1f / GRID;
+        float min = Float.MAX_VALUE;
+        int nearest = 0;
+        for (int i = 0; i < POINTS; i++) {
+            final float dx = cloud[offset + (i << 1)] - cx, dy = cloud[offset + (i << 1) + 1] - cy;
+            final float d = dx * dx + dy * dy;
+            if (d < min) {
+                min = d;
+                nearest = i;
+            }
+        }
+        return nearest;
+    }
+
+    private static float distance(float[] xy, int a, int b) {
+        return length(xy[b << 1] - xy[a << 1], xy[(b << 1) + 1] - xy[(a << 1) + 1]);
+    }
+
+    private static float length(float dx, float dy) {
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+}
@@ -0,0 +1,594 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+/**
+ * 笔画手势识别（$P 点云匹配）
+ * <p>
+ * 从与拖拽相同的事件流中采集首个触点的笔迹（含批量历史采样），抬起后（多笔模式下为停笔超时后）
+ * 归一化为点云，与{@link StrokeLibrary}中预先归一化的模板做贪心点云匹配。
+ * 匹配时先用模板库预先计算的最近点查找表估计各起点的距离下界（$Q 的做法），下界不优于当前最优的模板
+ * 与起点直接跳过；贪心配对中累计距离达到当前最优即放弃，劣于最低得分的模板从一开始就被剪除；
+ * 模板较多且设置了{@link Executor}时按区间分块并行匹配。
+ * 采集与单线程匹配过程不产生对象，非线程安全，应在事件线程中使用。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class StrokeRecognizer implements SampleDetector, GestureScheduler.Target {
+
+    /**
+     * 多笔停笔超时任务
+     */
+    public static final int FINISH = 0x01;
+
+    /**
+     * 每个并行分块的最少模板数
+     */
+    private static final int MIN_CHUNK = 64;
+
+    /**
+     * 贪心匹配的起点间隔，$P 取点数的平方根
+     */
+    private static final int STEP = (int) Math.sqrt(StrokeLibrary.POINTS);
+
+    /**
+     * 查找表给出的点与真正最近点的距离差上限：点到格中心不超过半条对角线，往返两次
+     */
+    private static final float CELL_ERROR = (float) (2 * Math.sqrt(2) / StrokeLibrary.GRID);
+
+    /**
+     * 第 k 个配对的权重，1 - k / n
+     */
+    private static final float[] WEIGHTS = new float[StrokeLibrary.POINTS];
+
+    static {
+        for (int k = 0; k < StrokeLibrary.POINTS; k++) {
+            WEIGHTS[k] = 1f - (float) k / StrokeLibrary.POINTS;
+        }
+    }
+
+    /**
+     * 识别结果回调
+     */
+    public interface Callback {
+
+        /**
+         * 识别成功
+         *
+         * @param name  模板名
+         * @param score 得分，[0, 1]
+         */
+        void onRecognized(@NonNull String name, float score);
+
+        /**
+         * 笔迹未匹配任何模板
+         */
+        default void onUnrecognized() {
+
+        }
+    }
+
+    private final StrokeLibrary mLibrary;                   // 模板库
+    private final Callback mCallback;                       // 识别结果回调
+    private GestureScheduler mScheduler;                    // 多笔停笔超时调度器
+
+    private float[] mPoints = new float[256];               // 采集的笔迹，x、y 交替
+    private int mPointCount;                                // 点数
+    private int[] mEnds = new int[4];                       // 每笔结束位置
+    private int mStrokeCount;                               // 完成的笔画数
+    private boolean isStroking;                             // 是否正在书写
+    private float mLength;                                  // 笔迹总长度
+
+    private final float[] mCandidate = new float[StrokeLibrary.CLOUD_SIZE]; // 归一化笔迹
+    private final byte[] mCandidateLut = new byte[StrokeLibrary.LUT_SIZE];  // 笔迹的最近点查找表，按需填充
+    private final int[] mCandidateStamp = new int[StrokeLibrary.LUT_SIZE];  // 各格填充时的识别序号
+    private int mStamp;                                     // 识别序号
+    private final Matcher mMatcher = new Matcher();         // 单线程匹配器
+
+    private float mMinScore = 0.5f;                         // 最低得分
+    private float mMinLength = 0;                           // 最短笔迹长度（像素），更短的视为点击
+    private int mStrokeTimeOut = 0;                         // 多笔停笔超时（毫秒），0 为单笔模式
+
+    private Executor mExecutor;                             // 并行匹配执行器
+    private Matcher[] mChunks;                              // 并行分块，首块在调用线程执行
+
+    private float mScore;                                   // 最近一次识别的得分
+
+    public StrokeRecognizer(
+            @NonNull StrokeLibrary library,
+            @NonNull Callback callback,
+            @NonNull GestureScheduler scheduler
+    ) {
+        mLibrary = Objects.requireNonNull(library, "The StrokeLibrary must not be null...");
+        mCallback = Objects.requireNonNull(callback, "The Callback must not be null...");
+        mScheduler = Objects.requireNonNull(scheduler, "The GestureScheduler must not be null...");
+    }
+
+    /**
+     * 事件响应接口
+     *
+     * @param e 触摸采样
+     * @return {@code true}正在采集笔迹
+     */
+    @Override
+    public boolean onTouchEvent(@NonNull TouchSample e) {
+        switch (e.getActionMasked()) {
+            case TouchSample.ACTION_DOWN:
+                mScheduler.cancel(this, FINISH);
+                if (mStrokeTimeOut <= 0)
+                    clear();
+                isStroking = true;
+                add(e.getX(), e.getY());
+                return true;
+
+            case TouchSample.ACTION_MOVE:
+                if (!isStroking)
+                    return false;
+                final int size = e.getHistorySize();
+                for (int h = 0; h < size; h++) {
+                    add(e.getHistoricalX(0, h), e.getHistoricalY(0, h));
+                }
+                add(e.getX(), e.getY());
+                return true;
+
+            case TouchSample.ACTION_UP:
+                if (!isStroking)
+                    return false;
+                add(e.getX(), e.getY());
+                endStroke();
+                if (mStrokeTimeOut > 0)
+                    mScheduler.schedule(this, FINISH, mStrokeTimeOut);
+                else
+                    finish();
+                return true;
+
+            case TouchSample.ACTION_POINTER_DOWN:
+            case TouchSample.ACTION_CANCEL:
+                // 笔画手势只由单指书写
+                mScheduler.cancel(this, FINISH);
+                clear();
+                return false;
+        }
+        return isStroking;
+    }
+
+    /**
+     * 延时任务响应
+     *
+     * @param what 任务类型
+     */
+    @Override
+    public void onTimeout(int what) {
+        //noinspection SwitchStatementWithTooFewBranches
+        switch (what) {
+            case FINISH:
+                finish();
+                break;
+            default:
+                throw new RuntimeException("Unknown gesture" + what);
+        }
+    }
+
+    private void add(float x, float y) {
+        final int index = mPointCount << 1;
+        final int strokeStart = mStrokeCount == 0 ? 0 : mEnds[mStrokeCount - 1];
+        if (mPointCount > strokeStart) {
+            final float dx = x - mPoints[index - 2], dy = y - mPoints[index - 1];
+            if (dx == 0 && dy == 0) return;     // 重复点不影响笔迹
+            mLength += (float) Math.sqrt(dx * dx + dy * dy);
+        }
+        if (index + 2 > mPoints.length) {
+            final float[] grown = new float[mPoints.length << 1];
+            System.arraycopy(mPoints, 0, grown, 0, index);
+            mPoints = grown;
+        }
+        mPoints[index] = x;
+        mPoints[index + 1] = y;
+        mPointCount++;
+    }
+
+    private void endStroke() {
+        isStroking = false;
+        if (mStrokeCount == mEnds.length) {
+            final int[] grown = new int[mStrokeCount << 1];
+            System.arraycopy(mEnds, 0, grown, 0, mStrokeCount);
+            mEnds = grown;
+        }
+        mEnds[mStrokeCount++] = mPointCount;
+    }
+
+    private void clear() {
+        mPointCount = 0;
+        mStrokeCount = 0;
+        mLength = 0;
+        isStroking = false;
+    }
+
+    /**
+     * 结束采集并识别，过短的笔迹直接丢弃
+     */
+    private void finish() {
+        if (mStrokeCount == 0 || mLength < mMinLength || mLength == 0) {
+            clear();
+            return;
+        }
+        final int index = match(mPoints, mEnds, mStrokeCount);
+        clear();
+        if (index >= 0)
+            mCallback.onRecognized(mLibrary.getName(index), mScore);
+        else
+            mCallback.onUnrecognized();
+    }
+
+    /**
+     * 直接识别一组笔画，不经过事件流
+     *
+     * @param strokes 笔画，每笔为 x、y 交替的坐标
+     * @return 模板下标，无匹配时为 -1，得分见{@link #getScore()}
+     */
+    public int recognize(@NonNull float[]... strokes) {
+        int total = 0;
+        for (float[] stroke : strokes) total += stroke.length;
+        final float[] xy = new float[total];
+        final int[] ends = new int[strokes.length];
+        int offset = 0;
+        for (int s = 0; s < strokes.length; s++) {
+            System.arraycopy(strokes[s], 0, xy, offset, strokes[s].length);
+            offset += strokes[s].length;
+            ends[s] = offset >> 1;
+        }
+        if (offset < 2) {
+            mScore = 0;
+            return -1;
+        }
+        return match(xy, ends, strokes.length);
+    }
+
+    private int match(float[] xy, int[] ends, int strokes) {
+        StrokeLibrary.normalize(xy, ends, strokes, mCandidate, 0);
+        if (++mStamp == 0) {
+            for (int cell = 0; cell < StrokeLibrary.LUT_SIZE; cell++) mCandidateStamp[cell] = 0;
+            mStamp = 1;
+        }
+        final int size = mLibrary.size();
+        // 得分 = 1 - 距离 / 2，劣于最低得分的距离即为初始上界
+        final float bound = 2f * (1f - mMinScore);
+        final int chunks = mExecutor == null ? 1 : Math.min(mChunks.length, size / MIN_CHUNK);
+        final Matcher best;
+        if (chunks <= 1) {
+            mMatcher.reset(0, size, bound);
+            mMatcher.run();
+            best = mMatcher;
+        } else {
+            best = matchParallel(size, chunks, bound);
+        }
+        if (best.index < 0) {
+            mScore = 0;
+            return -1;
+        }
+        mScore = Math.max(0f, 1f - best.distance / 2f);
+        return best.index;
+    }
+
+    /**
+     * 离格中心最近的笔迹点，按需计算
+     */
+    private int candidateNearest(int cell) {
+        if (mCandidateStamp[cell] != mStamp) {
+            mCandidateLut[cell] = (byte) StrokeLibrary.nearest(mCandidate, 0, cell);
+            mCandidateStamp[cell] = mStamp;
+        }
+        return mCandidateLut[cell];
+    }
+
+    private Matcher matchParallel(int size, int chunks, float bound) {
+        // 分块共享查找表，提交前填满
+        for (int cell = 0; cell < StrokeLibrary.LUT_SIZE; cell++) candidateNearest(cell);
+        final CountDownLatch latch = new CountDownLatch(chunks - 1);
+        for (int c = 0; c < chunks; c++) {
+            final Matcher chunk = mChunks[c];
+            chunk.reset(size * c / chunks, size * (c + 1) / chunks, bound);
+            chunk.latch = c == 0 ? null : latch;
+            if (c > 0) mExecutor.execute(chunk);
+        }
+        mChunks[0].run();
+        boolean interrupted = false;
+        for (; ; ) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        Matcher best = mChunks[0];
+        for (int c = 1; c < chunks; c++) {
+            final Matcher chunk = mChunks[c];
+            chunk.latch = null;
+            if (chunk.index >= 0 && (best.index < 0 || chunk.distance < best.distance))
+                best = chunk;
+        }
+        return best;
+    }
+
+    /**
+     * 在模板区间内做贪心点云匹配，每个实例持有自己的临时数组
+     * <p>
+     * 先由双方的查找表得到各点不受配对约束的近似最近距离，加权得到每个起点的下界；
+     * 所有起点的下界都不优于当前最优时直接跳过模板，否则计算一次点对距离矩阵，只对下界更优的起点做贪心配对。
+     */
+    private final class Matcher implements Runnable {
+
+        private final float[] mDist = new float[StrokeLibrary.POINTS * StrokeLibrary.POINTS]; // 距离平方，笔迹点为行
+        private final float[] mRowMin = new float[StrokeLibrary.POINTS];   // 笔迹点到模板的近似最近距离
+        private final float[] mColMin = new float[StrokeLibrary.POINTS];   // 模板点到笔迹的近似最近距离
+        private final float[] mRowBound = new float[StrokeLibrary.POINTS]; // 各起点的下界
+        private final float[] mColBound = new float[StrokeLibrary.POINTS];
+        private final boolean[] mMatched = new boolean[StrokeLibrary.POINTS];
+        private float[] mLower = new float[0];                             // 区间内各模板的下界
+
+        int from, to;
+        int index;
+        float distance;
+        CountDownLatch latch;
+
+        void reset(int from, int to, float bound) {
+            this.from = from;
+            this.to = to;
+            this.index = -1;
+            this.distance = bound;
+        }
+
+        @Override
+        public void run() {
+            try {
+                final float[] clouds = mLibrary.clouds();
+                if (mLower.length < to - from)
+                    mLower = new float[Math.max(to - from, mLower.length << 1)];
+                // 先估计全部下界，从下界最小的模板开始匹配，尽早得到较紧的上界
+                int first = -1;
+                float lowest = Float.MAX_VALUE;
+                for (int t = from; t < to; t++) {
+                    final float lower = estimate(clouds, t);
+                    mLower[t - from] = lower;
+                    if (lower < lowest) {
+                        lowest = lower;
+                        first = t;
+                    }
+                }
+                if (first >= 0 && lowest < distance) {
+                    estimate(clouds, first);
+                    consider(first, greedyMatch(clouds, first, distance));
+                }
+                for (int t = from; t < to; t++) {
+                    if (t == first || mLower[t - from] >= distance) continue;
+                    estimate(clouds, t);
+                    consider(t, greedyMatch(clouds, t, distance));
+                }
+            } finally {
+                if (latch != null) latch.countDown();
+            }
+        }
+
+        /**
+         * 从若干起点双向匹配，返回最小距离；不优于上界时返回上界
+         */
+        private void consider(int template, float d) {
+            if (d < distance) {
+                distance = d;
+                index = template;
+            }
+        }
+
+        /**
+         * 由双方的查找表估计各起点的下界
+         *
+         * @return 所有起点中最小的下界
+         */
+        private float estimate(float[] clouds, int template) {
+            final int n = StrokeLibrary.POINTS;
+            final int offset = template * StrokeLibrary.CLOUD_SIZE;
+            final float[] a = mCandidate, rowMin = mRowMin, colMin = mColMin;
+            final byte[] lut = mLibrary.luts();
+            final short[] cells = mLibrary.cells();
+            final int lutOffset = template * StrokeLibrary.LUT_SIZE, cellOffset = template * n;
+            for (int i = 0; i < n; i++) {
+                final int j = lut[lutOffset + StrokeLibrary.cell(a[i << 1], a[(i << 1) + 1])];
+                rowMin[i] = Math.max(0f, distance(a, i << 1, clouds, offset + (j << 1)) - CELL_ERROR);
+                final int k = candidateNearest(cells[cellOffset + i]);
+                colMin[i] = Math.max(0f, distance(clouds, offset + (i << 1), a, k << 1) - CELL_ERROR);
+            }
+            lowerBounds(rowMin, mRowBound);
+            lowerBounds(colMin, mColBound);
+            float lowest = Float.MAX_VALUE;
+            for (int start = 0; start < n; start += STEP) {
+                lowest = Math.min(lowest, Math.min(mRowBound[start], mColBound[start]));
+            }
+            return lowest;
+        }
+
+        /**
+         * 计算点对距离矩阵，对下界优于当前最优的起点双向贪心配对，须紧接对同一模板的{@link #estimate}调用
+         *
+         * @return 最小距离，不优于上界时返回上界
+         */
+        private float greedyMatch(float[] clouds, int template, float bound) {
+            final int n = StrokeLibrary.POINTS;
+            final int offset = template * StrokeLibrary.CLOUD_SIZE;
+            final float[] a = mCandidate, dist = mDist;
+            for (int i = 0; i < n; i++) {
+                final float x = a[i << 1], y = a[(i << 1) + 1];
+                for (int j = 0, row = i * n; j < n; j++) {
+                    final float dx = x - clouds[offset + (j << 1)], dy = y - clouds[offset + (j << 1) + 1];
+                    dist[row + j] = dx * dx + dy * dy;
+                }
+            }
+            float min = bound;
+            for (int start = 0; start < n; start += STEP) {
+                if (mRowBound[start] < min)
+                    min = cloudDistance(start, min, true);
+                if (mColBound[start] < min)
+                    min = cloudDistance(start, min, false);
+            }
+            return min;
+        }
+
+        private float distance(float[] a, int offsetA, float[] b, int offsetB) {
+            final float dx = a[offsetA] - b[offsetB], dy = a[offsetA + 1] - b[offsetB + 1];
+            return (float) Math.sqrt(dx * dx + dy * dy);
+        }
+
+        /**
+         * 各起点的加权下界 Σ(1 - k / n)·d[(start + k) % n]，由相邻起点递推：
+         * 起点后移一位时其余各项权重增加 1 / n，原起点移到末尾
+         */
+        private void lowerBounds(float[] nearest, float[] bounds) {
+            final int n = StrokeLibrary.POINTS;
+            float total = 0, bound = 0;
+            for (int k = 0; k < n; k++) {
+                total += nearest[k];
+                bound += WEIGHTS[k] * nearest[k];
+            }
+            bounds[0] = bound;
+            for (int start = 1; start < n; start++) {
+                final float d = nearest[start - 1];
+                bound += (total - d) / n - d * WEIGHTS[0] + d * WEIGHTS[n - 1];
+                bounds[start] = bound;
+            }
+        }
+
+        /**
+         * 自起点起为一侧的每个点贪心配对另一侧最近的未配对点，越早配对权重越高；
+         * 累计距离达到上界即放弃
+         *
+         * @param rows {@code true}以笔迹点配对模板点，{@code false}反之
+         */
+        private float cloudDistance(int start, float bound, boolean rows) {
+            final int n = StrokeLibrary.POINTS;
+            final float[] dist = mDist;
+            final boolean[] matched = mMatched;
+            for (int j = 0; j < n; j++) matched[j] = false;
+            // 按行时元素 (i, j) 位于 i * n + j，按列时位于 j * n + i
+            final int rowStride = rows ? n : 1, colStride = rows ? 1 : n;
+            float sum = 0;
+            int i = start;
+            for (int k = 0; k < n; k++) {
+                float min = Float.MAX_VALUE;
+                int index = -1;
+                for (int j = 0, p = i * rowStride; j < n; j++, p += colStride) {
+                    if (!matched[j] && dist[p] < min) {
+                        min = dist[p];
+                        index = j;
+                    }
+                }
+                matched[index] = true;
+                sum += WEIGHTS[k] * (float) Math.sqrt(min);
+                if (sum >= bound)
+                    return bound;
+                i = i + 1 == n ? 0 : i + 1;
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * 设置最低得分，低于该得分视为未识别
+     *
+     * @param minScore 得分，[0, 1]
+     * @return self
+     */
+    public StrokeRecognizer setMinScore(float minScore) {
+        if (minScore < 0 || minScore > 1)
+            throw new IllegalArgumentException("Score must be in [0, 1]: " + minScore);
+        mMinScore = minScore;
+        return this;
+    }
+
+    public float getMinScore() {
+        return mMinScore;
+    }
+
+    /**
+     * 设置最短笔迹长度，更短的笔迹视为点击，不参与识别
+     *
+     * @param minLength 长度（像素）
+     * @return self
+     */
+    public StrokeRecognizer setMinLength(float minLength) {
+        mMinLength = Math.max(0, minLength);
+        return this;
+    }
+
+    public float getMinLength() {
+        return mMinLength;
+    }
+
+    /**
+     * 设置多笔停笔超时，抬起后在该时间内再次按下视为同一手势的下一笔
+     *
+     * @param strokeTimeOut 超时（毫秒），0 为单笔模式，抬起即识别
+     * @return self
+     */
+    public StrokeRecognizer setStrokeTimeOut(int strokeTimeOut) {
+        mStrokeTimeOut = Math.max(0, strokeTimeOut);
+        return this;
+    }
+
+    public int getStrokeTimeOut() {
+        return mStrokeTimeOut;
+    }
+
+    /**
+     * 设置并行匹配，每块不少于 64 个模板时才分块交给执行器，调用线程执行首块并等待其余分块
+     *
+     * @param executor    执行器，{@code null}时单线程匹配
+     * @param parallelism 最大分块数
+     * @return self
+     */
+    public StrokeRecognizer setExecutor(@Nullable Executor executor, int parallelism) {
+        if (executor != null && parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        mExecutor = executor;
+        if (executor == null) {
+            mChunks = null;
+        } else {
+            mChunks = new Matcher[parallelism];
+            for (int c = 0; c < parallelism; c++) mChunks[c] = new Matcher();
+        }
+        return this;
+    }
+
+    /**
+     * 替换延时任务调度器，旧调度器中挂起的任务会被取消
+     *
+     * @param scheduler 调度器
+     * @return self
+     */
+    public StrokeRecognizer setScheduler(@NonNull GestureScheduler scheduler) {
+        Objects.requireNonNull(scheduler, "The GestureScheduler must not be null...");
+        mScheduler.cancel(this, FINISH);
+        mScheduler = scheduler;
+        return this;
+    }
+
+    @NonNull
+    public StrokeLibrary getLibrary() {
+        return mLibrary;
+    }
+
+    /**
+     * 最近一次识别的得分
+     *
+     * @return 得分，未识别时为 0
+     */
+    public float getScore() {
+        return mScore;
+    }
+}
@@ -0,0 +1,56 @@
+package me.limeice.gesture.core;
+
+/**
+ * 笔画模板文件格式
+ * <p>
+ * 小端序。文件头之后依次为分组索引、字符串区与各分组的数据，分组数据按 4 字节对齐：
+ * <pre>
+ * int   魔数
+ * int   版本号
+ * int   每个点云的点数
+ * int   查找表边长
+ * int   分组数 g
+ * g × { int 分组名位置, int 模板数 n, int 数据位置 }
+ * 字符串 { short UTF-8 字节数, byte[] }
+ * 每个分组 {
+ *     n × int 模板名位置
+ *     n × 点数 × { float x, float y }
+ *     n × 查找表边长² × byte
+ *     n × 点数 × short
+ * }
+ * </pre>
+ * 点云、查找表与格的含义同{@link StrokeLibrary}，点数或查找表边长不一致的文件无法载入。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+final class TemplateFormat {
+
+    static final int MAGIC = 0x31534745;     // "EGS1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 20;
+
+    /**
+     * 每个分组索引项的长度
+     */
+    static final int ENTRY_SIZE = 12;
+
+    /**
+     * 每个模板占用的字节数
+     */
+    static final int TEMPLATE_SIZE = 4 + StrokeLibrary.CLOUD_SIZE * 4
+            + StrokeLibrary.LUT_SIZE + StrokeLibrary.POINTS * 2;
+
+    private TemplateFormat() {
+    }
+
+    /**
+     * 分组数据长度
+     *
+     * @param count 模板数
+     * @return 字节数
+     */
+    static long groupSize(int count) {
+        return (long) count * TEMPLATE_SIZE;
+    }
+}
@@ -0,0 +1,333 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 笔画模板文件
+ * <p>
+ * 以{@link TemplateFormat}存放预先归一化的点云及其查找表，按分组组织，每个分组对应一个{@link StrokeLibrary}。
+ * 打开时以内存映射方式读取，只解析文件头与分组索引；分组在首次{@link #getGroup(int)}时才载入，
+ * 点云、查找表整块复制进模板库，不做归一化与建表，也不为点创建对象。
+ * 映射在打开后即与文件句柄无关，已载入的模板库不依赖本对象。线程安全。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class TemplateStore {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final ByteBuffer mBuffer;               // 文件映射
+    private final String[] mGroupNames;             // 分组名
+    private final int[] mCounts;                    // 各分组模板数
+    private final int[] mOffsets;                   // 各分组数据位置
+    private final StrokeLibrary[] mLibraries;       // 已载入的分组
+    private byte[] mScratch = new byte[64];         // 字符串解码区
+
+    /**
+     * @param file 模板文件
+     * @throws IOException 打开失败或不是模板文件
+     */
+    public TemplateStore(@NonNull File file) throws IOException {
+        this(map(file));
+    }
+
+    /**
+     * 从通道的一段中读取，可用于未压缩的资源文件，构造后通道可以关闭
+     *
+     * @param channel  通道
+     * @param position 起始位置
+     * @param size     长度
+     * @throws IOException 映射失败或不是模板文件
+     */
+    public TemplateStore(@NonNull FileChannel channel, long position, long size) throws IOException {
+        this(channel.map(FileChannel.MapMode.READ_ONLY, position, size));
+    }
+
+    private TemplateStore(MappedByteBuffer buffer) throws IOException {
+        mBuffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        final int size = buffer.limit();
+        if (size < TemplateFormat.HEADER_SIZE || buffer.getInt(0) != TemplateFormat.MAGIC)
+            throw new IOException("Not a gesture template store");
+        if (buffer.getInt(4) != TemplateFormat.VERSION)
+            throw new IOException("Unsupported gesture template store version: " + buffer.getInt(4));
+        if (buffer.getInt(8) != StrokeLibrary.POINTS || buffer.getInt(12) != StrokeLibrary.GRID)
+            throw new IOException("Incompatible gesture template store: points=" + buffer.getInt(8)
+                    + ", grid=" + buffer.getInt(12));
+        final int groups = buffer.getInt(16);
+        if (groups < 0 || TemplateFormat.HEADER_SIZE + (long) groups * TemplateFormat.ENTRY_SIZE > size)
+            throw new IOException("Corrupt gesture template store index");
+
+        mGroupNames = new String[groups];
+        mCounts = new int[groups];
+        mOffsets = new int[groups];
+        mLibraries = new StrokeLibrary[groups];
+        for (int g = 0, p = TemplateFormat.HEADER_SIZE; g < groups; g++, p += TemplateFormat.ENTRY_SIZE) {
+            final int count = buffer.getInt(p + 4);
+            final int offset = buffer.getInt(p + 8);
+            if (count < 0 || offset < 0 || (offset & 3) != 0
+                    || offset + TemplateFormat.groupSize(count) > size)
+                throw new IOException("Corrupt gesture template group " + g);
+            mGroupNames[g] = string(buffer.getInt(p));
+            mCounts[g] = count;
+            mOffsets[g] = offset;
+        }
+    }
+
+    /**
+     * 分组数
+     *
+     * @return 分组数
+     */
+    public int getGroupCount() {
+        return mGroupNames.length;
+    }
+
+    /**
+     * 分组名
+     *
+     * @param group 分组下标
+     * @return 分组名
+     */
+    @NonNull
+    public String getGroupName(int group) {
+        return mGroupNames[group];
+    }
+
+    /**
+     * 分组中的模板数，无需载入分组
+     *
+     * @param group 分组下标
+     * @return 模板数
+     */
+    public int getTemplateCount(int group) {
+        return mCounts[group];
+    }
+
+    /**
+     * 分组下标
+     *
+     * @param name 分组名
+     * @return 分组下标，不存在时为 -1
+     */
+    public int indexOf(@NonNull String name) {
+        for (int g = 0; g < mGroupNames.length; g++) {
+            if (mGroupNames[g].equals(name)) return g;
+        }
+        return -1;
+    }
+
+    /**
+     * 按名称载入分组
+     *
+     * @param name 分组名
+     * @return 模板库，不存在时为{@code null}
+     * @throws IOException 分组数据损坏
+     */
+    @Nullable
+    public StrokeLibrary getGroup(@NonNull String name) throws IOException {
+        final int group = indexOf(name);
+        return group < 0 ? null : getGroup(group);
+    }
+
+    /**
+     * 载入分组，只在首次调用时复制数据，之后返回同一实例
+     *
+     * @param group 分组下标
+     * @return 模板库
+     * @throws IOException 分组数据损坏
+     */
+    @NonNull
+    public synchronized StrokeLibrary getGroup(int group) throws IOException {
+        StrokeLibrary library = mLibraries[group];
+        if (library != null) return library;
+        final int count = mCounts[group];
+        final int offset = mOffsets[group];
+        final String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = string(mBuffer.getInt(offset + (i << 2)));
+        }
+        int p = offset + count * 4;
+        final FloatBuffer clouds = slice(p).asFloatBuffer();
+        p += count * StrokeLibrary.CLOUD_SIZE * 4;
+        final ByteBuffer luts = slice(p);
+        p += count * StrokeLibrary.LUT_SIZE;
+        final ShortBuffer cells = slice(p).asShortBuffer();
+        // 查找表与网格下标在识别时直接用作数组下标，载入时校验范围
+        for (int i = 0, size = count * StrokeLibrary.LUT_SIZE; i < size; i++) {
+            final int point = luts.get(i);
+            if (point < 0 || point >= StrokeLibrary.POINTS)
+                throw new IOException("Corrupt gesture template group " + group);
+        }
+        for (int i = 0, size = count * StrokeLibrary.POINTS; i < size; i++) {
+            final int cell = cells.get(i);
+            if (cell < 0 || cell >= StrokeLibrary.LUT_SIZE)
+                throw new IOException("Corrupt gesture template group " + group);
+        }
+        library = new StrokeLibrary();
+        library.addNormalized(names, clouds, luts, cells);
+        mLibraries[group] = library;
+        return library;
+    }
+
+    /**
+     * 分组的点云，直接读取映射内存，不载入分组
+     *
+     * @param group 分组下标
+     * @return 只读点云，每个模板{@link StrokeLibrary#POINTS}个点，x、y 交替
+     */
+    @NonNull
+    public FloatBuffer getClouds(int group) {
+        final FloatBuffer clouds = slice(mOffsets[group] + mCounts[group] * 4).asFloatBuffer();
+        clouds.limit(mCounts[group] * StrokeLibrary.CLOUD_SIZE);
+        return clouds.asReadOnlyBuffer();
+    }
+
+    /**
+     * 分组是否已载入
+     *
+     * @param group 分组下标
+     * @return {@code true}已载入
+     */
+    public synchronized boolean isLoaded(int group) {
+        return mLibraries[group] != null;
+    }
+
+    /**
+     * 将模板库写为模板文件，已有内容会被覆盖
+     *
+     * @param file   文件
+     * @param groups 分组名与模板库，按迭代顺序写出
+     * @throws IOException 写入失败
+     */
+    public static void write(@NonNull File file, @NonNull Map<String, StrokeLibrary> groups) throws IOException {
+        try (FileChannel channel = new FileOutputStream(file).getChannel()) {
+            write(channel, groups);
+        }
+    }
+
+    /**
+     * 将模板库写入通道，通道不会被关闭
+     *
+     * @param channel 输出
+     * @param groups  分组名与模板库，按迭代顺序写出
+     * @throws IOException 写入失败
+     */
+    public static void write(
+            @NonNull WritableByteChannel channel,
+            @NonNull Map<String, StrokeLibrary> groups
+    ) throws IOException {
+        Objects.requireNonNull(channel, "The WritableByteChannel must not be null...");
+        final int count = groups.size();
+        final byte[][] groupNames = new byte[count][];
+        final StrokeLibrary[] libraries = new StrokeLibrary[count];
+        long strings = 0, data = 0;
+        int g = 0;
+        for (Map.Entry<String, StrokeLibrary> entry : groups.entrySet()) {
+            groupNames[g] = encode(entry.getKey());
+            libraries[g] = Objects.requireNonNull(entry.getValue(), "The StrokeLibrary must not be null...");
+            strings += 2 + groupNames[g].length;
+            for (int i = 0; i < libraries[g].size(); i++) {
+                strings += 2 + encode(libraries[g].getName(i)).length;
+            }
+            data += TemplateFormat.groupSize(libraries[g].size());
+            g++;
+        }
+        final long dataStart = (TemplateFormat.HEADER_SIZE + (long) count * TemplateFormat.ENTRY_SIZE + strings + 3) & ~3L;
+        if (dataStart + data > Integer.MAX_VALUE)
+            throw new IOException("Gesture template store too large");
+
+        final ByteBuffer b = ByteBuffer.allocate((int) (dataStart + data)).order(ByteOrder.LITTLE_ENDIAN);
+        b.putInt(TemplateFormat.MAGIC)
+                .putInt(TemplateFormat.VERSION)
+                .putInt(StrokeLibrary.POINTS)
+                .putInt(StrokeLibrary.GRID)
+                .putInt(count);
+        int string = TemplateFormat.HEADER_SIZE + count * TemplateFormat.ENTRY_SIZE;
+        int offset = (int) dataStart;
+        for (g = 0; g < count; g++) {
+            final StrokeLibrary library = libraries[g];
+            final int size = library.size();
+            b.putInt(TemplateFormat.HEADER_SIZE + g * TemplateFormat.ENTRY_SIZE, string)
+                    .putInt(TemplateFormat.HEADER_SIZE + g * TemplateFormat.ENTRY_SIZE + 4, size)
+                    .putInt(TemplateFormat.HEADER_SIZE + g * TemplateFormat.ENTRY_SIZE + 8, offset);
+            string = putString(b, string, groupNames[g]);
+            for (int i = 0; i < size; i++) {
+                b.putInt(offset + (i << 2), string);
+                string = putString(b, string, encode(library.getName(i)));
+            }
+            int p = offset + size * 4;
+            b.position(p);
+            b.asFloatBuffer().put(library.clouds(), 0, size * StrokeLibrary.CLOUD_SIZE);
+            p += size * StrokeLibrary.CLOUD_SIZE * 4;
+            b.position(p);
+            b.put(library.luts(), 0, size * StrokeLibrary.LUT_SIZE);
+            p += size * StrokeLibrary.LUT_SIZE;
+            b.position(p);
+            b.asShortBuffer().put(library.cells(), 0, size * StrokeLibrary.POINTS);
+            offset += (int) TemplateFormat.groupSize(size);
+        }
+        b.clear();
+        while (b.hasRemaining()) channel.write(b);
+    }
+
+    private static MappedByteBuffer map(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            final FileChannel channel = raf.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * 自指定位置起的小端序视图
+     */
+    private ByteBuffer slice(int position) {
+        final ByteBuffer b = mBuffer.duplicate();
+        b.position(position);
+        return b.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private String string(int position) throws IOException {
+        if (position < 0 || position + 2 > mBuffer.limit())
+            throw new IOException("Corrupt gesture template string at " + position);
+        final int length = mBuffer.getShort(position) & 0xFFFF;
+        if (position + 2 + length > mBuffer.limit())
+            throw new IOException("Corrupt gesture template string at " + position);
+        if (mScratch.length < length)
+            mScratch = new byte[Math.max(length, mScratch.length << 1)];
+        final ByteBuffer b = mBuffer.duplicate();
+        b.position(position + 2);
+        b.get(mScratch, 0, length);
+        return new String(mScratch, 0, length, UTF_8);
+    }
+
+    private static byte[] encode(String name) {
+        final byte[] bytes = Objects.requireNonNull(name, "The group name must not be null...").getBytes(UTF_8);
+        if (bytes.length > 0xFFFF)
+            throw new IllegalArgumentException("Name too long: " + name);
+        return bytes;
+    }
+
+    private static int putString(ByteBuffer b, int position, byte[] bytes) {
+        b.putShort(position, (short) bytes.length);
+        b.position(position + 2);
+        b.put(bytes);
+        return position + 2 + bytes.length;
+    }
+}
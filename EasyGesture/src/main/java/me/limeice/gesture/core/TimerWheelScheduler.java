@@ -0,0 +1,200 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * 哈希时间轮调度器，可由任意数量的检测器共享
+ * <p>
+ * 每个（目标，任务类型）对应一个复用的定时节点，挂在按到期时间散列的槽位链表上，调度与取消均为 O(1)，
+ * 稳定运行后不产生对象。时间轮本身不持有线程，到期检查由{@link #advance()}驱动，
+ * 最近到期时间变化时通过{@link Driver}请求唤醒。非线程安全，应在同一线程中使用。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class TimerWheelScheduler implements GestureScheduler {
+
+    /**
+     * 唤醒驱动
+     */
+    @FunctionalInterface
+    public interface Driver {
+
+        /**
+         * 请求在指定时间调用{@link #advance()}，新的请求替代旧的请求
+         *
+         * @param deadline 时间（毫秒，与时钟同一时基）
+         */
+        void wakeUpAt(long deadline);
+    }
+
+    /**
+     * 定时节点
+     */
+    private static final class Timer {
+        Target target;      // 仅在挂起期间持有，避免弱引用表无法回收
+        int what;
+        long deadline;
+        int slot = -1;
+        Timer prev, next;
+    }
+
+    private final GestureClock mClock;
+    private final Driver mDriver;
+    private final int mTick;
+    private final int mMask;
+    private final Timer[] mSlots;
+    private final WeakHashMap<Target, Timer[]> mTimers = new WeakHashMap<>();
+
+    private long mCurrentTick;                          // 已处理到的刻度
+    private long mNextDeadline = Long.MAX_VALUE;        // 已请求的最近唤醒时间
+    private int mSize;                                  // 挂起的任务数
+
+    /**
+     * @param clock     时钟
+     * @param tick      刻度（毫秒）
+     * @param slotCount 槽位数，向上取整为 2 的幂
+     * @param driver    唤醒驱动，为{@code null}时需自行周期调用{@link #advance()}
+     */
+    public TimerWheelScheduler(
+            @NonNull GestureClock clock,
+            int tick,
+            int slotCount,
+            @Nullable Driver driver
+    ) {
+        if (tick <= 0 || slotCount <= 0)
+            throw new IllegalArgumentException("tick and slotCount must be positive");
+        mClock = Objects.requireNonNull(clock, "The GestureClock must not be null...");
+        mDriver = driver;
+        mTick = tick;
+        int slots = 1;
+        while (slots < slotCount) slots <<= 1;
+        mMask = slots - 1;
+        mSlots = new Timer[slots];
+        mCurrentTick = clock.now() / tick;
+    }
+
+    @Override
+    public void schedule(@NonNull Target target, int what, long delayMillis) {
+        final Timer timer = obtain(target, what);
+        if (timer.slot >= 0) unlink(timer);
+        final long deadline = mClock.now() + Math.max(0, delayMillis);
+        timer.target = target;
+        timer.what = what;
+        timer.deadline = deadline;
+        link(timer, (int) ((deadline / mTick) & mMask));
+        if (deadline < mNextDeadline) {
+            mNextDeadline = deadline;
+            if (mDriver != null) mDriver.wakeUpAt(deadline);
+        }
+    }
+
+    @Override
+    public void cancel(@NonNull Target target, int what) {
+        final Timer[] timers = mTimers.get(target);
+        if (timers == null || what < 0 || what >= timers.length) return;
+        final Timer timer = timers[what];
+        if (timer != null && timer.slot >= 0) {
+            unlink(timer);
+            timer.target = null;
+        }
+    }
+
+    /**
+     * 触发所有已到期的任务，并请求下一次唤醒
+     */
+    public void advance() {
+        final long now = mClock.now();
+        final long nowTick = now / mTick;
+        final long ticks = Math.min(nowTick - mCurrentTick + 1, mSlots.length);
+        for (long k = 0; k < ticks; k++) {
+            expire((int) ((mCurrentTick + k) & mMask), now);
+        }
+        mCurrentTick = nowTick;
+        mNextDeadline = earliestDeadline();
+        if (mDriver != null && mNextDeadline != Long.MAX_VALUE)
+            mDriver.wakeUpAt(mNextDeadline);
+    }
+
+    /**
+     * 最近的到期时间
+     *
+     * @return 时间（毫秒），无任务时返回{@link Long#MAX_VALUE}
+     */
+    public long nextDeadline() {
+        return earliestDeadline();
+    }
+
+    /**
+     * 挂起的任务数
+     *
+     * @return 任务数
+     */
+    public int size() {
+        return mSize;
+    }
+
+    private void expire(int slot, long now) {
+        // 回调中可能调度或取消同一槽位的任务，每次触发后重新扫描
+        for (; ; ) {
+            Timer timer = mSlots[slot];
+            while (timer != null && timer.deadline > now) timer = timer.next;
+            if (timer == null) return;
+            unlink(timer);
+            final Target target = timer.target;
+            timer.target = null;
+            target.onTimeout(timer.what);
+        }
+    }
+
+    private long earliestDeadline() {
+        long earliest = Long.MAX_VALUE;
+        if (mSize == 0) return earliest;
+        for (Timer head : mSlots) {
+            for (Timer t = head; t != null; t = t.next) {
+                if (t.deadline < earliest) earliest = t.deadline;
+            }
+        }
+        return earliest;
+    }
+
+    private Timer obtain(Target target, int what) {
+        if (what < 0) throw new IllegalArgumentException("Negative task type: " + what);
+        Timer[] timers = mTimers.get(target);
+        if (timers == null || what >= timers.length) {
+            final Timer[] grown = new Timer[what + 1];
+            if (timers != null) System.arraycopy(timers, 0, grown, 0, timers.length);
+            timers = grown;
+            mTimers.put(target, timers);
+        }
+        Timer timer = timers[what];
+        if (timer == null) {
+            timer = new Timer();
+            timers[what] = timer;
+        }
+        return timer;
+    }
+
+    private void link(Timer timer, int slot) {
+        final Timer head = mSlots[slot];
+        timer.prev = null;
+        timer.next = head;
+        if (head != null) head.prev = timer;
+        mSlots[slot] = timer;
+        timer.slot = slot;
+        mSize++;
+    }
+
+    private void unlink(Timer timer) {
+        if (timer.prev != null) timer.prev.next = timer.next;
+        else mSlots[timer.slot] = timer.next;
+        if (timer.next != null) timer.next.prev = timer.prev;
+        timer.prev = timer.next = null;
+        timer.slot = -1;
+        mSize--;
+    }
+}
@@ -0,0 +1,154 @@
+package me.limeice.gesture.core;
+
+/**
+ * 触摸位置预测器，用于弥补输入到显示之间的延迟
+ * <p>
+ * 以定长环形缓冲区保存最近{@link #HORIZON}毫秒内的位置，对其做二阶最小二乘拟合（样本不足时为一阶），
+ * 以最新位置为起点按拟合出的速度与加速度外推。所有存储在构造时分配，计算过程不产生对象。
+ * 停顿超过{@link #ASSUME_STOPPED_TIME}毫秒时丢弃旧位置，不再外推。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class TouchPredictor {
+
+    /**
+     * 保留的位置数
+     */
+    private static final int HISTORY = 8;
+
+    /**
+     * 参与拟合的时间窗口（毫秒）
+     */
+    public static final int HORIZON = 60;
+
+    /**
+     * 停顿判定时间（毫秒）
+     */
+    public static final int ASSUME_STOPPED_TIME = 40;
+
+    private final long[] mTimes = new long[HISTORY];
+    private final float[] mXs = new float[HISTORY];
+    private final float[] mYs = new float[HISTORY];
+    private int mHead;                          // 最新位置
+    private int mCount;                         // 有效位置数
+
+    // 拟合用临时数据，按时间由新到旧
+    private final double[] mAge = new double[HISTORY];
+    private final double[] mPos = new double[HISTORY];
+
+    private float mPredictedX, mPredictedY;     // 预测位置
+
+    /**
+     * 记录一个位置，时间应单调不减
+     *
+     * @param time 事件时间（毫秒）
+     * @param x    横坐标
+     * @param y    纵坐标
+     */
+    public void add(long time, float x, float y) {
+        if (mCount > 0 && time - mTimes[mHead] > ASSUME_STOPPED_TIME) mCount = 0;
+        mHead = mCount == 0 ? 0 : (mHead + 1) % HISTORY;
+        mTimes[mHead] = time;
+        mXs[mHead] = x;
+        mYs[mHead] = y;
+        if (mCount < HISTORY) mCount++;
+        mPredictedX = x;
+        mPredictedY = y;
+    }
+
+    /**
+     * 预测最新位置之后{@code aheadMillis}毫秒的位置，结果通过{@link #getPredictedX()}、{@link #getPredictedY()}获取
+     *
+     * @param aheadMillis 预测时长（毫秒）
+     * @return {@code true}已外推 {@code false}位置不足，预测位置即最新位置
+     */
+    public boolean predict(int aheadMillis) {
+        if (mCount == 0) return false;
+        mPredictedX = mXs[mHead];
+        mPredictedY = mYs[mHead];
+        if (mCount < 2 || aheadMillis <= 0) return false;
+        final int n = collect(mXs);
+        if (n < 2) return false;
+        mPredictedX += (float) extrapolate(n, aheadMillis);
+        collect(mYs);
+        mPredictedY += (float) extrapolate(n, aheadMillis);
+        return true;
+    }
+
+    /**
+     * 将时间窗口内的位置按由新到旧复制到临时数组
+     *
+     * @return 位置数
+     */
+    private int collect(float[] positions) {
+        final long newest = mTimes[mHead];
+        int index = mHead;
+        int n = 0;
+        for (; n < mCount; n++) {
+            final long age = mTimes[index] - newest;
+            if (-age > HORIZON) break;
+            mAge[n] = age;
+            mPos[n] = positions[index];
+            index = index == 0 ? HISTORY - 1 : index - 1;
+        }
+        return n;
+    }
+
+    /**
+     * 拟合曲线在 t = ahead 与 t = 0 处的差值
+     */
+    private double extrapolate(int n, int ahead) {
+        if (n >= 3) {
+            double s1 = 0, s2 = 0, s3 = 0, s4 = 0, sx = 0, stx = 0, sttx = 0;
+            for (int i = 0; i < n; i++) {
+                final double t = mAge[i], t2 = t * t, x = mPos[i];
+                s1 += t;
+                s2 += t2;
+                s3 += t2 * t;
+                s4 += t2 * t2;
+                sx += x;
+                stx += t * x;
+                sttx += t2 * x;
+            }
+            final double det = n * (s2 * s4 - s3 * s3) - s1 * (s1 * s4 - s3 * s2) + s2 * (s1 * s3 - s2 * s2);
+            if (Math.abs(det) >= 1e-9) {
+                final double b = (n * (stx * s4 - s3 * sttx) - sx * (s1 * s4 - s3 * s2)
+                        + s2 * (s1 * sttx - stx * s2)) / det;
+                final double c = (n * (s2 * sttx - stx * s3) - s1 * (s1 * sttx - stx * s2)
+                        + sx * (s1 * s3 - s2 * s2)) / det;
+                final double linear = b * ahead, curve = c * ahead * ahead;
+                // 加速度项不超过速度项，避免短促抖动被放大为反向跳动
+                return linear + Math.max(-Math.abs(linear), Math.min(Math.abs(linear), curve));
+            }
+        }
+        double sumT = 0, sumX = 0;
+        for (int i = 0; i < n; i++) {
+            sumT += mAge[i];
+            sumX += mPos[i];
+        }
+        final double meanT = sumT / n, meanX = sumX / n;
+        double stt = 0, stx = 0;
+        for (int i = 0; i < n; i++) {
+            final double dt = mAge[i] - meanT;
+            stt += dt * dt;
+            stx += dt * (mPos[i] - meanX);
+        }
+        return stt == 0 ? 0 : stx / stt * ahead;
+    }
+
+    /**
+     * 清空位置
+     */
+    public void reset() {
+        mCount = 0;
+    }
+
+    public float getPredictedX() {
+        return mPredictedX;
+    }
+
+    public float getPredictedY() {
+        return mPredictedY;
+    }
+}
@@ -0,0 +1,277 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 触摸采样，与平台无关的触摸事件数据
+ * <p>
+ * 只保存手势识别需要的原始字段（动作、触点 id、坐标、事件时间及批量历史采样），
+ * 对象可反复填充复用，仅在触点数或历史采样数超过容量时扩容。
+ * 动作常量取值与{@code android.view.MotionEvent}保持一致。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class TouchSample {
+
+    public static final int ACTION_MASK = 0xff;
+    public static final int ACTION_DOWN = 0;
+    public static final int ACTION_UP = 1;
+    public static final int ACTION_MOVE = 2;
+    public static final int ACTION_CANCEL = 3;
+    public static final int ACTION_POINTER_DOWN = 5;
+    public static final int ACTION_POINTER_UP = 6;
+    public static final int ACTION_POINTER_INDEX_MASK = 0xff00;
+    public static final int ACTION_POINTER_INDEX_SHIFT = 8;
+
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private int mAction;
+    private long mDownTime;
+    private long mEventTime;
+    private int mPointerCount;
+
+    private int[] mIds;
+    private float[] mXs;
+    private float[] mYs;
+
+    private int mHistorySize;                       // 历史采样数
+    private long[] mHistoryTimes = new long[0];     // 历史采样时间
+    private float[] mHistoryXs = new float[0];      // 历史横坐标，按 [采样 * 触点数 + 触点索引] 排列
+    private float[] mHistoryYs = new float[0];      // 历史纵坐标，排列同上
+
+    public TouchSample() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TouchSample(int capacity) {
+        mIds = new int[capacity];
+        mXs = new float[capacity];
+        mYs = new float[capacity];
+    }
+
+    /**
+     * 重置采样头信息，之后通过{@link #setPointer(int, int, float, float)}填充触点
+     *
+     * @param action       动作（含触点索引）
+     * @param downTime     按下时间（毫秒）
+     * @param eventTime    事件时间（毫秒）
+     * @param pointerCount 触点数
+     * @return self
+     */
+    public TouchSample set(int action, long downTime, long eventTime, int pointerCount) {
+        ensureCapacity(pointerCount);
+        mAction = action;
+        mDownTime = downTime;
+        mEventTime = eventTime;
+        mPointerCount = pointerCount;
+        mHistorySize = 0;
+        return this;
+    }
+
+    /**
+     * 追加一个历史采样（比当前采样更早、被批量合并的采样），需在{@link #set(int, long, long, int)}之后调用
+     *
+     * @param eventTime 采样时间（毫秒）
+     * @return 历史采样位置，用于{@link #setHistoricalPointer(int, int, float, float)}
+     */
+    public int addHistory(long eventTime) {
+        final int pos = mHistorySize;
+        final int size = (pos + 1) * mPointerCount;
+        if (pos >= mHistoryTimes.length || size > mHistoryXs.length) {
+            growHistory(pos + 1, size);
+        }
+        mHistoryTimes[pos] = eventTime;
+        mHistorySize = pos + 1;
+        return pos;
+    }
+
+    /**
+     * 填充历史采样的触点坐标
+     *
+     * @param pos   历史采样位置
+     * @param index 触点索引
+     * @param x     横坐标
+     * @param y     纵坐标
+     * @return self
+     */
+    public TouchSample setHistoricalPointer(int pos, int index, float x, float y) {
+        final int offset = pos * mPointerCount + index;
+        mHistoryXs[offset] = x;
+        mHistoryYs[offset] = y;
+        return this;
+    }
+
+    private void growHistory(int count, int size) {
+        final int timeCapacity = Math.max(count, mHistoryTimes.length << 1);
+        final int capacity = Math.max(size, mHistoryXs.length << 1);
+        long[] times = new long[timeCapacity];
+        float[] xs = new float[capacity];
+        float[] ys = new float[capacity];
+        final int used = mHistorySize * mPointerCount;
+        System.arraycopy(mHistoryTimes, 0, times, 0, mHistorySize);
+        System.arraycopy(mHistoryXs, 0, xs, 0, used);
+        System.arraycopy(mHistoryYs, 0, ys, 0, used);
+        mHistoryTimes = times;
+        mHistoryXs = xs;
+        mHistoryYs = ys;
+    }
+
+    /**
+     * 填充触点
+     *
+     * @param index 触点索引
+     * @param id    触点 id
+     * @param x     横坐标
+     * @param y     纵坐标
+     * @return self
+     */
+    public TouchSample setPointer(int index, int id, float x, float y) {
+        mIds[index] = id;
+        mXs[index] = x;
+        mYs[index] = y;
+        return this;
+    }
+
+    /**
+     * 使用原始数组填充采样
+     *
+     * @param action       动作（含触点索引）
+     * @param downTime     按下时间（毫秒）
+     * @param eventTime    事件时间（毫秒）
+     * @param pointerCount 触点数
+     * @param ids          触点 id
+     * @param xs           横坐标
+     * @param ys           纵坐标
+     * @return self
+     */
+    public TouchSample set(
+            int action,
+            long downTime,
+            long eventTime,
+            int pointerCount,
+            @NonNull int[] ids,
+            @NonNull float[] xs,
+            @NonNull float[] ys
+    ) {
+        set(action, downTime, eventTime, pointerCount);
+        System.arraycopy(ids, 0, mIds, 0, pointerCount);
+        System.arraycopy(xs, 0, mXs, 0, pointerCount);
+        System.arraycopy(ys, 0, mYs, 0, pointerCount);
+        return this;
+    }
+
+    /**
+     * 复制另一个采样的全部数据
+     *
+     * @param other 源采样
+     * @return self
+     */
+    public TouchSample copyFrom(@NonNull TouchSample other) {
+        set(other.mAction, other.mDownTime, other.mEventTime, other.mPointerCount,
+                other.mIds, other.mXs, other.mYs);
+        final int size = other.mHistorySize;
+        if (size == 0) return this;
+        final int used = size * mPointerCount;
+        if (size > mHistoryTimes.length || used > mHistoryXs.length) {
+            growHistory(size, used);
+        }
+        System.arraycopy(other.mHistoryTimes, 0, mHistoryTimes, 0, size);
+        System.arraycopy(other.mHistoryXs, 0, mHistoryXs, 0, used);
+        System.arraycopy(other.mHistoryYs, 0, mHistoryYs, 0, used);
+        mHistorySize = size;
+        return this;
+    }
+
+    private void ensureCapacity(int count) {
+        if (count <= mIds.length) return;
+        final int capacity = Math.max(count, mIds.length << 1);
+        int[] ids = new int[capacity];
+        float[] xs = new float[capacity];
+        float[] ys = new float[capacity];
+        System.arraycopy(mIds, 0, ids, 0, mPointerCount);
+        System.arraycopy(mXs, 0, xs, 0, mPointerCount);
+        System.arraycopy(mYs, 0, ys, 0, mPointerCount);
+        mIds = ids;
+        mXs = xs;
+        mYs = ys;
+    }
+
+    public int getAction() {
+        return mAction;
+    }
+
+    public int getActionMasked() {
+        return mAction & ACTION_MASK;
+    }
+
+    public int getActionIndex() {
+        return (mAction & ACTION_POINTER_INDEX_MASK) >> ACTION_POINTER_INDEX_SHIFT;
+    }
+
+    public long getDownTime() {
+        return mDownTime;
+    }
+
+    public long getEventTime() {
+        return mEventTime;
+    }
+
+    public int getPointerCount() {
+        return mPointerCount;
+    }
+
+    public int getPointerId(int index) {
+        return mIds[index];
+    }
+
+    /**
+     * 查找触点 id 对应的索引
+     *
+     * @param id 触点 id
+     * @return 索引，不存在时返回 -1
+     */
+    public int findPointerIndex(int id) {
+        for (int i = 0; i < mPointerCount; i++) {
+            if (mIds[i] == id) return i;
+        }
+        return -1;
+    }
+
+    public float getX() {
+        return mXs[0];
+    }
+
+    public float getY() {
+        return mYs[0];
+    }
+
+    public float getX(int index) {
+        return mXs[index];
+    }
+
+    public float getY(int index) {
+        return mYs[index];
+    }
+
+    /**
+     * 历史采样数，参见{@link #addHistory(long)}
+     *
+     * @return 历史采样数
+     */
+    public int getHistorySize() {
+        return mHistorySize;
+    }
+
+    public long getHistoricalEventTime(int pos) {
+        return mHistoryTimes[pos];
+    }
+
+    public float getHistoricalX(int index, int pos) {
+        return mHistoryXs[pos * mPointerCount + index];
+    }
+
+    public float getHistoricalY(int index, int pos) {
+        return mHistoryYs[pos * mPointerCount + index];
+    }
+}
@@ -0,0 +1,45 @@
+package me.limeice.gesture.core;
+
+/**
+ * 手势轨迹文件格式
+ * <p>
+ * 小端序。文件头为魔数与版本号各 4 字节，其后为连续的记录：
+ * <pre>
+ * int   记录长度（不含本字段）
+ * int   action
+ * long  downTime
+ * long  eventTime
+ * int   触点数 n
+ * int   历史采样数 h
+ * n × { int id, float x, float y }
+ * h × { long eventTime, n × { float x, float y } }
+ * </pre>
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+final class TraceFormat {
+
+    static final int MAGIC = 0x31544745;     // "EGT1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+
+    /**
+     * 记录中定长部分的长度（不含记录长度字段）
+     */
+    static final int FIXED_SIZE = 28;
+
+    private TraceFormat() {
+    }
+
+    /**
+     * 记录长度（不含记录长度字段）
+     *
+     * @param pointerCount 触点数
+     * @param historySize  历史采样数
+     * @return 字节数
+     */
+    static int recordSize(int pointerCount, int historySize) {
+        return FIXED_SIZE + pointerCount * 12 + historySize * (8 + pointerCount * 8);
+    }
+}
@@ -0,0 +1,164 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 手势轨迹读取器
+ * <p>
+ * 以内存映射方式按窗口读取{@link TraceRecorder}写出的文件，文件大小不受堆内存限制。
+ * 采样解码至调用方提供的{@link TouchSample}，逐条读取不产生对象。
+ * 记录器未正常关闭时文件末尾可能残留半条记录，读取至此视为结束。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class TraceReader implements Closeable {
+
+    /**
+     * 映射窗口大小（字节）
+     */
+    private static final long WINDOW = 64L << 20;
+
+    private final RandomAccessFile mFile;
+    private final FileChannel mChannel;
+    private final long mSize;                       // 文件大小
+    private final TouchSample mSample = new TouchSample(); // 回放用采样
+
+    private MappedByteBuffer mWindow;               // 当前映射窗口
+    private long mWindowStart;                      // 窗口起始位置
+    private long mPosition;                         // 下一条记录的位置
+
+    /**
+     * @param file 轨迹文件
+     * @throws IOException 打开失败或不是轨迹文件
+     */
+    public TraceReader(@NonNull File file) throws IOException {
+        mFile = new RandomAccessFile(file, "r");
+        mChannel = mFile.getChannel();
+        mSize = mChannel.size();
+        mPosition = 0;
+        if (mSize < TraceFormat.HEADER_SIZE || !ensure(TraceFormat.HEADER_SIZE)
+                || mWindow.getInt(0) != TraceFormat.MAGIC) {
+            close();
+            throw new IOException("Not a gesture trace: " + file);
+        }
+        if (mWindow.getInt(4) != TraceFormat.VERSION) {
+            close();
+            throw new IOException("Unsupported gesture trace version: " + mWindow.getInt(4));
+        }
+        mPosition = TraceFormat.HEADER_SIZE;
+    }
+
+    /**
+     * 读取下一条记录
+     *
+     * @param out 输出采样
+     * @return {@code true}已读取 {@code false}已到文件末尾
+     * @throws IOException 映射失败或记录损坏
+     */
+    public boolean next(@NonNull TouchSample out) throws IOException {
+        if (!ensure(4)) return false;
+        final int size = mWindow.getInt((int) (mPosition - mWindowStart));
+        if (size < TraceFormat.FIXED_SIZE)
+            throw new IOException("Corrupt gesture trace record at " + mPosition);
+        if (!ensure(4 + size)) return false;
+
+        int p = (int) (mPosition - mWindowStart) + 4;
+        final MappedByteBuffer b = mWindow;
+        final int action = b.getInt(p);
+        final long downTime = b.getLong(p + 4);
+        final long eventTime = b.getLong(p + 12);
+        final int count = b.getInt(p + 20);
+        final int history = b.getInt(p + 24);
+        if (count <= 0 || history < 0 || TraceFormat.recordSize(count, history) != size)
+            throw new IOException("Corrupt gesture trace record at " + mPosition);
+        p += TraceFormat.FIXED_SIZE;
+
+        out.set(action, downTime, eventTime, count);
+        for (int i = 0; i < count; i++, p += 12) {
+            out.setPointer(i, b.getInt(p), b.getFloat(p + 4), b.getFloat(p + 8));
+        }
+        for (int h = 0; h < history; h++) {
+            final int pos = out.addHistory(b.getLong(p));
+            p += 8;
+            for (int i = 0; i < count; i++, p += 8) {
+                out.setHistoricalPointer(pos, i, b.getFloat(p), b.getFloat(p + 4));
+            }
+        }
+        mPosition += 4 + size;
+        return true;
+    }
+
+    /**
+     * 回到第一条记录
+     */
+    public void rewind() {
+        mPosition = TraceFormat.HEADER_SIZE;
+    }
+
+    /**
+     * 从当前位置回放至文件末尾
+     *
+     * @param replay   回放器
+     * @param detector 检测器
+     * @return 检测器响应的事件数
+     * @throws IOException 映射失败或记录损坏
+     */
+    public int replay(@NonNull GestureReplay replay, @NonNull SampleDetector detector) throws IOException {
+        int handled = 0;
+        while (next(mSample)) {
+            if (replay.replay(detector, mSample)) handled++;
+        }
+        return handled;
+    }
+
+    /**
+     * 从当前位置读取全部记录，每条记录一个采样，用于构造基准测试等小规模数据
+     *
+     * @return 采样列表
+     * @throws IOException 映射失败或记录损坏
+     */
+    @NonNull
+    public List<TouchSample> readAll() throws IOException {
+        final List<TouchSample> samples = new ArrayList<>();
+        TouchSample sample = new TouchSample();
+        while (next(sample)) {
+            samples.add(sample);
+            sample = new TouchSample();
+        }
+        return samples;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mWindow = null;
+        mFile.close();
+    }
+
+    /**
+     * 保证当前位置起的{@code length}字节位于映射窗口内
+     *
+     * @return {@code false}文件剩余长度不足
+     */
+    private boolean ensure(int length) throws IOException {
+        if (mPosition + length > mSize) return false;
+        if (mWindow != null && mPosition >= mWindowStart
+                && mPosition + length <= mWindowStart + mWindow.limit())
+            return true;
+        mWindowStart = mPosition;
+        final long size = Math.min(Math.max(WINDOW, length), mSize - mPosition);
+        mWindow = mChannel.map(FileChannel.MapMode.READ_ONLY, mWindowStart, size);
+        mWindow.order(ByteOrder.LITTLE_ENDIAN);
+        return true;
+    }
+}
@@ -0,0 +1,195 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 手势轨迹记录器
+ * <p>
+ * 采样按{@link TraceFormat}编码后写入构造时分配的环形缓冲区，由后台线程写出，记录过程不阻塞事件线程。
+ * 缓冲区已满时丢弃当前采样并计数，不等待。{@link #record(TouchSample)}只能在单一线程中调用。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class TraceRecorder implements Closeable {
+
+    /**
+     * 默认缓冲区大小（字节）
+     */
+    public static final int DEFAULT_CAPACITY = 256 * 1024;
+
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final WritableByteChannel mChannel;     // 输出
+    private final byte[] mRing;                     // 环形缓冲区
+    private final int mMask;
+    private final ByteBuffer mOut;                  // 包装环形缓冲区，仅由写出线程使用
+    private ByteBuffer mScratch;                    // 单条记录编码区，仅由记录线程使用
+    private final Thread mFlusher;                  // 写出线程
+
+    private volatile long mWritePos;                // 已写入缓冲区的总字节数
+    private volatile long mReadPos;                 // 已写出的总字节数
+    private volatile long mDropped;                 // 丢弃的采样数
+    private volatile boolean isClosed;
+    private volatile IOException mError;            // 写出失败原因
+
+    /**
+     * 记录至文件，已有内容会被覆盖
+     *
+     * @param file 文件
+     * @throws IOException 打开或写入文件头失败
+     */
+    public TraceRecorder(@NonNull File file) throws IOException {
+        this(new FileOutputStream(file).getChannel(), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param channel  输出，关闭记录器时一并关闭
+     * @param capacity 缓冲区大小（字节），向上取整为 2 的幂
+     * @throws IOException 写入文件头失败
+     */
+    public TraceRecorder(@NonNull WritableByteChannel channel, int capacity) throws IOException {
+        mChannel = Objects.requireNonNull(channel, "The WritableByteChannel must not be null...");
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive");
+        int size = 1;
+        while (size < capacity) size <<= 1;
+        mRing = new byte[size];
+        mMask = size - 1;
+        mOut = ByteBuffer.wrap(mRing);
+        mScratch = ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN);
+
+        final ByteBuffer header = ByteBuffer.allocate(TraceFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(TraceFormat.MAGIC).putInt(TraceFormat.VERSION).flip();
+        while (header.hasRemaining()) channel.write(header);
+
+        mFlusher = new Thread(this::drain, "EasyGesture-TraceRecorder");
+        mFlusher.setDaemon(true);
+        mFlusher.start();
+    }
+
+    /**
+     * 记录一个采样，包括其中的批量历史采样
+     *
+     * @param e 触摸采样
+     * @return {@code true}已写入缓冲区 {@code false}缓冲区已满、记录器已关闭或写出失败
+     */
+    public boolean record(@NonNull TouchSample e) {
+        if (isClosed || mError != null) return false;
+        final int count = e.getPointerCount();
+        final int history = e.getHistorySize();
+        final int size = TraceFormat.recordSize(count, history) + 4;
+        final long write = mWritePos;
+        if (size > mRing.length - (write - mReadPos)) {
+            mDropped++;
+            return false;
+        }
+        if (mScratch.capacity() < size)
+            mScratch = ByteBuffer.allocate(Integer.highestOneBit(size) << 1).order(ByteOrder.LITTLE_ENDIAN);
+
+        final ByteBuffer b = mScratch;
+        b.clear();
+        b.putInt(size - 4)
+                .putInt(e.getAction())
+                .putLong(e.getDownTime())
+                .putLong(e.getEventTime())
+                .putInt(count)
+                .putInt(history);
+        for (int i = 0; i < count; i++) {
+            b.putInt(e.getPointerId(i)).putFloat(e.getX(i)).putFloat(e.getY(i));
+        }
+        for (int h = 0; h < history; h++) {
+            b.putLong(e.getHistoricalEventTime(h));
+            for (int i = 0; i < count; i++) {
+                b.putFloat(e.getHistoricalX(i, h)).putFloat(e.getHistoricalY(i, h));
+            }
+        }
+
+        final int offset = (int) (write & mMask);
+        final int first = Math.min(size, mRing.length - offset);
+        System.arraycopy(b.array(), 0, mRing, offset, first);
+        if (first < size) System.arraycopy(b.array(), first, mRing, 0, size - first);
+        mWritePos = write + size;
+        // 超过半满时提前唤醒写出线程
+        if (write + size - mReadPos > mRing.length >> 1) LockSupport.unpark(mFlusher);
+        return true;
+    }
+
+    /**
+     * 等待缓冲区中已有的记录全部写出
+     *
+     * @throws IOException 写出失败
+     */
+    public void flush() throws IOException {
+        final long target = mWritePos;
+        while (mReadPos < target && mError == null && mFlusher.isAlive()) {
+            LockSupport.unpark(mFlusher);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        if (mError != null) throw mError;
+    }
+
+    /**
+     * 写出剩余记录并关闭输出
+     *
+     * @throws IOException 写出或关闭失败
+     */
+    @Override
+    public void close() throws IOException {
+        if (isClosed) return;
+        isClosed = true;
+        LockSupport.unpark(mFlusher);
+        boolean interrupted = false;
+        while (mFlusher.isAlive()) {
+            try {
+                mFlusher.join();
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        mChannel.close();
+        if (mError != null) throw mError;
+    }
+
+    /**
+     * 因缓冲区已满而丢弃的采样数
+     *
+     * @return 采样数
+     */
+    public long getDroppedCount() {
+        return mDropped;
+    }
+
+    private void drain() {
+        try {
+            for (; ; ) {
+                final long read = mReadPos;
+                final long write = mWritePos;
+                if (read == write) {
+                    if (isClosed) return;
+                    LockSupport.parkNanos(this, FLUSH_INTERVAL_NANOS);
+                    continue;
+                }
+                final int offset = (int) (read & mMask);
+                final int length = (int) Math.min(write - read, mRing.length - offset);
+                mOut.limit(offset + length).position(offset);
+                while (mOut.hasRemaining()) mChannel.write(mOut);
+                mReadPos = read + length;
+            }
+        } catch (IOException ex) {
+            mError = ex;
+        }
+    }
+}
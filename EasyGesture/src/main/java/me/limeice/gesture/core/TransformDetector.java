@@ -0,0 +1,202 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+import java.util.Objects;
+
+/**
+ * 多指变换识别，支持任意数量的触点
+ * <p>
+ * 每个 MOVE 对全部触点只遍历一次，同时累计当前与上一次位置的一阶、二阶矩，由此得到重心、平均跨度，
+ * 以及最小二乘意义下的旋转角度，不产生对象。缩放为平均跨度之比，平移为重心位移。
+ * 触点增减时重新锚定，不回调。
+ * <p>
+ * 回调的增量变换将上一次的触点位置映射到当前位置，可依次应用于{@code Matrix}：
+ * {@code postTranslate(dx, dy)}、{@code postScale(scale, scale, focusX, focusY)}、
+ * {@code postRotate(rotation, focusX, focusY)}。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class TransformDetector implements SampleDetector {
+
+    /**
+     * 识别结果回调
+     */
+    public interface Callback {
+
+        /**
+         * 变换事件
+         *
+         * @param scale      缩放系数
+         * @param rotation   旋转角度（度，顺时针为正）
+         * @param translateX 横向平移
+         * @param translateY 纵向平移
+         * @param focusX     当前重心横坐标
+         * @param focusY     当前重心纵坐标
+         * @return {@code true}事件响应 ，{@code false}拒绝响应事件
+         */
+        boolean onTransform(
+                float scale,
+                float rotation,
+                float translateX,
+                float translateY,
+                float focusX,
+                float focusY
+        );
+    }
+
+    /**
+     * 支持的最大触点 id（不含）
+     */
+    public static final int MAX_POINTER_ID = 32;
+
+    private final Callback mCallback;                           // 识别结果回调
+
+    private final float[] mLastX = new float[MAX_POINTER_ID];   // 触点上一次横坐标
+    private final float[] mLastY = new float[MAX_POINTER_ID];   // 触点上一次纵坐标
+    private final int[] mStamp = new int[MAX_POINTER_ID];       // 触点所属锚定批次
+    private int mAnchor;                                        // 当前锚定批次
+
+    private float mFocusX, mFocusY;                             // 重心
+    private float mSpan;                                        // 平均跨度
+
+    public TransformDetector(@NonNull Callback callback) {
+        mCallback = Objects.requireNonNull(callback, "The Callback must not be null...");
+    }
+
+    @Override
+    public boolean onTouchEvent(@NonNull TouchSample e) {
+        switch (e.getActionMasked()) {
+            case TouchSample.ACTION_DOWN:
+            case TouchSample.ACTION_POINTER_DOWN:
+                anchor(e, -1);
+                return false;
+            case TouchSample.ACTION_POINTER_UP:
+                anchor(e, e.getActionIndex());
+                return false;
+            case TouchSample.ACTION_MOVE:
+                return onMove(e);
+            default:
+                reset();
+                return false;
+        }
+    }
+
+    private boolean onMove(TouchSample e) {
+        final int count = e.getPointerCount();
+        // 当前位置 q 与上一次位置 p 的矩：Σq、Σ|q|²、Σp、Σ|p|²、Σp·q、Σp×q
+        double sx = 0, sy = 0, sqq = 0, px = 0, py = 0, spp = 0, dot = 0, cross = 0;
+        int n = 0;
+        boolean matched = true;
+        for (int i = 0; i < count; i++) {
+            final int id = e.getPointerId(i);
+            if (id < 0 || id >= MAX_POINTER_ID) continue;
+            final double x = e.getX(i), y = e.getY(i);
+            if (mStamp[id] != mAnchor) {
+                matched = false;
+                mStamp[id] = mAnchor;
+            } else {
+                final double lx = mLastX[id], ly = mLastY[id];
+                px += lx;
+                py += ly;
+                spp += lx * lx + ly * ly;
+                dot += lx * x + ly * y;
+                cross += lx * y - ly * x;
+            }
+            sx += x;
+            sy += y;
+            sqq += x * x + y * y;
+            mLastX[id] = (float) x;
+            mLastY[id] = (float) y;
+            n++;
+        }
+        if (n == 0) return false;
+        final double cx = sx / n, cy = sy / n;
+        final double variance = Math.max(0, sqq / n - cx * cx - cy * cy);
+        mFocusX = (float) cx;
+        mFocusY = (float) cy;
+        mSpan = (float) (2 * Math.sqrt(variance));
+        if (!matched) return false;     // 触点集合变化而未收到 POINTER 事件
+
+        final double pcx = px / n, pcy = py / n;
+        final double lastVariance = spp / n - pcx * pcx - pcy * pcy;
+        final float scale = lastVariance > 0 && variance > 0
+                ? (float) Math.sqrt(variance / lastVariance)
+                : 1f;
+        // 去中心化后的点积与叉积，最优旋转角为 atan2(叉积, 点积)
+        final double d = dot / n - (pcx * cx + pcy * cy);
+        final double c = cross / n - (pcx * cy - pcy * cx);
+        final float rotation = n > 1 && (d != 0 || c != 0)
+                ? (float) Math.toDegrees(Math.atan2(c, d))
+                : 0f;
+        final float translateX = (float) (cx - pcx), translateY = (float) (cy - pcy);
+        if (scale == 1f && rotation == 0f && translateX == 0f && translateY == 0f)
+            return false;
+        return mCallback.onTransform(scale, rotation, translateX, translateY, mFocusX, mFocusY);
+    }
+
+    /**
+     * 以当前触点位置为新的起点
+     *
+     * @param skipIndex 排除的触点索引，{@code -1}表示不排除
+     */
+    private void anchor(TouchSample e, int skipIndex) {
+        mAnchor++;
+        final int count = e.getPointerCount();
+        double sx = 0, sy = 0, sqq = 0;
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            final int id = e.getPointerId(i);
+            if (i == skipIndex || id < 0 || id >= MAX_POINTER_ID) continue;
+            final double x = e.getX(i), y = e.getY(i);
+            mLastX[id] = (float) x;
+            mLastY[id] = (float) y;
+            mStamp[id] = mAnchor;
+            sx += x;
+            sy += y;
+            sqq += x * x + y * y;
+            n++;
+        }
+        if (n == 0) return;
+        final double cx = sx / n, cy = sy / n;
+        mFocusX = (float) cx;
+        mFocusY = (float) cy;
+        mSpan = (float) (2 * Math.sqrt(Math.max(0, sqq / n - cx * cx - cy * cy)));
+    }
+
+    /**
+     * 清除全部触点，下一次按下时重新锚定
+     */
+    public void reset() {
+        mAnchor++;
+        mSpan = 0;
+    }
+
+    /**
+     * 当前重心横坐标
+     *
+     * @return 横坐标
+     */
+    public float getFocusX() {
+        return mFocusX;
+    }
+
+    /**
+     * 当前重心纵坐标
+     *
+     * @return 纵坐标
+     */
+    public float getFocusY() {
+        return mFocusY;
+    }
+
+    /**
+     * 当前平均跨度，即触点到重心均方根距离的两倍，两指时等于两指间距
+     *
+     * @return 跨度（像素）
+     */
+    public float getSpan() {
+        return mSpan;
+    }
+}
@@ -0,0 +1,53 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 速度估算器
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public interface VelocityEstimator {
+
+    /**
+     * 添加触摸采样
+     *
+     * @param e 触摸采样
+     */
+    void addMovement(@NonNull TouchSample e);
+
+    /**
+     * 计算当前速度
+     *
+     * @param units       速度单位，1 表示像素/毫秒，1000 表示像素/秒
+     * @param maxVelocity 最大速度
+     */
+    void computeCurrentVelocity(int units, float maxVelocity);
+
+    /**
+     * 横向速度，需先调用{@link #computeCurrentVelocity(int, float)}
+     *
+     * @param id 触点 id
+     * @return 速度
+     */
+    float getXVelocity(int id);
+
+    /**
+     * 纵向速度，需先调用{@link #computeCurrentVelocity(int, float)}
+     *
+     * @param id 触点 id
+     * @return 速度
+     */
+    float getYVelocity(int id);
+
+    /**
+     * 清空已记录的采样
+     */
+    void clear();
+
+    /**
+     * 一次手势结束，释放占用的资源
+     */
+    void recycle();
+}
@@ -0,0 +1,76 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 虚拟时间调度器，同时作为时钟使用
+ * <p>
+ * 时间只在调用{@link #advanceBy(long)}或{@link #advanceTo(long)}时前进，到期任务按到期时间顺序触发，
+ * 触发时时钟恰好停在该任务的到期时间，用于在 JVM 上确定性地测试超时行为。
+ *
+ * @author LimeVista
+ * @version 1.0
+ */
+public final class VirtualTimeScheduler implements GestureScheduler, GestureClock {
+
+    private final TimerWheelScheduler mWheel;
+
+    private long mNow;
+
+    public VirtualTimeScheduler() {
+        this(0);
+    }
+
+    public VirtualTimeScheduler(long startMillis) {
+        mNow = startMillis;
+        mWheel = new TimerWheelScheduler(this, 1, 256, null);
+    }
+
+    @Override
+    public long now() {
+        return mNow;
+    }
+
+    @Override
+    public void schedule(@NonNull Target target, int what, long delayMillis) {
+        mWheel.schedule(target, what, delayMillis);
+    }
+
+    @Override
+    public void cancel(@NonNull Target target, int what) {
+        mWheel.cancel(target, what);
+    }
+
+    /**
+     * 时间前进，期间到期的任务依次触发
+     *
+     * @param millis 时长（毫秒）
+     */
+    public void advanceBy(long millis) {
+        advanceTo(mNow + millis);
+    }
+
+    /**
+     * 时间前进至指定时刻，期间到期的任务依次触发
+     *
+     * @param millis 时刻（毫秒），早于当前时间时忽略
+     */
+    public void advanceTo(long millis) {
+        for (; ; ) {
+            final long next = mWheel.nextDeadline();
+            if (next > millis) break;
+            if (next > mNow) mNow = next;
+            mWheel.advance();
+        }
+        if (millis > mNow) mNow = millis;
+    }
+
+    /**
+     * 挂起的任务数
+     *
+     * @return 任务数
+     */
+    public int pending() {
+        return mWheel.size();
+    }
+}
@@ -0,0 +1,129 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static me.limeice.gesture.core.Samples.single;
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveTimeoutsTest {
+
+    private final List<String> mEvents = new ArrayList<>();
+
+    private AdaptiveTimeouts mAdaptive;
+    private VirtualTimeScheduler mScheduler;
+
+    @Before
+    public void setUp() {
+        mAdaptive = new AdaptiveTimeouts().setLowerBounds(50, 100);
+        mScheduler = new VirtualTimeScheduler();
+    }
+
+    @Test
+    public void configuredValueUntilEnoughSamples() {
+        for (int i = 0; i < 15; i++) mAdaptive.recordPressDuration(100);
+        assertEquals(500, mAdaptive.longPressTimeOut(500));
+        mAdaptive.recordPressDuration(100);
+        // 第 95 百分位落在 [100, 110) 桶，上沿 110 乘以余量 1.25
+        assertEquals(137, mAdaptive.longPressTimeOut(500));
+    }
+
+    @Test
+    public void timeoutsStayWithinBounds() {
+        for (int i = 0; i < 16; i++) {
+            mAdaptive.recordTapInterval(10);
+            mAdaptive.recordPressDuration(2000);
+        }
+        assertEquals(50, mAdaptive.doubleTapTimeOut(300));
+        assertEquals(500, mAdaptive.longPressTimeOut(500));
+        mAdaptive.reset();
+        assertEquals(300, mAdaptive.doubleTapTimeOut(300));
+    }
+
+    @Test
+    public void doubleTapIntervalShrinksTimeOut() {
+        for (int i = 0; i < 16; i++) mAdaptive.recordTapInterval(120);
+        assertEquals(162, mAdaptive.doubleTapTimeOut(300));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void percentileOutOfRangeIsRejected() {
+        mAdaptive.setPercentile(0);
+    }
+
+    /**
+     * 收缩后的长按超时把较慢的单击识别为长按，这次按压仍被记录，超时随即回升
+     */
+    @Test
+    public void longPressTimeOutRecoversInMiniGestureEngine() {
+        final MiniGestureEngine engine = new MiniGestureEngine(new MiniGestureEngine.Callback() {
+            @Override
+            public void onDrag(@NonNull TouchSample e, float dx, float dy) {
+            }
+
+            @Override
+            public void onLongPress(@NonNull TouchSample down) {
+                mEvents.add("longPress");
+            }
+
+            @Override
+            public void onTap(@NonNull TouchSample e) {
+                mEvents.add("tap");
+            }
+        }, mScheduler, mScheduler).setAdaptiveTimeouts(mAdaptive);
+        assertRecovers(engine);
+    }
+
+    @Test
+    public void longPressTimeOutRecoversInGestureLiteEngine() {
+        final GestureLiteEngine engine = new GestureLiteEngine(new GestureLiteEngine.Callback() {
+            @Override
+            public boolean onDown(@NonNull TouchSample e) {
+                return true;
+            }
+
+            @Override
+            public void onLongPress(@NonNull TouchSample down) {
+                mEvents.add("longPress");
+            }
+
+            @Override
+            public void onTap(@NonNull TouchSample e) {
+                mEvents.add("tap");
+            }
+        }, mScheduler, mScheduler, null).setLongPressEnable(true).setAdaptiveTimeouts(mAdaptive);
+        assertRecovers(engine);
+    }
+
+    private void assertRecovers(SampleDetector engine) {
+        for (int i = 0; i < 16; i++) press(engine, 100);
+        assertEquals(137, mAdaptive.longPressTimeOut(500));
+        mEvents.clear();
+
+        press(engine, 200);
+        assertEquals("longPress", mEvents.get(0));
+        assertEquals(1, mEvents.size());
+        // 200ms 的按压计入后第 95 百分位升至 210ms
+        assertEquals(262, mAdaptive.longPressTimeOut(500));
+
+        press(engine, 200);
+        assertEquals("tap", mEvents.get(1));
+
+        // 超过配置超时的有意长按不计入
+        press(engine, 800);
+        assertEquals(262, mAdaptive.longPressTimeOut(500));
+    }
+
+    private void press(SampleDetector engine, long duration) {
+        final long down = mScheduler.now() + 1000;
+        mScheduler.advanceTo(down);
+        engine.onTouchEvent(single(TouchSample.ACTION_DOWN, down, down, 10, 10));
+        mScheduler.advanceTo(down + duration);
+        engine.onTouchEvent(single(TouchSample.ACTION_UP, down, down + duration, 10, 10));
+    }
+}
@@ -0,0 +1,194 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+
+import static me.limeice.gesture.core.Samples.moveWithHistory;
+import static me.limeice.gesture.core.Samples.pair;
+import static me.limeice.gesture.core.Samples.single;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FlightRecorderTest {
+
+    private final List<String> mRecords = new ArrayList<>();
+    private final List<Integer> mAnomalies = new ArrayList<>();
+
+    private FlightRecorder mRecorder;
+
+    @Before
+    public void setUp() {
+        mRecorder = new FlightRecorder(SampleRing.MIN_CAPACITY)
+                .setOnAnomalyListener((recorder, anomaly) -> mAnomalies.add(anomaly));
+    }
+
+    /**
+     * 导出并读回，每条记录转为一行文本
+     */
+    private List<String> readBack() throws IOException {
+        mRecords.clear();
+        FlightRecorder.read(ByteBuffer.wrap(mRecorder.dump()), new FlightRecorder.Visitor() {
+            @Override
+            public void onSample(@NonNull TouchSample e) {
+                final StringBuilder builder = new StringBuilder().append(e.getAction())
+                        .append(' ').append(e.getDownTime()).append(' ').append(e.getEventTime());
+                for (int h = 0; h < e.getHistorySize(); h++) {
+                    builder.append(" h").append(e.getHistoricalEventTime(h));
+                    for (int i = 0; i < e.getPointerCount(); i++) {
+                        builder.append(' ').append(e.getHistoricalX(i, h)).append(',').append(e.getHistoricalY(i, h));
+                    }
+                }
+                for (int i = 0; i < e.getPointerCount(); i++) {
+                    builder.append(" #").append(e.getPointerId(i))
+                            .append(' ').append(e.getX(i)).append(',').append(e.getY(i));
+                }
+                mRecords.add(builder.toString());
+            }
+
+            @Override
+            public void onEvent(long time, int event, float a, float b) {
+                mRecords.add(FlightRecorder.nameOf(event) + "@" + time + " " + a + "," + b);
+            }
+        });
+        return mRecords;
+    }
+
+    @Test
+    public void samplesAndEventsAreReadBack() throws IOException {
+        final int pointerDown = TouchSample.ACTION_POINTER_DOWN | (1 << TouchSample.ACTION_POINTER_INDEX_SHIFT);
+        mRecorder.record(single(TouchSample.ACTION_DOWN, 0, 0, 1, 2));
+        mRecorder.record(moveWithHistory(0, 0, 30, 2, 1, 2, 31, 2));
+        mRecorder.record(pair(pointerDown, 0, 40, 31, 2, 60, 70));
+        mRecorder.event(50, FlightRecorder.EVENT_VELOCITY_CLEARED, 1, -0.5f);
+        mRecorder.record(single(TouchSample.ACTION_UP, 0, 60, 31, 2));
+
+        final List<String> records = readBack();
+        assertEquals(5, records.size());
+        assertEquals("0 0 0 #0 1.0,2.0", records.get(0));
+        assertEquals("2 0 30 h10 11.0,2.0 h20 21.0,2.0 #0 31.0,2.0", records.get(1));
+        assertEquals(pointerDown + " 0 40 #0 31.0,2.0 #1 60.0,70.0", records.get(2));
+        assertEquals("velocityCleared@50 1.0,-0.5", records.get(3));
+        assertEquals("1 0 60 #0 31.0,2.0", records.get(4));
+        assertTrue(mAnomalies.isEmpty());
+    }
+
+    @Test
+    public void headerDescribesDump() throws IOException {
+        mRecorder.setWindow(2000);
+        mRecorder.record(single(TouchSample.ACTION_DOWN, 0, 0, 1, 2));
+        mRecorder.event(10, FlightRecorder.EVENT_TAP, 0, 0);
+        final byte[] dump = mRecorder.dump();
+        final ByteBuffer b = ByteBuffer.wrap(dump).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(FlightRecorder.MAGIC, b.getInt());
+        assertEquals(FlightRecorder.VERSION, b.getInt());
+        assertEquals(2000, b.getInt());
+        assertEquals(2, b.getInt());
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        mRecorder.dump(Channels.newChannel(out));
+        assertArrayEquals(dump, out.toByteArray());
+    }
+
+    @Test
+    public void dumpKeepsOnlyWindow() throws IOException {
+        mRecorder.setWindow(1000);
+        tap(0);
+        tap(500);
+        tap(2000);
+        final List<String> records = readBack();
+        assertEquals(2, records.size());
+        assertEquals("0 2000 2000 #0 5.0,5.0", records.get(0));
+    }
+
+    @Test
+    public void oldestRecordsAreOverwritten() throws IOException {
+        mRecorder.setWindow(Integer.MAX_VALUE);
+        // 单指采样 12 个 int，1024 个 int 至多容纳 85 条
+        for (int i = 0; i < 200; i++) tap(i * 100);
+        final List<String> records = readBack();
+        assertTrue(records.size() <= 85);
+        assertTrue(records.size() > 80);
+        assertEquals("1 19900 19950 #0 5.0,5.0", records.get(records.size() - 1));
+        assertTrue(mAnomalies.isEmpty());
+    }
+
+    @Test
+    public void oversizedHistoryIsDropped() throws IOException {
+        mRecorder.record(single(TouchSample.ACTION_DOWN, 0, 0, 0, 0));
+        mRecorder.record(moveWithHistory(0, 0, 500, 400, 0, 0, 400, 0));
+        final List<String> records = readBack();
+        assertEquals(2, records.size());
+        assertEquals("2 0 500 #0 400.0,0.0", records.get(1));
+    }
+
+    @Test
+    public void anomaliesAreRecordedAndReported() throws IOException {
+        mRecorder.setWindow(100);
+        mRecorder.record(single(TouchSample.ACTION_DOWN, 0, 0, 0, 0));
+        // 抬起丢失
+        mRecorder.record(single(TouchSample.ACTION_DOWN, 200, 200, 0, 0));
+        mRecorder.record(single(TouchSample.ACTION_UP, 200, 250, 0, 0));
+        // 未按下即移动，同一轮只报告一次；距上次通知不足记录时长，不再通知
+        mRecorder.record(single(TouchSample.ACTION_MOVE, 200, 260, 0, 0));
+        mRecorder.record(single(TouchSample.ACTION_MOVE, 200, 270, 0, 0));
+        mRecorder.record(single(TouchSample.ACTION_UP, 200, 280, 0, 0));
+        // 时间倒退
+        mRecorder.record(single(TouchSample.ACTION_DOWN, 400, 400, 0, 0));
+        mRecorder.record(single(TouchSample.ACTION_MOVE, 400, 390, 0, 0));
+
+        assertEquals(2, mAnomalies.size());
+        assertEquals(FlightRecorder.ANOMALY_LOST_UP, (int) mAnomalies.get(0));
+        assertEquals(FlightRecorder.ANOMALY_TIME_REVERSED, (int) mAnomalies.get(1));
+
+        mRecorder.setWindow(1000);
+        final List<String> anomalies = new ArrayList<>();
+        for (String record : readBack()) {
+            if (record.startsWith("anomaly")) anomalies.add(record);
+        }
+        assertEquals(3, anomalies.size());
+        assertEquals("anomaly@200 " + (float) FlightRecorder.ANOMALY_LOST_UP + ",0.0", anomalies.get(0));
+        assertEquals("anomaly@260 " + (float) FlightRecorder.ANOMALY_NO_DOWN + ",0.0", anomalies.get(1));
+        assertEquals("anomaly@390 " + (float) FlightRecorder.ANOMALY_TIME_REVERSED + ",0.0", anomalies.get(2));
+    }
+
+    @Test
+    public void recordingMayStartMidSequence() {
+        mRecorder.record(single(TouchSample.ACTION_MOVE, 0, 10, 0, 0));
+        mRecorder.record(single(TouchSample.ACTION_UP, 0, 20, 0, 0));
+        mRecorder.clear();
+        mRecorder.record(single(TouchSample.ACTION_MOVE, 0, 5, 0, 0));
+        assertTrue(mAnomalies.isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void foreignDataIsRejected() throws IOException {
+        FlightRecorder.read(ByteBuffer.wrap(new byte[32]), new FlightRecorder.Visitor() {
+        });
+    }
+
+    @Test(expected = IOException.class)
+    public void corruptRecordIsRejected() throws IOException {
+        tap(0);
+        final byte[] dump = mRecorder.dump();
+        // 第一条记录的触点数改为 2，与记录长度不符
+        ByteBuffer.wrap(dump).order(ByteOrder.LITTLE_ENDIAN).putInt(16 + 7 * 4, 2);
+        FlightRecorder.read(ByteBuffer.wrap(dump), new FlightRecorder.Visitor() {
+        });
+    }
+
+    private void tap(long down) {
+        mRecorder.record(single(TouchSample.ACTION_DOWN, down, down, 5, 5));
+        mRecorder.record(single(TouchSample.ACTION_UP, down, down + 50, 5, 5));
+    }
+}
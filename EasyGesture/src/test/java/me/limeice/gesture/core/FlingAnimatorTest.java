@@ -0,0 +1,107 @@
+package me.limeice.gesture.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FlingAnimatorTest {
+
+    @Test
+    public void splineLandsOnPositionKnownAtStart() {
+        final FlingAnimator animator = new FlingAnimator(1f);
+        animator.start(10, 20, 0, 1000, 100);
+        final float finalY = animator.getFinalY();
+        final int duration = animator.getDuration();
+        assertTrue(duration > 0);
+        assertTrue(finalY > 20);
+        assertFalse(animator.isFinished());
+
+        // 初速度与给定速度一致，之后位置单调前进、速度单调减小
+        assertTrue(animator.computeOffset(100));
+        assertEquals(1000, animator.getCurrVelocityY(), 10);
+        // 终点取整，途中位置与其相差不超过半像素
+        float lastY = animator.getCurrY(), lastVelocity = animator.getCurrVelocityY();
+        for (long t = 108; t < 100 + duration; t += 8) {
+            assertTrue(animator.computeOffset(t));
+            assertTrue(animator.getCurrY() >= lastY);
+            assertTrue(animator.getCurrY() <= finalY + 0.5f);
+            assertTrue(animator.getCurrVelocityY() <= lastVelocity + 1);
+            assertEquals(10, animator.getCurrX(), 0);
+            lastY = animator.getCurrY();
+            lastVelocity = animator.getCurrVelocityY();
+        }
+        assertFalse(animator.computeOffset(100 + duration));
+        assertTrue(animator.isFinished());
+        assertEquals(finalY, animator.getCurrY(), 0);
+        assertEquals(0, animator.getCurrVelocityY(), 0);
+    }
+
+    @Test
+    public void splineDistanceShrinksWithDensityAndFriction() {
+        final FlingAnimator mdpi = new FlingAnimator(1f);
+        final FlingAnimator xhdpi = new FlingAnimator(3f);
+        mdpi.start(0, 0, 2000, 0, 0);
+        xhdpi.start(0, 0, 2000, 0, 0);
+        assertTrue(xhdpi.getFinalX() < mdpi.getFinalX());
+        assertTrue(xhdpi.getDuration() < mdpi.getDuration());
+        final float distance = mdpi.getFinalX();
+        mdpi.setFriction(0.03f).start(0, 0, 2000, 0, 0);
+        assertTrue(mdpi.getFinalX() < distance);
+    }
+
+    @Test
+    public void twoDimensionalFlingFollowsInitialDirection() {
+        final FlingAnimator animator = new FlingAnimator(2f);
+        animator.start(0, 0, -3000, 4000, 0);
+        assertEquals(-0.75f, animator.getFinalX() / animator.getFinalY(), 0.01f);
+        animator.computeOffset(animator.getDuration() / 2);
+        assertEquals(-0.75f, animator.getCurrX() / animator.getCurrY(), 0.01f);
+        assertEquals(-0.75f, animator.getCurrVelocityX() / animator.getCurrVelocityY(), 0.01f);
+    }
+
+    @Test
+    public void exponentialDecayUsesTimeConstant() {
+        final FlingAnimator animator = new FlingAnimator(1f)
+                .setMode(FlingAnimator.MODE_EXPONENTIAL)
+                .setTimeConstant(200);
+        animator.start(0, 0, 1000, 0, 0);
+        // 总距离 v·τ = 200，剩余半像素时停止：τ·ln(200 / 0.5)
+        assertEquals(200, animator.getFinalX(), 0);
+        assertEquals((int) (200 * Math.log(400)), animator.getDuration());
+        assertTrue(animator.computeOffset(200));
+        assertEquals(200 * (1 - Math.exp(-1)), animator.getCurrX(), 0.01);
+        assertEquals(1000 * Math.exp(-1), animator.getCurrVelocityX(), 0.1);
+    }
+
+    @Test
+    public void abortStopsInPlace() {
+        final FlingAnimator animator = new FlingAnimator(1f);
+        animator.start(0, 0, 0, 3000, 0);
+        animator.computeOffset(50);
+        final float y = animator.getCurrY();
+        animator.abort();
+        assertTrue(animator.isFinished());
+        assertEquals(y, animator.getFinalY(), 0);
+        assertFalse(animator.computeOffset(60));
+        assertEquals(y, animator.getCurrY(), 0);
+        assertEquals(0, animator.getCurrVelocityY(), 0);
+    }
+
+    @Test
+    public void zeroVelocityFinishesImmediately() {
+        final FlingAnimator animator = new FlingAnimator(1f);
+        animator.start(5, 6, 0, 0, 0);
+        assertTrue(animator.isFinished());
+        assertEquals(0, animator.getDuration());
+        assertEquals(5, animator.getFinalX(), 0);
+        assertEquals(6, animator.getFinalY(), 0);
+        assertFalse(animator.computeOffset(10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownModeIsRejected() {
+        new FlingAnimator(1f).setMode(0);
+    }
+}
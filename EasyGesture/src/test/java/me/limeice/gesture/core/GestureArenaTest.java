@@ -0,0 +1,186 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static me.limeice.gesture.core.Samples.single;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class GestureArenaTest {
+
+    private static final int TRIPLE_TAP = 3;
+
+    private static final GestureMachine.Table TRIPLE = new GestureMachine.Builder()
+            .state("idle").on(GestureMachine.DOWN, "down1")
+            .state("down1").timeout(300).on(GestureMachine.UP, "up1")
+            .state("up1").timeout(300).on(GestureMachine.DOWN, "down2")
+            .state("down2").timeout(300).on(GestureMachine.UP, "up2")
+            .state("up2").timeout(300).on(GestureMachine.DOWN, "down3")
+            .state("down3").timeout(300).on(GestureMachine.UP, "idle", TRIPLE_TAP)
+            .build();
+
+    private final List<String> mEvents = new ArrayList<>();
+
+    private VirtualTimeScheduler mScheduler;
+    private GestureArena mArena;
+    private GestureMachine mTriple;
+    private MiniGestureEngine mTap;
+
+    @Before
+    public void setUp() {
+        mScheduler = new VirtualTimeScheduler();
+        mArena = new GestureArena();
+        mTriple = new GestureMachine(TRIPLE, (gesture, e) -> {
+            mEvents.add("triple@" + mScheduler.now());
+            return true;
+        }, mScheduler, mScheduler).setArena(mArena);
+        mTap = new MiniGestureEngine(new MiniGestureEngine.Callback() {
+            @Override
+            public void onDrag(@NonNull TouchSample e, float dx, float dy) {
+            }
+
+            @Override
+            public void onLongPress(@NonNull TouchSample down) {
+                mEvents.add("longPress@" + mScheduler.now());
+            }
+
+            @Override
+            public void onTap(@NonNull TouchSample e) {
+                mEvents.add("tap@" + mScheduler.now());
+            }
+        }, mScheduler, mScheduler).setArena(mArena);
+        mTap.setTouchSlop(8);
+    }
+
+    /**
+     * 按给定顺序把每个采样分发给各识别器
+     */
+    private void taps(boolean tapFirst, long... downTimes) {
+        final SampleDetector[] members = tapFirst
+                ? new SampleDetector[]{mTap, mTriple}
+                : new SampleDetector[]{mTriple, mTap};
+        for (long down : downTimes) {
+            dispatch(members, single(TouchSample.ACTION_DOWN, down, down, 10, 10));
+            dispatch(members, single(TouchSample.ACTION_UP, down, down + 50, 10, 10));
+        }
+    }
+
+    private void dispatch(SampleDetector[] members, TouchSample e) {
+        mScheduler.advanceTo(e.getEventTime());
+        for (SampleDetector member : members) member.onTouchEvent(e);
+    }
+
+    @Test
+    public void tripleTapBeatsTapInEitherOrder() {
+        for (boolean tapFirst : new boolean[]{true, false}) {
+            mEvents.clear();
+            mArena.close();
+            final long start = mScheduler.now() + 1000;
+            taps(tapFirst, start, start + 150, start + 300);
+            mScheduler.advanceBy(1000);
+            assertEquals("tapFirst=" + tapFirst, 1, mEvents.size());
+            assertEquals("triple@" + (start + 350), mEvents.get(0));
+            assertSame(mTriple, mArena.getWinner());
+        }
+    }
+
+    @Test
+    public void tapWinsOnceTripleTapGivesUp() {
+        for (boolean tapFirst : new boolean[]{true, false}) {
+            mEvents.clear();
+            mArena.close();
+            final long start = mScheduler.now() + 1000;
+            taps(tapFirst, start);
+            assertTrue(mEvents.isEmpty());
+            assertTrue(mArena.isPending(mTap));
+            // 三击在抬起后 300ms 超时失败，等待的单击随即获胜
+            mScheduler.advanceBy(1000);
+            assertEquals("tapFirst=" + tapFirst, 1, mEvents.size());
+            assertEquals("tap@" + (start + 350), mEvents.get(0));
+            assertSame(mTap, mArena.getWinner());
+        }
+    }
+
+    @Test
+    public void pendingMemberSkipsHeldSequences() {
+        taps(true, 0, 150);
+        // 第二次按下仍属于被占住的一轮，等待中的单击不再处理
+        assertTrue(mArena.isPending(mTap));
+        assertEquals(2, mArena.size());
+        mScheduler.advanceBy(1000);
+        assertEquals(1, mEvents.size());
+        assertEquals("tap@500", mEvents.get(0));
+    }
+
+    @Test
+    public void firstAcceptWinsWithoutHold() {
+        final Recorder a = new Recorder(), b = new Recorder();
+        final TouchSample down = single(TouchSample.ACTION_DOWN, 0, 0, 0, 0);
+        assertTrue(mArena.enter(a, down));
+        assertTrue(mArena.enter(b, down));
+        assertTrue(mArena.accept(b));
+        assertEquals(1, a.rejected);
+        assertEquals(1, b.accepted);
+        assertFalse(mArena.accept(a));
+        assertFalse(mArena.enter(a, single(TouchSample.ACTION_MOVE, 0, 10, 0, 0)));
+        assertTrue(mArena.enter(b, single(TouchSample.ACTION_MOVE, 0, 10, 0, 0)));
+    }
+
+    @Test
+    public void holderAcceptEliminatesPendingMember() {
+        final Recorder holder = new Recorder(), a = new Recorder(), b = new Recorder();
+        final TouchSample down = single(TouchSample.ACTION_DOWN, 0, 0, 0, 0);
+        mArena.enter(holder, down);
+        mArena.enter(a, down);
+        mArena.enter(b, down);
+        mArena.hold(holder);
+        assertFalse(mArena.accept(a));
+        assertTrue(mArena.isPending(a));
+        // 已有等待者时之后的接受者立即出局
+        assertFalse(mArena.accept(b));
+        assertEquals(1, b.rejected);
+        assertTrue(mArena.accept(holder));
+        assertEquals(1, a.rejected);
+        assertEquals(0, a.accepted);
+        assertFalse(mArena.isPending(a));
+    }
+
+    @Test
+    public void releaseLetsPendingMemberWin() {
+        final Recorder holder = new Recorder(), a = new Recorder();
+        final TouchSample down = single(TouchSample.ACTION_DOWN, 0, 0, 0, 0);
+        mArena.enter(holder, down);
+        mArena.enter(a, down);
+        mArena.hold(holder);
+        assertFalse(mArena.accept(a));
+        assertNull(mArena.getWinner());
+        mArena.release(holder);
+        assertSame(a, mArena.getWinner());
+        assertEquals(1, a.accepted);
+        assertEquals(1, holder.rejected);
+    }
+
+    private static final class Recorder implements GestureArena.Member {
+
+        int accepted, rejected;
+
+        @Override
+        public void onArenaAccepted() {
+            accepted++;
+        }
+
+        @Override
+        public void onArenaRejected() {
+            rejected++;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static me.limeice.gesture.core.Samples.single;
+import static me.limeice.gesture.core.Samples.touch;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GestureLiteEngineTest {
+
+    private final List<String> mEvents = new ArrayList<>();
+    private final List<Long> mTimes = new ArrayList<>();
+    private float mScrollX;
+    private final List<Float> mTotalScales = new ArrayList<>();
+
+    private VirtualTimeScheduler mScheduler;
+    private GestureReplay mReplay;
+    private GestureLiteEngine mEngine;
+
+    @Before
+    public void setUp() {
+        mScheduler = new VirtualTimeScheduler();
+        mReplay = new GestureReplay(mScheduler);
+        mEngine = new GestureLiteEngine(new GestureLiteEngine.Callback() {
+            @Override
+            public boolean onDown(@NonNull TouchSample e) {
+                return true;
+            }
+
+            @Override
+            public void onTap(@NonNull TouchSample e) {
+                log("tap");
+            }
+
+            @Override
+            public void onDoubleTap(@NonNull TouchSample e) {
+                log("doubleTap");
+            }
+
+            @Override
+            public void onTapUp(@NonNull TouchSample e) {
+                log("tapUp");
+            }
+
+            @Override
+            public void onTapConfirmed(@NonNull TouchSample down) {
+                log("tapConfirmed");
+            }
+
+            @Override
+            public void onTapRevoked(@NonNull TouchSample down) {
+                log("tapRevoked");
+            }
+
+            @Override
+            public void onLongPress(@NonNull TouchSample down) {
+                log("longPress");
+            }
+
+            @Override
+            public boolean onScroll(@NonNull TouchSample down, @NonNull TouchSample e,
+                                    float distanceX, float distanceY) {
+                mScrollX += distanceX;
+                log("scroll");
+                return true;
+            }
+
+            @Override
+            public boolean onScale(float scale, float totalScale, float focusX, float focusY) {
+                mTotalScales.add(totalScale);
+                return true;
+            }
+
+            @Override
+            public boolean onFling(@NonNull TouchSample down, @NonNull TouchSample e,
+                                   float velocityX, float velocityY) {
+                log("fling");
+                return true;
+            }
+        }, mScheduler, mScheduler, new PointerVelocityEstimator());
+        mEngine.setSlop(8, 16).setFlingVelocity(50, 8000);
+    }
+
+    private void log(String event) {
+        mEvents.add(event);
+        mTimes.add(mScheduler.now());
+    }
+
+    @Test
+    public void tapIsReportedOnUpWithoutDoubleTap() {
+        mReplay.replay(mEngine,
+                single(TouchSample.ACTION_DOWN, 0, 0, 100, 100),
+                single(TouchSample.ACTION_UP, 0, 60, 101, 100));
+        assertEquals(1, mEvents.size());
+        assertEquals("tap", mEvents.get(0));
+        assertEquals(60L, (long) mTimes.get(0));
+    }
+
+    @Test
+    public void tapWaitsForDoubleTapTimeOut() {
+        mEngine.setDoubleTapEnable(true);
+        mReplay.replay(mEngine,
+                single(TouchSample.ACTION_DOWN, 0, 0, 100, 100),
+                single(TouchSample.ACTION_UP, 0, 60, 100, 100));
+        mScheduler.advanceTo(359);
+        assertTrue(mEvents.isEmpty());
+        mScheduler.advanceTo(360);
+        assertEquals(1, mEvents.size());
+        assertEquals("tap", mEvents.get(0));
+        assertEquals(360L, (long) mTimes.get(0));
+    }
+
+    @Test
+    public void secondTapWithinTimeOutIsDoubleTap() {
+        mEngine.setDoubleTapEnable(true);
+        mReplay.replay(mEngine,
+                single(TouchSample.ACTION_DOWN, 0, 0, 100, 100),
+                single(TouchSample.ACTION_UP, 0, 60, 100, 100),
+                single(TouchSample.ACTION_DOWN, 200, 200, 104, 102),
+                single(TouchSample.ACTION_UP, 200, 260, 104, 102));
+        mReplay.finish(1000);
+        assertEquals(1, mEvents.size());
+        assertEquals("doubleTap", mEvents.get(0));
+        assertEquals(0, mScheduler.pending());
+    }
+
+    @Test
+    public void secondTapAfterTimeOutIsTwoTaps() {
+        mEngine.setDoubleTapEnable(true);
+        mReplay.replay(mEngine,
+                single(TouchSample.ACTION_DOWN, 0, 0, 100, 100),
+                single(TouchSample.ACTION_UP, 0, 60, 100, 100),
+                single(TouchSample.ACTION_DOWN, 400, 400, 100, 100),
+                single(TouchSample.ACTION_UP, 400, 460, 100, 100));
+        mReplay.finish(1000);
+        assertEquals(2, mEvents.size());
+        assertEquals("tap", mEvents.get(0));
+        assertEquals("tap", mEvents.get(1));
+        assertEquals(360L, (long) mTimes.get(0));
+        assertEquals(760L, (long) mTimes.get(1));
+    }
+
+    @Test
+    public void speculativeTapIsConfirmedAfterTimeOut() {
+        mEngine.setDoubleTapEnable(true).setSpeculativeTapEnable(true);
+        mReplay.replay(mEngine,
+                single(TouchSample.ACTION_DOWN, 0, 0, 100, 100),
+                single(TouchSample.ACTION_UP, 0, 60, 100, 100));
+        assertEquals(Arrays.asList("tapUp"), mEvents);
+        assertEquals(60L, (long) mTimes.get(0));
+        mReplay.finish(1000);
+        assertEquals(Arrays.asList("tapUp", "tapConfirmed"), mEvents);
+        assertEquals(360L, (long) mTimes.get(1));
+    }
+
+    @Test
+    public void speculativeTapIsRevokedByDoubleTap() {
+        mEngine.setDoubleTapEnable(true).setSpeculativeTapEnable(true);
+        mReplay.replay(mEngine,
+                single(TouchSample.ACTION_DOWN, 0, 0, 100, 100),
+                single(TouchSample.ACTION_UP, 0, 60, 100, 100),
+                single(TouchSample.ACTION_DOWN, 200, 200, 104, 102),
+                single(TouchSample.ACTION_UP, 200, 260, 104, 102));
+        mReplay.finish(1000);
+        assertEquals(Arrays.asList("tapUp", "tapRevoked", "doubleTap"), mEvents);
+        assertEquals(200L, (long) mTimes.get(1));
+        assertEquals(0, mScheduler.pending());
+    }
+
+    @Test
+    public void eachSlowTapIsConfirmedOnItsOwn() {
+        mEngine.setDoubleTapEnable(true).setSpeculativeTapEnable(true);
+        mReplay.replay(mEngine,
+                single(TouchSample.ACTION_DOWN, 0, 0, 100, 100),
+                single(TouchSample.ACTION_UP, 0, 60, 100, 100),
+                single(TouchSample.ACTION_DOWN, 400, 400, 100, 100),
+                single(TouchSample.ACTION_UP, 400, 460, 100, 100));
+        mReplay.finish(1000);
+        assertEquals(Arrays.asList("tapUp", "tapConfirmed", "tapUp", "tapConfirmed"), mEvents);
+        assertEquals(360L, (long) mTimes.get(1));
+        assertEquals(760L, (long) mTimes.get(3));
+    }
+
+    @Test
+    public void cancelRevokesSpeculativeTap() {
+        mEngine.setDoubleTapEnable(true).setSpeculativeTapEnable(true);
+        mReplay.replay(mEngine,
+                single(TouchSample.ACTION_DOWN, 0, 0, 100, 100),
+                single(TouchSample.ACTION_UP, 0, 60, 100, 100),
+                single(TouchSample.ACTION_CANCEL, 0, 100, 100, 100));
+        mReplay.finish(1000);
+        assertEquals(Arrays.asList("tapUp", "tapRevoked"), mEvents);
+        assertEquals(100L, (long) mTimes.get(1));
+    }
+
+    @Test
+    public void speculativeTapNeedsDoubleTap() {
+        mEngine.setSpeculativeTapEnable(true);
+        mReplay.replay(mEngine,
+                single(TouchSample.ACTION_DOWN, 0, 0, 100, 100),
+                single(TouchSample.ACTION_UP, 0, 60, 100, 100));
+        assertEquals(Arrays.asList("tap"), mEvents);
+    }
+
+    @Test
+    public void longPressFiresAtTimeOut() {
+        mEngine.setLongPressEnable(true);
+        mReplay.replay(mEngine, single(TouchSample.ACTION_DOWN, 0, 0, 100, 100));
+        mScheduler.advanceTo(499);
+        assertTrue(mEvents.isEmpty());
+        mScheduler.advanceTo(500);
+        assertEquals(1, mEvents.size());
+        assertEquals("longPress", mEvents.get(0));
+        assertEquals(500L, (long) mTimes.get(0));
+    }
+
+    @Test
+    public void longPressIsMeasuredFromEventTime() {
+        mEngine.setLongPressEnable(true);
+        // 事件晚到 200ms
+        mScheduler.advanceTo(200);
+        mEngine.onTouchEvent(single(TouchSample.ACTION_DOWN, 0, 0, 100, 100));
+        mScheduler.advanceTo(500);
+        assertEquals(1, mEvents.size());
+        assertEquals(500L, (long) mTimes.get(0));
+    }
+
+    @Test
+    public void upBeforeTimeOutCancelsLongPress() {
+        mEngine.setLongPressEnable(true);
+        mReplay.replay(mEngine,
+                single(TouchSample.ACTION_DOWN, 0, 0, 100, 100),
+                single(TouchSample.ACTION_UP, 0, 300, 100, 100));
+        mReplay.finish(1000);
+        assertEquals(1, mEvents.size());
+        assertEquals("tap", mEvents.get(0));
+        assertEquals(0, mScheduler.pending());
+    }
+
+    @Test
+    public void scrollBeyondSlopCancelsTapAndLongPress() {
+        mEngine.setLongPressEnable(true).setScrollEnable(true);
+        mReplay.replay(mEngine,
+                single(TouchSample.ACTION_DOWN, 0, 0, 100, 100),
+                single(TouchSample.ACTION_MOVE, 0, 16, 130, 100),
+                single(TouchSample.ACTION_UP, 0, 300, 130, 100));
+        mReplay.finish(1000);
+        assertEquals(1, mEvents.size());
+        assertEquals("scroll", mEvents.get(0));
+        assertEquals(-30f, mScrollX, 0f);
+    }
+
+    @Test
+    public void scrollsAreCoalescedPerFrame() {
+        final ManualFrameSource frames = new ManualFrameSource();
+        mEngine.setScrollEnable(true).setFrameSource(frames);
+        mReplay.replay(mEngine,
+                single(TouchSample.ACTION_DOWN, 0, 0, 100, 100),
+                single(TouchSample.ACTION_MOVE, 0, 4, 120, 100),
+                single(TouchSample.ACTION_MOVE, 0, 8, 130, 100),
+                single(TouchSample.ACTION_MOVE, 0, 12, 140, 100));
+        assertTrue(mEvents.isEmpty());
+        assertTrue(frames.hasPendingFrame());
+        frames.frame(16_000_000L);
+        assertEquals(1, mEvents.size());
+        assertEquals(-40f, mScrollX, 0f);
+        assertFalse(frames.hasPendingFrame());
+    }
+
+    @Test
+    public void flingIsReportedOnFastUp() {
+        mEngine.setScrollEnable(true).setFlingEnable(true);
+        mEngine.onTouchEvent(single(TouchSample.ACTION_DOWN, 0, 0, 0, 0));
+        for (int t = 8; t <= 80; t += 8) {
+            mEngine.onTouchEvent(single(TouchSample.ACTION_MOVE, 0, t, t * 2, 0));
+        }
+        mEngine.onTouchEvent(single(TouchSample.ACTION_UP, 0, 84, 160, 0));
+        assertEquals("fling", mEvents.get(mEvents.size() - 1));
+    }
+
+    @Test
+    public void flingNeedsVelocityEstimator() {
+        mEngine.setVelocityEstimator(null).setScrollEnable(true).setFlingEnable(true);
+        mEngine.onTouchEvent(single(TouchSample.ACTION_DOWN, 0, 0, 0, 0));
+        mEngine.onTouchEvent(single(TouchSample.ACTION_MOVE, 0, 8, 16, 0));
+        mEngine.onTouchEvent(single(TouchSample.ACTION_UP, 0, 12, 24, 0));
+        assertFalse(mEvents.contains("fling"));
+
+        mEngine.setVelocityEstimator(new PointerVelocityEstimator());
+        flingIsReportedOnFastUp();
+    }
+
+    @Test
+    public void liftAfterStopIsNotFling() {
+        mEngine.setScrollEnable(true).setFlingEnable(true);
+        mEngine.onTouchEvent(single(TouchSample.ACTION_DOWN, 0, 0, 0, 0));
+        for (int t = 8; t <= 80; t += 8) {
+            mEngine.onTouchEvent(single(TouchSample.ACTION_MOVE, 0, t, t * 2, 0));
+        }
+        mEngine.onTouchEvent(single(TouchSample.ACTION_UP, 0, 400, 160, 0));
+        assertFalse(mEvents.contains("fling"));
+    }
+
+    @Test
+    public void totalScaleIsContinuousWhenThirdFingerLands() {
+        mEngine.setScaleEnable(true);
+        final int[] two = {0, 1}, three = {2, 0, 1};
+        mReplay.replay(mEngine,
+                single(TouchSample.ACTION_DOWN, 0, 0, 100, 100),
+                touch(TouchSample.ACTION_POINTER_DOWN | (1 << TouchSample.ACTION_POINTER_INDEX_SHIFT),
+                        0, 10, two, 100, 100, 200, 100),
+                touch(TouchSample.ACTION_MOVE, 0, 20, two, 100, 100, 300, 100),
+                // 第三个触点落在索引 0，前两个触点的间距由 200 变为约 70.7
+                touch(TouchSample.ACTION_POINTER_DOWN, 0, 30, three, 50, 50, 100, 100, 300, 100),
+                touch(TouchSample.ACTION_MOVE, 0, 40, three, 0, 0, 100, 100, 300, 100),
+                // 第三个触点抬起，前两个触点的间距恢复为 200
+                touch(TouchSample.ACTION_POINTER_UP, 0, 50, three, 0, 0, 100, 100, 300, 100),
+                touch(TouchSample.ACTION_MOVE, 0, 60, two, 100, 100, 200, 100));
+        assertEquals(3, mTotalScales.size());
+        assertEquals(2f, mTotalScales.get(0), 1e-4f);
+        assertEquals(4f, mTotalScales.get(1), 1e-4f);
+        assertEquals(2f, mTotalScales.get(2), 1e-4f);
+    }
+
+    @Test
+    public void totalScaleRestartsWithNewPinch() {
+        mEngine.setScaleEnable(true);
+        final int[] two = {0, 1};
+        mReplay.replay(mEngine,
+                single(TouchSample.ACTION_DOWN, 0, 0, 100, 100),
+                touch(TouchSample.ACTION_POINTER_DOWN | (1 << TouchSample.ACTION_POINTER_INDEX_SHIFT),
+                        0, 10, two, 100, 100, 200, 100),
+                touch(TouchSample.ACTION_MOVE, 0, 20, two, 100, 100, 300, 100),
+                touch(TouchSample.ACTION_POINTER_UP | (1 << TouchSample.ACTION_POINTER_INDEX_SHIFT),
+                        0, 30, two, 100, 100, 300, 100),
+                touch(TouchSample.ACTION_POINTER_DOWN | (1 << TouchSample.ACTION_POINTER_INDEX_SHIFT),
+                        0, 40, two, 100, 100, 200, 100),
+                touch(TouchSample.ACTION_MOVE, 0, 50, two, 100, 100, 250, 100));
+        assertEquals(2, mTotalScales.size());
+        assertEquals(2f, mTotalScales.get(0), 1e-4f);
+        assertEquals(1.5f, mTotalScales.get(1), 1e-4f);
+    }
+}
@@ -0,0 +1,207 @@
+package me.limeice.gesture.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static me.limeice.gesture.core.Samples.pair;
+import static me.limeice.gesture.core.Samples.single;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GestureMachineTest {
+
+    private static final int TAP = 1;
+    private static final int DRAG = 2;
+    private static final int TRIPLE_TAP = 3;
+
+    /**
+     * 单击在抬起后 300ms 内没有再次按下时成立，拖动超出阈值后逐事件发出
+     */
+    private static final GestureMachine.Table TAP_OR_DRAG = new GestureMachine.Builder()
+            .state("idle").on(GestureMachine.DOWN, "down")
+            .state("down").on(GestureMachine.UP, "up").on(GestureMachine.SLOP, "drag", DRAG)
+            .state("up").timeout(300).on(GestureMachine.TIMEOUT, "idle", TAP)
+            .state("drag").on(GestureMachine.MOVE, "drag", DRAG).on(GestureMachine.UP, "idle")
+            .build();
+
+    private static final GestureMachine.Table TRIPLE = new GestureMachine.Builder()
+            .state("idle").on(GestureMachine.DOWN, "down1")
+            .state("down1").timeout(300).on(GestureMachine.UP, "up1")
+            .state("up1").timeout(300).on(GestureMachine.DOWN, "down2")
+            .state("down2").timeout(300).on(GestureMachine.UP, "up2")
+            .state("up2").timeout(300).on(GestureMachine.DOWN, "down3")
+            .state("down3").timeout(300).on(GestureMachine.UP, "idle", TRIPLE_TAP)
+            .build();
+
+    private final List<String> mEvents = new ArrayList<>();
+
+    private VirtualTimeScheduler mScheduler;
+    private TouchSample mLast;
+
+    @Before
+    public void setUp() {
+        mScheduler = new VirtualTimeScheduler();
+    }
+
+    private GestureMachine machine(GestureMachine.Table table) {
+        return new GestureMachine(table, (gesture, e) -> {
+            mEvents.add(gesture + "@" + mScheduler.now());
+            mLast = e;
+            return true;
+        }, mScheduler, mScheduler).setTouchSlop(8);
+    }
+
+    private boolean dispatch(GestureMachine machine, TouchSample e) {
+        mScheduler.advanceTo(e.getEventTime());
+        return machine.onTouchEvent(e);
+    }
+
+    private void tap(GestureMachine machine, long down) {
+        dispatch(machine, single(TouchSample.ACTION_DOWN, down, down, 10, 10));
+        dispatch(machine, single(TouchSample.ACTION_UP, down, down + 50, 10, 10));
+    }
+
+    @Test
+    public void tableDescribesStates() {
+        assertEquals(4, TAP_OR_DRAG.getStateCount());
+        assertEquals(2, TAP_OR_DRAG.indexOf("up"));
+        assertEquals("drag", TAP_OR_DRAG.getStateName(3));
+        assertEquals(-1, TAP_OR_DRAG.indexOf("missing"));
+        assertFalse(TAP_OR_DRAG.isMultiSequence());
+        assertTrue(TRIPLE.isMultiSequence());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void undeclaredTargetIsRejected() {
+        new GestureMachine.Builder().state("idle").on(GestureMachine.DOWN, "down").build();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void transitionBeforeStateIsRejected() {
+        new GestureMachine.Builder().on(GestureMachine.DOWN, "idle");
+    }
+
+    @Test
+    public void invalidArgumentsAreRejected() {
+        final GestureMachine.Builder builder = new GestureMachine.Builder().state("idle");
+        int rejected = 0;
+        try {
+            builder.on(8, "idle");
+        } catch (IllegalArgumentException e) {
+            rejected++;
+        }
+        try {
+            builder.on(GestureMachine.DOWN, "idle", 0xffff);
+        } catch (IllegalArgumentException e) {
+            rejected++;
+        }
+        try {
+            builder.timeout(-1);
+        } catch (IllegalArgumentException e) {
+            rejected++;
+        }
+        assertEquals(3, rejected);
+    }
+
+    @Test
+    public void tripleTapFiresOnThirdUp() {
+        final GestureMachine machine = machine(TRIPLE);
+        tap(machine, 0);
+        tap(machine, 150);
+        assertEquals(TRIPLE.indexOf("up2"), machine.getState());
+        tap(machine, 300);
+        assertEquals(1, mEvents.size());
+        assertEquals(TRIPLE_TAP + "@350", mEvents.get(0));
+        assertEquals(0, machine.getState());
+        assertEquals(0, mScheduler.pending());
+    }
+
+    @Test
+    public void timeoutReturnsToStart() {
+        final GestureMachine machine = machine(TRIPLE);
+        tap(machine, 0);
+        tap(machine, 150);
+        mScheduler.advanceBy(400);
+        assertEquals(0, machine.getState());
+        // 超时后重新计数，再两次单击不足以成立
+        tap(machine, 1000);
+        tap(machine, 1150);
+        assertTrue(mEvents.isEmpty());
+    }
+
+    @Test
+    public void undefinedInputRetriesFromStart() {
+        final GestureMachine machine = machine(TAP_OR_DRAG);
+        tap(machine, 0);
+        assertEquals(TAP_OR_DRAG.indexOf("up"), machine.getState());
+        // "up" 未定义按下：回到起始状态后作为新一轮的按下处理
+        tap(machine, 200);
+        assertEquals(TAP_OR_DRAG.indexOf("up"), machine.getState());
+        assertTrue(mEvents.isEmpty());
+        mScheduler.advanceBy(1000);
+        assertEquals(1, mEvents.size());
+        assertEquals(TAP + "@550", mEvents.get(0));
+        // 超时以最近一次按下采样发出
+        assertEquals(200, mLast.getEventTime());
+        assertEquals(2, machine.getDownGeneration());
+    }
+
+    @Test
+    public void undefinedInputWithoutStartTransitionFails() {
+        final GestureMachine machine = machine(TRIPLE);
+        dispatch(machine, single(TouchSample.ACTION_DOWN, 0, 0, 10, 10));
+        assertFalse(dispatch(machine, single(TouchSample.ACTION_CANCEL, 0, 10, 10, 10)));
+        assertEquals(0, machine.getState());
+        assertEquals(0, mScheduler.pending());
+    }
+
+    @Test
+    public void slopSeparatesMoveFromDrag() {
+        final GestureMachine machine = machine(TAP_OR_DRAG);
+        dispatch(machine, single(TouchSample.ACTION_DOWN, 0, 0, 10, 10));
+        // 阈值内的移动未定义，保持当前状态
+        assertTrue(dispatch(machine, single(TouchSample.ACTION_MOVE, 0, 10, 15, 10)));
+        assertEquals(TAP_OR_DRAG.indexOf("down"), machine.getState());
+        dispatch(machine, single(TouchSample.ACTION_MOVE, 0, 20, 30, 10));
+        assertEquals(TAP_OR_DRAG.indexOf("drag"), machine.getState());
+        dispatch(machine, single(TouchSample.ACTION_MOVE, 0, 30, 34, 13));
+        assertEquals(4, machine.getDeltaX(), 0);
+        assertEquals(3, machine.getDeltaY(), 0);
+        dispatch(machine, single(TouchSample.ACTION_UP, 0, 40, 34, 13));
+        assertEquals(2, mEvents.size());
+        assertEquals(DRAG + "@20", mEvents.get(0));
+        assertEquals(DRAG + "@30", mEvents.get(1));
+        assertEquals(0, machine.getState());
+        mScheduler.advanceBy(1000);
+        assertEquals(2, mEvents.size());
+    }
+
+    @Test
+    public void pointerDownJumpsFocusWithoutDelta() {
+        final GestureMachine machine = machine(TAP_OR_DRAG);
+        dispatch(machine, single(TouchSample.ACTION_DOWN, 0, 0, 0, 0));
+        // 第二指按下使重心跳到 (50, 0)，不计为超出阈值
+        dispatch(machine, pair(TouchSample.ACTION_POINTER_DOWN | (1 << TouchSample.ACTION_POINTER_INDEX_SHIFT),
+                0, 10, 0, 0, 100, 0));
+        assertEquals(50, machine.getFocusX(), 0);
+        assertEquals(0, machine.getDeltaX(), 0);
+        // 第二指按下在 "down" 中未定义，回到起始状态
+        assertEquals(0, machine.getState());
+    }
+
+    @Test
+    public void resetCancelsPendingTimeout() {
+        final GestureMachine machine = machine(TAP_OR_DRAG);
+        tap(machine, 0);
+        assertEquals(1, mScheduler.pending());
+        machine.reset();
+        assertEquals(0, machine.getState());
+        assertEquals(0, mScheduler.pending());
+        mScheduler.advanceBy(1000);
+        assertTrue(mEvents.isEmpty());
+    }
+}
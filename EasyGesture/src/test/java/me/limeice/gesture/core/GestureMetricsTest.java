@@ -0,0 +1,64 @@
+package me.limeice.gesture.core;
+
+import org.junit.Test;
+
+import static me.limeice.gesture.core.Samples.single;
+import static org.junit.Assert.assertEquals;
+
+public class GestureMetricsTest {
+
+    private final GestureMetrics mMetrics = new GestureMetrics();
+
+    private void stroke(long down, long up, int action) {
+        for (long t = down; t <= up; t += 10) {
+            final int a = t == down ? TouchSample.ACTION_DOWN : t + 10 > up ? action : TouchSample.ACTION_MOVE;
+            mMetrics.recordEvent(single(a, down, t, 0, 0));
+        }
+    }
+
+    /**
+     * 两次手势之间的空闲时间不计入事件频率
+     */
+    @Test
+    public void eventsPerSecondIgnoresIdleTime() {
+        stroke(1000, 1100, TouchSample.ACTION_UP);
+        stroke(60000, 60100, TouchSample.ACTION_CANCEL);
+        final GestureMetrics.Snapshot snapshot = mMetrics.snapshot();
+        assertEquals(22, snapshot.getEventCount());
+        assertEquals(2, snapshot.getDownCount());
+        assertEquals(1, snapshot.getCancelCount());
+        assertEquals(200, snapshot.getActiveDuration());
+        assertEquals(110, snapshot.getEventsPerSecond(), 1e-9);
+    }
+
+    @Test
+    public void openSequenceCountsToLastEvent() {
+        stroke(1000, 1100, TouchSample.ACTION_UP);
+        mMetrics.recordEvent(single(TouchSample.ACTION_DOWN, 5000, 5000, 0, 0));
+        mMetrics.recordEvent(single(TouchSample.ACTION_MOVE, 5000, 5050, 0, 0));
+        assertEquals(150, mMetrics.snapshot().getActiveDuration());
+        // 未结束的序列被新的按下替代
+        stroke(9000, 9100, TouchSample.ACTION_UP);
+        assertEquals(200, mMetrics.snapshot().getActiveDuration());
+        mMetrics.reset();
+        assertEquals(0, mMetrics.snapshot().getActiveDuration());
+        assertEquals(0, mMetrics.snapshot().getEventsPerSecond(), 0);
+    }
+
+    @Test
+    public void callbacksAreCountedPerMethod() {
+        final long[] now = {0};
+        final GestureMetrics metrics = new GestureMetrics(() -> now[0]);
+        now[0] = 5_000_000;
+        final long begin = metrics.beginCallback(3);
+        now[0] += 700;
+        assertEquals(700, metrics.endCallback(GestureMetrics.TAP, begin));
+        metrics.beginCallback(-1);
+        final GestureMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getRecognizedCount(GestureMetrics.TAP));
+        assertEquals(0, snapshot.getRecognizedCount(GestureMetrics.SCROLL));
+        // 超时触发的回调不记录延迟
+        assertEquals(1, snapshot.getLatency().getCount());
+        assertEquals(2_000_000, snapshot.getLatency().getMax());
+    }
+}
@@ -0,0 +1,222 @@
+package me.limeice.gesture.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static me.limeice.gesture.core.Samples.single;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class GesturePipelineTest {
+
+    private static final int TIMEOUT = 1;
+
+    private final AtomicLong mNow = new AtomicLong();
+    private final BlockingQueue<Runnable> mBatches = new LinkedBlockingQueue<>();
+    private final List<String> mEvents = Collections.synchronizedList(new ArrayList<>());
+
+    private GesturePipeline mPipeline;
+
+    @Before
+    public void setUp() {
+        // 投递执行器只收下批次，由测试线程执行
+        mPipeline = new GesturePipeline(mNow::get, mBatches::add, SampleRing.MIN_CAPACITY);
+    }
+
+    @After
+    public void tearDown() {
+        mPipeline.quit();
+    }
+
+    /**
+     * 在识别线程中执行命令并等待其完成
+     */
+    private void sync() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        mPipeline.execute(latch::countDown);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 占住识别线程，返回后提交的采样在放行前都积压在队列中
+     */
+    private CountDownLatch block() throws InterruptedException {
+        final CountDownLatch entered = new CountDownLatch(1), gate = new CountDownLatch(1);
+        mPipeline.execute(() -> {
+            entered.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        return gate;
+    }
+
+    private Runnable nextBatch() throws InterruptedException {
+        final Runnable batch = mBatches.poll(5, TimeUnit.SECONDS);
+        assertNotNull(batch);
+        return batch;
+    }
+
+    @Test
+    public void commandsKeepSubmissionOrder() throws InterruptedException {
+        final int target = mPipeline.register(e -> {
+            mEvents.add((mPipeline.isPipelineThread() ? "e" : "wrong thread ") + e.getEventTime());
+            return true;
+        });
+        mPipeline.submit(target, single(TouchSample.ACTION_DOWN, 0, 0, 0, 0));
+        mPipeline.execute(() -> mEvents.add("command"));
+        mPipeline.submit(target, single(TouchSample.ACTION_MOVE, 0, 10, 5, 0));
+        sync();
+        assertEquals(3, mEvents.size());
+        assertEquals("e0", mEvents.get(0));
+        assertEquals("command", mEvents.get(1));
+        assertEquals("e10", mEvents.get(2));
+        assertFalse(mPipeline.isPipelineThread());
+    }
+
+    @Test
+    public void backlogIsDeliveredAsOneBatch() throws InterruptedException {
+        final List<GesturePipeline.Delivery> received = new ArrayList<>();
+        final GesturePipeline.Receiver receiver = received::add;
+        final int target = mPipeline.register(e -> {
+            mPipeline.obtain(receiver, e.getActionMasked()).setValue(0, e.getX());
+            return true;
+        });
+        sync();
+        final CountDownLatch gate = block();
+        mPipeline.submit(target, single(TouchSample.ACTION_DOWN, 0, 0, 1, 0));
+        mPipeline.submit(target, single(TouchSample.ACTION_MOVE, 0, 10, 2, 0));
+        mPipeline.submit(target, single(TouchSample.ACTION_UP, 0, 20, 3, 0));
+        gate.countDown();
+        sync();
+
+        nextBatch().run();
+        assertNull(mBatches.poll());
+        assertEquals(3, received.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i * 10, received.get(i).getEventTime());
+            assertEquals(i + 1, received.get(i).getValue(0), 0);
+        }
+        assertEquals(TouchSample.ACTION_UP, received.get(2).getWhat());
+
+        // 投递完成的批次与其中的结果对象被复用
+        final GesturePipeline.Delivery first = received.get(0);
+        received.clear();
+        mPipeline.submit(target, single(TouchSample.ACTION_DOWN, 100, 100, 4, 0));
+        sync();
+        nextBatch().run();
+        assertSame(first, received.get(0));
+        assertEquals(4, first.getValue(0), 0);
+    }
+
+    @Test
+    public void busyBatchIsNotReused() throws InterruptedException {
+        final List<GesturePipeline.Delivery> received = new ArrayList<>();
+        final int target = mPipeline.register(e -> {
+            mPipeline.obtain(received::add, 0).setValue(0, e.getX());
+            return true;
+        });
+        mPipeline.submit(target, single(TouchSample.ACTION_DOWN, 0, 0, 1, 0));
+        sync();
+        final Runnable pending = nextBatch();
+        // 第一批尚未投递，第二批使用另一组结果对象
+        mPipeline.submit(target, single(TouchSample.ACTION_UP, 0, 10, 2, 0));
+        sync();
+        nextBatch().run();
+        pending.run();
+        assertEquals(2, received.size());
+        assertEquals(2, received.get(0).getValue(0), 0);
+        assertEquals(1, received.get(1).getValue(0), 0);
+    }
+
+    @Test
+    public void backloggedUpPrecedesExpiredTimeout() throws InterruptedException {
+        final Detector detector = new Detector();
+        final int target = mPipeline.register(detector);
+        mPipeline.submit(target, single(TouchSample.ACTION_DOWN, 0, 0, 0, 0));
+        sync();
+        final CountDownLatch gate = block();
+        // 识别线程被占住期间超时已到期，抬起仍应先于超时处理
+        mNow.set(500);
+        mPipeline.submit(target, single(TouchSample.ACTION_UP, 0, 50, 0, 0));
+        gate.countDown();
+        sync();
+        assertEquals(2, mEvents.size());
+        assertEquals("down", mEvents.get(0));
+        assertEquals("up", mEvents.get(1));
+    }
+
+    @Test
+    public void timeoutFiresOnPipelineThread() throws InterruptedException {
+        final Detector detector = new Detector();
+        final List<GesturePipeline.Delivery> received = new ArrayList<>();
+        detector.receiver = received::add;
+        final int target = mPipeline.register(detector);
+        mPipeline.submit(target, single(TouchSample.ACTION_DOWN, 0, 0, 0, 0));
+        sync();
+        mNow.set(500);
+        assertTrue(detector.fired.await(5, TimeUnit.SECONDS));
+        nextBatch().run();
+        assertEquals(1, received.size());
+        assertEquals(TIMEOUT, received.get(0).getWhat());
+        assertEquals(-1, received.get(0).getEventTime());
+    }
+
+    @Test
+    public void fullQueueDropsSamples() throws InterruptedException {
+        final int target = mPipeline.register(e -> true);
+        final CountDownLatch gate = block();
+        int dropped = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (!mPipeline.submit(target, single(TouchSample.ACTION_MOVE, 0, i, i, 0))) dropped++;
+        }
+        gate.countDown();
+        assertTrue(dropped > 0);
+        assertEquals(dropped, mPipeline.getDroppedCount());
+    }
+
+    /**
+     * 按下后 100ms 超时，抬起取消超时
+     */
+    private final class Detector implements SampleDetector, GestureScheduler.Target {
+
+        final CountDownLatch fired = new CountDownLatch(1);
+        GesturePipeline.Receiver receiver;
+
+        @Override
+        public boolean onTouchEvent(TouchSample e) {
+            if (e.getActionMasked() == TouchSample.ACTION_DOWN) {
+                mEvents.add("down");
+                mPipeline.getScheduler().schedule(this, TIMEOUT, 100);
+            } else if (e.getActionMasked() == TouchSample.ACTION_UP) {
+                mEvents.add("up");
+                mPipeline.getScheduler().cancel(this, TIMEOUT);
+            }
+            return true;
+        }
+
+        @Override
+        public void onTimeout(int what) {
+            mEvents.add("timeout");
+            if (receiver != null) mPipeline.obtain(receiver, what);
+            fired.countDown();
+        }
+    }
+}
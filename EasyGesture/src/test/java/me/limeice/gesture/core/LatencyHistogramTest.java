@@ -0,0 +1,67 @@
+package me.limeice.gesture.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void smallValuesHaveOwnBuckets() {
+        for (int v = 0; v < 8; v++) {
+            assertEquals(v, LatencyHistogram.bucketOf(v));
+            assertEquals(v, LatencyHistogram.upperBound(v));
+        }
+        assertEquals(8, LatencyHistogram.bucketOf(8));
+        assertEquals(8, LatencyHistogram.upperBound(8));
+        assertEquals(15, LatencyHistogram.bucketOf(15));
+        // 16 起每个桶宽度翻倍
+        assertEquals(16, LatencyHistogram.bucketOf(16));
+        assertEquals(16, LatencyHistogram.bucketOf(17));
+        assertEquals(17, LatencyHistogram.upperBound(16));
+    }
+
+    @Test
+    public void everyValueFallsBelowItsUpperBound() {
+        int last = 0;
+        for (long v = 0; v < 1L << 37; v = v < 64 ? v + 1 : v + v / 7) {
+            final int bucket = LatencyHistogram.bucketOf(v);
+            assertTrue(bucket >= last);
+            assertTrue(v <= LatencyHistogram.upperBound(bucket));
+            if (bucket > 0) assertTrue(v > LatencyHistogram.upperBound(bucket - 1));
+            // 相对误差不超过 12.5%，最后一个桶同时收纳溢出值，上界不定
+            if (bucket < LatencyHistogram.BUCKETS - 1)
+                assertTrue(LatencyHistogram.upperBound(bucket) - v <= v / 8 + 1);
+            last = bucket;
+        }
+    }
+
+    @Test
+    public void rangeEndsAt137Seconds() {
+        final long limit = 1L << 37;
+        assertTrue(LatencyHistogram.bucketOf(limit - 1) < LatencyHistogram.BUCKETS);
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(limit));
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(LatencyHistogram.BUCKETS - 1));
+        assertTrue(LatencyHistogram.bucketOf(limit / 2) < LatencyHistogram.BUCKETS - 1);
+    }
+
+    @Test
+    public void snapshotPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int v = 1; v <= 100; v++) histogram.record(v * 1000L);
+        histogram.record(-5);
+        final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(101, snapshot.getCount());
+        assertEquals(100000, snapshot.getMax());
+        assertEquals(1, snapshot.getBucketCount(0));
+        // 分位数取桶上界，误差不超过 12.5%
+        final long p50 = snapshot.getPercentile(50);
+        assertTrue(p50 >= 50000 && p50 <= 50000 * 9 / 8);
+        assertEquals(100000, snapshot.getPercentile(100));
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().getCount());
+        assertEquals(0, histogram.snapshot().getPercentile(99));
+    }
+}
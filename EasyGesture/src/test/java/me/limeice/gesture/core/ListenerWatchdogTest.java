@@ -0,0 +1,155 @@
+package me.limeice.gesture.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ListenerWatchdogTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final List<String> mReports = new ArrayList<>();
+    private final Object mFast = new Object();
+    private final Runnable mSlow = () -> {
+    };
+
+    private long mNow;
+    private ListenerWatchdog mWatchdog;
+    private Copy mLast;
+
+    @Before
+    public void setUp() {
+        mWatchdog = new ListenerWatchdog(report -> {
+            mLast = new Copy(report);
+            mReports.add(report.toString());
+        }, () -> mNow);
+    }
+
+    /**
+     * 模拟一次耗时给定毫秒数的回调
+     */
+    private void call(int callback, Object listener, long millis) {
+        final long begin = mWatchdog.now();
+        mNow += millis * MS;
+        mWatchdog.end(callback, listener, begin);
+    }
+
+    @Test
+    public void callsWithinBudgetAreNotReported() {
+        for (int i = 0; i < 10; i++) call(GestureMetrics.DRAG, mFast, 8);
+        mWatchdog.onSequenceEnd();
+        assertTrue(mReports.isEmpty());
+    }
+
+    @Test
+    public void overrunsAreAggregatedPerCallbackAndListener() {
+        call(GestureMetrics.DOWN, mFast, 1);
+        call(GestureMetrics.DRAG, mFast, 10);
+        call(GestureMetrics.DRAG, mFast, 2);
+        call(GestureMetrics.DRAG, mSlow, 30);
+        call(GestureMetrics.DRAG, mFast, 12);
+        call(GestureMetrics.TAP, mSlow, 9);
+        mWatchdog.onSequenceEnd();
+
+        assertEquals(1, mReports.size());
+        final Copy report = mLast;
+        assertEquals(ListenerWatchdog.DEFAULT_BUDGET, report.budget);
+        assertEquals(64 * MS, report.duration);
+        // 按超时总耗时从大到小排列
+        assertEquals(3, report.callbacks.length);
+        assertEquals(GestureMetrics.DRAG, report.callbacks[0]);
+        assertSame(mSlow.getClass(), report.listeners[0]);
+        assertEquals(30 * MS, report.total[0]);
+
+        assertEquals(GestureMetrics.DRAG, report.callbacks[1]);
+        assertSame(Object.class, report.listeners[1]);
+        assertEquals(2, report.overruns[1]);
+        assertEquals(12 * MS, report.max[1]);
+        assertEquals(22 * MS, report.total[1]);
+        // 回调次数按监听器方法统计，含未超时的
+        assertEquals(4, report.calls[1]);
+
+        assertEquals(GestureMetrics.TAP, report.callbacks[2]);
+        assertEquals(1, report.calls[2]);
+        assertTrue(mReports.get(0).contains(mSlow.getClass().getName()));
+    }
+
+    @Test
+    public void eachPeriodStartsEmpty() {
+        call(GestureMetrics.SCROLL, mFast, 20);
+        mWatchdog.onSequenceEnd();
+        mNow += 1000 * MS;
+        call(GestureMetrics.SCROLL, mFast, 2);
+        call(GestureMetrics.FLING, mFast, 10);
+        mWatchdog.onSequenceEnd();
+
+        assertEquals(2, mReports.size());
+        assertEquals(1, mLast.callbacks.length);
+        assertEquals(GestureMetrics.FLING, mLast.callbacks[0]);
+        assertEquals(1, mLast.overruns[0]);
+        assertEquals(12 * MS, mLast.duration);
+    }
+
+    @Test
+    public void longSequenceIsReportedByInterval() {
+        mWatchdog.setReportInterval(100 * MS).setBudget(5 * MS);
+        for (int i = 0; i < 9; i++) call(GestureMetrics.DRAG, mFast, 10);
+        assertTrue(mReports.isEmpty());
+        call(GestureMetrics.DRAG, mFast, 10);
+        assertEquals(1, mReports.size());
+        assertEquals(10, mLast.overruns[0]);
+        assertEquals(5 * MS, mLast.budget);
+        assertEquals(100 * MS, mLast.duration);
+        // 周期已重置，手势结束时没有新的超时可报告
+        mWatchdog.onSequenceEnd();
+        assertEquals(1, mReports.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveBudgetIsRejected() {
+        mWatchdog.setBudget(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveIntervalIsRejected() {
+        mWatchdog.setReportInterval(-1);
+    }
+
+    /**
+     * 报告在回调返回后复用，回调中复制一份
+     */
+    private static final class Copy {
+
+        final long budget, duration;
+        final int[] callbacks, overruns, calls;
+        final long[] max, total;
+        final Class<?>[] listeners;
+
+        Copy(ListenerWatchdog.Report report) {
+            final int size = report.size();
+            budget = report.getBudget();
+            duration = report.getDuration();
+            callbacks = new int[size];
+            overruns = new int[size];
+            calls = new int[size];
+            max = new long[size];
+            total = new long[size];
+            listeners = new Class<?>[size];
+            for (int i = 0; i < size; i++) {
+                callbacks[i] = report.getCallback(i);
+                overruns[i] = report.getOverrunCount(i);
+                calls[i] = report.getCallCount(i);
+                max[i] = report.getMaxDuration(i);
+                total[i] = report.getTotalDuration(i);
+                listeners[i] = report.getListenerClass(i);
+            }
+        }
+    }
+}
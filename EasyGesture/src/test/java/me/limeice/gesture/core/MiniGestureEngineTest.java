@@ -0,0 +1,108 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static me.limeice.gesture.core.Samples.moveWithHistory;
+import static me.limeice.gesture.core.Samples.single;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MiniGestureEngineTest {
+
+    private final List<String> mEvents = new ArrayList<>();
+    private final List<Long> mTimes = new ArrayList<>();
+    private float mDragX;
+
+    private VirtualTimeScheduler mScheduler;
+    private GestureReplay mReplay;
+    private MiniGestureEngine mEngine;
+
+    @Before
+    public void setUp() {
+        mScheduler = new VirtualTimeScheduler();
+        mReplay = new GestureReplay(mScheduler);
+        mEngine = new MiniGestureEngine(new MiniGestureEngine.Callback() {
+            @Override
+            public void onDrag(@NonNull TouchSample e, float dx, float dy) {
+                mDragX += dx;
+                log("drag");
+            }
+
+            @Override
+            public void onLongPress(@NonNull TouchSample down) {
+                log("longPress");
+            }
+
+            @Override
+            public void onTap(@NonNull TouchSample e) {
+                log("tap");
+            }
+        }, mScheduler, mScheduler);
+        mEngine.setTouchSlop(8);
+    }
+
+    private void log(String event) {
+        mEvents.add(event);
+        mTimes.add(mScheduler.now());
+    }
+
+    @Test
+    public void tapIsReportedOnUp() {
+        mReplay.replay(mEngine,
+                single(TouchSample.ACTION_DOWN, 0, 0, 50, 50),
+                single(TouchSample.ACTION_MOVE, 0, 30, 53, 52),
+                single(TouchSample.ACTION_UP, 0, 80, 53, 52));
+        mReplay.finish(1000);
+        assertEquals(1, mEvents.size());
+        assertEquals("tap", mEvents.get(0));
+        assertEquals(80L, (long) mTimes.get(0));
+        assertEquals(0, mScheduler.pending());
+    }
+
+    @Test
+    public void longPressFiresAtTimeOut() {
+        mEngine.setLongPressTimeOut(400);
+        mReplay.replay(mEngine, single(TouchSample.ACTION_DOWN, 0, 0, 50, 50));
+        mScheduler.advanceTo(399);
+        assertTrue(mEvents.isEmpty());
+        mScheduler.advanceTo(400);
+        assertEquals(1, mEvents.size());
+        assertEquals("longPress", mEvents.get(0));
+        assertEquals(400L, (long) mTimes.get(0));
+
+        // 长按之后的抬起不再视为单击
+        mReplay.replay(mEngine, single(TouchSample.ACTION_UP, 0, 600, 50, 50));
+        assertEquals(1, mEvents.size());
+    }
+
+    @Test
+    public void dragBeyondSlopCancelsLongPress() {
+        mReplay.replay(mEngine,
+                single(TouchSample.ACTION_DOWN, 0, 0, 50, 50),
+                single(TouchSample.ACTION_MOVE, 0, 16, 70, 50),
+                single(TouchSample.ACTION_MOVE, 0, 32, 90, 50));
+        mReplay.finish(1000);
+        assertEquals(2, mEvents.size());
+        assertEquals("drag", mEvents.get(0));
+        assertEquals("drag", mEvents.get(1));
+        assertEquals(40f, mDragX, 0f);
+        assertEquals(0, mScheduler.pending());
+    }
+
+    @Test
+    public void predictionUsesHistory() {
+        mEngine.setPredictionTime(16);
+        mReplay.replay(mEngine,
+                single(TouchSample.ACTION_DOWN, 0, 0, 0, 0),
+                moveWithHistory(0, 0, 32, 3, 0, 0, 32, 0));
+        // 匀速 1px/ms，16ms 后约在 48
+        assertEquals(48f, mEngine.getPredictedX(), 2f);
+        assertEquals(0f, mEngine.getPredictedY(), 0.5f);
+    }
+}
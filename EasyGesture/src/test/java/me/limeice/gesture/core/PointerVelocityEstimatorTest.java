@@ -0,0 +1,138 @@
+package me.limeice.gesture.core;
+
+import org.junit.Test;
+
+import static me.limeice.gesture.core.Samples.moveWithHistory;
+import static me.limeice.gesture.core.Samples.pair;
+import static me.limeice.gesture.core.Samples.single;
+import static org.junit.Assert.assertEquals;
+
+public class PointerVelocityEstimatorTest {
+
+    private static final int[] STRATEGIES = {
+            PointerVelocityEstimator.STRATEGY_LSQ1,
+            PointerVelocityEstimator.STRATEGY_LSQ2,
+            PointerVelocityEstimator.STRATEGY_IMPULSE
+    };
+
+    /**
+     * 以 1000 像素/秒横向、-500 像素/秒纵向匀速滑动
+     */
+    private static void swipe(VelocityEstimator velocity) {
+        velocity.addMovement(single(TouchSample.ACTION_DOWN, 0, 0, 0, 0));
+        for (int t = 8; t <= 96; t += 8) {
+            velocity.addMovement(single(TouchSample.ACTION_MOVE, 0, t, t, -t / 2f));
+        }
+    }
+
+    @Test
+    public void constantVelocityForEveryStrategy() {
+        for (int strategy : STRATEGIES) {
+            final PointerVelocityEstimator velocity = new PointerVelocityEstimator(strategy);
+            swipe(velocity);
+            velocity.computeCurrentVelocity(1000, Float.MAX_VALUE);
+            assertEquals("strategy " + strategy, 1000f, velocity.getXVelocity(0), 20f);
+            assertEquals("strategy " + strategy, -500f, velocity.getYVelocity(0), 20f);
+        }
+    }
+
+    @Test
+    public void velocityIsClampedToMax() {
+        for (int strategy : STRATEGIES) {
+            final PointerVelocityEstimator velocity = new PointerVelocityEstimator(strategy);
+            swipe(velocity);
+            velocity.computeCurrentVelocity(1000, 300);
+            assertEquals("strategy " + strategy, 300f, velocity.getXVelocity(0), 0f);
+            assertEquals("strategy " + strategy, -300f, velocity.getYVelocity(0), 0f);
+        }
+    }
+
+    @Test
+    public void historyIsIncluded() {
+        for (int strategy : STRATEGIES) {
+            final PointerVelocityEstimator velocity = new PointerVelocityEstimator(strategy);
+            velocity.addMovement(single(TouchSample.ACTION_DOWN, 0, 0, 0, 0));
+            velocity.addMovement(moveWithHistory(0, 0, 64, 7, 0, 0, 128, 0));
+            velocity.computeCurrentVelocity(1000, Float.MAX_VALUE);
+            assertEquals("strategy " + strategy, 2000f, velocity.getXVelocity(0), 40f);
+        }
+    }
+
+    @Test
+    public void pauseResetsVelocity() {
+        final PointerVelocityEstimator velocity = new PointerVelocityEstimator();
+        swipe(velocity);
+        // 停顿超过 ASSUME_STOPPED_TIME 后只剩停顿之后的采样
+        velocity.addMovement(single(TouchSample.ACTION_MOVE, 0, 200, 96, -48));
+        velocity.computeCurrentVelocity(1000, Float.MAX_VALUE);
+        assertEquals(0f, velocity.getXVelocity(0), 0f);
+        assertEquals(0f, velocity.getYVelocity(0), 0f);
+    }
+
+    @Test
+    public void liftAfterStopHasNoVelocity() {
+        for (int strategy : STRATEGIES) {
+            final PointerVelocityEstimator velocity = new PointerVelocityEstimator(strategy);
+            swipe(velocity);
+            velocity.addMovement(single(TouchSample.ACTION_UP, 0, 96 + 300, 96, -48));
+            velocity.computeCurrentVelocity(1000, Float.MAX_VALUE);
+            assertEquals("strategy " + strategy, 0f, velocity.getXVelocity(0), 0f);
+            assertEquals("strategy " + strategy, 0f, velocity.getYVelocity(0), 0f);
+        }
+    }
+
+    @Test
+    public void promptLiftKeepsVelocity() {
+        final PointerVelocityEstimator velocity = new PointerVelocityEstimator();
+        swipe(velocity);
+        velocity.addMovement(single(TouchSample.ACTION_UP, 0, 100, 100, -50));
+        velocity.computeCurrentVelocity(1000, Float.MAX_VALUE);
+        assertEquals(1000f, velocity.getXVelocity(0), 20f);
+    }
+
+    @Test
+    public void liftedPointerAfterStopIsClearedAlone() {
+        final PointerVelocityEstimator velocity = new PointerVelocityEstimator();
+        velocity.addMovement(single(TouchSample.ACTION_DOWN, 0, 0, 0, 0));
+        velocity.addMovement(pair(TouchSample.ACTION_POINTER_DOWN
+                | (1 << TouchSample.ACTION_POINTER_INDEX_SHIFT), 0, 0, 0, 0, 100, 100));
+        for (int t = 8; t <= 64; t += 8) {
+            velocity.addMovement(pair(TouchSample.ACTION_MOVE, 0, t, t, 0, 100, 100 - t));
+        }
+        velocity.addMovement(pair(TouchSample.ACTION_POINTER_UP
+                | (1 << TouchSample.ACTION_POINTER_INDEX_SHIFT), 0, 200, 64, 0, 100, 36));
+        velocity.computeCurrentVelocity(1000, Float.MAX_VALUE);
+        assertEquals(0f, velocity.getYVelocity(1), 0f);
+        assertEquals(1000f, velocity.getXVelocity(0), 20f);
+    }
+
+    @Test
+    public void pointersAreTrackedById() {
+        final PointerVelocityEstimator velocity = new PointerVelocityEstimator();
+        velocity.addMovement(single(TouchSample.ACTION_DOWN, 0, 0, 0, 0));
+        velocity.addMovement(pair(TouchSample.ACTION_POINTER_DOWN
+                | (1 << TouchSample.ACTION_POINTER_INDEX_SHIFT), 0, 0, 0, 0, 100, 100));
+        for (int t = 8; t <= 64; t += 8) {
+            velocity.addMovement(pair(TouchSample.ACTION_MOVE, 0, t, t, 0, 100, 100 - t));
+        }
+        velocity.computeCurrentVelocity(1000, Float.MAX_VALUE);
+        assertEquals(1000f, velocity.getXVelocity(0), 20f);
+        assertEquals(0f, velocity.getYVelocity(0), 20f);
+        assertEquals(0f, velocity.getXVelocity(1), 20f);
+        assertEquals(-1000f, velocity.getYVelocity(1), 20f);
+    }
+
+    @Test
+    public void clearDropsSamples() {
+        final PointerVelocityEstimator velocity = new PointerVelocityEstimator();
+        swipe(velocity);
+        velocity.clear();
+        velocity.computeCurrentVelocity(1000, Float.MAX_VALUE);
+        assertEquals(0f, velocity.getXVelocity(0), 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownStrategyIsRejected() {
+        new PointerVelocityEstimator().setStrategy(0);
+    }
+}
@@ -0,0 +1,163 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static me.limeice.gesture.core.Samples.single;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RegionDispatcherTest {
+
+    private final List<String> mEvents = new ArrayList<>();
+
+    private VirtualTimeScheduler mScheduler;
+    private RegionDispatcher mDispatcher;
+    private int mRefuse = RegionDispatcher.NO_REGION;   // onDown 拒绝的区域
+
+    @Before
+    public void setUp() {
+        mScheduler = new VirtualTimeScheduler();
+        mDispatcher = new RegionDispatcher(new RegionDispatcher.Callback() {
+            @Override
+            public boolean onDown(int region, @NonNull TouchSample e) {
+                mEvents.add("down" + region);
+                return region != mRefuse;
+            }
+
+            @Override
+            public void onTap(int region, @NonNull TouchSample e) {
+                mEvents.add("tap" + region);
+            }
+
+            @Override
+            public void onLongPress(int region, @NonNull TouchSample down) {
+                mEvents.add("longPress" + region);
+            }
+
+            @Override
+            public void onDrag(int region, @NonNull TouchSample e, float dx, float dy) {
+                mEvents.add("drag" + region);
+            }
+        }, mScheduler, mScheduler, 1000, 1000, 100);
+        mDispatcher.getEngine().setTouchSlop(8).setLongPressTimeOut(500);
+    }
+
+    private boolean event(int action, long down, long time, float x, float y) {
+        mScheduler.advanceTo(time);
+        return mDispatcher.onTouchEvent(single(action, down, time, x, y));
+    }
+
+    private void tap(long down, float x, float y) {
+        event(TouchSample.ACTION_DOWN, down, down, x, y);
+        event(TouchSample.ACTION_UP, down, down + 50, x, y);
+    }
+
+    @Test
+    public void topmostRegionIsAskedFirst() {
+        final int bottom = mDispatcher.add(0, 0, 200, 200);
+        final int top = mDispatcher.add(50, 50, 150, 150);
+        tap(0, 100, 100);
+        assertEquals(Arrays.asList("down" + top, "tap" + top), mEvents);
+
+        mEvents.clear();
+        mDispatcher.bringToFront(bottom);
+        tap(1000, 100, 100);
+        assertEquals(Arrays.asList("down" + bottom, "tap" + bottom), mEvents);
+        assertEquals(bottom, mDispatcher.findRegion(100, 100));
+    }
+
+    @Test
+    public void refusedDownFallsThrough() {
+        final int bottom = mDispatcher.add(0, 0, 200, 200);
+        final int top = mDispatcher.add(0, 0, 200, 200);
+        mRefuse = top;
+        tap(0, 10, 10);
+        assertEquals(Arrays.asList("down" + top, "down" + bottom, "tap" + bottom), mEvents);
+
+        mEvents.clear();
+        mDispatcher.setEnabled(bottom, false);
+        assertFalse(event(TouchSample.ACTION_DOWN, 1000, 1000, 10, 10));
+        assertEquals(Arrays.asList("down" + top), mEvents);
+        assertEquals(RegionDispatcher.NO_REGION, mDispatcher.getActiveRegion());
+    }
+
+    @Test
+    public void edgesAreHalfOpen() {
+        final int region = mDispatcher.add(100, 100, 200, 200);
+        assertEquals(region, mDispatcher.findRegion(100, 100));
+        assertEquals(RegionDispatcher.NO_REGION, mDispatcher.findRegion(200, 150));
+        // 超出索引范围的部分归入边缘单元格
+        final int outside = mDispatcher.add(900, 900, 1200, 1200);
+        assertEquals(outside, mDispatcher.findRegion(1100, 1100));
+    }
+
+    @Test
+    public void removedIdsAreReused() {
+        final int a = mDispatcher.add(0, 0, 100, 100);
+        final int b = mDispatcher.add(100, 0, 200, 100);
+        mDispatcher.remove(a);
+        assertEquals(RegionDispatcher.NO_REGION, mDispatcher.findRegion(50, 50));
+        final int c = mDispatcher.add(300, 300, 400, 400);
+        assertEquals(a, c);
+        assertEquals(c, mDispatcher.findRegion(350, 350));
+        assertEquals(b, mDispatcher.findRegion(150, 50));
+        mDispatcher.update(c, 0, 0, 50, 50);
+        assertEquals(RegionDispatcher.NO_REGION, mDispatcher.findRegion(350, 350));
+        assertEquals(c, mDispatcher.findRegion(10, 10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void removedRegionIsUnknown() {
+        final int region = mDispatcher.add(0, 0, 100, 100);
+        mDispatcher.remove(region);
+        mDispatcher.remove(region);
+    }
+
+    /**
+     * 手势进行中移除所属区域，识别引擎随即取消：长按不再待触发、退出手势竞技场，
+     * 复用该编号的新区域收不到旧手势的事件
+     */
+    @Test
+    public void removingActiveRegionCancelsGesture() {
+        final GestureArena arena = new GestureArena();
+        mDispatcher.getEngine().setArena(arena);
+        final int region = mDispatcher.add(0, 0, 100, 100);
+        assertTrue(event(TouchSample.ACTION_DOWN, 0, 0, 10, 10));
+        assertEquals(1, mScheduler.pending());
+        assertEquals(1, arena.size());
+        mDispatcher.remove(region);
+        assertEquals(RegionDispatcher.NO_REGION, mDispatcher.getActiveRegion());
+        assertEquals(0, mScheduler.pending());
+        assertEquals(0, arena.size());
+        final int reused = mDispatcher.add(0, 0, 100, 100);
+        assertEquals(region, reused);
+        mScheduler.advanceBy(1000);
+        assertFalse(event(TouchSample.ACTION_UP, 0, 1000, 10, 10));
+        assertEquals(Arrays.asList("down" + region), mEvents);
+        assertEquals(0, mScheduler.pending());
+
+        mEvents.clear();
+        tap(2000, 10, 10);
+        assertEquals(Arrays.asList("down" + reused, "tap" + reused), mEvents);
+    }
+
+    @Test
+    public void clearCancelsGesture() {
+        mDispatcher.add(0, 0, 100, 100);
+        event(TouchSample.ACTION_DOWN, 0, 0, 10, 10);
+        mDispatcher.clear();
+        assertEquals(0, mScheduler.pending());
+        mScheduler.advanceBy(1000);
+        assertFalse(event(TouchSample.ACTION_MOVE, 0, 1000, 60, 60));
+        assertEquals(1, mEvents.size());
+        assertEquals(0, mScheduler.pending());
+    }
+}
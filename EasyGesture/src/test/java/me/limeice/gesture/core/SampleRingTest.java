@@ -0,0 +1,107 @@
+package me.limeice.gesture.core;
+
+import org.junit.Test;
+
+import static me.limeice.gesture.core.Samples.moveWithHistory;
+import static me.limeice.gesture.core.Samples.pair;
+import static me.limeice.gesture.core.Samples.single;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SampleRingTest {
+
+    private static void assertSample(TouchSample expected, TouchSample actual) {
+        assertEquals(expected.getAction(), actual.getAction());
+        assertEquals(expected.getDownTime(), actual.getDownTime());
+        assertEquals(expected.getEventTime(), actual.getEventTime());
+        assertEquals(expected.getPointerCount(), actual.getPointerCount());
+        for (int i = 0; i < expected.getPointerCount(); i++) {
+            assertEquals(expected.getPointerId(i), actual.getPointerId(i));
+            assertEquals(expected.getX(i), actual.getX(i), 0f);
+            assertEquals(expected.getY(i), actual.getY(i), 0f);
+        }
+        assertEquals(expected.getHistorySize(), actual.getHistorySize());
+        for (int h = 0; h < expected.getHistorySize(); h++) {
+            assertEquals(expected.getHistoricalEventTime(h), actual.getHistoricalEventTime(h));
+            for (int i = 0; i < expected.getPointerCount(); i++) {
+                assertEquals(expected.getHistoricalX(i, h), actual.getHistoricalX(i, h), 0f);
+                assertEquals(expected.getHistoricalY(i, h), actual.getHistoricalY(i, h), 0f);
+            }
+        }
+    }
+
+    @Test
+    public void samplesSurviveWrapAround() {
+        final SampleRing ring = new SampleRing(SampleRing.MIN_CAPACITY);
+        final TouchSample out = new TouchSample();
+        // 记录长度与容量互质，多轮之后记录横跨数组末尾
+        for (int n = 0; n < 1000; n++) {
+            final long t = 1L << 33 | n;
+            final TouchSample e = n % 3 == 0
+                    ? moveWithHistory(t, t, t + 16, 2, n, -n, n + 1, -n - 1)
+                    : pair(TouchSample.ACTION_MOVE, t, t + 8, n, n * 0.5f, -n, Float.NaN);
+            assertTrue(ring.offer(n & 7, e));
+            assertEquals(n & 7, ring.poll(out));
+            assertSample(e, out);
+        }
+        assertTrue(ring.isEmpty());
+        assertEquals(ring.getWritePosition(), ring.getReadPosition());
+        assertTrue(ring.getWritePosition() > 4 * SampleRing.MIN_CAPACITY);
+        assertEquals(-1, ring.poll(out));
+    }
+
+    @Test
+    public void overflowCancelsStreamUntilNextDown() {
+        final SampleRing ring = new SampleRing(SampleRing.MIN_CAPACITY);
+        final TouchSample out = new TouchSample();
+        assertTrue(ring.offer(0, single(TouchSample.ACTION_DOWN, 0, 0, 0, 0)));
+        int accepted = 1;
+        long t = 1;
+        while (ring.offer(0, single(TouchSample.ACTION_MOVE, 0, t, t, 0))) {
+            accepted++;
+            t++;
+        }
+        assertEquals(1, ring.getDroppedCount());
+        // 其他目标的事件流不受影响
+        assertFalse(ring.offer(1, single(TouchSample.ACTION_DOWN, 0, t, 0, 0)));
+        assertEquals(2, ring.getDroppedCount());
+
+        for (int i = 0; i < accepted; i++) {
+            assertEquals(0, ring.poll(out));
+        }
+        assertTrue(ring.isEmpty());
+
+        // 有空间后先补发取消事件，之后的滑动丢弃直到下一次按下
+        assertFalse(ring.offer(0, single(TouchSample.ACTION_MOVE, 0, t + 1, 1, 1)));
+        assertFalse(ring.offer(0, single(TouchSample.ACTION_UP, 0, t + 2, 1, 1)));
+        assertTrue(ring.offer(0, single(TouchSample.ACTION_DOWN, t + 3, t + 3, 2, 2)));
+        assertTrue(ring.offer(0, single(TouchSample.ACTION_MOVE, t + 3, t + 4, 3, 3)));
+        assertEquals(4, ring.getDroppedCount());
+
+        assertEquals(0, ring.poll(out));
+        assertEquals(TouchSample.ACTION_CANCEL, out.getActionMasked());
+        assertEquals(t + 1, out.getEventTime());
+        assertEquals(0, ring.poll(out));
+        assertEquals(TouchSample.ACTION_DOWN, out.getActionMasked());
+        assertEquals(0, ring.poll(out));
+        assertEquals(TouchSample.ACTION_MOVE, out.getActionMasked());
+        assertEquals(-1, ring.poll(out));
+    }
+
+    @Test
+    public void oversizedHistoryIsDropped() {
+        final SampleRing ring = new SampleRing(SampleRing.MIN_CAPACITY);
+        final TouchSample out = new TouchSample();
+        final TouchSample e = moveWithHistory(0, 0, 1000, 600, 0, 0, 600, 0);
+        assertTrue(ring.offer(0, e));
+        ring.poll(out);
+        assertEquals(0, out.getHistorySize());
+        assertEquals(600f, out.getX(), 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityBelowMinimumIsRejected() {
+        new SampleRing(SampleRing.MIN_CAPACITY - 1);
+    }
+}
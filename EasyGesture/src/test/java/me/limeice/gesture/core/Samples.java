@@ -0,0 +1,52 @@
+package me.limeice.gesture.core;
+
+/**
+ * 构造测试用触摸采样
+ */
+final class Samples {
+
+    private Samples() {
+    }
+
+    /**
+     * 单指采样
+     */
+    static TouchSample single(int action, long downTime, long eventTime, float x, float y) {
+        return new TouchSample().set(action, downTime, eventTime, 1).setPointer(0, 0, x, y);
+    }
+
+    /**
+     * 双指采样，action 中的触点索引由调用方给出
+     */
+    static TouchSample pair(int action, long downTime, long eventTime,
+                            float x0, float y0, float x1, float y1) {
+        return new TouchSample().set(action, downTime, eventTime, 2)
+                .setPointer(0, 0, x0, y0)
+                .setPointer(1, 1, x1, y1);
+    }
+
+    /**
+     * 多指采样，触点 id 与坐标按索引顺序给出
+     */
+    static TouchSample touch(int action, long downTime, long eventTime, int[] ids, float... xy) {
+        final TouchSample e = new TouchSample().set(action, downTime, eventTime, ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            e.setPointer(i, ids[i], xy[i << 1], xy[(i << 1) + 1]);
+        }
+        return e;
+    }
+
+    /**
+     * 单指滑动采样，附带匀速插值的历史采样
+     */
+    static TouchSample moveWithHistory(long downTime, long from, long to, int history,
+                                       float x0, float y0, float x1, float y1) {
+        final TouchSample e = single(TouchSample.ACTION_MOVE, downTime, to, x1, y1);
+        for (int h = 0; h < history; h++) {
+            final float f = (h + 1f) / (history + 1);
+            final int pos = e.addHistory(from + (long) ((to - from) * f));
+            e.setHistoricalPointer(pos, 0, x0 + (x1 - x0) * f, y0 + (y1 - y0) * f);
+        }
+        return e;
+    }
+}
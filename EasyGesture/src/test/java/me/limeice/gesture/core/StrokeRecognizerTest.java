@@ -0,0 +1,238 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static me.limeice.gesture.core.Samples.moveWithHistory;
+import static me.limeice.gesture.core.Samples.pair;
+import static me.limeice.gesture.core.Samples.single;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StrokeRecognizerTest {
+
+    private static final float[] LINE = {0, 0, 50, 0, 100, 0};
+    private static final float[] V = {0, 0, 50, 100, 100, 0};
+    private static final float[][] CROSS = {{0, 0, 100, 100}, {100, 0, 0, 100}};
+
+    private final List<String> mEvents = new ArrayList<>();
+
+    private VirtualTimeScheduler mScheduler;
+    private StrokeLibrary mLibrary;
+    private StrokeRecognizer mRecognizer;
+
+    @Before
+    public void setUp() {
+        mScheduler = new VirtualTimeScheduler();
+        mLibrary = new StrokeLibrary();
+        mLibrary.add("line", LINE);
+        mLibrary.add("v", V);
+        mLibrary.add("cross", CROSS);
+        mRecognizer = new StrokeRecognizer(mLibrary, new StrokeRecognizer.Callback() {
+            @Override
+            public void onRecognized(@NonNull String name, float score) {
+                mEvents.add(name + "@" + mScheduler.now());
+            }
+
+            @Override
+            public void onUnrecognized() {
+                mEvents.add("unrecognized@" + mScheduler.now());
+            }
+        }, mScheduler);
+    }
+
+    @Test
+    public void templatesRecognizeThemselves() {
+        assertEquals(0, mRecognizer.recognize(LINE));
+        assertEquals(1, mRecognizer.recognize(V));
+        assertEquals(1, mRecognizer.getScore(), 1e-3f);
+        assertEquals(2, mRecognizer.recognize(CROSS));
+        // 点云匹配与笔顺、笔画方向无关
+        assertEquals(2, mRecognizer.recognize(new float[]{0, 100, 100, 0}, new float[]{100, 100, 0, 0}));
+    }
+
+    @Test
+    public void minScoreRejectsLooseMatch() {
+        final float[] sloppy = {0, 0, 40, 90, 55, 110, 100, 5};
+        assertEquals(1, mRecognizer.recognize(sloppy));
+        final float score = mRecognizer.getScore();
+        assertTrue(score < 1);
+        mRecognizer.setMinScore(Math.min(1f, score + 0.01f));
+        assertEquals(-1, mRecognizer.recognize(sloppy));
+        assertEquals(0, mRecognizer.getScore(), 0);
+        assertEquals(-1, mRecognizer.recognize(new float[0]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void minScoreOutOfRangeIsRejected() {
+        mRecognizer.setMinScore(1.5f);
+    }
+
+    /**
+     * 下界剪枝与提前放弃不改变结果：与逐模板、逐起点的完整贪心匹配一致
+     */
+    @Test
+    public void pruningMatchesExhaustiveSearch() {
+        final Random random = new Random(7);
+        final StrokeLibrary library = randomLibrary(random, 300);
+        final StrokeRecognizer recognizer = new StrokeRecognizer(library, (name, score) -> {
+        }, mScheduler).setMinScore(0);
+        for (int round = 0; round < 30; round++) {
+            final float[] stroke = randomStroke(random);
+            final int index = recognizer.recognize(stroke);
+            final float[] best = exhaustive(library, stroke);
+            assertEquals(best[0], index, 0);
+            assertEquals(best[1], recognizer.getScore(), 1e-5f);
+        }
+    }
+
+    @Test
+    public void parallelMatchesSingleThread() {
+        final Random random = new Random(11);
+        final StrokeLibrary library = randomLibrary(random, 512);
+        final StrokeRecognizer single = new StrokeRecognizer(library, (name, score) -> {
+        }, mScheduler).setMinScore(0);
+        final StrokeRecognizer parallel = new StrokeRecognizer(library, (name, score) -> {
+        }, mScheduler).setMinScore(0);
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            parallel.setExecutor(executor, 4);
+            for (int round = 0; round < 30; round++) {
+                final float[] stroke = randomStroke(random);
+                assertEquals(single.recognize(stroke), parallel.recognize(stroke));
+                assertEquals(single.getScore(), parallel.getScore(), 0);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void strokeFromEventsIncludesHistory() {
+        mRecognizer.setMinLength(20);
+        assertTrue(mRecognizer.onTouchEvent(single(TouchSample.ACTION_DOWN, 0, 0, 0, 0)));
+        // 折点只出现在历史采样中
+        mRecognizer.onTouchEvent(moveWithHistory(0, 0, 100, 1, 0, 0, 100, 200));
+        mRecognizer.onTouchEvent(moveWithHistory(0, 100, 200, 1, 100, 200, 200, 0));
+        assertTrue(mRecognizer.onTouchEvent(single(TouchSample.ACTION_UP, 0, 200, 200, 0)));
+        assertEquals(1, mEvents.size());
+        assertEquals("v@0", mEvents.get(0));
+    }
+
+    @Test
+    public void shortStrokeIsTreatedAsTap() {
+        mRecognizer.setMinLength(20);
+        mRecognizer.onTouchEvent(single(TouchSample.ACTION_DOWN, 0, 0, 0, 0));
+        mRecognizer.onTouchEvent(single(TouchSample.ACTION_MOVE, 0, 10, 5, 5));
+        mRecognizer.onTouchEvent(single(TouchSample.ACTION_UP, 0, 20, 5, 5));
+        assertTrue(mEvents.isEmpty());
+    }
+
+    @Test
+    public void multiStrokeWaitsForPause() {
+        mRecognizer.setStrokeTimeOut(300);
+        stroke(0, CROSS[0]);
+        assertEquals(1, mScheduler.pending());
+        // 停笔超时前的下一笔属于同一手势
+        stroke(200, CROSS[1]);
+        assertTrue(mEvents.isEmpty());
+        mScheduler.advanceBy(1000);
+        assertEquals(1, mEvents.size());
+        assertEquals("cross@550", mEvents.get(0));
+    }
+
+    @Test
+    public void secondPointerDiscardsStroke() {
+        mRecognizer.setStrokeTimeOut(300);
+        stroke(0, CROSS[0]);
+        mScheduler.advanceTo(100);
+        mRecognizer.onTouchEvent(single(TouchSample.ACTION_DOWN, 100, 100, 100, 0));
+        mRecognizer.onTouchEvent(pair(TouchSample.ACTION_POINTER_DOWN | (1 << TouchSample.ACTION_POINTER_INDEX_SHIFT),
+                100, 110, 100, 0, 0, 100));
+        assertEquals(0, mScheduler.pending());
+        mScheduler.advanceBy(1000);
+        assertTrue(mEvents.isEmpty());
+    }
+
+    /**
+     * 以折线的端点逐点发送一笔，每段 50ms
+     */
+    private void stroke(long down, float[] xy) {
+        mScheduler.advanceTo(down);
+        mRecognizer.onTouchEvent(single(TouchSample.ACTION_DOWN, down, down, xy[0], xy[1]));
+        long time = down;
+        for (int i = 2; i < xy.length; i += 2) {
+            time += 50;
+            mScheduler.advanceTo(time);
+            mRecognizer.onTouchEvent(single(TouchSample.ACTION_MOVE, down, time, xy[i], xy[i + 1]));
+        }
+        mRecognizer.onTouchEvent(single(TouchSample.ACTION_UP, down, time, xy[xy.length - 2], xy[xy.length - 1]));
+    }
+
+    private static StrokeLibrary randomLibrary(Random random, int size) {
+        final StrokeLibrary library = new StrokeLibrary();
+        for (int i = 0; i < size; i++) library.add("t" + i, randomStroke(random));
+        return library;
+    }
+
+    private static float[] randomStroke(Random random) {
+        final float[] xy = new float[12];
+        for (int i = 0; i < xy.length; i++) xy[i] = random.nextFloat() * 200;
+        return xy;
+    }
+
+    /**
+     * 完整的 $P 贪心匹配，返回 {模板下标, 得分}
+     */
+    private static float[] exhaustive(StrokeLibrary library, float[] stroke) {
+        final int n = StrokeLibrary.POINTS, step = (int) Math.sqrt(n);
+        final float[] candidate = new float[StrokeLibrary.CLOUD_SIZE];
+        StrokeLibrary.normalize(stroke, new int[]{stroke.length >> 1}, 1, candidate, 0);
+        final float[] clouds = library.clouds();
+        int best = -1;
+        float bestDistance = Float.MAX_VALUE;
+        for (int t = 0; t < library.size(); t++) {
+            final int offset = t * StrokeLibrary.CLOUD_SIZE;
+            for (int start = 0; start < n; start += step) {
+                final float d = Math.min(greedy(candidate, 0, clouds, offset, start),
+                        greedy(clouds, offset, candidate, 0, start));
+                if (d < bestDistance) {
+                    bestDistance = d;
+                    best = t;
+                }
+            }
+        }
+        return new float[]{best, Math.max(0f, 1f - bestDistance / 2f)};
+    }
+
+    private static float greedy(float[] a, int offsetA, float[] b, int offsetB, int start) {
+        final int n = StrokeLibrary.POINTS;
+        final boolean[] matched = new boolean[n];
+        float sum = 0;
+        for (int k = 0, i = start; k < n; k++, i = (i + 1) % n) {
+            float min = Float.MAX_VALUE;
+            int index = -1;
+            for (int j = 0; j < n; j++) {
+                if (matched[j]) continue;
+                final float dx = a[offsetA + (i << 1)] - b[offsetB + (j << 1)];
+                final float dy = a[offsetA + (i << 1) + 1] - b[offsetB + (j << 1) + 1];
+                final float d = dx * dx + dy * dy;
+                if (d < min) {
+                    min = d;
+                    index = j;
+                }
+            }
+            matched[index] = true;
+            sum += (1f - (float) k / n) * (float) Math.sqrt(min);
+        }
+        return sum;
+    }
+}
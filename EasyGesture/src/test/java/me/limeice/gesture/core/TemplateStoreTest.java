@@ -0,0 +1,150 @@
+package me.limeice.gesture.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.FloatBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TemplateStoreTest {
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private static final float[] LINE = {0, 0, 50, 0, 100, 0};
+    private static final float[] V = {0, 0, 50, 100, 100, 0};
+    private static final float[][] CROSS = {{0, 0, 100, 100}, {100, 0, 0, 100}};
+
+    private static StrokeLibrary shapes() {
+        final StrokeLibrary library = new StrokeLibrary();
+        library.add("line", LINE);
+        library.add("v", V);
+        library.add("cross", CROSS);
+        return library;
+    }
+
+    private File write() throws IOException {
+        final Map<String, StrokeLibrary> groups = new LinkedHashMap<>();
+        groups.put("shapes", shapes());
+        groups.put("empty", new StrokeLibrary());
+        final File file = mFolder.newFile("templates.egs");
+        TemplateStore.write(file, groups);
+        return file;
+    }
+
+    @Test
+    public void groupsAreReadBack() throws IOException {
+        final TemplateStore store = new TemplateStore(write());
+        assertEquals(2, store.getGroupCount());
+        assertEquals("shapes", store.getGroupName(0));
+        assertEquals("empty", store.getGroupName(1));
+        assertEquals(3, store.getTemplateCount(0));
+        assertEquals(0, store.getTemplateCount(1));
+        assertEquals(1, store.indexOf("empty"));
+        assertEquals(-1, store.indexOf("missing"));
+        assertNull(store.getGroup("missing"));
+
+        assertFalse(store.isLoaded(0));
+        final StrokeLibrary loaded = store.getGroup("shapes");
+        assertTrue(store.isLoaded(0));
+        assertSame(loaded, store.getGroup(0));
+
+        final StrokeLibrary expected = shapes();
+        assertEquals(expected.size(), loaded.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getName(i), loaded.getName(i));
+        }
+        final int size = expected.size();
+        assertArrayEquals(slice(expected.clouds(), size * StrokeLibrary.CLOUD_SIZE),
+                slice(loaded.clouds(), size * StrokeLibrary.CLOUD_SIZE), 0f);
+        for (int i = 0; i < size * StrokeLibrary.LUT_SIZE; i++) {
+            assertEquals(expected.luts()[i], loaded.luts()[i]);
+        }
+        for (int i = 0; i < size * StrokeLibrary.POINTS; i++) {
+            assertEquals(expected.cells()[i], loaded.cells()[i]);
+        }
+
+        final FloatBuffer clouds = store.getClouds(0);
+        assertEquals(size * StrokeLibrary.CLOUD_SIZE, clouds.remaining());
+        assertEquals(expected.clouds()[StrokeLibrary.CLOUD_SIZE], clouds.get(StrokeLibrary.CLOUD_SIZE), 0f);
+    }
+
+    @Test
+    public void loadedGroupRecognizesLikeSource() throws IOException {
+        final StrokeLibrary loaded = new TemplateStore(write()).getGroup(0);
+        final StrokeRecognizer recognizer = new StrokeRecognizer(loaded,
+                (name, score) -> {
+                }, new VirtualTimeScheduler());
+        assertEquals("v", loaded.getName(recognizer.recognize(new float[]{0, 0, 40, 90, 55, 110, 100, 5})));
+        assertEquals("line", loaded.getName(recognizer.recognize(new float[]{0, 10, 60, 12, 120, 9})));
+    }
+
+    @Test(expected = IOException.class)
+    public void foreignFileIsRejected() throws IOException {
+        final File file = mFolder.newFile("foreign.egs");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write(new byte[64]);
+        }
+        new TemplateStore(file);
+    }
+
+    @Test
+    public void outOfRangeLutIsRejected() throws IOException {
+        final File file = write();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // 第一个模板查找表中的点下标改为 255
+            raf.seek(groupData(raf, 0) + 3 * (4 + StrokeLibrary.CLOUD_SIZE * 4) + 100);
+            raf.write(0xFF);
+        }
+        assertCorrupt(new TemplateStore(file), 0);
+    }
+
+    @Test
+    public void outOfRangeCellIsRejected() throws IOException {
+        final File file = write();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // 最后一个网格下标改为 LUT_SIZE，小端序
+            raf.seek(groupData(raf, 0) + 3 * (4 + StrokeLibrary.CLOUD_SIZE * 4 + StrokeLibrary.LUT_SIZE)
+                    + (3 * StrokeLibrary.POINTS - 1) * 2);
+            raf.write(StrokeLibrary.LUT_SIZE & 0xFF);
+            raf.write(StrokeLibrary.LUT_SIZE >>> 8);
+        }
+        assertCorrupt(new TemplateStore(file), 0);
+    }
+
+    /**
+     * 分组数据在文件中的位置
+     */
+    private static long groupData(RandomAccessFile raf, int group) throws IOException {
+        raf.seek(TemplateFormat.HEADER_SIZE + group * TemplateFormat.ENTRY_SIZE + 8);
+        return Integer.reverseBytes(raf.readInt());
+    }
+
+    private static void assertCorrupt(TemplateStore store, int group) {
+        try {
+            store.getGroup(group);
+            fail("Corrupt template group was accepted");
+        } catch (IOException expected) {
+            assertFalse(store.isLoaded(group));
+        }
+    }
+
+    private static float[] slice(float[] array, int length) {
+        final float[] slice = new float[length];
+        System.arraycopy(array, 0, slice, 0, length);
+        return slice;
+    }
+}
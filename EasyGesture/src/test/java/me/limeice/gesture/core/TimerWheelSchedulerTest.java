@@ -0,0 +1,185 @@
+package me.limeice.gesture.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimerWheelSchedulerTest {
+
+    private static final int TICK = 10;
+    private static final int SLOTS = 64;
+    private static final int SPAN = TICK * SLOTS;   // 时间轮一圈的时长
+
+    private VirtualTimeScheduler mClock;
+    private TimerWheelScheduler mWheel;
+    private final List<Long> mWakeUps = new ArrayList<>();
+    private final List<String> mFired = new ArrayList<>();
+
+    private final GestureScheduler.Target mA = what -> fire("a", what);
+    private final GestureScheduler.Target mB = what -> fire("b", what);
+
+    @Before
+    public void setUp() {
+        mClock = new VirtualTimeScheduler();
+        mWheel = new TimerWheelScheduler(mClock, TICK, SLOTS, mWakeUps::add);
+    }
+
+    private void fire(String target, int what) {
+        mFired.add(target + what + "@" + mClock.now());
+    }
+
+    /**
+     * 按驱动请求的唤醒时间逐次推进至指定时刻
+     */
+    private void runUntil(long millis) {
+        for (; ; ) {
+            final long next = mWheel.nextDeadline();
+            if (next > millis) break;
+            mClock.advanceTo(next);
+            mWheel.advance();
+        }
+        mClock.advanceTo(millis);
+    }
+
+    /**
+     * 时间直接跳至指定时刻后推进一次，模拟唤醒迟到
+     */
+    private void jumpTo(long millis) {
+        mClock.advanceTo(millis);
+        mWheel.advance();
+    }
+
+    @Test
+    public void armedTaskFiresAtDeadline() {
+        mWheel.schedule(mA, 1, 55);
+        assertEquals(1, mWheel.size());
+        assertEquals(55L, mWheel.nextDeadline());
+        assertEquals(55L, (long) mWakeUps.get(mWakeUps.size() - 1));
+
+        jumpTo(54);
+        assertTrue(mFired.isEmpty());
+        jumpTo(55);
+        assertEquals(1, mFired.size());
+        assertEquals("a1@55", mFired.get(0));
+        assertEquals(0, mWheel.size());
+        assertEquals(Long.MAX_VALUE, mWheel.nextDeadline());
+    }
+
+    @Test
+    public void cancelledTaskNeverFires() {
+        mWheel.schedule(mA, 1, 30);
+        mWheel.schedule(mB, 1, 30);
+        mWheel.cancel(mA, 1);
+        mWheel.cancel(mA, 7);       // 未调度过的任务类型
+        assertEquals(1, mWheel.size());
+        runUntil(1000);
+        assertEquals(1, mFired.size());
+        assertEquals("b1@30", mFired.get(0));
+
+        mWheel.cancel(mB, 1);       // 已触发的任务
+        assertEquals(0, mWheel.size());
+    }
+
+    @Test
+    public void rearmReplacesPendingTask() {
+        mWheel.schedule(mA, 1, 100);
+        jumpTo(20);
+        mWheel.schedule(mA, 1, 30);
+        assertEquals(1, mWheel.size());
+        assertEquals(50L, mWheel.nextDeadline());
+        runUntil(1000);
+        assertEquals(1, mFired.size());
+        assertEquals("a1@50", mFired.get(0));
+    }
+
+    @Test
+    public void rearmLaterRequestsNewWakeUp() {
+        mWheel.schedule(mA, 1, 30);
+        mWheel.schedule(mA, 1, 100);
+        assertEquals(100L, mWheel.nextDeadline());
+
+        // 之前请求的唤醒仍会到来，此时没有到期任务，之后请求新的唤醒
+        jumpTo(30);
+        assertTrue(mFired.isEmpty());
+        assertEquals(100L, (long) mWakeUps.get(mWakeUps.size() - 1));
+        jumpTo(100);
+        assertEquals(1, mFired.size());
+        assertEquals("a1@100", mFired.get(0));
+    }
+
+    @Test
+    public void tasksInSameSlotFireOnTheirOwnTurn() {
+        // 三者散列至同一槽位，相差整圈
+        mWheel.schedule(mA, 1, 360);
+        mWheel.schedule(mA, 2, 360 + SPAN);
+        mWheel.schedule(mB, 1, 360 + 2 * SPAN);
+        for (long t = 0; t <= 360 + 2 * SPAN; t += TICK) {
+            jumpTo(t);
+        }
+        assertEquals(3, mFired.size());
+        assertEquals("a1@360", mFired.get(0));
+        assertEquals("a2@" + (360 + SPAN), mFired.get(1));
+        assertEquals("b1@" + (360 + 2 * SPAN), mFired.get(2));
+    }
+
+    @Test
+    public void lateAdvancePastWholeWheelFiresEverything() {
+        mWheel.schedule(mA, 1, 15);
+        mWheel.schedule(mA, 2, 15 + SPAN);
+        mWheel.schedule(mB, 1, 3 * SPAN);
+        jumpTo(10 * SPAN);
+        assertEquals(3, mFired.size());
+        assertEquals(0, mWheel.size());
+
+        // 之后调度的任务不受之前的跳跃影响
+        mWheel.schedule(mA, 1, 25);
+        jumpTo(10 * SPAN + 24);
+        assertEquals(3, mFired.size());
+        jumpTo(10 * SPAN + 25);
+        assertEquals("a1@" + (10 * SPAN + 25), mFired.get(3));
+    }
+
+    @Test
+    public void nextDeadlineIsEarliestPending() {
+        assertEquals(Long.MAX_VALUE, mWheel.nextDeadline());
+        mWheel.schedule(mA, 1, 700);
+        mWheel.schedule(mA, 2, 70);
+        mWheel.schedule(mB, 1, 7);
+        assertEquals(7L, mWheel.nextDeadline());
+        mWheel.cancel(mB, 1);
+        assertEquals(70L, mWheel.nextDeadline());
+        runUntil(70);
+        assertEquals(700L, mWheel.nextDeadline());
+        assertEquals(700L, (long) mWakeUps.get(mWakeUps.size() - 1));
+        mWheel.cancel(mA, 1);
+        assertEquals(Long.MAX_VALUE, mWheel.nextDeadline());
+    }
+
+    @Test
+    public void taskMayRearmItselfFromCallback() {
+        final int[] count = new int[1];
+        final GestureScheduler.Target periodic = new GestureScheduler.Target() {
+            @Override
+            public void onTimeout(int what) {
+                fire("p", what);
+                if (++count[0] < 3) mWheel.schedule(this, what, SPAN);
+            }
+        };
+        mWheel.schedule(periodic, 0, SPAN);
+        runUntil(10 * SPAN);
+        assertEquals(3, mFired.size());
+        assertEquals("p0@" + SPAN, mFired.get(0));
+        assertEquals("p0@" + 2 * SPAN, mFired.get(1));
+        assertEquals("p0@" + 3 * SPAN, mFired.get(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeTaskTypeIsRejected() {
+        mWheel.schedule(mA, -1, 10);
+    }
+}
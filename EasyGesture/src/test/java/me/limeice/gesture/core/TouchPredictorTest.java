@@ -0,0 +1,75 @@
+package me.limeice.gesture.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TouchPredictorTest {
+
+    private final TouchPredictor mPredictor = new TouchPredictor();
+
+    @Test
+    public void twoPositionsExtrapolateLinearly() {
+        mPredictor.add(0, 0, 0);
+        mPredictor.add(8, 8, 16);
+        assertTrue(mPredictor.predict(16));
+        assertEquals(24, mPredictor.getPredictedX(), 1e-3f);
+        assertEquals(48, mPredictor.getPredictedY(), 1e-3f);
+    }
+
+    @Test
+    public void constantAccelerationIsFollowed() {
+        // x = t²/16，最新位置 t = 40 处速度 5px/ms，再过 8ms 位于 (48)²/16 = 144
+        for (int t = 0; t <= 40; t += 8) mPredictor.add(t, t * t / 16f, 0);
+        assertTrue(mPredictor.predict(8));
+        assertEquals(144, mPredictor.getPredictedX(), 0.01f);
+        assertEquals(0, mPredictor.getPredictedY(), 1e-3f);
+    }
+
+    /**
+     * 加速度项不超过速度项，急停抖动不会外推为反向跳动
+     */
+    @Test
+    public void curvatureIsLimitedByVelocity() {
+        final float[] xs = {0, 16, 32, 48, 60, 64};
+        for (int i = 0; i < xs.length; i++) mPredictor.add(i * 8, xs[i], 0);
+        // 拟合速度约 0.82px/ms、加速度项在 64ms 时约为速度项的 1.6 倍，限幅后两者抵消
+        assertTrue(mPredictor.predict(64));
+        assertEquals(64, mPredictor.getPredictedX(), 1e-3f);
+    }
+
+    @Test
+    public void pauseDropsOldPositions() {
+        mPredictor.add(0, 0, 0);
+        mPredictor.add(8, 10, 0);
+        mPredictor.add(8 + TouchPredictor.ASSUME_STOPPED_TIME + 1, 10, 0);
+        assertFalse(mPredictor.predict(16));
+        assertEquals(10, mPredictor.getPredictedX(), 0);
+    }
+
+    @Test
+    public void positionsOutsideHorizonAreIgnored() {
+        // 窗口外的快速移动不影响窗口内的匀速移动
+        mPredictor.add(0, -1000, 0);
+        for (int t = 30; t <= 30 + TouchPredictor.HORIZON; t += 10) mPredictor.add(t, t, 0);
+        assertTrue(mPredictor.predict(10));
+        assertEquals(100, mPredictor.getPredictedX(), 0.01f);
+    }
+
+    @Test
+    public void noPredictionWithoutMotionHistory() {
+        assertFalse(mPredictor.predict(16));
+        mPredictor.add(0, 5, 6);
+        assertFalse(mPredictor.predict(16));
+        assertEquals(5, mPredictor.getPredictedX(), 0);
+        assertEquals(6, mPredictor.getPredictedY(), 0);
+        mPredictor.add(8, 13, 6);
+        assertFalse(mPredictor.predict(0));
+        assertEquals(13, mPredictor.getPredictedX(), 0);
+        mPredictor.reset();
+        mPredictor.add(100, 1, 1);
+        assertFalse(mPredictor.predict(16));
+    }
+}
@@ -0,0 +1,130 @@
+package me.limeice.gesture.core;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import static me.limeice.gesture.core.Samples.moveWithHistory;
+import static me.limeice.gesture.core.Samples.pair;
+import static me.limeice.gesture.core.Samples.single;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class TraceRoundTripTest {
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private static List<TouchSample> gesture() {
+        final List<TouchSample> samples = new ArrayList<>();
+        samples.add(single(TouchSample.ACTION_DOWN, 1000, 1000, 10, 20));
+        samples.add(moveWithHistory(1000, 1000, 1016, 3, 10, 20, 50, 60));
+        samples.add(pair(TouchSample.ACTION_POINTER_DOWN | (1 << TouchSample.ACTION_POINTER_INDEX_SHIFT),
+                1000, 1020, 50, 60, 200, 210));
+        samples.add(pair(TouchSample.ACTION_MOVE, 1000, 1036, 55, 66, 190, 200));
+        samples.add(pair(TouchSample.ACTION_POINTER_UP | (1 << TouchSample.ACTION_POINTER_INDEX_SHIFT),
+                1000, 1040, 55, 66, 190, 200));
+        samples.add(single(TouchSample.ACTION_UP, 1000, 1050, 56, 67));
+        return samples;
+    }
+
+    private static void assertSample(TouchSample expected, TouchSample actual) {
+        assertEquals(expected.getAction(), actual.getAction());
+        assertEquals(expected.getDownTime(), actual.getDownTime());
+        assertEquals(expected.getEventTime(), actual.getEventTime());
+        assertEquals(expected.getPointerCount(), actual.getPointerCount());
+        for (int i = 0; i < expected.getPointerCount(); i++) {
+            assertEquals(expected.getPointerId(i), actual.getPointerId(i));
+            assertEquals(expected.getX(i), actual.getX(i), 0f);
+            assertEquals(expected.getY(i), actual.getY(i), 0f);
+        }
+        assertEquals(expected.getHistorySize(), actual.getHistorySize());
+        for (int h = 0; h < expected.getHistorySize(); h++) {
+            assertEquals(expected.getHistoricalEventTime(h), actual.getHistoricalEventTime(h));
+            assertEquals(expected.getHistoricalX(0, h), actual.getHistoricalX(0, h), 0f);
+            assertEquals(expected.getHistoricalY(0, h), actual.getHistoricalY(0, h), 0f);
+        }
+    }
+
+    @Test
+    public void recordedSamplesAreReadBack() throws IOException {
+        final File file = mFolder.newFile("trace.egt");
+        final List<TouchSample> samples = gesture();
+        try (TraceRecorder recorder = new TraceRecorder(file)) {
+            for (TouchSample e : samples) recorder.record(e);
+            assertEquals(0, recorder.getDroppedCount());
+        }
+        try (TraceReader reader = new TraceReader(file)) {
+            final List<TouchSample> read = reader.readAll();
+            assertEquals(samples.size(), read.size());
+            for (int i = 0; i < samples.size(); i++) {
+                assertSample(samples.get(i), read.get(i));
+            }
+            assertFalse(reader.next(new TouchSample()));
+
+            reader.rewind();
+            final TouchSample first = new TouchSample();
+            reader.next(first);
+            assertSample(samples.get(0), first);
+        }
+    }
+
+    @Test
+    public void replayedTraceDrivesEngine() throws IOException {
+        final File file = mFolder.newFile("tap.egt");
+        try (TraceRecorder recorder = new TraceRecorder(file)) {
+            recorder.record(single(TouchSample.ACTION_DOWN, 0, 0, 10, 10));
+            recorder.record(single(TouchSample.ACTION_UP, 0, 40, 10, 10));
+        }
+        final int[] taps = new int[1];
+        final VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        final MiniGestureEngine engine = new MiniGestureEngine(new MiniGestureEngine.Callback() {
+            @Override
+            public void onDrag(@NonNull TouchSample e, float dx, float dy) {
+            }
+
+            @Override
+            public void onLongPress(@NonNull TouchSample down) {
+            }
+
+            @Override
+            public void onTap(@NonNull TouchSample e) {
+                taps[0]++;
+            }
+        }, scheduler, scheduler);
+        final GestureReplay replay = new GestureReplay(scheduler);
+        try (TraceReader reader = new TraceReader(file)) {
+            assertEquals(2, reader.replay(replay, engine));
+        }
+        assertEquals(1, taps[0]);
+        assertEquals(2, replay.getEventCount());
+    }
+
+    @Test
+    public void corruptRecordIsRejected() throws IOException {
+        final File file = mFolder.newFile("corrupt.egt");
+        try (TraceRecorder recorder = new TraceRecorder(file)) {
+            recorder.record(single(TouchSample.ACTION_DOWN, 0, 0, 10, 10));
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // 触点数改为 0
+            raf.seek(TraceFormat.HEADER_SIZE + 4 + 20);
+            raf.writeInt(0);
+        }
+        try (TraceReader reader = new TraceReader(file)) {
+            reader.next(new TouchSample());
+            fail("Corrupt record was accepted");
+        } catch (IOException expected) {
+            // 记录损坏
+        }
+    }
+}
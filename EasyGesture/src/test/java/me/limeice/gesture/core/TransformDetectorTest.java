@@ -0,0 +1,132 @@
+package me.limeice.gesture.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static me.limeice.gesture.core.Samples.touch;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TransformDetectorTest {
+
+    private static final int[] ONE = {0};
+    private static final int[] TWO = {0, 1};
+    private static final int[] THREE = {0, 1, 2};
+    private static final float DELTA = 1e-3f;
+
+    private final List<float[]> mTransforms = new ArrayList<>();
+    private TransformDetector mDetector;
+
+    @Before
+    public void setUp() {
+        mDetector = new TransformDetector((scale, rotation, translateX, translateY, focusX, focusY) -> {
+            mTransforms.add(new float[]{scale, rotation, translateX, translateY, focusX, focusY});
+            return true;
+        });
+    }
+
+    private void assertTransform(float scale, float rotation, float tx, float ty, float[] actual) {
+        assertEquals(scale, actual[0], DELTA);
+        assertEquals(rotation, actual[1], DELTA);
+        assertEquals(tx, actual[2], DELTA);
+        assertEquals(ty, actual[3], DELTA);
+    }
+
+    private void twoFingers(float x0, float y0, float x1, float y1) {
+        mDetector.onTouchEvent(touch(TouchSample.ACTION_DOWN, 0, 0, ONE, x0, y0));
+        mDetector.onTouchEvent(touch(TouchSample.ACTION_POINTER_DOWN
+                | (1 << TouchSample.ACTION_POINTER_INDEX_SHIFT), 0, 10, TWO, x0, y0, x1, y1));
+    }
+
+    @Test
+    public void twoFingerRotationIsClockwisePositive() {
+        twoFingers(100, 100, 200, 100);
+        assertEquals(100, mDetector.getSpan(), DELTA);
+        // 屏幕坐标中 (50, 0) 转到 (0, 50) 为顺时针 90 度
+        assertTrue(mDetector.onTouchEvent(touch(TouchSample.ACTION_MOVE, 0, 20, TWO, 150, 50, 150, 150)));
+        assertEquals(1, mTransforms.size());
+        assertTransform(1, 90, 0, 0, mTransforms.get(0));
+        assertEquals(150, mTransforms.get(0)[4], DELTA);
+        assertEquals(100, mTransforms.get(0)[5], DELTA);
+    }
+
+    @Test
+    public void spreadScalesAboutFocus() {
+        mDetector.onTouchEvent(touch(TouchSample.ACTION_DOWN, 0, 0, ONE, 100, 100));
+        mDetector.onTouchEvent(touch(TouchSample.ACTION_POINTER_DOWN
+                | (2 << TouchSample.ACTION_POINTER_INDEX_SHIFT), 0, 10, THREE, 100, 100, 200, 100, 150, 200));
+        mDetector.onTouchEvent(touch(TouchSample.ACTION_MOVE, 0, 20, THREE, 50, 66.667f, 250, 66.667f, 150, 266.667f));
+        assertEquals(1, mTransforms.size());
+        assertTransform(2, 0, 0, 0, mTransforms.get(0));
+    }
+
+    @Test
+    public void dragTranslatesWithoutScaleOrRotation() {
+        twoFingers(100, 100, 200, 100);
+        mDetector.onTouchEvent(touch(TouchSample.ACTION_MOVE, 0, 20, TWO, 110, 95, 210, 95));
+        assertTransform(1, 0, 10, -5, mTransforms.get(0));
+        // 位置不变时不回调
+        assertFalse(mDetector.onTouchEvent(touch(TouchSample.ACTION_MOVE, 0, 30, TWO, 110, 95, 210, 95)));
+        assertEquals(1, mTransforms.size());
+    }
+
+    @Test
+    public void singlePointerOnlyTranslates() {
+        mDetector.onTouchEvent(touch(TouchSample.ACTION_DOWN, 0, 0, ONE, 100, 100));
+        mDetector.onTouchEvent(touch(TouchSample.ACTION_MOVE, 0, 10, ONE, 130, 60));
+        assertTransform(1, 0, 30, -40, mTransforms.get(0));
+    }
+
+    /**
+     * 抬起一指后以剩余触点重新锚定，重心不跳变
+     */
+    @Test
+    public void pointerUpReanchorsWithoutCallback() {
+        mDetector.onTouchEvent(touch(TouchSample.ACTION_DOWN, 0, 0, ONE, 100, 100));
+        mDetector.onTouchEvent(touch(TouchSample.ACTION_POINTER_DOWN
+                | (2 << TouchSample.ACTION_POINTER_INDEX_SHIFT), 0, 10, THREE, 100, 100, 200, 100, 150, 400));
+        assertFalse(mDetector.onTouchEvent(touch(TouchSample.ACTION_POINTER_UP
+                | (2 << TouchSample.ACTION_POINTER_INDEX_SHIFT), 0, 20, THREE, 100, 100, 200, 100, 150, 400)));
+        assertEquals(150, mDetector.getFocusX(), DELTA);
+        assertEquals(100, mDetector.getFocusY(), DELTA);
+        mDetector.onTouchEvent(touch(TouchSample.ACTION_MOVE, 0, 30, TWO, 100, 110, 200, 110));
+        assertEquals(1, mTransforms.size());
+        assertTransform(1, 0, 0, 10, mTransforms.get(0));
+    }
+
+    /**
+     * 触点集合变化而未收到 POINTER 事件时，该次移动只重新锚定
+     */
+    @Test
+    public void unexpectedPointerOnlyReanchors() {
+        mDetector.onTouchEvent(touch(TouchSample.ACTION_DOWN, 0, 0, ONE, 100, 100));
+        assertFalse(mDetector.onTouchEvent(touch(TouchSample.ACTION_MOVE, 0, 10, TWO, 100, 100, 300, 100)));
+        assertTrue(mTransforms.isEmpty());
+        mDetector.onTouchEvent(touch(TouchSample.ACTION_MOVE, 0, 20, TWO, 90, 100, 310, 100));
+        assertTransform(1.1f, 0, 0, 0, mTransforms.get(0));
+    }
+
+    @Test
+    public void outOfRangeIdsAreIgnored() {
+        final int[] ids = {0, TransformDetector.MAX_POINTER_ID};
+        mDetector.onTouchEvent(touch(TouchSample.ACTION_DOWN, 0, 0, ONE, 100, 100));
+        mDetector.onTouchEvent(touch(TouchSample.ACTION_POINTER_DOWN
+                | (1 << TouchSample.ACTION_POINTER_INDEX_SHIFT), 0, 10, ids, 100, 100, 500, 500));
+        mDetector.onTouchEvent(touch(TouchSample.ACTION_MOVE, 0, 20, ids, 105, 100, 900, 900));
+        assertEquals(1, mTransforms.size());
+        assertTransform(1, 0, 5, 0, mTransforms.get(0));
+    }
+
+    @Test
+    public void upResetsUntilNextDown() {
+        twoFingers(100, 100, 200, 100);
+        mDetector.onTouchEvent(touch(TouchSample.ACTION_UP, 0, 20, ONE, 100, 100));
+        assertEquals(0, mDetector.getSpan(), 0);
+        assertFalse(mDetector.onTouchEvent(touch(TouchSample.ACTION_MOVE, 0, 30, ONE, 150, 100)));
+        assertTrue(mTransforms.isEmpty());
+    }
+}
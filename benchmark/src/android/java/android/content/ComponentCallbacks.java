@@ -0,0 +1,13 @@
+package android.content;
+
+import android.content.res.Configuration;
+
+/**
+ * JVM 替身
+ */
+public interface ComponentCallbacks {
+
+    void onConfigurationChanged(Configuration newConfig);
+
+    void onLowMemory();
+}
@@ -0,0 +1,16 @@
+package android.content;
+
+import android.content.res.Resources;
+
+/**
+ * JVM 替身：只提供资源，配置变化从不发生
+ */
+public abstract class Context {
+
+    public abstract Resources getResources();
+
+    public abstract Context getApplicationContext();
+
+    public void registerComponentCallbacks(ComponentCallbacks callback) {
+    }
+}
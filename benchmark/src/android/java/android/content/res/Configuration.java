@@ -0,0 +1,11 @@
+package android.content.res;
+
+import android.util.DisplayMetrics;
+
+/**
+ * JVM 替身
+ */
+public final class Configuration {
+
+    public int densityDpi = DisplayMetrics.DENSITY_DEFAULT;
+}
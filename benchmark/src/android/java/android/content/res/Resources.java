@@ -0,0 +1,26 @@
+package android.content.res;
+
+import android.util.DisplayMetrics;
+
+/**
+ * JVM 替身：只提供屏幕密度
+ */
+public class Resources {
+
+    private final DisplayMetrics mMetrics = new DisplayMetrics();
+    private final Configuration mConfiguration = new Configuration();
+
+    public Resources(int densityDpi) {
+        mMetrics.densityDpi = densityDpi;
+        mMetrics.density = densityDpi / (float) DisplayMetrics.DENSITY_DEFAULT;
+        mConfiguration.densityDpi = densityDpi;
+    }
+
+    public DisplayMetrics getDisplayMetrics() {
+        return mMetrics;
+    }
+
+    public Configuration getConfiguration() {
+        return mConfiguration;
+    }
+}
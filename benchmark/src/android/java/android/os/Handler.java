@@ -0,0 +1,31 @@
+package android.os;
+
+/**
+ * JVM 替身：不投递消息，基准测试中延时任务由时间轮按事件时间直接推进
+ */
+public class Handler {
+
+    private final Looper mLooper;
+
+    public Handler() {
+        this(Looper.myLooper());
+    }
+
+    public Handler(Looper looper) {
+        if (looper == null)
+            throw new RuntimeException("Can't create handler inside thread that has not called Looper.prepare()");
+        mLooper = looper;
+    }
+
+    public final Looper getLooper() {
+        return mLooper;
+    }
+
+    public final boolean postAtTime(Runnable r, long uptimeMillis) {
+        throw new UnsupportedOperationException("Handler stand-in does not deliver messages");
+    }
+
+    public final void removeCallbacks(Runnable r) {
+        throw new UnsupportedOperationException("Handler stand-in does not deliver messages");
+    }
+}
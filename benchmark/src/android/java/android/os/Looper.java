@@ -0,0 +1,22 @@
+package android.os;
+
+/**
+ * JVM 替身：只标识线程，不运行消息循环
+ */
+public final class Looper {
+
+    private static final ThreadLocal<Looper> sThreadLocal = new ThreadLocal<>();
+
+    private Looper() {
+    }
+
+    public static void prepare() {
+        if (sThreadLocal.get() != null)
+            throw new RuntimeException("Only one Looper may be created per thread");
+        sThreadLocal.set(new Looper());
+    }
+
+    public static Looper myLooper() {
+        return sThreadLocal.get();
+    }
+}
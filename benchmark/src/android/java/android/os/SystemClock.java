@@ -0,0 +1,25 @@
+package android.os;
+
+/**
+ * JVM 替身：虚拟的开机时间，由基准测试按回放的事件时间推进
+ */
+public final class SystemClock {
+
+    private static long sUptimeMillis;
+
+    private SystemClock() {
+    }
+
+    public static long uptimeMillis() {
+        return sUptimeMillis;
+    }
+
+    /**
+     * 设置当前时间，仅替身提供
+     *
+     * @param uptimeMillis 时间（毫秒）
+     */
+    public static void setUptimeMillis(long uptimeMillis) {
+        sUptimeMillis = uptimeMillis;
+    }
+}
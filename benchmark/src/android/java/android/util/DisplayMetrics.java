@@ -0,0 +1,12 @@
+package android.util;
+
+/**
+ * JVM 替身
+ */
+public class DisplayMetrics {
+
+    public static final int DENSITY_DEFAULT = 160;
+
+    public float density = 1f;
+    public int densityDpi = DENSITY_DEFAULT;
+}
@@ -0,0 +1,27 @@
+package android.view;
+
+/**
+ * JVM 替身：基准测试不使用按帧合并
+ */
+public final class Choreographer {
+
+    public interface FrameCallback {
+
+        void doFrame(long frameTimeNanos);
+    }
+
+    private Choreographer() {
+    }
+
+    public static Choreographer getInstance() {
+        throw new UnsupportedOperationException("Choreographer stand-in has no frames");
+    }
+
+    public void postFrameCallback(FrameCallback callback) {
+        throw new UnsupportedOperationException("Choreographer stand-in has no frames");
+    }
+
+    public void removeFrameCallback(FrameCallback callback) {
+        throw new UnsupportedOperationException("Choreographer stand-in has no frames");
+    }
+}
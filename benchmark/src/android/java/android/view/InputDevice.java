@@ -0,0 +1,12 @@
+package android.view;
+
+/**
+ * JVM 替身
+ */
+public final class InputDevice {
+
+    public static final int SOURCE_TOUCHSCREEN = 0x00001002;
+
+    private InputDevice() {
+    }
+}
@@ -0,0 +1,256 @@
+package android.view;
+
+/**
+ * JVM 替身：保存触点与批量历史采样，{@link #obtain}与{@link #recycle()}经对象池复用
+ * <p>
+ * 只提供手势检测器用到的方法；另提供{@link #offsetTime(long)}，供基准测试逐轮平移时间，非 Android API。
+ */
+public final class MotionEvent {
+
+    public static final int ACTION_MASK = 0xff;
+    public static final int ACTION_DOWN = 0;
+    public static final int ACTION_UP = 1;
+    public static final int ACTION_MOVE = 2;
+    public static final int ACTION_CANCEL = 3;
+    public static final int ACTION_POINTER_DOWN = 5;
+    public static final int ACTION_POINTER_UP = 6;
+    public static final int ACTION_POINTER_INDEX_MASK = 0xff00;
+    public static final int ACTION_POINTER_INDEX_SHIFT = 8;
+
+    private static final int MAX_RECYCLED = 10;
+    private static final Object sRecyclerLock = new Object();
+    private static int sRecyclerUsed;
+    private static MotionEvent sRecyclerTop;
+
+    private MotionEvent mNext;
+
+    private int mAction;
+    private int mSource;
+    private long mDownTime;
+    private int mPointerCount;
+    private int mSampleCount;                   // 历史采样数 + 1
+    private int[] mIds = new int[2];
+    private long[] mTimes = new long[4];        // 按采样排列，最后一个为当前采样
+    private float[] mXs = new float[8];         // 按 [采样 * 触点数 + 触点] 排列
+    private float[] mYs = new float[8];
+
+    public static final class PointerProperties {
+
+        public int id;
+        public int toolType;
+
+        public void clear() {
+            id = -1;
+            toolType = 0;
+        }
+    }
+
+    public static final class PointerCoords {
+
+        public float x;
+        public float y;
+        public float pressure;
+        public float size;
+
+        public void clear() {
+            x = y = pressure = size = 0;
+        }
+    }
+
+    private MotionEvent() {
+    }
+
+    private static MotionEvent obtain() {
+        synchronized (sRecyclerLock) {
+            final MotionEvent e = sRecyclerTop;
+            if (e == null) return new MotionEvent();
+            sRecyclerTop = e.mNext;
+            sRecyclerUsed--;
+            e.mNext = null;
+            return e;
+        }
+    }
+
+    public static MotionEvent obtain(
+            long downTime,
+            long eventTime,
+            int action,
+            int pointerCount,
+            PointerProperties[] pointerProperties,
+            PointerCoords[] pointerCoords,
+            int metaState,
+            int buttonState,
+            float xPrecision,
+            float yPrecision,
+            int deviceId,
+            int edgeFlags,
+            int source,
+            int flags
+    ) {
+        final MotionEvent e = obtain();
+        e.init(downTime, action, source, pointerCount);
+        for (int i = 0; i < pointerCount; i++) e.mIds[i] = pointerProperties[i].id;
+        e.appendSample(eventTime, pointerCoords);
+        return e;
+    }
+
+    public static MotionEvent obtain(long downTime, long eventTime, int action, float x, float y, int metaState) {
+        final MotionEvent e = obtain();
+        e.init(downTime, action, InputDevice.SOURCE_TOUCHSCREEN, 1);
+        e.mIds[0] = 0;
+        e.ensureSamples(1);
+        e.mTimes[0] = eventTime;
+        e.mXs[0] = x;
+        e.mYs[0] = y;
+        e.mSampleCount = 1;
+        return e;
+    }
+
+    public static MotionEvent obtain(MotionEvent other) {
+        final MotionEvent e = obtain();
+        e.init(other.mDownTime, other.mAction, other.mSource, other.mPointerCount);
+        System.arraycopy(other.mIds, 0, e.mIds, 0, other.mPointerCount);
+        e.ensureSamples(other.mSampleCount);
+        final int values = other.mSampleCount * other.mPointerCount;
+        System.arraycopy(other.mTimes, 0, e.mTimes, 0, other.mSampleCount);
+        System.arraycopy(other.mXs, 0, e.mXs, 0, values);
+        System.arraycopy(other.mYs, 0, e.mYs, 0, values);
+        e.mSampleCount = other.mSampleCount;
+        return e;
+    }
+
+    public void recycle() {
+        synchronized (sRecyclerLock) {
+            if (sRecyclerUsed < MAX_RECYCLED) {
+                sRecyclerUsed++;
+                mNext = sRecyclerTop;
+                sRecyclerTop = this;
+            }
+        }
+    }
+
+    /**
+     * 追加一个采样，之前的当前采样成为历史采样
+     */
+    public void addBatch(long eventTime, PointerCoords[] pointerCoords, int metaState) {
+        appendSample(eventTime, pointerCoords);
+    }
+
+    /**
+     * 按下时间与全部采样时间平移，仅替身提供
+     *
+     * @param deltaMillis 平移量（毫秒）
+     */
+    public void offsetTime(long deltaMillis) {
+        mDownTime += deltaMillis;
+        for (int s = 0; s < mSampleCount; s++) mTimes[s] += deltaMillis;
+    }
+
+    public int getAction() {
+        return mAction;
+    }
+
+    public int getActionMasked() {
+        return mAction & ACTION_MASK;
+    }
+
+    public int getActionIndex() {
+        return (mAction & ACTION_POINTER_INDEX_MASK) >> ACTION_POINTER_INDEX_SHIFT;
+    }
+
+    public int getSource() {
+        return mSource;
+    }
+
+    public long getDownTime() {
+        return mDownTime;
+    }
+
+    public long getEventTime() {
+        return mTimes[mSampleCount - 1];
+    }
+
+    public int getPointerCount() {
+        return mPointerCount;
+    }
+
+    public int getPointerId(int pointerIndex) {
+        return mIds[pointerIndex];
+    }
+
+    public int findPointerIndex(int pointerId) {
+        for (int i = 0; i < mPointerCount; i++) {
+            if (mIds[i] == pointerId) return i;
+        }
+        return -1;
+    }
+
+    public float getX() {
+        return getX(0);
+    }
+
+    public float getY() {
+        return getY(0);
+    }
+
+    public float getX(int pointerIndex) {
+        return mXs[(mSampleCount - 1) * mPointerCount + pointerIndex];
+    }
+
+    public float getY(int pointerIndex) {
+        return mYs[(mSampleCount - 1) * mPointerCount + pointerIndex];
+    }
+
+    public int getHistorySize() {
+        return mSampleCount - 1;
+    }
+
+    public long getHistoricalEventTime(int pos) {
+        return mTimes[pos];
+    }
+
+    public float getHistoricalX(int pointerIndex, int pos) {
+        return mXs[pos * mPointerCount + pointerIndex];
+    }
+
+    public float getHistoricalY(int pointerIndex, int pos) {
+        return mYs[pos * mPointerCount + pointerIndex];
+    }
+
+    private void init(long downTime, int action, int source, int pointerCount) {
+        mDownTime = downTime;
+        mAction = action;
+        mSource = source;
+        mPointerCount = pointerCount;
+        mSampleCount = 0;
+        if (mIds.length < pointerCount) mIds = new int[pointerCount];
+    }
+
+    private void appendSample(long eventTime, PointerCoords[] pointerCoords) {
+        ensureSamples(mSampleCount + 1);
+        final int o = mSampleCount * mPointerCount;
+        for (int i = 0; i < mPointerCount; i++) {
+            mXs[o + i] = pointerCoords[i].x;
+            mYs[o + i] = pointerCoords[i].y;
+        }
+        mTimes[mSampleCount++] = eventTime;
+    }
+
+    private void ensureSamples(int samples) {
+        if (mTimes.length < samples) {
+            final long[] times = new long[Math.max(samples, mTimes.length << 1)];
+            System.arraycopy(mTimes, 0, times, 0, mSampleCount);
+            mTimes = times;
+        }
+        final int values = samples * mPointerCount;
+        if (mXs.length < values) {
+            final int capacity = Math.max(values, mXs.length << 1);
+            final float[] xs = new float[capacity];
+            final float[] ys = new float[capacity];
+            System.arraycopy(mXs, 0, xs, 0, mSampleCount * mPointerCount);
+            System.arraycopy(mYs, 0, ys, 0, mSampleCount * mPointerCount);
+            mXs = xs;
+            mYs = ys;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package android.view;
+
+import android.content.Context;
+
+/**
+ * JVM 替身：取 Android 默认值按屏幕密度换算
+ */
+public class ViewConfiguration {
+
+    private static final int TOUCH_SLOP = 8;
+    private static final int DOUBLE_TAP_SLOP = 100;
+    private static final int MINIMUM_FLING_VELOCITY = 50;
+    private static final int MAXIMUM_FLING_VELOCITY = 8000;
+
+    private final float mDensity;
+
+    private ViewConfiguration(float density) {
+        mDensity = density;
+    }
+
+    public static ViewConfiguration get(Context context) {
+        return new ViewConfiguration(context.getResources().getDisplayMetrics().density);
+    }
+
+    public int getScaledTouchSlop() {
+        return (int) (TOUCH_SLOP * mDensity + 0.5f);
+    }
+
+    public int getScaledDoubleTapSlop() {
+        return (int) (DOUBLE_TAP_SLOP * mDensity + 0.5f);
+    }
+
+    public int getScaledMinimumFlingVelocity() {
+        return (int) (MINIMUM_FLING_VELOCITY * mDensity + 0.5f);
+    }
+
+    public int getScaledMaximumFlingVelocity() {
+        return (int) (MAXIMUM_FLING_VELOCITY * mDensity + 0.5f);
+    }
+}
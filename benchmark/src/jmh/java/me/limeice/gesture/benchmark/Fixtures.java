@@ -0,0 +1,131 @@
+package me.limeice.gesture.benchmark;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.util.DisplayMetrics;
+import android.view.InputDevice;
+import android.view.MotionEvent;
+
+import me.limeice.gesture.core.GestureClock;
+import me.limeice.gesture.core.TimerWheelScheduler;
+import me.limeice.gesture.core.TouchSample;
+
+/**
+ * 基准测试替身
+ */
+final class Fixtures {
+
+    /**
+     * 相邻两轮事件流之间的空闲时间（毫秒），长于所有超时
+     */
+    private static final long ROUND_GAP = 1000;
+
+    private Fixtures() {
+    }
+
+    /**
+     * 回放时间：停在当前事件时间的时钟，事件到达没有延迟；驱动时间轮，
+     * 与{@code LooperScheduler}的唤醒消息一样只在到期时推进，到期任务先于该时刻的事件触发
+     */
+    static final class ReplayClock implements GestureClock, TimerWheelScheduler.Driver {
+
+        private final TimerWheelScheduler mWheel = new TimerWheelScheduler(this, 10, 64, this); // 参数同 LooperScheduler
+        private long mNow;
+        private long mWakeUpAt = Long.MAX_VALUE;    // 请求的唤醒时间
+
+        TimerWheelScheduler getScheduler() {
+            return mWheel;
+        }
+
+        /**
+         * 推进到指定时间，触发其间到期的任务
+         *
+         * @param time 时间（毫秒），不早于之前的时间
+         */
+        void advanceTo(long time) {
+            mNow = time;
+            if (time >= mWakeUpAt) {
+                mWakeUpAt = Long.MAX_VALUE;
+                mWheel.advance();
+            }
+        }
+
+        @Override
+        public long now() {
+            return mNow;
+        }
+
+        @Override
+        public void wakeUpAt(long deadline) {
+            mWakeUpAt = deadline;
+        }
+    }
+
+    /**
+     * 事件流每轮回放的平移量，保证各轮之间时间单调递增
+     *
+     * @param events 事件流
+     * @return 平移量（毫秒）
+     */
+    static long spanOf(TouchSample[] events) {
+        return events[events.length - 1].getEventTime() - events[0].getDownTime() + ROUND_GAP;
+    }
+
+    /**
+     * 将采样整体平移，回放前逐事件调用
+     *
+     * @param e     采样，不含历史采样
+     * @param delta 平移量（毫秒）
+     */
+    static void shift(TouchSample e, long delta) {
+        e.set(e.getAction(), e.getDownTime() + delta, e.getEventTime() + delta, e.getPointerCount());
+    }
+
+    /**
+     * 将事件流转为触摸事件
+     *
+     * @param events 事件流
+     * @return 触摸事件，基准测试期间不回收
+     */
+    static MotionEvent[] toMotionEvents(TouchSample[] events) {
+        final MotionEvent[] result = new MotionEvent[events.length];
+        for (int n = 0; n < events.length; n++) {
+            final TouchSample e = events[n];
+            final int count = e.getPointerCount();
+            final MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[count];
+            final MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[count];
+            for (int i = 0; i < count; i++) {
+                properties[i] = new MotionEvent.PointerProperties();
+                properties[i].id = e.getPointerId(i);
+                coords[i] = new MotionEvent.PointerCoords();
+                coords[i].x = e.getX(i);
+                coords[i].y = e.getY(i);
+                coords[i].pressure = 1f;
+                coords[i].size = 1f;
+            }
+            result[n] = MotionEvent.obtain(e.getDownTime(), e.getEventTime(), e.getAction(), count,
+                    properties, coords, 0, 0, 1f, 1f, 0, 0, InputDevice.SOURCE_TOUCHSCREEN, 0);
+        }
+        return result;
+    }
+
+    /**
+     * 默认密度（160dpi）的上下文，换算后的触摸阈值与快速滑动速度同引擎基准
+     *
+     * @return 上下文
+     */
+    static Context context() {
+        final Resources resources = new Resources(DisplayMetrics.DENSITY_DEFAULT);
+        return new Context() {
+            @Override
+            public Resources getResources() {
+                return resources;
+            }
+
+            @Override
+            public Context getApplicationContext() {
+                return this;
+            }
+        };
+    }
+}
@@ -0,0 +1,108 @@
+package me.limeice.gesture.benchmark;
+
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import androidx.annotation.NonNull;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import me.limeice.gesture.GestureLite;
+import me.limeice.gesture.core.TouchSample;
+
+/**
+ * {@link GestureLite#onTouchEvent(MotionEvent)}完整路径基准，结果单位为 ns/事件，
+ * 包含事件转换、识别与监听器转发，监听器覆盖{@link MotionEvent}版本的方法；
+ * {@link MotionEvent}等平台类由 JVM 替身提供，延时任务改由同参数的时间轮按事件时间推进
+ */
+@State(Scope.Thread)
+public class GestureLiteAdapterBenchmark {
+
+    @Param({"TAP", "DOUBLE_TAP", "DRAG", "PINCH", "FLING"})
+    public Workload workload;
+
+    private MotionEvent[] mEvents;
+    private long mSpan;
+    private GestureLite mDetector;
+    private Fixtures.ReplayClock mClock;
+    private float mSum;
+
+    @Setup
+    public void setup() {
+        if (Looper.myLooper() == null) Looper.prepare();
+        final TouchSample[] samples = workload.build();
+        mEvents = Fixtures.toMotionEvents(samples);
+        mSpan = Fixtures.spanOf(samples);
+        mClock = new Fixtures.ReplayClock();
+        SystemClock.setUptimeMillis(0);
+        mDetector = new GestureLite(Fixtures.context(), new GestureLite.OnGestureListener() {
+
+            @Override
+            public boolean onDown(@NonNull MotionEvent e) {
+                return true;
+            }
+
+            @Override
+            public void onTap(@NonNull MotionEvent e) {
+                mSum++;
+            }
+
+            @Override
+            public void onDoubleTap(@NonNull MotionEvent e) {
+                mSum++;
+            }
+
+            @Override
+            public boolean onScroll(
+                    @NonNull MotionEvent down,
+                    @NonNull MotionEvent e,
+                    float distanceX,
+                    float distanceY
+            ) {
+                mSum += distanceX + distanceY;
+                return true;
+            }
+
+            @Override
+            public boolean onScale(float scale, float focusX, float focusY) {
+                mSum += scale;
+                return true;
+            }
+
+            @Override
+            public boolean onFling(
+                    @NonNull MotionEvent down,
+                    @NonNull MotionEvent e,
+                    float velocityX,
+                    float velocityY
+            ) {
+                mSum += velocityX + velocityY;
+                return true;
+            }
+        }).setScheduler(mClock.getScheduler())
+                .setScrollEnable(true)
+                .setScaleEnable(true)
+                .setFlingEnable(true)
+                .setLongPressEnable(true)
+                .setDoubleTapEnable(true);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.EVENTS)
+    public void onTouchEvent(Blackhole bh) {
+        for (MotionEvent e : mEvents) {
+            e.offsetTime(mSpan);
+            SystemClock.setUptimeMillis(e.getEventTime());
+            mClock.advanceTo(e.getEventTime());
+            bh.consume(mDetector.onTouchEvent(e));
+        }
+        bh.consume(mSum);
+    }
+}
@@ -0,0 +1,89 @@
+package me.limeice.gesture.benchmark;
+
+import androidx.annotation.NonNull;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import me.limeice.gesture.core.GestureLiteEngine;
+import me.limeice.gesture.core.PointerVelocityEstimator;
+import me.limeice.gesture.core.TouchSample;
+
+/**
+ * {@link GestureLiteEngine}识别核心基准，结果单位为 ns/事件，
+ * 配合 gc 分析器的{@code gc.alloc.rate.norm}得到每事件分配字节数；
+ * 不含{@link android.view.MotionEvent}转换与监听器转发，完整路径见{@link GestureLiteAdapterBenchmark}
+ */
+@State(Scope.Thread)
+public class GestureLiteBenchmark {
+
+    @Param({"TAP", "DOUBLE_TAP", "DRAG", "PINCH", "FLING"})
+    public Workload workload;
+
+    private TouchSample[] mEvents;
+    private long mSpan;
+    private GestureLiteEngine mEngine;
+    private Fixtures.ReplayClock mClock;
+
+    @Setup
+    public void setup() {
+        mEvents = workload.build();
+        mSpan = Fixtures.spanOf(mEvents);
+        mClock = new Fixtures.ReplayClock();
+        mEngine = new GestureLiteEngine(new GestureLiteEngine.Callback() {
+
+            @Override
+            public boolean onDown(@NonNull TouchSample e) {
+                return true;
+            }
+
+            @Override
+            public boolean onScroll(
+                    @NonNull TouchSample down,
+                    @NonNull TouchSample e,
+                    float distanceX,
+                    float distanceY
+            ) {
+                return true;
+            }
+
+            @Override
+            public boolean onScale(float scale, float focusX, float focusY) {
+                return true;
+            }
+
+            @Override
+            public boolean onFling(
+                    @NonNull TouchSample down,
+                    @NonNull TouchSample e,
+                    float velocityX,
+                    float velocityY
+            ) {
+                return true;
+            }
+        }, mClock, mClock.getScheduler(), new PointerVelocityEstimator());
+        mEngine.setSlop(8, 100)
+                .setFlingVelocity(50, 8000)
+                .setScrollEnable(true)
+                .setScaleEnable(true)
+                .setFlingEnable(true)
+                .setLongPressEnable(true)
+                .setDoubleTapEnable(true);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.EVENTS)
+    public void onTouchEvent(Blackhole bh) {
+        final TouchSample[] events = mEvents;
+        for (TouchSample e : events) {
+            Fixtures.shift(e, mSpan);
+            mClock.advanceTo(e.getEventTime());
+            bh.consume(mEngine.onTouchEvent(e));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package me.limeice.gesture.benchmark;
+
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import androidx.annotation.NonNull;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import me.limeice.gesture.MiniGesture;
+import me.limeice.gesture.core.TouchSample;
+
+/**
+ * {@link MiniGesture#onTouchEvent(MotionEvent)}完整路径基准，结果单位为 ns/事件，
+ * 包含事件转换、识别与监听器转发；{@link MotionEvent}等平台类由 JVM 替身提供，
+ * 延时任务改由同参数的时间轮按事件时间推进
+ */
+@State(Scope.Thread)
+public class MiniGestureAdapterBenchmark {
+
+    @Param({"TAP", "DOUBLE_TAP", "DRAG"})
+    public Workload workload;
+
+    private MotionEvent[] mEvents;
+    private long mSpan;
+    private MiniGesture mDetector;
+    private Fixtures.ReplayClock mClock;
+    private float mSum;
+
+    @Setup
+    public void setup() {
+        if (Looper.myLooper() == null) Looper.prepare();
+        final TouchSample[] samples = workload.build();
+        mEvents = Fixtures.toMotionEvents(samples);
+        mSpan = Fixtures.spanOf(samples);
+        mClock = new Fixtures.ReplayClock();
+        SystemClock.setUptimeMillis(0);
+        mDetector = new MiniGesture(Fixtures.context()).setScheduler(mClock.getScheduler())
+                .setOnGestureListener(new MiniGesture.OnGestureListener() {
+
+                    @Override
+                    public void onDrag(@NonNull MotionEvent event, float dx, float dy) {
+                        mSum += dx + dy;
+                    }
+
+                    @Override
+                    public void onLongPress(@NonNull MotionEvent event) {
+                    }
+
+                    @Override
+                    public void onTap(@NonNull MotionEvent event) {
+                        mSum++;
+                    }
+                });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.EVENTS)
+    public void onTouchEvent(Blackhole bh) {
+        for (MotionEvent e : mEvents) {
+            e.offsetTime(mSpan);
+            SystemClock.setUptimeMillis(e.getEventTime());
+            mClock.advanceTo(e.getEventTime());
+            bh.consume(mDetector.onTouchEvent(e));
+        }
+        bh.consume(mSum);
+    }
+}
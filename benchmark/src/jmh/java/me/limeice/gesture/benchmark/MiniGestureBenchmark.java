@@ -0,0 +1,66 @@
+package me.limeice.gesture.benchmark;
+
+import androidx.annotation.NonNull;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import me.limeice.gesture.core.MiniGestureEngine;
+import me.limeice.gesture.core.TouchSample;
+
+/**
+ * {@link MiniGestureEngine}识别核心基准，结果单位为 ns/事件，不含{@link android.view.MotionEvent}转换与监听器转发，
+ * 完整路径见{@link MiniGestureAdapterBenchmark}
+ */
+@State(Scope.Thread)
+public class MiniGestureBenchmark {
+
+    @Param({"TAP", "DOUBLE_TAP", "DRAG"})
+    public Workload workload;
+
+    private TouchSample[] mEvents;
+    private long mSpan;
+    private Fixtures.ReplayClock mClock;
+    private MiniGestureEngine mEngine;
+    private float mSum;
+
+    @Setup
+    public void setup() {
+        mEvents = workload.build();
+        mSpan = Fixtures.spanOf(mEvents);
+        mClock = new Fixtures.ReplayClock();
+        mEngine = new MiniGestureEngine(new MiniGestureEngine.Callback() {
+
+            @Override
+            public void onDrag(@NonNull TouchSample e, float dx, float dy) {
+                mSum += dx + dy;
+            }
+
+            @Override
+            public void onLongPress(@NonNull TouchSample down) {
+            }
+
+            @Override
+            public void onTap(@NonNull TouchSample e) {
+                mSum++;
+            }
+        }, mClock, mClock.getScheduler());
+        mEngine.setTouchSlop(8);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.EVENTS)
+    public void onTouchEvent(Blackhole bh) {
+        for (TouchSample e : mEvents) {
+            Fixtures.shift(e, mSpan);
+            mClock.advanceTo(e.getEventTime());
+            bh.consume(mEngine.onTouchEvent(e));
+        }
+        bh.consume(mSum);
+    }
+}
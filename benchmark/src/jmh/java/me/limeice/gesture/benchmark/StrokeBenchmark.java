@@ -0,0 +1,94 @@
+package me.limeice.gesture.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+import me.limeice.gesture.core.StrokeLibrary;
+import me.limeice.gesture.core.StrokeRecognizer;
+import me.limeice.gesture.core.VirtualTimeScheduler;
+
+/**
+ * 笔画识别基准，结果单位为 ns/笔迹，模板库由基本图形与随机折线组成
+ */
+@State(Scope.Thread)
+public class StrokeBenchmark {
+
+    @Param({"16", "400"})
+    public int templates;
+
+    private StrokeRecognizer mRecognizer;
+    private float[][] mStrokes;
+    private int mNext;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        final StrokeLibrary library = new StrokeLibrary();
+        library.add("circle", circle(0));
+        library.add("check", polyline(0, 50, 30, 80, 100, 0));
+        library.add("triangle", polyline(50, 0, 100, 100, 0, 100, 50, 0));
+        library.add("zigzag", polyline(0, 0, 25, 100, 50, 0, 75, 100, 100, 0));
+        while (library.size() < templates) {
+            final float[] vertices = new float[(3 + random.nextInt(4)) * 2];
+            for (int i = 0; i < vertices.length; i++) vertices[i] = random.nextFloat() * 100;
+            library.add("random", polyline(vertices));
+        }
+        mRecognizer = new StrokeRecognizer(library, (name, score) -> {
+        }, new VirtualTimeScheduler());
+        mStrokes = new float[][]{
+                jitter(circle(0.5), random),
+                jitter(polyline(0, 50, 30, 80, 100, 0), random),
+                jitter(polyline(50, 0, 0, 100, 100, 100, 50, 0), random),
+                jitter(polyline(0, 0, 30, 90, 60, 10, 90, 80), random)
+        };
+    }
+
+    @Benchmark
+    public int recognize() {
+        final float[] stroke = mStrokes[mNext];
+        mNext = (mNext + 1) % mStrokes.length;
+        return mRecognizer.recognize(stroke);
+    }
+
+    private static float[] circle(double phase) {
+        final float[] points = new float[64 * 2];
+        for (int i = 0; i < 64; i++) {
+            final double angle = phase + 2 * Math.PI * i / 63;
+            points[i * 2] = (float) (50 + 40 * Math.cos(angle));
+            points[i * 2 + 1] = (float) (50 + 40 * Math.sin(angle));
+        }
+        return points;
+    }
+
+    /**
+     * 顶点之间各插入 10 个点
+     */
+    private static float[] polyline(float... vertices) {
+        final int segments = vertices.length / 2 - 1;
+        final float[] points = new float[(segments * 10 + 1) * 2];
+        int k = 0;
+        for (int s = 0; s < segments; s++) {
+            for (int i = 0; i < 10; i++) {
+                final float t = i / 10f;
+                points[k++] = vertices[s * 2] + t * (vertices[s * 2 + 2] - vertices[s * 2]);
+                points[k++] = vertices[s * 2 + 1] + t * (vertices[s * 2 + 3] - vertices[s * 2 + 1]);
+            }
+        }
+        points[k++] = vertices[vertices.length - 2];
+        points[k] = vertices[vertices.length - 1];
+        return points;
+    }
+
+    private static float[] jitter(float[] points, Random random) {
+        final float[] out = new float[points.length];
+        for (int i = 0; i < points.length; i++) {
+            out[i] = points[i] * 2f + (float) random.nextGaussian() * 2f;
+        }
+        return out;
+    }
+}
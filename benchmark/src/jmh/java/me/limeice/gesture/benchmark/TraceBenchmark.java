@@ -0,0 +1,82 @@
+package me.limeice.gesture.benchmark;
+
+import androidx.annotation.NonNull;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+
+import me.limeice.gesture.core.GestureLiteEngine;
+import me.limeice.gesture.core.GestureReplay;
+import me.limeice.gesture.core.PointerVelocityEstimator;
+import me.limeice.gesture.core.TouchSample;
+import me.limeice.gesture.core.TraceReader;
+import me.limeice.gesture.core.TraceRecorder;
+import me.limeice.gesture.core.VirtualTimeScheduler;
+
+/**
+ * 轨迹回放基准，结果单位为 ns/轨迹，包含内存映射解码与识别，超时任务按虚拟时间触发
+ * <p>
+ * 以{@code -p trace=<文件>}指定设备上录制的轨迹，为空时录制一段合成会话。
+ */
+@State(Scope.Thread)
+public class TraceBenchmark {
+
+    @Param({""})
+    public String trace;
+
+    private File mTemp;
+    private TraceReader mReader;
+
+    @Setup
+    public void setup() throws IOException {
+        File file;
+        if (trace.isEmpty()) {
+            mTemp = file = File.createTempFile("gesture", ".trace");
+            try (TraceRecorder recorder = new TraceRecorder(file)) {
+                for (TouchSample e : Workload.session(50)) {
+                    while (!recorder.record(e)) recorder.flush();
+                }
+            }
+        } else {
+            file = new File(trace);
+        }
+        mReader = new TraceReader(file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        mReader.close();
+        if (mTemp != null && !mTemp.delete()) mTemp.deleteOnExit();
+    }
+
+    @Benchmark
+    public int replay() throws IOException {
+        final VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        final GestureLiteEngine engine = new GestureLiteEngine(new GestureLiteEngine.Callback() {
+
+            @Override
+            public boolean onDown(@NonNull TouchSample e) {
+                return true;
+            }
+        }, scheduler, scheduler, new PointerVelocityEstimator());
+        engine.setSlop(8, 100)
+                .setFlingVelocity(50, 8000)
+                .setScrollEnable(true)
+                .setScaleEnable(true)
+                .setFlingEnable(true)
+                .setLongPressEnable(true)
+                .setDoubleTapEnable(true);
+        mReader.rewind();
+        final GestureReplay replay = new GestureReplay(scheduler);
+        final int handled = mReader.replay(replay, engine);
+        replay.finish(1000);
+        return handled;
+    }
+}
@@ -0,0 +1,190 @@
+package me.limeice.gesture.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import me.limeice.gesture.core.TouchSample;
+
+/**
+ * 基准测试使用的触摸事件流，模拟 120Hz 采样
+ * <p>
+ * 每种事件流都由完整手势重复组成，长度固定为{@link #EVENTS}，便于以“每事件”为单位输出结果。
+ */
+public enum Workload {
+
+    /**
+     * 单击，2 事件 × 120
+     */
+    TAP {
+        @Override
+        void append(Stream s) {
+            s.down(200, 300).up(60).pause(400);
+        }
+    },
+
+    /**
+     * 双击，4 事件 × 60
+     */
+    DOUBLE_TAP {
+        @Override
+        void append(Stream s) {
+            s.down(200, 300).up(60).pause(90).down(200, 300).up(60).pause(600);
+        }
+    },
+
+    /**
+     * 长距离拖动，120 事件 × 2
+     */
+    DRAG {
+        @Override
+        void append(Stream s) {
+            s.down(100, 100);
+            for (int i = 0; i < 118; i++) s.move(3, 4);
+            s.up(FRAME).pause(400);
+        }
+    },
+
+    /**
+     * 双指缩放，120 事件 × 2
+     */
+    PINCH {
+        @Override
+        void append(Stream s) {
+            s.down(300, 500).pointerDown(500, 500);
+            for (int i = 0; i < 116; i++) s.spread(2);
+            s.pointerUp().up(FRAME).pause(400);
+        }
+    },
+
+    /**
+     * 快速滑动，24 事件 × 10
+     */
+    FLING {
+        @Override
+        void append(Stream s) {
+            s.down(400, 1200);
+            for (int i = 0; i < 22; i++) s.move(0, -30);
+            s.up(FRAME).pause(400);
+        }
+    };
+
+    /**
+     * 每条事件流的事件数
+     */
+    public static final int EVENTS = 240;
+
+    /**
+     * 采样间隔（毫秒）
+     */
+    static final int FRAME = 8;
+
+    abstract void append(Stream s);
+
+    /**
+     * 生成事件流
+     *
+     * @return 事件流
+     */
+    public TouchSample[] build() {
+        final Stream s = new Stream();
+        while (s.size() < EVENTS) append(s);
+        if (s.size() != EVENTS)
+            throw new IllegalStateException(name() + " does not fill " + EVENTS + " events");
+        return s.toArray();
+    }
+
+    /**
+     * 生成依次轮换全部手势的会话，事件时间单调递增
+     *
+     * @param rounds 轮数
+     * @return 事件流
+     */
+    public static TouchSample[] session(int rounds) {
+        final Stream s = new Stream();
+        for (int r = 0; r < rounds; r++) {
+            for (Workload w : values()) w.append(s);
+        }
+        return s.toArray();
+    }
+
+    /**
+     * 事件流构造器，最多两个触点
+     */
+    static final class Stream {
+
+        private final List<TouchSample> mEvents = new ArrayList<>();
+        private long mTime;
+        private long mDownTime;
+        private int mCount;
+        private final float[] mXs = new float[2];
+        private final float[] mYs = new float[2];
+
+        int size() {
+            return mEvents.size();
+        }
+
+        TouchSample[] toArray() {
+            return mEvents.toArray(new TouchSample[0]);
+        }
+
+        Stream pause(long millis) {
+            mTime += millis;
+            return this;
+        }
+
+        Stream down(float x, float y) {
+            mTime += FRAME;
+            mDownTime = mTime;
+            mCount = 1;
+            mXs[0] = x;
+            mYs[0] = y;
+            return emit(TouchSample.ACTION_DOWN);
+        }
+
+        Stream pointerDown(float x, float y) {
+            mTime += FRAME;
+            mXs[1] = x;
+            mYs[1] = y;
+            mCount = 2;
+            return emit(TouchSample.ACTION_POINTER_DOWN | (1 << TouchSample.ACTION_POINTER_INDEX_SHIFT));
+        }
+
+        Stream move(float dx, float dy) {
+            mTime += FRAME;
+            for (int i = 0; i < mCount; i++) {
+                mXs[i] += dx;
+                mYs[i] += dy;
+            }
+            return emit(TouchSample.ACTION_MOVE);
+        }
+
+        /**
+         * 两触点沿横轴对称张开
+         */
+        Stream spread(float d) {
+            mTime += FRAME;
+            mXs[0] -= d;
+            mXs[1] += d;
+            return emit(TouchSample.ACTION_MOVE);
+        }
+
+        Stream pointerUp() {
+            mTime += FRAME;
+            emit(TouchSample.ACTION_POINTER_UP | (1 << TouchSample.ACTION_POINTER_INDEX_SHIFT));
+            mCount = 1;
+            return this;
+        }
+
+        Stream up(long after) {
+            mTime += after;
+            return emit(TouchSample.ACTION_UP);
+        }
+
+        private Stream emit(int action) {
+            final TouchSample e = new TouchSample().set(action, mDownTime, mTime, mCount);
+            for (int i = 0; i < mCount; i++) e.setPointer(i, i, mXs[i], mYs[i]);
+            mEvents.add(e);
+            return this;
+        }
+    }
+}